@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.cache.client.PoolManager;
+import org.apache.geode.internal.cache.PoolStats;
+import org.apache.geode.test.dunit.rules.ClusterStartupRule;
+import org.apache.geode.test.dunit.rules.MemberVM;
+import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
+
+@Category({ClientSubscriptionTest.class})
+public class NearCacheDistributedTest {
+
+  private int locatorPort;
+  private MemberVM server;
+  private MemberVM peer;
+  private ClientCache clientCache;
+
+  @Rule
+  public ClusterStartupRule cluster = new ClusterStartupRule();
+
+  @Before
+  public void before() {
+    MemberVM locator = cluster.startLocatorVM(0);
+    int port = locator.getPort();
+    locatorPort = port;
+    server = cluster.startServerVM(1, port);
+    peer = cluster.startServerVM(2, s -> s.withNoCacheServer().withConnectionToLocator(port));
+    NearCache.MAX_ENTRIES = 100;
+  }
+
+  @After
+  public void after() {
+    NearCache.MAX_ENTRIES = 0;
+    if (clientCache != null) {
+      clientCache.close();
+    }
+  }
+
+  @Test
+  public void putOnPeerInvalidatesNearCacheOfReplicatedRegion() {
+    createServerRegions(RegionShortcut.REPLICATE);
+    Region<String, String> region = createClientRegion();
+    PoolStats stats = ((PoolImpl) PoolManager.find(region)).getStats();
+
+    putOnPeer("value1");
+    assertThat(region.get("key")).isEqualTo("value1");
+    assertThat(region.get("key")).isEqualTo("value1");
+    assertThat(stats.getNearCacheHits()).isEqualTo(1);
+
+    putOnPeer("value2");
+    await().untilAsserted(() -> assertThat(region.get("key")).isEqualTo("value2"));
+  }
+
+  @Test
+  public void partitionedRegionIsNotNearCached() {
+    createServerRegions(RegionShortcut.PARTITION);
+    Region<String, String> region = createClientRegion();
+    PoolStats stats = ((PoolImpl) PoolManager.find(region)).getStats();
+
+    putOnPeer("value1");
+    assertThat(region.get("key")).isEqualTo("value1");
+    assertThat(region.get("key")).isEqualTo("value1");
+
+    putOnPeer("value2");
+    assertThat(region.get("key")).isEqualTo("value2");
+    assertThat(stats.getNearCacheHits()).isZero();
+  }
+
+  private void createServerRegions(RegionShortcut shortcut) {
+    for (MemberVM member : new MemberVM[] {server, peer}) {
+      member.invoke(
+          () -> ClusterStartupRule.getCache().createRegionFactory(shortcut).create("region"));
+    }
+  }
+
+  private Region<String, String> createClientRegion() {
+    clientCache = new ClientCacheFactory().addPoolLocator("localhost", locatorPort)
+        .setPoolSubscriptionEnabled(true).create();
+    return clientCache.<String, String>createClientRegionFactory(ClientRegionShortcut.PROXY)
+        .create("region");
+  }
+
+  private void putOnPeer(String value) {
+    peer.invoke(() -> ClusterStartupRule.getCache().getRegion("region").put("key", value));
+  }
+}
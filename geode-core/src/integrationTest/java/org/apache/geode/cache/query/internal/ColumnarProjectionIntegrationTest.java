@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLQueryTest.class})
+public class ColumnarProjectionIntegrationTest {
+  private static final String[] QUERIES = {
+      "select sum(p.price) from /%s p",
+      "select count(*) from /%s p where p.ID > 3",
+      "select min(p.price), max(p.ID) from /%s p where p.price >= 2.5 and p.ID < 15",
+      "select p.status, avg(p.price), max(p.ID) from /%s p where p.ID <= 15 group by p.status",
+      "select status, count(*) from /%s where status <> 'closed' group by status",
+      "select p.status, sum(p.ID) from /%s p group by p.status limit 1",
+      "select count(distinct p.status) from /%s p where p.ID >= $1"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+  private Region<Integer, Object> replicate;
+  private Region<Integer, Object> partitioned;
+
+  @Before
+  public void setUp() {
+    Cache cache = serverStarterRule.getCache();
+    replicate = cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE)
+        .create("positions");
+    partitioned = cache.<Integer, Object>createRegionFactory(RegionShortcut.PARTITION)
+        .create("partitionedPositions");
+    for (int i = 0; i < 20; i++) {
+      Position position = new Position(i, i % 3 == 0 ? "active" : "inactive", i * 0.75);
+      replicate.put(i, position);
+      partitioned.put(i, position);
+    }
+    queryService = cache.getQueryService();
+  }
+
+  @After
+  public void tearDown() {
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void projectionAnswersAggregatesOfReplicatedRegion() throws Exception {
+    assertSameResults(replicate);
+  }
+
+  @Test
+  public void projectionAnswersAggregatesOfPartitionedRegion() throws Exception {
+    assertSameResults(partitioned);
+  }
+
+  @Test
+  public void projectionFollowsUpdatesAndDestroys() throws Exception {
+    ColumnarProjection.create(replicate, "ID", "status", "price");
+    execute("select count(*) from /positions p");
+
+    replicate.put(3, new Position(3, "closed", 100));
+    replicate.put(20, new Position(20, "active", 1));
+    replicate.destroy(4);
+    replicate.invalidate(5);
+
+    assertSameResults(replicate);
+  }
+
+  @Test
+  public void regionIsNotIteratedWhenProjectionAnswersQuery() throws Exception {
+    ColumnarProjection.create(replicate, "ID", "price");
+    AtomicBoolean iterated = new AtomicBoolean();
+    QueryObserverHolder.setInstance(new QueryObserverAdapter() {
+      @Override
+      public void beforeAggregationsAndGroupBy(SelectResults selectResults) {
+        iterated.set(true);
+      }
+    });
+
+    execute("select sum(p.price) from /positions p where p.ID > 10");
+    assertThat(iterated).isFalse();
+
+    // the status is not projected
+    execute("select sum(p.price) from /positions p where p.status = 'active'");
+    assertThat(iterated).isTrue();
+  }
+
+  @Test
+  public void columnWithNullsFallsBackToIteration() throws Exception {
+    ColumnarProjection.create(replicate, "ID", "status", "price");
+    replicate.put(30, new Position(30, null, 1));
+
+    assertSameResults(replicate);
+  }
+
+  private void assertSameResults(Region<Integer, Object> region) throws Exception {
+    ColumnarProjection projection = ColumnarProjection.get(region);
+    if (projection == null) {
+      projection = ColumnarProjection.create(region, "ID", "status", "price");
+    }
+    List<List<Object>> actual = executeAll(region);
+    projection.remove();
+    List<List<Object>> expected = executeAll(region);
+
+    for (int i = 0; i < QUERIES.length; i++) {
+      assertThat(actual.get(i)).as(QUERIES[i])
+          .containsExactlyInAnyOrderElementsOf(expected.get(i));
+    }
+  }
+
+  private List<List<Object>> executeAll(Region<Integer, Object> region) throws Exception {
+    List<List<Object>> results = new ArrayList<>();
+    for (String query : QUERIES) {
+      results.add(execute(String.format(query, region.getName())));
+    }
+    return results;
+  }
+
+  private List<Object> execute(String query) throws Exception {
+    SelectResults<Object> results =
+        (SelectResults<Object>) queryService.newQuery(query).execute(6);
+    return new ArrayList<>(results.asList());
+  }
+
+  @SuppressWarnings("unused")
+  public static class Position {
+    public final int ID;
+    private final String status;
+    private final double price;
+
+    Position(int id, String status, double price) {
+      ID = id;
+      this.status = status;
+      this.price = price;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public double getPrice() {
+      return price;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class CostBasedPlanningIntegrationTest {
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+  private final List<String> indexesUsed = new ArrayList<>();
+  private final List<String> indexesDeclined = new ArrayList<>();
+  private final List<String> filtersSelected = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    DefaultQuery.COST_BASED_PLANNING = true;
+    Cache cache = serverStarterRule.getCache();
+    Region<Integer, Object> region = cache.<Integer, Object>createRegionFactory(
+        RegionShortcut.REPLICATE).create("orders");
+    // most of the orders are pending
+    for (int i = 0; i < 1000; i++) {
+      region.put(i, new Order(i, i < 400 ? "active" : i < 950 ? "pending" : "closed"));
+    }
+    queryService = cache.getQueryService();
+    queryService.createIndex("statusIndex", "o.status", "/orders o");
+    queryService.createIndex("idIndex", "o.ID", "/orders o");
+    QueryObserverHolder.setInstance(new QueryObserverAdapter() {
+      @Override
+      public void beforeIndexLookup(Index index, int oper, Object key) {
+        indexesUsed.add(index.getName());
+      }
+
+      @Override
+      public void afterIndexCostEstimate(Index index, int sizeEstimate, boolean useIndex) {
+        if (!useIndex) {
+          indexesDeclined.add(index.getName());
+        }
+      }
+
+      @Override
+      public void afterFilterSelection(Index index, int sizeEstimate) {
+        filtersSelected.add(index.getName());
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    DefaultQuery.COST_BASED_PLANNING = false;
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void selectiveRangeIsPreferredToUnselectiveEquality() throws Exception {
+    assertThat(execute("select * from /orders o where o.status = 'active' and o.ID < 20"))
+        .hasSize(20);
+
+    assertThat(filtersSelected).containsOnly("idIndex");
+    assertThat(indexesUsed).containsOnly("idIndex");
+  }
+
+  @Test
+  public void unselectiveConditionIsEvaluatedByIteration() throws Exception {
+    assertThat(execute("select * from /orders o where o.status = 'pending'")).hasSize(550);
+    assertThat(execute("select * from /orders o where o.ID >= 10")).hasSize(990);
+
+    assertThat(indexesDeclined).contains("statusIndex", "idIndex");
+    assertThat(indexesUsed).isEmpty();
+  }
+
+  @Test
+  public void selectiveConditionIsEvaluatedThroughIndex() throws Exception {
+    assertThat(execute("select * from /orders o where o.status = 'closed'")).hasSize(50);
+    assertThat(execute("select * from /orders o where o.ID > 990")).hasSize(9);
+
+    assertThat(indexesDeclined).isEmpty();
+    assertThat(indexesUsed).containsOnly("statusIndex", "idIndex");
+  }
+
+  private SelectResults<?> execute(String query) throws Exception {
+    return (SelectResults<?>) queryService.newQuery(query).execute();
+  }
+
+  @SuppressWarnings("unused")
+  public static class Order {
+    public final int ID;
+    private final String status;
+
+    Order(int id, String status) {
+      ID = id;
+      this.status = status;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLQueryTest.class})
+public class WhereClausePredicateIntegrationTest {
+  private static final String[] QUERIES = {
+      "select * from /%s p where p.ID > 5",
+      "select * from /%s p where 5 >= p.ID",
+      "select * from /%s p where ID <> 3 and p.ID < 8",
+      "select * from /%s p where p.ID = 2 or p.status = 'active'",
+      "select * from /%s p where p.ID > 2.5",
+      "select * from /%s p where p.price >= 4",
+      "select * from /%s p where p.price < 3.5 and p.ID != 1",
+      "select * from /%s p where p.ID < $1"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+
+  @Before
+  public void setUp() {
+    Cache cache = serverStarterRule.getCache();
+    Region<Integer, Object> portfolios =
+        cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE).create("portfolios");
+    Region<Integer, Object> pdxPortfolios =
+        cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE)
+            .create("pdxPortfolios");
+    for (int i = 0; i < 10; i++) {
+      Position position = new Position(i, i % 2 == 0 ? "active" : "inactive", i * 0.75);
+      portfolios.put(i, position);
+      pdxPortfolios.put(i, cache.createPdxInstanceFactory("PdxPosition").writeInt("ID", i)
+          .writeString("status", position.getStatus()).writeDouble("price", position.getPrice())
+          .create());
+    }
+    // an element of another class takes the uncompiled path
+    portfolios.put(100, "not a position");
+    queryService = cache.getQueryService();
+  }
+
+  @After
+  public void tearDown() {
+    WhereClausePredicate.COMPILE_WHERE_CLAUSE = false;
+  }
+
+  @Test
+  public void compiledWhereClauseSelectsSameDomainObjects() throws Exception {
+    for (String query : QUERIES) {
+      assertSameResults(String.format(query, "portfolios"));
+    }
+  }
+
+  @Test
+  public void compiledWhereClauseSelectsSamePdxInstances() throws Exception {
+    for (String query : QUERIES) {
+      assertSameResults(String.format(query, "pdxPortfolios"));
+    }
+  }
+
+  private void assertSameResults(String query) throws Exception {
+    WhereClausePredicate.COMPILE_WHERE_CLAUSE = false;
+    List<Object> expected = execute(query);
+    WhereClausePredicate.COMPILE_WHERE_CLAUSE = true;
+    List<Object> actual = execute(query);
+
+    assertThat(actual).as(query).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  private List<Object> execute(String query) throws Exception {
+    SelectResults<Object> results =
+        (SelectResults<Object>) queryService.newQuery(query).execute(4);
+    return new ArrayList<>(results.asList());
+  }
+
+  @SuppressWarnings("unused")
+  public static class Position {
+    public final int ID;
+    private final String status;
+    private final double price;
+
+    Position(int id, String status, double price) {
+      ID = id;
+      this.status = status;
+      this.price = price;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public double getPrice() {
+      return price;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexType;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.QueryObserverAdapter;
+import org.apache.geode.cache.query.internal.QueryObserverHolder;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class BitmapIndexQueryIntegrationTest {
+  private static final String[] QUERIES = {
+      "select * from /%s p where p.status = 'active' and p.type = 'b'",
+      "select * from /%s p where p.status = 'active' or p.type = 'c'",
+      "select * from /%s p where p.status != 'active' and p.type = 'a'",
+      "select * from /%s p where p.status = 'closed' or p.type <> 'b'",
+      "select p.ID from /%s p where p.status = 'inactive' and p.type = 'c' and p.ID > 5",
+      "select distinct p.type from /%s p where p.status = 'active' or p.status = 'closed'",
+      "select * from /%s p where p.status = $1 and p.type = $2"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+  private Region<Integer, Object> replicate;
+  private Region<Integer, Object> partitioned;
+  private final Set<String> indexesUsed = new HashSet<>();
+
+  @Before
+  public void setUp() {
+    Cache cache = serverStarterRule.getCache();
+    replicate = cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE)
+        .create("positions");
+    partitioned = cache.<Integer, Object>createRegionFactory(RegionShortcut.PARTITION)
+        .create("partitionedPositions");
+    for (int i = 0; i < 300; i++) {
+      Position position = new Position(i, i % 3 == 0 ? "active" : "inactive",
+          String.valueOf((char) ('a' + i % 4)));
+      replicate.put(i, position);
+      partitioned.put(i, position);
+    }
+    queryService = cache.getQueryService();
+    QueryObserverHolder.setInstance(new QueryObserverAdapter() {
+      @Override
+      public void beforeIndexLookup(Index index, int oper, Object key) {
+        indexesUsed.add(index.getName());
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void bitmapIndexesAnswerJunctionsOnReplicatedRegion() throws Exception {
+    assertSameResults(replicate);
+  }
+
+  @Test
+  public void bitmapIndexesAnswerJunctionsOnPartitionedRegion() throws Exception {
+    assertSameResults(partitioned);
+  }
+
+  @Test
+  public void bitmapIndexesFollowUpdatesAndDestroys() throws Exception {
+    createIndexes(replicate);
+    for (int i = 0; i < 300; i += 7) {
+      replicate.put(i, new Position(i, "closed", "b"));
+    }
+    for (int i = 1; i < 300; i += 11) {
+      replicate.destroy(i);
+    }
+    replicate.invalidate(2);
+    replicate.put(1000, new Position(1000, "active", "b"));
+
+    assertSameResults(replicate);
+  }
+
+  private void assertSameResults(Region<Integer, Object> region) throws Exception {
+    if (queryService.getIndexes(region).isEmpty()) {
+      createIndexes(region);
+    }
+    List<List<Object>> actual = executeAll(region);
+    assertThat(indexesUsed).containsExactlyInAnyOrder("statusIndex", "typeIndex");
+    assertThat(queryService.getIndexes(region))
+        .allMatch(index -> index.getType() == IndexType.BITMAP);
+
+    queryService.removeIndexes(region);
+    List<List<Object>> expected = executeAll(region);
+
+    for (int i = 0; i < QUERIES.length; i++) {
+      assertThat(actual.get(i)).as(QUERIES[i])
+          .containsExactlyInAnyOrderElementsOf(expected.get(i));
+    }
+  }
+
+  private void createIndexes(Region<Integer, Object> region) throws Exception {
+    queryService.createIndex("statusIndex", IndexType.BITMAP, "p.status",
+        "/" + region.getName() + " p");
+    queryService.createIndex("typeIndex", IndexType.BITMAP, "p.type",
+        "/" + region.getName() + " p");
+  }
+
+  private List<List<Object>> executeAll(Region<Integer, Object> region) throws Exception {
+    List<List<Object>> results = new ArrayList<>();
+    for (String query : QUERIES) {
+      SelectResults<Object> selectResults =
+          (SelectResults<Object>) queryService.newQuery(String.format(query, region.getName()))
+              .execute("inactive", "d");
+      results.add(new ArrayList<>(selectResults.asList()));
+    }
+    return results;
+  }
+
+  @SuppressWarnings("unused")
+  public static class Position {
+    public final int ID;
+    private final String status;
+    private final String type;
+
+    Position(int id, String status, String type) {
+      ID = id;
+      this.status = status;
+      this.type = type;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public String getType() {
+      return type;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.QueryObserverAdapter;
+import org.apache.geode.cache.query.internal.QueryObserverHolder;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class CompositeRangeIndexQueryIntegrationTest {
+  private static final String[] QUERIES = {
+      "select * from /%s p where p.status = 'active' and p.ID > 100",
+      "select * from /%s p where p.status = 'inactive'",
+      "select * from /%s p where p.status = $1 and p.ID >= $2 and p.ID < 200",
+      "select p.ID from /%s p where p.status = 'active' and p.ID = 99",
+      "select * from /%s p where 150 > p.ID and p.status = 'active'",
+      "select * from /%s p where p.status > 'active'",
+      "select * from /%s p where p.status != 'active'",
+      "select * from /%s p where p.status = 'active' and p.type = 'b' and p.ID <= 30"};
+
+  private static final String[] ORDERED_QUERIES = {
+      "select p.ID from /%s p where p.status = 'active' order by p.ID desc",
+      "select p.ID from /%s p where p.status = 'inactive' and p.ID > 20 order by p.ID limit 5",
+      "select p.ID from /%s p where p.status > 'active' order by p.status, p.ID"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+  private Region<Integer, Object> replicate;
+  private Region<Integer, Object> partitioned;
+  private final Set<String> indexesUsed = new HashSet<>();
+
+  @Before
+  public void setUp() {
+    Cache cache = serverStarterRule.getCache();
+    replicate = cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE)
+        .create("positions");
+    partitioned = cache.<Integer, Object>createRegionFactory(RegionShortcut.PARTITION)
+        .create("partitionedPositions");
+    for (int i = 0; i < 300; i++) {
+      String status = i % 10 == 0 ? null : i % 3 == 0 ? "active" : "inactive";
+      Position position = new Position(i, status, String.valueOf((char) ('a' + i % 4)));
+      replicate.put(i, position);
+      partitioned.put(i, position);
+    }
+    queryService = cache.getQueryService();
+    QueryObserverHolder.setInstance(new QueryObserverAdapter() {
+      @Override
+      public void beforeIndexLookup(Index index, int oper, Object key) {
+        indexesUsed.add(index.getName());
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void compositeIndexAnswersQueriesOnReplicatedRegion() throws Exception {
+    assertSameResults(replicate);
+  }
+
+  @Test
+  public void compositeIndexAnswersQueriesOnPartitionedRegion() throws Exception {
+    assertSameResults(partitioned);
+  }
+
+  @Test
+  public void sizeEstimateOfEqualityStopsCountingAtMaximum() throws Exception {
+    for (int i = 300; i < 300 + CompositeRangeIndex.MAX_COUNTED_ENTRIES; i++) {
+      replicate.put(i, new Position(i, "active", "a"));
+    }
+    createIndex(replicate);
+    CompositeRangeIndex index =
+        (CompositeRangeIndex) queryService.getIndex(replicate, "statusIdIndex");
+
+    assertThat(index.getSizeEstimate("inactive", OQLLexerTokenTypes.TOK_EQ, 1)).isEqualTo(180);
+    assertThat(index.getSizeEstimate("active", OQLLexerTokenTypes.TOK_EQ, 1))
+        .isEqualTo(CompositeRangeIndex.MAX_COUNTED_ENTRIES);
+    assertThat(index.getSizeEstimate("active", OQLLexerTokenTypes.TOK_NE, 1))
+        .isEqualTo(replicate.size() - CompositeRangeIndex.MAX_COUNTED_ENTRIES);
+  }
+
+  @Test
+  public void compositeIndexFollowsUpdatesAndDestroys() throws Exception {
+    createIndex(replicate);
+    for (int i = 0; i < 300; i += 7) {
+      replicate.put(i, new Position(i + 1000, "active", "b"));
+    }
+    for (int i = 1; i < 300; i += 11) {
+      replicate.destroy(i);
+    }
+    replicate.invalidate(2);
+
+    assertSameResults(replicate);
+  }
+
+  private void assertSameResults(Region<Integer, Object> region) throws Exception {
+    if (queryService.getIndexes(region).isEmpty()) {
+      createIndex(region);
+    }
+    List<List<Object>> actual = executeAll(region, QUERIES);
+    List<List<Object>> actualOrdered = executeAll(region, ORDERED_QUERIES);
+    assertThat(indexesUsed).containsExactly("statusIdIndex");
+    assertThat(queryService.getIndexes(region)).hasSize(1);
+
+    queryService.removeIndexes(region);
+    List<List<Object>> expected = executeAll(region, QUERIES);
+    List<List<Object>> expectedOrdered = executeAll(region, ORDERED_QUERIES);
+
+    for (int i = 0; i < QUERIES.length; i++) {
+      assertThat(actual.get(i)).as(QUERIES[i])
+          .containsExactlyInAnyOrderElementsOf(expected.get(i));
+    }
+    for (int i = 0; i < ORDERED_QUERIES.length; i++) {
+      assertThat(actualOrdered.get(i)).as(ORDERED_QUERIES[i])
+          .containsExactlyElementsOf(expectedOrdered.get(i));
+    }
+  }
+
+  private void createIndex(Region<Integer, Object> region) throws Exception {
+    queryService.createIndex("statusIdIndex", "p.status, p.ID", "/" + region.getName() + " p");
+  }
+
+  private List<List<Object>> executeAll(Region<Integer, Object> region, String[] queries)
+      throws Exception {
+    List<List<Object>> results = new ArrayList<>();
+    for (String query : queries) {
+      SelectResults<Object> selectResults =
+          (SelectResults<Object>) queryService.newQuery(String.format(query, region.getName()))
+              .execute("inactive", 120);
+      results.add(new ArrayList<>(selectResults.asList()));
+    }
+    return results;
+  }
+
+  @SuppressWarnings("unused")
+  public static class Position {
+    public final int ID;
+    private final String status;
+    private final String type;
+
+    Position(int id, String status, String type) {
+      ID = id;
+      this.status = status;
+      this.type = type;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public String getType() {
+      return type;
+    }
+  }
+}
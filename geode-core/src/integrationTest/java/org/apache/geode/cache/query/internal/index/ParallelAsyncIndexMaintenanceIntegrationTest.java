@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class ParallelAsyncIndexMaintenanceIntegrationTest {
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private Cache cache;
+  private QueryService queryService;
+
+  @Before
+  public void setUp() {
+    IndexManager.ASYNC_INDEX_MAINTENANCE_THREADS = 4;
+    // slow the updates down so that queries run before they are applied
+    IndexManager.testHook = spot -> {
+      if (spot == 6) {
+        try {
+          TimeUnit.MICROSECONDS.sleep(200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    cache = serverStarterRule.getCache();
+    queryService = cache.getQueryService();
+  }
+
+  @After
+  public void tearDown() {
+    IndexManager.ASYNC_INDEX_MAINTENANCE_THREADS = 0;
+    IndexManager.testHook = null;
+  }
+
+  @Test
+  public void queryWaitingForIndexUpdatesReadsOwnWritesOnReplicatedRegion() throws Exception {
+    assertQueriesReadOwnWrites(createRegion(RegionShortcut.REPLICATE));
+  }
+
+  @Test
+  public void queryWaitingForIndexUpdatesReadsOwnWritesOnPartitionedRegion() throws Exception {
+    assertQueriesReadOwnWrites(createRegion(RegionShortcut.PARTITION));
+  }
+
+  private Region<Integer, Object> createRegion(RegionShortcut shortcut) throws Exception {
+    Region<Integer, Object> region = cache.<Integer, Object>createRegionFactory(shortcut)
+        .setIndexMaintenanceSynchronous(false).create("orders");
+    queryService.createIndex("statusIndex", "o.status", "/orders o");
+    return region;
+  }
+
+  private void assertQueriesReadOwnWrites(Region<Integer, Object> region) throws Exception {
+    for (int i = 0; i < 500; i++) {
+      region.put(i, new Order(i, "open"));
+    }
+    assertThat(executeWaitingForIndexUpdates("open")).hasSize(500);
+
+    for (int i = 0; i < 500; i += 5) {
+      region.put(i, new Order(i, "closed"));
+    }
+    for (int i = 1; i < 500; i += 5) {
+      region.destroy(i);
+    }
+    assertThat(executeWaitingForIndexUpdates("closed")).hasSize(100);
+    assertThat(executeWaitingForIndexUpdates("open")).hasSize(300);
+  }
+
+  private SelectResults<?> executeWaitingForIndexUpdates(String status) throws Exception {
+    DefaultQuery query =
+        (DefaultQuery) queryService.newQuery("select * from /orders o where o.status = $1");
+    query.setWaitForIndexUpdates(true);
+    return (SelectResults<?>) query.execute(status);
+  }
+
+  @SuppressWarnings("unused")
+  public static class Order {
+    public final int ID;
+    private final String status;
+
+    Order(int id, String status) {
+      ID = id;
+      this.status = status;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+  }
+}
@@ -16,6 +16,7 @@ package org.apache.geode.cache.query.partitioned;
 
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.Before;
@@ -136,6 +137,32 @@ public class PRQueryNumThreadsJUnitTest {
     }
   }
 
+  @Test
+  public void testLimitQuery() throws Exception {
+    Region region = PartitionedRegionTestHelper.createPartitionedRegion(regionName, "100", 0);
+    PortfolioData[] portfolios = new PortfolioData[100];
+    for (int j = 0; j < 100; j++) {
+      portfolios[j] = new PortfolioData(j);
+    }
+    PRQueryProcessor.TEST_NUM_THREADS = 10;
+    try {
+      populateData(region, portfolios);
+
+      String queryString = "Select * from /" + region.getName() + " p where p.ID >= 10 limit 7";
+      SelectResults sr = (SelectResults) region.getCache().getQueryService()
+          .newQuery(queryString).execute();
+      Assert.assertTrue(sr.size() == 7);
+
+      queryString =
+          "Select distinct p.ID from /" + region.getName() + " p order by p.ID desc limit 3";
+      sr = (SelectResults) region.getCache().getQueryService().newQuery(queryString).execute();
+      Assert.assertTrue(sr.asList().equals(Arrays.asList(99, 98, 97)));
+    } finally {
+      PRQueryProcessor.TEST_NUM_THREADS = 0;
+      region.close();
+    }
+  }
+
   /**
    * Populates the region with the Objects stores in the data Object array.
    *
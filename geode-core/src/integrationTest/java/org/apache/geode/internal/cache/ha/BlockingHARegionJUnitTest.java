@@ -20,6 +20,7 @@ import static org.apache.geode.internal.cache.ha.HARegionQueue.BLOCKING_HA_QUEUE
 import static org.apache.geode.internal.cache.ha.HARegionQueue.getHARegionQueueInstance;
 import static org.apache.geode.internal.statistics.StatisticsClockFactory.disabledClock;
 import static org.apache.geode.test.dunit.ThreadUtils.join;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -372,6 +373,43 @@ public class BlockingHARegionJUnitTest {
     }
   }
 
+  /**
+   * Tests that the events put while the queue lock is held by another thread are all taken when
+   * publishing is deferred, with a take thread waiting for data most of the time.
+   */
+  @Test
+  public void testDeferredPublishDeliversAllEvents() throws Exception {
+    exceptionOccurred = false;
+    quitForLoop = false;
+    HARegionQueue.deferPublish = true;
+    try {
+      final HARegionQueue hrq = getHARegionQueueInstance("BlockingHARegionJUnitTest_Region",
+          cache, new HARegionQueueAttributes(), BLOCKING_HA_QUEUE, false, disabledClock());
+      Thread take = new DoTake(hrq, 3000);
+      take.start();
+      Thread thread1 = new DoPuts(hrq, 1000, 1);
+      Thread thread2 = new DoPuts(hrq, 1000, 2);
+      Thread thread3 = new DoPuts(hrq, 1000, 3);
+      thread1.start();
+      thread2.start();
+      thread3.start();
+
+      join(thread1, 30 * 1000);
+      join(thread2, 30 * 1000);
+      join(thread3, 30 * 1000);
+      join(take, 30 * 1000);
+
+      if (exceptionOccurred) {
+        fail(" Test failed due to " + exceptionString);
+      }
+      assertFalse(take.isAlive());
+      assertTrue(hrq.isEmpty());
+    } finally {
+      HARegionQueue.deferPublish = false;
+      cache.close();
+    }
+  }
+
   /**
    * class which does specified number of puts on the queue
    */
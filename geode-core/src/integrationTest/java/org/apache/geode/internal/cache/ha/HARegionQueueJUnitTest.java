@@ -404,6 +404,35 @@ public class HARegionQueueJUnitTest {
         !regionQueue.getEventsMapForTesting().isEmpty(), is(true));
   }
 
+  /**
+   * With delta conflation, an update that replaced a queued update of its key must be sent with
+   * its full value, other updates can be sent as deltas.
+   */
+  @Test
+  public void testDeltaConflationTracksConflatingEvents() throws Exception {
+    HARegionQueue.deltaConflation = true;
+    try {
+      HARegionQueue regionQueue = createHARegionQueue(testName.getMethodName());
+      EventID id1 = new EventID(new byte[] {1}, 1, 1);
+      EventID id2 = new EventID(new byte[] {1}, 1, 2);
+      EventID id3 = new EventID(new byte[] {1}, 1, 3);
+
+      regionQueue.put(new ConflatableObject("key", "value1", id1, true, testName.getMethodName()));
+      assertThat(regionQueue.canSendConflatedDelta(id1), is(true));
+
+      regionQueue.put(new ConflatableObject("key", "value2", id2, true, testName.getMethodName()));
+      assertThat(regionQueue.canSendConflatedDelta(id2), is(false));
+
+      regionQueue.peek();
+      regionQueue.remove();
+
+      regionQueue.put(new ConflatableObject("key", "value3", id3, true, testName.getMethodName()));
+      assertThat(regionQueue.canSendConflatedDelta(id3), is(true));
+    } finally {
+      HARegionQueue.deltaConflation = false;
+    }
+  }
+
   /**
    * - adds 10 items - sets last dispatched as 5th - verify no data pertaining to the first five is
    * there - verify the next five entries and their relevant data is present
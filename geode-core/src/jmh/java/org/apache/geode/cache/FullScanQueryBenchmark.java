@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+
+/**
+ * Measures a query without an index, which evaluates its where clause against every value of the
+ * region. The attributes are read from domain objects through their getters and public fields, or
+ * from PdxInstances.
+ */
+@Fork(3)
+public class FullScanQueryBenchmark {
+
+  private static final int ENTRIES = 100000;
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    @Param({"getter", "field", "pdx"})
+    public String valueType;
+
+    private Cache cache;
+    private Query query;
+
+    public CacheState() {}
+
+    @Setup
+    public void setup() {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+
+      Region<Integer, Object> region =
+          cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE).create("region");
+      IntStream.range(0, ENTRIES).forEach(i -> region.put(i, createValue(i)));
+      String attribute = valueType.equals("getter") ? "id" : "publicId";
+      query = cache.getQueryService()
+          .newQuery("select * from /region where " + attribute + " >= 0 and status = 'active'");
+
+      try {
+        // Do the query once to make sure it's actually returning results
+        SelectResults results = query();
+        assertEquals(ENTRIES / 2, results.size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+
+    private Object createValue(int id) {
+      String status = id % 2 == 0 ? "active" : "inactive";
+      if (valueType.equals("pdx")) {
+        return cache.createPdxInstanceFactory(Value.class.getName()).writeInt("publicId", id)
+            .writeString("status", status).create();
+      }
+      return new Value(id, status);
+    }
+
+    public SelectResults query() throws NameResolutionException, TypeMismatchException,
+        QueryInvocationTargetException, FunctionDomainException {
+      return (SelectResults) query.execute();
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object query(CacheState state) throws NameResolutionException, TypeMismatchException,
+      QueryInvocationTargetException, FunctionDomainException {
+    return state.query();
+  }
+
+  public static class Value {
+    public final int publicId;
+    private final String status;
+
+    public Value(int id, String status) {
+      this.publicId = id;
+      this.status = status;
+    }
+
+    public int getId() {
+      return publicId;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+  }
+}
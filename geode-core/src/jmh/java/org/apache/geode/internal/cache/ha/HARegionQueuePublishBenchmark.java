@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.ha;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+import static org.apache.geode.internal.statistics.StatisticsClockFactory.disabledClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.internal.cache.Conflatable;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.InternalCache;
+
+/**
+ * Measures the throughput of puts in client subscription queues drained by dispatcher threads,
+ * with one subscriber receiving all the events or many subscribers receiving a share of them.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class HARegionQueuePublishBenchmark {
+
+  private static final int DISPATCHERS = 4;
+
+  @Param({"1", "10000"})
+  int subscribers;
+
+  @Param({"false", "true"})
+  boolean deferPublish;
+
+  private InternalCache cache;
+
+  private HARegionQueue[] queues;
+
+  private final List<Thread> dispatchers = new ArrayList<>();
+
+  private volatile boolean running;
+
+  private final AtomicLong threadIds = new AtomicLong();
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    HARegionQueue.deferPublish = deferPublish;
+    cache = (InternalCache) new CacheFactory().set(LOG_LEVEL, "warn").create();
+    queues = new HARegionQueue[subscribers];
+    for (int i = 0; i < subscribers; i++) {
+      queues[i] = HARegionQueue.getHARegionQueueInstance("queue" + i, cache,
+          HARegionQueue.BLOCKING_HA_QUEUE, false, disabledClock());
+    }
+    running = true;
+    for (int i = 0; i < Math.min(DISPATCHERS, subscribers); i++) {
+      int first = i;
+      Thread dispatcher = new Thread(() -> dispatch(first), "Dispatcher " + i);
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+      dispatchers.add(dispatcher);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    running = false;
+    for (Thread dispatcher : dispatchers) {
+      dispatcher.interrupt();
+      dispatcher.join();
+    }
+    cache.close();
+    HARegionQueue.deferPublish = false;
+  }
+
+  /**
+   * Takes the events of every DISPATCHERS-th queue starting with the given one. A dispatcher of a
+   * single queue waits for its events, the others poll their queues.
+   */
+  private void dispatch(int first) {
+    try {
+      while (running) {
+        if (subscribers == 1) {
+          queues[first].take();
+          continue;
+        }
+        boolean taken = false;
+        for (int i = first; i < subscribers; i += DISPATCHERS) {
+          if (queues[i].size() > 0) {
+            queues[i].take();
+            taken = true;
+          }
+        }
+        if (!taken) {
+          Thread.yield();
+        }
+      }
+    } catch (InterruptedException ignore) {
+      // stopped
+    } catch (RuntimeException e) {
+      if (running) {
+        throw e;
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Publisher {
+    private final Random random = new Random();
+    private final byte[] memberId = new byte[] {1};
+    private long threadId;
+    private long sequenceId;
+
+    @Setup(Level.Trial)
+    public void setup(HARegionQueuePublishBenchmark benchmark) {
+      threadId = benchmark.threadIds.incrementAndGet();
+    }
+  }
+
+  @Benchmark
+  @Threads(8)
+  @Measurement(iterations = 10)
+  @Warmup(iterations = 3)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean put(Publisher publisher) throws Exception {
+    HARegionQueue queue = queues[publisher.random.nextInt(subscribers)];
+    EventID eventId =
+        new EventID(publisher.memberId, publisher.threadId, ++publisher.sequenceId);
+    return queue.put(new Event(eventId));
+  }
+
+  private static class Event implements Conflatable {
+    private final EventID eventId;
+
+    Event(EventID eventId) {
+      this.eventId = eventId;
+    }
+
+    @Override
+    public boolean shouldBeConflated() {
+      return false;
+    }
+
+    @Override
+    public String getRegionToConflate() {
+      return "region";
+    }
+
+    @Override
+    public Object getKeyToConflate() {
+      return null;
+    }
+
+    @Override
+    public Object getValueToConflate() {
+      return null;
+    }
+
+    @Override
+    public void setLatestValue(Object value) {
+      // not conflated
+    }
+
+    @Override
+    public EventID getEventId() {
+      return eventId;
+    }
+  }
+}
@@ -45,6 +45,7 @@ public class GetOp {
   public static final int HAS_VERSION_TAG = 0x02;
   public static final int KEY_NOT_PRESENT = 0x04;
   public static final int VALUE_IS_INVALID = 0x08; // Token.INVALID
+  public static final int NEAR_CACHE_READ_RECORDED = 0x10;
 
   /**
    * Does a region get on a server using connections from the given pool to communicate with the
@@ -91,6 +92,28 @@ public class GetOp {
     return pool.execute(op);
   }
 
+  /**
+   * Does a region get on the primary subscription server for the near cache of the region. The
+   * server records that the key was read, and sends an invalidation through the subscription
+   * queue when it changes. The response of the server is set on the given read.
+   *
+   * @param pool the pool to use to communicate with the server.
+   * @param region the region to do the get on
+   * @param key the entry key to do the get on
+   * @param callbackArg an optional callback arg to pass to any cache callbacks
+   * @param clientEvent holder for returning version information
+   * @param read the read of the near cache this get is for
+   * @return the entry value found by the get if any
+   */
+  static Object executeOnPrimary(ExecutablePool pool, LocalRegion region, Object key,
+      Object callbackArg, EntryEventImpl clientEvent, NearCache.Read read) {
+    GetOpImpl op = new GetOpImpl(region, key, callbackArg, false, clientEvent, read);
+    if (logger.isDebugEnabled()) {
+      logger.debug("GetOp invoked on the primary for key {}", key);
+    }
+    return pool.executeOnPrimary(op);
+  }
+
 
   private GetOp() {
     // no instances allowed
@@ -108,6 +131,8 @@ public class GetOp {
 
     private EntryEventImpl clientEvent;
 
+    private NearCache.Read nearCacheRead;
+
     public String toString() {
       return "GetOpImpl(key=" + key + ")";
     }
@@ -117,7 +142,18 @@ public class GetOp {
      */
     public GetOpImpl(LocalRegion region, Object key, Object callbackArg, boolean prSingleHopEnabled,
         EntryEventImpl clientEvent) {
-      super(MessageType.REQUEST, callbackArg != null ? 3 : 2);
+      this(region, key, callbackArg, prSingleHopEnabled, clientEvent, null);
+    }
+
+    /**
+     * @param nearCacheRead the read of the near cache of the region this get is for, if any, in
+     *        which case the server is asked to record the read and the callback arg part is always
+     *        sent
+     * @throws org.apache.geode.SerializationException if serialization fails
+     */
+    GetOpImpl(LocalRegion region, Object key, Object callbackArg, boolean prSingleHopEnabled,
+        EntryEventImpl clientEvent, NearCache.Read nearCacheRead) {
+      super(MessageType.REQUEST, nearCacheRead != null ? 4 : callbackArg != null ? 3 : 2);
       if (logger.isDebugEnabled()) {
         logger.debug("constructing a GetOp for key {}", key/* , new Exception("stack trace") */);
       }
@@ -126,11 +162,15 @@ public class GetOp {
       this.key = key;
       this.callbackArg = callbackArg;
       this.clientEvent = clientEvent;
+      this.nearCacheRead = nearCacheRead;
       getMessage().addStringPart(region.getFullPath(), true);
       getMessage().addStringOrObjPart(key);
-      if (callbackArg != null) {
+      if (callbackArg != null || nearCacheRead != null) {
         getMessage().addObjPart(callbackArg);
       }
+      if (nearCacheRead != null) {
+        getMessage().addObjPart(Boolean.TRUE);
+      }
     }
 
     @Override
@@ -144,6 +184,11 @@ public class GetOp {
       if (msg.getNumberOfParts() > 1) {
         int partIdx = 1;
         int flags = msg.getPart(partIdx++).getInt();
+        if (nearCacheRead != null) {
+          Part valuePart = msg.getPart(0);
+          nearCacheRead.setResponse((flags & NEAR_CACHE_READ_RECORDED) != 0,
+              valuePart.getSerializedForm(), valuePart.isObject());
+        }
         if ((flags & HAS_CALLBACK_ARG) != 0) {
           msg.getPart(partIdx++).getObject(); // callbackArg
         }
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.apache.geode.annotations.internal.MutableForTesting;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.PoolStats;
+import org.apache.geode.internal.cache.Token;
+import org.apache.geode.internal.util.BlobHelper;
+
+/**
+ * A bounded store of the values a client read from the servers for a region that keeps no data of
+ * its own. The values are read from the primary subscription server, which remembers the keys it
+ * served and sends the client an invalidation whenever one of them changes. The store is cleared
+ * when the primary changes, and its entries expire after {@link #TIME_TO_LIVE} milliseconds, which
+ * bounds how stale a value can get if an invalidation is missed. Servers only remember the keys of
+ * regions that see every change made to them, which partitioned regions do not, so the store
+ * disables itself the first time a server does not record a read.
+ * <p>
+ * Values are kept in their serialized form and deserialized by each get, so callers never share
+ * the same instance. When the store is full, a newly read key is admitted the TinyLFU way: it only
+ * replaces the least recently used entry if a sketch of the recent reads says it was read more
+ * often.
+ */
+public class NearCache {
+
+  /**
+   * The maximum number of entries in the near cache of each region with an EMPTY data policy whose
+   * pool has subscriptions enabled. The near cache is disabled if this is not positive.
+   */
+  @MutableForTesting
+  public static int MAX_ENTRIES =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "NearCache.MAX_ENTRIES", 0);
+
+  /**
+   * The number of milliseconds after which a near cache entry expires. Servers remember the keys
+   * read through a near cache for at least this long, so it must not be set higher on the clients
+   * than on the servers.
+   */
+  @MutableForTesting
+  public static long TIME_TO_LIVE =
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "NearCache.TIME_TO_LIVE", 60000);
+
+  /** The number of stripes the keys are hashed to when counting invalidations */
+  private static final int INVALIDATION_STRIPES = 256;
+
+  private final int maxEntries;
+
+  private final long timeToLive;
+
+  private final PoolStats stats;
+
+  private final LongSupplier clock;
+
+  private final FrequencySketch sketch;
+
+  /** The cached values, least recently used first */
+  private final LinkedHashMap<Object, CachedValue> entries;
+
+  /** The number of times the keys of each stripe were invalidated */
+  private final long[] invalidations = new long[INVALIDATION_STRIPES];
+
+  /** The number of times the near cache was cleared */
+  private long clears;
+
+  /** The primary subscription connection the cached values were read through */
+  private Object primary;
+
+  private volatile boolean enabled = true;
+
+  NearCache(int maxEntries, long timeToLive, PoolStats stats) {
+    this(maxEntries, timeToLive, stats, System::currentTimeMillis);
+  }
+
+  NearCache(int maxEntries, long timeToLive, PoolStats stats, LongSupplier clock) {
+    this.maxEntries = maxEntries;
+    this.timeToLive = timeToLive;
+    this.stats = stats;
+    this.clock = clock;
+    this.sketch = new FrequencySketch(maxEntries);
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns false once a server did not record a read through the near cache
+   */
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns a copy of the cached value of the given key, or null if it is not cached. The near
+   * cache is cleared first if the given primary subscription connection is not the one the cached
+   * values were read through.
+   */
+  Object get(Object key, Object primary) {
+    CachedValue cached = getCachedValue(key, primary);
+    if (cached != null) {
+      try {
+        Object value = cached.isObject ? BlobHelper.deserializeBlob(cached.serializedValue)
+            : cached.serializedValue.clone();
+        stats.incNearCacheHits();
+        return value;
+      } catch (IOException | ClassNotFoundException e) {
+        // read the value from the server instead, which reports the failure
+        invalidate(key);
+      }
+    }
+    stats.incNearCacheMisses();
+    return null;
+  }
+
+  private synchronized CachedValue getCachedValue(Object key, Object primary) {
+    if (primary != this.primary) {
+      clear();
+      this.primary = primary;
+    }
+    sketch.increment(key);
+    CachedValue cached = entries.get(key);
+    if (cached != null && cached.expiration <= clock.getAsLong()) {
+      entries.remove(key);
+      cached = null;
+    }
+    return cached;
+  }
+
+  /**
+   * Starts a read of the value of the given key from the given primary subscription connection.
+   * The read has to start before the request is sent, so that any invalidation sent for the key
+   * once the server records the read keeps its value out of the near cache.
+   */
+  synchronized Read beginRead(Object key, Object primary) {
+    return new Read(primary, clears, invalidations[stripeOf(key)], clock.getAsLong());
+  }
+
+  /**
+   * Caches the value returned by the given read, unless the primary subscription connection changed
+   * or the key was invalidated since the read started. Returns whether the value was cached.
+   */
+  synchronized boolean put(Object key, Object value, Read read) {
+    if (!read.recorded) {
+      enabled = false;
+      clear();
+      return false;
+    }
+    if (value == null || Token.isInvalidOrRemoved(value) || read.serializedValue == null
+        || read.primary != primary || read.clears != clears
+        || read.invalidations != invalidations[stripeOf(key)]) {
+      return false;
+    }
+    if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+      Iterator<Map.Entry<Object, CachedValue>> iterator = entries.entrySet().iterator();
+      Map.Entry<Object, CachedValue> victim = iterator.next();
+      if (victim.getValue().expiration > clock.getAsLong()
+          && sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+        return false;
+      }
+      iterator.remove();
+    }
+    byte[] serializedValue =
+        read.isObject ? read.serializedValue : read.serializedValue.clone();
+    entries.put(key,
+        new CachedValue(serializedValue, read.isObject, read.startTime + timeToLive));
+    return true;
+  }
+
+  /**
+   * Removes the given key, and keeps any value of it being read at the same time out of the near
+   * cache.
+   */
+  public synchronized void invalidate(Object key) {
+    invalidations[stripeOf(key)]++;
+    entries.remove(key);
+  }
+
+  /**
+   * Removes all the entries, and keeps any value being read at the same time out of the near cache.
+   */
+  public synchronized void clear() {
+    clears++;
+    entries.clear();
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private static int stripeOf(Object key) {
+    return FrequencySketch.spread(key.hashCode()) & (INVALIDATION_STRIPES - 1);
+  }
+
+  /** A read of a value from a server that started at a given time */
+  static class Read {
+    private final Object primary;
+
+    private final long clears;
+
+    private final long invalidations;
+
+    private final long startTime;
+
+    private boolean recorded;
+
+    private byte[] serializedValue;
+
+    private boolean isObject;
+
+    private Read(Object primary, long clears, long invalidations, long startTime) {
+      this.primary = primary;
+      this.clears = clears;
+      this.invalidations = invalidations;
+      this.startTime = startTime;
+    }
+
+    /**
+     * Sets the response of the server, which tells whether it recorded the read, along with the
+     * serialized form of the value it returned.
+     */
+    void setResponse(boolean recorded, byte[] serializedValue, boolean isObject) {
+      this.recorded = recorded;
+      this.serializedValue = serializedValue;
+      this.isObject = isObject;
+    }
+  }
+
+  private static class CachedValue {
+    private final byte[] serializedValue;
+
+    private final boolean isObject;
+
+    private final long expiration;
+
+    private CachedValue(byte[] serializedValue, boolean isObject, long expiration) {
+      this.serializedValue = serializedValue;
+      this.isObject = isObject;
+      this.expiration = expiration;
+    }
+  }
+
+  /**
+   * A count-min sketch of the read frequencies of keys, made of four rows of counters that
+   * saturate at 15. All the counters are halved once the number of reads reaches ten times the
+   * maximum number of entries, so that the sketch forgets about keys that are no longer read.
+   */
+  static class FrequencySketch {
+    private static final int MAX_COUNT = 15;
+
+    private static final int[] SEEDS = {0x97cb3127, 0xb4b82e39, 0x8b4d5ea5, 0x2f7b7a73};
+
+    private final byte[] counters;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(int maxEntries) {
+      int width = Integer.highestOneBit(Math.max(16, Math.min(maxEntries, 1 << 24)) - 1) << 1;
+      this.counters = new byte[SEEDS.length * width];
+      this.mask = width - 1;
+      this.sampleSize = 10 * Math.max(1, maxEntries);
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      for (int row = 0; row < SEEDS.length; row++) {
+        int index = indexOf(hash, row);
+        if (counters[index] < MAX_COUNT) {
+          counters[index]++;
+        }
+      }
+      if (++additions >= sampleSize) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] >>= 1;
+        }
+        additions >>= 1;
+      }
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int frequency = MAX_COUNT;
+      for (int row = 0; row < SEEDS.length; row++) {
+        frequency = Math.min(frequency, counters[indexOf(hash, row)]);
+      }
+      return frequency;
+    }
+
+    private int indexOf(int hash, int row) {
+      int h = hash * SEEDS[row];
+      h += h >>> 16;
+      return row * (mask + 1) + (h & mask);
+    }
+
+    static int spread(int hash) {
+      int h = hash * 0x45d9f3b;
+      return h ^ (h >>> 16);
+    }
+  }
+}
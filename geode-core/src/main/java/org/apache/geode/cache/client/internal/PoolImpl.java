@@ -1045,6 +1045,17 @@ public class PoolImpl implements InternalPool {
     return result;
   }
 
+  /**
+   * Returns the connection to the primary subscription server without waiting for one, or null if
+   * there is no primary at the moment or subscriptions are not enabled.
+   */
+  public Connection getPrimaryQueueConnection() {
+    if (queueManager != null) {
+      return queueManager.getAllConnectionsNoWait().getPrimary();
+    }
+    return null;
+  }
+
   /**
    * Test hook to get a connection to the primary server.
    */
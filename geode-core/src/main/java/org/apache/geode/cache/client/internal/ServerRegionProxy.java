@@ -66,6 +66,9 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   private final LocalRegion region;
   private final String regionName;
 
+  /** The near cache of the region, or null if it has none */
+  private final NearCache nearCache;
+
 
   /**
    * Creates a server region proxy for the given region.
@@ -78,6 +81,12 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
     assert r instanceof LocalRegion;
     region = (LocalRegion) r;
     regionName = r.getFullPath();
+    if (NearCache.MAX_ENTRIES > 0 && pool instanceof PoolImpl && pool.getSubscriptionEnabled()
+        && r.getAttributes().getDataPolicy() == DataPolicy.EMPTY) {
+      nearCache = new NearCache(NearCache.MAX_ENTRIES, NearCache.TIME_TO_LIVE, pool.getStats());
+    } else {
+      nearCache = null;
+    }
   }
 
   /**
@@ -88,6 +97,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
     super(pool);
     region = null;
     this.regionName = regionName;
+    nearCache = null;
   }
 
   private static InternalPool calcPool(Region r) {
@@ -113,10 +123,43 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   @Override
   public Object get(Object key, Object callbackArg, EntryEventImpl clientEvent) {
     recordTXOperation(ServerRegionOperation.GET, key, callbackArg);
+    if (nearCache != null && nearCache.isEnabled()
+        && TXManagerImpl.getCurrentTXUniqueId() == TXManagerImpl.NOTX) {
+      Connection primary = ((PoolImpl) pool).getPrimaryQueueConnection();
+      if (primary != null) {
+        Object value = nearCache.get(key, primary);
+        if (value != null) {
+          return value;
+        }
+        NearCache.Read read = nearCache.beginRead(key, primary);
+        value = GetOp.executeOnPrimary(pool, region, key, callbackArg, clientEvent, read);
+        nearCache.put(key, value, read);
+        return value;
+      }
+    }
     return GetOp.execute(pool, region, key, callbackArg,
         pool.getPRSingleHopEnabled(), clientEvent);
   }
 
+  /**
+   * Returns the near cache of the region, or null if it has none
+   */
+  public NearCache getNearCache() {
+    return nearCache;
+  }
+
+  private void invalidateNearCache(Object key) {
+    if (nearCache != null) {
+      nearCache.invalidate(key);
+    }
+  }
+
+  private void clearNearCache() {
+    if (nearCache != null) {
+      nearCache.clear();
+    }
+  }
+
 
 
   @Override
@@ -146,6 +189,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
       boolean requireOldValue, Object expectedOldValue, Object callbackArg, boolean isCreate) {
     recordTXOperation(ServerRegionOperation.PUT, key, value, deltaBytes, event.getEventId(), op,
         requireOldValue, expectedOldValue, callbackArg, isCreate);
+    invalidateNearCache(key);
     Operation operation = op;
     if (!isCreate && region.getDataPolicy() == DataPolicy.EMPTY && op.isCreate()
         && op != Operation.PUT_IF_ABSENT) {
@@ -194,6 +238,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
     }
     recordTXOperation(ServerRegionOperation.DESTROY, key, expectedOldValue, operation,
         event.getEventId(), callbackArg);
+    invalidateNearCache(key);
     return DestroyOp.execute(pool, region, key, expectedOldValue, operation, event,
         callbackArg, pool.getPRSingleHopEnabled());
   }
@@ -202,6 +247,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   @Override
   public void invalidate(EntryEventImpl event) {
     recordTXOperation(ServerRegionOperation.INVALIDATE, event.getKey(), event);
+    invalidateNearCache(event.getKey());
     InvalidateOp.execute(pool, region.getFullPath(), event, pool.getPRSingleHopEnabled(), region);
   }
 
@@ -229,6 +275,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
    * @param callbackArg an optional callback arg to pass to any cache callbacks
    */
   public void destroyRegion(EventID eventId, Object callbackArg) {
+    clearNearCache();
     DestroyRegionOp.execute(pool, regionName, eventId, callbackArg);
   }
 
@@ -260,6 +307,7 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
    */
   @Override
   public void clear(EventID eventId, Object callbackArg) {
+    clearNearCache();
     ClearOp.execute(pool, regionName, eventId, callbackArg);
   }
 
@@ -587,6 +635,11 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   public VersionedObjectList putAll(Map map, EventID eventId, boolean skipCallbacks,
       Object callbackArg) {
     recordTXOperation(ServerRegionOperation.PUT_ALL, null, map, eventId);
+    if (nearCache != null) {
+      for (Object key : map.keySet()) {
+        nearCache.invalidate(key);
+      }
+    }
     int txID = TXManagerImpl.getCurrentTXUniqueId();
     if (pool.getPRSingleHopEnabled() && (txID == TXManagerImpl.NOTX)) {
       return PutAllOp.execute(pool, region, map, eventId, skipCallbacks,
@@ -601,6 +654,11 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   public VersionedObjectList removeAll(Collection<Object> keys, EventID eventId,
       Object callbackArg) {
     recordTXOperation(ServerRegionOperation.REMOVE_ALL, null, keys, eventId);
+    if (nearCache != null) {
+      for (Object key : keys) {
+        nearCache.invalidate(key);
+      }
+    }
     int txID = TXManagerImpl.getCurrentTXUniqueId();
     if (pool.getPRSingleHopEnabled() && (txID == TXManagerImpl.NOTX)) {
       return RemoveAllOp.execute(pool, region, keys, eventId,
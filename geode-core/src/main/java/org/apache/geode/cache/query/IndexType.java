@@ -57,6 +57,20 @@ public enum IndexType {
   @Deprecated
   HASH("HASH"),
 
+  /**
+   * The index type of a bitmap index. A bitmap index is used for the equality or inequality
+   * comparison of some function of a region value with a constant, and is intended for
+   * indexedExpressions that have few distinct values, such as a status or a flag. The entries
+   * having each value are kept as a bitmap, so that a conjunction or disjunction of conditions on
+   * several bitmap indexes of the same region is evaluated by combining their bitmaps.
+   * <p>
+   * The indexedExpression for a bitmap index can be any Comparable or any of the following
+   * primitive types:<br>
+   * <code>long int short byte char float double</code>
+   *
+   * @see QueryService#createIndex(String, IndexType, String, String)
+   */
+  BITMAP("BITMAP"),
 
   /**
    * The index type of a primary key index. A primary key index uses the keys in the region itself.
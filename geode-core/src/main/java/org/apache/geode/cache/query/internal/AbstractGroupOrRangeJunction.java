@@ -31,9 +31,11 @@ import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.BitmapIndex;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.ObjectType;
+import org.apache.geode.cache.query.types.StructType;
 import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.Assert;
 
@@ -261,6 +263,11 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     // using the intermediate results so far (passed in)
     // put results into new intermediate results
 
+    SelectResults bitmapResults = bitmapIndexFilterEvaluate(context, intermediateResults);
+    if (bitmapResults != null) {
+      return bitmapResults;
+    }
+
     List sortedConditionsList =
         this.getCondtionsSortedOnIncreasingEstimatedIndexResultSize(context);
 
@@ -345,6 +352,56 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     return intermediateResults;
   }
 
+  /**
+   * Evaluates the junction by combining the bitmaps of the bitmap indexes used by its operands,
+   * when all of them are equality or not-equality conditions on bitmap indexes of the same region
+   * and their results need no conditioning.
+   *
+   * @return the results, or null if the junction cannot be evaluated this way
+   */
+  private SelectResults bitmapIndexFilterEvaluate(ExecutionContext context,
+      SelectResults intermediateResults) throws FunctionDomainException, TypeMismatchException,
+      NameResolutionException, QueryInvocationTargetException {
+    if (intermediateResults != null || this.indpndntItr.length != 1 || this._operands.length < 2
+        || context.isCqQueryContext()
+        || Boolean.TRUE.equals(context.cacheGet(CompiledValue.CAN_APPLY_ORDER_BY_AT_INDEX))) {
+      return null;
+    }
+    int len = this._operands.length;
+    IndexInfo[] conditions = new IndexInfo[len];
+    Object[] keys = new Object[len];
+    for (int i = 0; i < len; i++) {
+      if (!(this._operands[i] instanceof CompiledComparison)) {
+        return null;
+      }
+      CompiledComparison comparison = (CompiledComparison) this._operands[i];
+      IndexInfo[] indexInfo = comparison.getIndexInfo(context);
+      if (indexInfo == null || indexInfo.length != 1
+          || !(indexInfo[0]._getIndex() instanceof BitmapIndex)
+          || comparison.isConditioningNeededForIndex(this.indpndntItr[0], context,
+              this.completeExpansion)) {
+        return null;
+      }
+      conditions[i] = indexInfo[0];
+      keys[i] = indexInfo[0].evaluateIndexKey(context);
+    }
+    ObjectType resultType = conditions[0]._getIndex().getResultSetType();
+    if (resultType instanceof StructType) {
+      return null;
+    }
+    SelectResults results = QueryUtils.createResultCollection(context, resultType);
+    if (!BitmapIndex.query(conditions, keys, _operator == LITERAL_and, this.indpndntItr[0],
+        context, results)) {
+      return null;
+    }
+    QueryObserver observer = QueryObserverHolder.getInstance();
+    for (int i = 0; i < len; i++) {
+      observer.beforeIndexLookup(conditions[i]._getIndex(), conditions[i]._operator(), keys[i]);
+      observer.afterIndexLookup(results);
+    }
+    return results;
+  }
+
   /** invariant: the operand is known to be evaluated by iteration */
   private SelectResults auxIterateEvaluate(CompiledValue operand, ExecutionContext context,
       SelectResults intermediateResults) throws FunctionDomainException, TypeMismatchException,
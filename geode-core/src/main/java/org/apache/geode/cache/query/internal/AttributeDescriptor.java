@@ -39,6 +39,8 @@ import org.apache.geode.internal.util.JavaWorkarounds;
 import org.apache.geode.pdx.JSONFormatter;
 import org.apache.geode.pdx.PdxSerializationException;
 import org.apache.geode.pdx.internal.InternalPdxInstance;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
 import org.apache.geode.pdx.internal.PdxType;
 import org.apache.geode.pdx.internal.TypeRegistry;
 import org.apache.geode.security.NotAuthorizedException;
@@ -49,9 +51,9 @@ import org.apache.geode.security.NotAuthorizedException;
 public class AttributeDescriptor {
   private final String _name;
   private final TypeRegistry _pdxRegistry;
-  /** cache for remembering the correct Member for a class and attribute */
+  /** cache for remembering the correct Member and its accessor for a class and attribute */
   @MakeNotStatic
-  static final ConcurrentMap<List, Member> _localCache = new ConcurrentHashMap<>();
+  static final ConcurrentMap<List, ReadMember> _localCache = new ConcurrentHashMap<>();
 
   public AttributeDescriptor(TypeRegistry pdxRegistry, String name) {
     _name = name;
@@ -93,91 +95,98 @@ public class AttributeDescriptor {
     }
 
     Class resolutionClass = target.getClass();
-    Member m = getReadMember(resolutionClass);
+    ReadMember readMember = getResolvedReadMember(resolutionClass);
+    Member m = readMember.member;
     try {
       if (m instanceof Method) {
-        try {
-          Method method = (Method) m;
-          // Try to use previous result so authorizer gets invoked only once per query.
-          boolean authorizationResult;
-          String cacheKey = target.getClass().getCanonicalName() + "." + method.getName();
-          Boolean cachedResult = (Boolean) executionContext.cacheGet(cacheKey);
-
-          if (cachedResult == null) {
-            // First time, evaluate and cache result.
-            authorizationResult =
-                executionContext.getMethodInvocationAuthorizer().authorize(method, target);
-            executionContext.cachePut(cacheKey, authorizationResult);
-          } else {
-            // Use cached result.
-            authorizationResult = cachedResult;
-          }
-
-          if (!authorizationResult) {
-            throw new NotAuthorizedException(UNAUTHORIZED_STRING + method.getName());
-          }
-
-          return method.invoke(target, (Object[]) null);
-        } catch (EntryDestroyedException e) {
-          // eat the Exception
-          return QueryService.UNDEFINED;
-        } catch (IllegalAccessException e) {
-          throw new NameNotFoundException(
-              String.format(
-                  "Method ' %s ' in class ' %s ' is not accessible to the query processor",
-                  m.getName(), target.getClass().getName()),
-              e);
-        } catch (InvocationTargetException e) {
-          // if the target exception is Exception, wrap that,
-          // otherwise wrap the InvocationTargetException itself
-          Throwable t = e.getTargetException();
-          if ((t instanceof EntryDestroyedException)) {
-            // eat the exception
-            return QueryService.UNDEFINED;
-          }
-          if (t instanceof Exception)
-            throw new QueryInvocationTargetException(t);
-          throw new QueryInvocationTargetException(e);
+        Method method = (Method) m;
+        // Try to use previous result so authorizer gets invoked only once per query.
+        boolean authorizationResult;
+        String cacheKey = readMember.authorizationCacheKey;
+        Boolean cachedResult = (Boolean) executionContext.cacheGet(cacheKey);
+
+        if (cachedResult == null) {
+          // First time, evaluate and cache result.
+          authorizationResult =
+              executionContext.getMethodInvocationAuthorizer().authorize(method, target);
+          executionContext.cachePut(cacheKey, authorizationResult);
+        } else {
+          // Use cached result.
+          authorizationResult = cachedResult;
         }
-      } else {
-        try {
-          return ((Field) m).get(target);
-        } catch (IllegalAccessException e) {
-          throw new NameNotFoundException(
-              String.format(
-                  "Field ' %s ' in class ' %s ' is not accessible to the query processor",
-                  m.getName(), target.getClass().getName()),
-              e);
-        } catch (EntryDestroyedException e) {
-          return QueryService.UNDEFINED;
+
+        if (!authorizationResult) {
+          throw new NotAuthorizedException(UNAUTHORIZED_STRING + method.getName());
         }
       }
+
+      return readMember.accessor.invoke(target, null);
     } catch (EntryDestroyedException e) {
       // eat the exception
       return QueryService.UNDEFINED;
+    } catch (IllegalAccessException e) {
+      String message = m instanceof Method
+          ? "Method ' %s ' in class ' %s ' is not accessible to the query processor"
+          : "Field ' %s ' in class ' %s ' is not accessible to the query processor";
+      throw new NameNotFoundException(
+          String.format(message, m.getName(), target.getClass().getName()), e);
+    } catch (InvocationTargetException e) {
+      // if the target exception is Exception, wrap that,
+      // otherwise wrap the InvocationTargetException itself
+      Throwable t = e.getTargetException();
+      if ((t instanceof EntryDestroyedException)) {
+        // eat the exception
+        return QueryService.UNDEFINED;
+      }
+      if (t instanceof Exception)
+        throw new QueryInvocationTargetException(t);
+      throw new QueryInvocationTargetException(e);
     }
   }
 
-  @SuppressWarnings("unchecked")
   Member getReadMember(Class targetClass) throws NameNotFoundException {
+    return getResolvedReadMember(targetClass).member;
+  }
+
+  /**
+   * Returns the member this attribute resolves to for instances of the given class if it can be
+   * read without consulting the authorizer again during this query: a field, or a method whose
+   * invocation was already authorized. Returns null otherwise.
+   */
+  Member getAuthorizedReadMember(Class targetClass, ExecutionContext executionContext) {
+    ReadMember readMember;
+    try {
+      readMember = getResolvedReadMember(targetClass);
+    } catch (NameNotFoundException e) {
+      return null;
+    }
+    if (readMember.member instanceof Method
+        && !Boolean.TRUE.equals(executionContext.cacheGet(readMember.authorizationCacheKey))) {
+      return null;
+    }
+    return readMember.member;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ReadMember getResolvedReadMember(Class targetClass) throws NameNotFoundException {
     // mapping: public field (same name), method (getAttribute()), method (attribute())
     List key = new ArrayList();
     key.add(targetClass);
     key.add(_name);
 
-    Member m = JavaWorkarounds.computeIfAbsent(_localCache, key, k -> {
+    ReadMember readMember = JavaWorkarounds.computeIfAbsent(_localCache, key, k -> {
       Member member = getReadField(targetClass);
-      return member == null ? getReadMethod(targetClass) : member;
+      if (member == null) {
+        member = getReadMethod(targetClass);
+      }
+      return member == null ? null : new ReadMember(targetClass, member);
     });
 
-    if (m == null) {
+    if (readMember == null) {
       throw new NameNotFoundException(String.format(
           "No public attribute named ' %s ' was found in class %s", _name, targetClass.getName()));
     }
-
-    // override security for nonpublic derived classes with public members
-    ((AccessibleObject) m).setAccessible(true);
-    return m;
+    return readMember;
   }
 
   Field getReadField(Class targetType) {
@@ -217,43 +226,48 @@ public class AttributeDescriptor {
    */
   private Object readPdx(InternalPdxInstance pdxInstance, ExecutionContext executionContext)
       throws NameNotFoundException, QueryInvocationTargetException {
-    // if the field is present in the pdxinstance
-    if (pdxInstance.hasField(_name)) {
+    if (pdxInstance instanceof PdxInstanceImpl) {
+      // resolve the field once and read it at its offset in the serialized bytes
+      PdxInstanceImpl instance = (PdxInstanceImpl) pdxInstance;
+      PdxField field = instance.getPdxType().getPdxField(_name);
+      if (field != null) {
+        return instance.getRawField(field);
+      }
+    } else if (pdxInstance.hasField(_name)) {
       // return PdxString if field is a String otherwise invoke readField
       return pdxInstance.getRawField(_name);
-    } else {
-      // field not found in the pdx instance, look for the field in any of the
-      // PdxTypes (versions of the pdxinstance) in the type registry
-      String className = pdxInstance.getClassName();
+    }
+    // field not found in the pdx instance, look for the field in any of the
+    // PdxTypes (versions of the pdxinstance) in the type registry
+    String className = pdxInstance.getClassName();
 
-      // don't look further for field or method or reflect on GemFire JSON data
-      if (className.equals(JSONFormatter.JSON_CLASSNAME)) {
-        return QueryService.UNDEFINED;
-      }
+    // don't look further for field or method or reflect on GemFire JSON data
+    if (className.equals(JSONFormatter.JSON_CLASSNAME)) {
+      return QueryService.UNDEFINED;
+    }
 
-      // check if the field was not found previously
-      if (!isFieldAlreadySearchedAndNotFound(className, _name)) {
-        PdxType pdxType = _pdxRegistry.getPdxTypeForField(_name, className);
-        if (pdxType == null) {
-          // remember the field that is not present in any version to avoid
-          // trips to the registry next time
-          updateClassToFieldsMap(className, _name);
-        } else {
-          return pdxType.getPdxField(_name).getFieldType().getDefaultValue();
-        }
+    // check if the field was not found previously
+    if (!isFieldAlreadySearchedAndNotFound(className, _name)) {
+      PdxType pdxType = _pdxRegistry.getPdxTypeForField(_name, className);
+      if (pdxType == null) {
+        // remember the field that is not present in any version to avoid
+        // trips to the registry next time
+        updateClassToFieldsMap(className, _name);
+      } else {
+        return pdxType.getPdxField(_name).getFieldType().getDefaultValue();
       }
-      // if the field is not present in any of the versions try to
-      // invoke implicit method call
-      if (!this.isMethodAlreadySearchedAndNotFound(className, _name)) {
-        try {
-          return readFieldFromDeserializedObject(pdxInstance, executionContext);
-        } catch (NameNotFoundException ex) {
-          updateClassToMethodsMap(pdxInstance.getClassName(), _name);
-          throw ex;
-        }
-      } else
-        return QueryService.UNDEFINED;
     }
+    // if the field is not present in any of the versions try to
+    // invoke implicit method call
+    if (!this.isMethodAlreadySearchedAndNotFound(className, _name)) {
+      try {
+        return readFieldFromDeserializedObject(pdxInstance, executionContext);
+      } catch (NameNotFoundException ex) {
+        updateClassToMethodsMap(pdxInstance.getClassName(), _name);
+        throw ex;
+      }
+    } else
+      return QueryService.UNDEFINED;
   }
 
   private Object readFieldFromDeserializedObject(InternalPdxInstance pdxInstance,
@@ -311,4 +325,22 @@ public class AttributeDescriptor {
 
     return false;
   }
+
+  /**
+   * The member an attribute resolves to for a class, with the accessor used to read it and the key
+   * its authorization result is cached under for the duration of a query.
+   */
+  private static class ReadMember {
+    private final Member member;
+    private final MemberAccessor accessor;
+    private final String authorizationCacheKey;
+
+    ReadMember(Class targetClass, Member member) {
+      // override security for nonpublic derived classes with public members
+      ((AccessibleObject) member).setAccessible(true);
+      this.member = member;
+      this.accessor = MemberAccessor.create(member);
+      this.authorizationCacheKey = targetClass.getCanonicalName() + "." + member.getName();
+    }
+  }
 }
@@ -0,0 +1,676 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.cache.CacheListener;
+import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.EntryEvent;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionEvent;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameNotFoundException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.util.CacheListenerAdapter;
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.EntryEventImpl;
+import org.apache.geode.internal.cache.KeyInfo;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.PartitionedRegionDataStore;
+import org.apache.geode.internal.cache.PartitionedRegionHelper;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * An opt-in projection of selected fields of the values of a region into columns of primitive
+ * values. Aggregate queries over the region whose where clause, group by and aggregate functions
+ * only read projected fields scan the columns instead of iterating over the values of the region,
+ * which avoids deserializing the values and evaluating paths on them.
+ *
+ * <p>
+ * The columns are kept in one segment per local bucket of a partitioned region, or in a single
+ * segment for any other region. A segment is loaded from its bucket by the first query that scans
+ * it and is then maintained from the entry events of the region, since the projection is installed
+ * as a {@link CacheListener}. Integral fields are stored in {@code long} arrays, floating point
+ * fields in {@code double} arrays and strings in object arrays. A column whose values are null or
+ * UNDEFINED, are of different classes or of any other class cannot answer a query, which then
+ * iterates over the region as usual.
+ */
+public class ColumnarProjection extends CacheListenerAdapter<Object, Object> {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The id of the only segment of a region that is not partitioned.
+   */
+  private static final int REGION_SEGMENT = -1;
+
+  private final Region<?, ?> region;
+  private final String[] fields;
+  private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+  private ColumnarProjection(Region<?, ?> region, String[] fields) {
+    this.region = region;
+    this.fields = fields;
+  }
+
+  /**
+   * Creates a projection of the given fields of the values of a region and installs it on the
+   * region.
+   *
+   * @throws IllegalStateException if the region already has a projection
+   */
+  public static ColumnarProjection create(Region<?, ?> region, String... fields) {
+    if (fields.length == 0) {
+      throw new IllegalArgumentException("A columnar projection requires at least one field");
+    }
+    synchronized (ColumnarProjection.class) {
+      if (get(region) != null) {
+        throw new IllegalStateException(String.format(
+            "Region %s already has a columnar projection", region.getFullPath()));
+      }
+      ColumnarProjection projection = new ColumnarProjection(region, fields.clone());
+      region.getAttributesMutator().addCacheListener(projection);
+      return projection;
+    }
+  }
+
+  /**
+   * Returns the projection installed on a region, or null if it has none.
+   */
+  public static ColumnarProjection get(Region<?, ?> region) {
+    for (CacheListener<?, ?> listener : region.getAttributes().getCacheListeners()) {
+      if (listener instanceof ColumnarProjection) {
+        return (ColumnarProjection) listener;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Uninstalls this projection from its region and releases its columns.
+   */
+  public void remove() {
+    region.getAttributesMutator().removeCacheListener(this);
+    segments.clear();
+  }
+
+  public String[] getFields() {
+    return fields.clone();
+  }
+
+  /**
+   * Returns the column of a field, or -1 if the field is not projected.
+   */
+  int getColumn(String field) {
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].equals(field)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Visits the values of some columns of the rows that satisfy all the given conditions. The rows
+   * are those of the given buckets, or of the region if the list is null. The segments are scanned
+   * one at a time, so a scan never holds more than one lock.
+   *
+   * @param bucketIds the buckets to scan, or null if the region is not partitioned
+   * @param columns the columns whose values are passed to the visitor
+   * @param conditions the conditions a row has to satisfy
+   * @return false if the projection cannot answer the scan, in which case the visitor may already
+   *         have visited the rows of some segments
+   */
+  boolean scan(List<Integer> bucketIds, int[] columns, List<Condition> conditions,
+      RowVisitor visitor) throws FunctionDomainException, TypeMismatchException,
+      NameResolutionException, QueryInvocationTargetException {
+    List<Integer> segmentIds =
+        bucketIds != null ? bucketIds : Collections.singletonList(REGION_SEGMENT);
+    Class<?>[] valueClasses = new Class<?>[fields.length];
+    Object[] values = new Object[columns.length];
+    for (Integer segmentId : segmentIds) {
+      Segment segment = getSegment(segmentId);
+      if (segment == null) {
+        return false;
+      }
+      segment.lock.readLock().lock();
+      try {
+        if (!segment.canScan(columns, conditions, valueClasses)) {
+          return false;
+        }
+        segment.scan(columns, conditions, values, visitor);
+      } finally {
+        segment.lock.readLock().unlock();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the loaded segment of the current instance of a bucket, or of the region, loading it if
+   * necessary. Returns null if the bucket is not hosted by this member or cannot be loaded.
+   */
+  private Segment getSegment(int segmentId) {
+    LocalRegion source = getSource(segmentId);
+    if (source == null) {
+      return null;
+    }
+    Segment segment = segments.get(segmentId);
+    if (segment != null && segment.source == source) {
+      return segment;
+    }
+    synchronized (segments) {
+      segment = segments.get(segmentId);
+      if (segment != null && segment.source == source) {
+        return segment;
+      }
+      // drop the segments of buckets this member no longer hosts
+      for (Iterator<Map.Entry<Integer, Segment>> iterator =
+          segments.entrySet().iterator(); iterator.hasNext();) {
+        Map.Entry<Integer, Segment> entry = iterator.next();
+        if (getSource(entry.getKey()) != entry.getValue().source) {
+          iterator.remove();
+        }
+      }
+      // Installed before it is loaded, so the listener applies any operation that completes after
+      // the load started to this segment, once the load is done.
+      segment = new Segment(source);
+      segment.lock.writeLock().lock();
+      segments.put(segmentId, segment);
+    }
+    try {
+      segment.load();
+      return segment;
+    } catch (RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Unable to load the columnar projection of {}", source.getFullPath(), e);
+      }
+      segment.valid = false;
+      segments.remove(segmentId, segment);
+      return null;
+    } finally {
+      segment.lock.writeLock().unlock();
+    }
+  }
+
+  private LocalRegion getSource(int segmentId) {
+    if (segmentId == REGION_SEGMENT) {
+      return (LocalRegion) region;
+    }
+    PartitionedRegionDataStore dataStore = ((PartitionedRegion) region).getDataStore();
+    return dataStore != null ? dataStore.getLocalBucketById(segmentId) : null;
+  }
+
+  private int getSegmentId(EntryEvent<Object, Object> event) {
+    if (!(region instanceof PartitionedRegion)) {
+      return REGION_SEGMENT;
+    }
+    if (event.getRegion() instanceof BucketRegion) {
+      return ((BucketRegion) event.getRegion()).getId();
+    }
+    if (event instanceof EntryEventImpl) {
+      KeyInfo keyInfo = ((EntryEventImpl) event).getKeyInfo();
+      if (keyInfo != null && keyInfo.getBucketId() != KeyInfo.UNKNOWN_BUCKET) {
+        return keyInfo.getBucketId();
+      }
+    }
+    return PartitionedRegionHelper.getHashKey((PartitionedRegion) region, event.getOperation(),
+        event.getKey(), event.getNewValue(), event.getCallbackArgument());
+  }
+
+  private void refresh(EntryEvent<Object, Object> event) {
+    int segmentId = getSegmentId(event);
+    Segment segment = segments.get(segmentId);
+    if (segment == null) {
+      // not loaded yet, the load reads the current value
+      return;
+    }
+    try {
+      segment.refresh(event.getKey());
+    } catch (RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Unable to update the columnar projection of {} for {}",
+            region.getFullPath(), event.getKey(), e);
+      }
+      // the next query loads the segment again
+      segment.valid = false;
+      segments.remove(segmentId, segment);
+    }
+  }
+
+  @Override
+  public void afterCreate(EntryEvent<Object, Object> event) {
+    refresh(event);
+  }
+
+  @Override
+  public void afterUpdate(EntryEvent<Object, Object> event) {
+    refresh(event);
+  }
+
+  @Override
+  public void afterInvalidate(EntryEvent<Object, Object> event) {
+    refresh(event);
+  }
+
+  @Override
+  public void afterDestroy(EntryEvent<Object, Object> event) {
+    refresh(event);
+  }
+
+  @Override
+  public void afterRegionClear(RegionEvent<Object, Object> event) {
+    segments.clear();
+  }
+
+  @Override
+  public void afterRegionInvalidate(RegionEvent<Object, Object> event) {
+    segments.clear();
+  }
+
+  @Override
+  public void afterRegionDestroy(RegionEvent<Object, Object> event) {
+    segments.clear();
+  }
+
+  @Override
+  public void close() {
+    segments.clear();
+  }
+
+  /**
+   * Receives the values of the columns of the rows a scan selects.
+   */
+  interface RowVisitor {
+    /**
+     * @param values the values of the scanned columns, which are only valid during the call
+     */
+    void visit(Object[] values) throws FunctionDomainException, TypeMismatchException,
+        NameResolutionException, QueryInvocationTargetException;
+  }
+
+  /**
+   * A comparison of a column with a constant. Integral columns are compared with integral
+   * constants, floating point columns with floating point constants and strings for equality,
+   * like {@link CompiledComparison} compares the values of the fields.
+   */
+  static class Condition implements OQLLexerTokenTypes {
+    private final int column;
+    private final int operator;
+    private final Object constant;
+
+    Condition(int column, int operator, Object constant) {
+      this.column = column;
+      this.operator = operator;
+      this.constant = constant;
+    }
+
+    /**
+     * Returns true if the condition can be evaluated on a column of the given class.
+     */
+    boolean accepts(Class<?> valueClass) {
+      if (isIntegral(valueClass)) {
+        return isIntegral(constant.getClass());
+      }
+      if (isFloatingPoint(valueClass)) {
+        return isFloatingPoint(constant.getClass());
+      }
+      return valueClass == String.class && constant instanceof String
+          && (operator == TOK_EQ || operator == TOK_NE);
+    }
+
+    boolean matches(int comparison) {
+      switch (operator) {
+        case TOK_EQ:
+          return comparison == 0;
+        case TOK_NE:
+          return comparison != 0;
+        case TOK_LT:
+          return comparison < 0;
+        case TOK_LE:
+          return comparison <= 0;
+        case TOK_GT:
+          return comparison > 0;
+        case TOK_GE:
+          return comparison >= 0;
+        default:
+          throw new IllegalArgumentException(String.format("Unknown operator: %s", operator));
+      }
+    }
+  }
+
+  static boolean isIntegral(Class<?> valueClass) {
+    return valueClass == Integer.class || valueClass == Long.class || valueClass == Short.class
+        || valueClass == Byte.class;
+  }
+
+  static boolean isFloatingPoint(Class<?> valueClass) {
+    return valueClass == Double.class || valueClass == Float.class;
+  }
+
+  /**
+   * The columns of the rows of a bucket, or of a region that is not partitioned. A row is kept in a
+   * slot of the columns, and the slots of removed rows are reused.
+   */
+  private class Segment {
+    private final LocalRegion source;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Object, Integer> slots = new HashMap<>();
+    private final BitSet used = new BitSet();
+    private final Column[] columns = new Column[fields.length];
+    /** the context field values are read with, only used while holding the write lock */
+    private final ExecutionContext context;
+    private int firstFreeSlot;
+    private volatile boolean valid = true;
+
+    Segment(LocalRegion source) {
+      this.source = source;
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = new Column();
+      }
+      context = new ExecutionContext(null, source.getCache());
+    }
+
+    /**
+     * Reads all values of the source. Called with the write lock held.
+     */
+    void load() {
+      for (Object object : source.entrySet(false)) {
+        Region.Entry<?, ?> entry = (Region.Entry<?, ?>) object;
+        Object value;
+        try {
+          value = entry.getValue();
+        } catch (EntryDestroyedException e) {
+          continue;
+        }
+        if (value != null) {
+          set(entry.getKey(), value);
+        }
+      }
+    }
+
+    /**
+     * Reads the current value of a key from the source. The value is read while holding the write
+     * lock, so the row ends up with the latest value even if the events of concurrent operations on
+     * the key are delivered out of order.
+     */
+    void refresh(Object key) {
+      lock.writeLock().lock();
+      try {
+        Object value = null;
+        Region.Entry<?, ?> entry = source.getEntry(key);
+        if (entry != null) {
+          try {
+            value = entry.getValue();
+          } catch (EntryDestroyedException e) {
+            // removed below
+          }
+        }
+        if (value != null) {
+          set(key, value);
+        } else {
+          remove(key);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private void set(Object key, Object value) {
+      Integer slot = slots.get(key);
+      if (slot == null) {
+        slot = used.nextClearBit(firstFreeSlot);
+        firstFreeSlot = slot + 1;
+        used.set(slot);
+        slots.put(key, slot);
+      }
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].set(slot, readField(value, fields[i]));
+      }
+    }
+
+    private void remove(Object key) {
+      Integer slot = slots.remove(key);
+      if (slot != null) {
+        used.clear(slot);
+        firstFreeSlot = Math.min(firstFreeSlot, slot);
+        for (Column column : columns) {
+          column.clear(slot);
+        }
+      }
+    }
+
+    private Object readField(Object value, String field) {
+      try {
+        return PathUtils.evaluateAttribute(context, value, field);
+      } catch (NameNotFoundException | QueryInvocationTargetException | RuntimeException e) {
+        return QueryService.UNDEFINED;
+      }
+    }
+
+    /**
+     * Returns true if the columns a scan reads hold values of a single supported class, which is
+     * the same as in the segments checked before. Called with the read lock held.
+     */
+    boolean canScan(int[] scanColumns, List<Condition> conditions, Class<?>[] valueClasses) {
+      if (!valid) {
+        return false;
+      }
+      if (slots.isEmpty()) {
+        return true;
+      }
+      for (int column : scanColumns) {
+        if (!canScan(column, valueClasses)) {
+          return false;
+        }
+      }
+      for (Condition condition : conditions) {
+        if (!canScan(condition.column, valueClasses)
+            || !condition.accepts(columns[condition.column].valueClass)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean canScan(int column, Class<?>[] valueClasses) {
+      Column values = columns[column];
+      if (!values.isUsable()) {
+        return false;
+      }
+      if (valueClasses[column] == null) {
+        valueClasses[column] = values.valueClass;
+      }
+      return valueClasses[column] == values.valueClass;
+    }
+
+    /**
+     * Filters the rows column by column, then visits the selected rows. Called with the read lock
+     * held.
+     */
+    void scan(int[] scanColumns, List<Condition> conditions, Object[] values, RowVisitor visitor)
+        throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+        QueryInvocationTargetException {
+      if (slots.isEmpty()) {
+        return;
+      }
+      BitSet rows = (BitSet) used.clone();
+      for (Condition condition : conditions) {
+        columns[condition.column].filter(rows, condition);
+      }
+      for (int slot = rows.nextSetBit(0); slot >= 0; slot = rows.nextSetBit(slot + 1)) {
+        for (int i = 0; i < scanColumns.length; i++) {
+          values[i] = columns[scanColumns[i]].get(slot);
+        }
+        visitor.visit(values);
+      }
+    }
+  }
+
+  /**
+   * The values of a field in the slots of a segment. The class of the first value determines how
+   * the values are stored.
+   */
+  private static class Column {
+    private Class<?> valueClass;
+    /** true once a value of another or of an unsupported class has been set */
+    private boolean unusable;
+    /** the slots whose value is null or UNDEFINED */
+    private final BitSet nulls = new BitSet();
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+
+    boolean isUsable() {
+      return !unusable && valueClass != null && nulls.isEmpty();
+    }
+
+    void set(int slot, Object value) {
+      if (value == null || value == QueryService.UNDEFINED) {
+        nulls.set(slot);
+        clearObject(slot);
+        return;
+      }
+      nulls.clear(slot);
+      if (value instanceof PdxString) {
+        value = value.toString();
+      }
+      Class<?> valueClass = value.getClass();
+      if (this.valueClass == null) {
+        this.valueClass = valueClass;
+        unusable = !isIntegral(valueClass) && !isFloatingPoint(valueClass)
+            && valueClass != String.class;
+      } else if (this.valueClass != valueClass) {
+        unusable = true;
+      }
+      if (unusable) {
+        return;
+      }
+      if (isIntegral(valueClass)) {
+        longs = ensureCapacity(longs, slot);
+        longs[slot] = ((Number) value).longValue();
+      } else if (isFloatingPoint(valueClass)) {
+        doubles = ensureCapacity(doubles, slot);
+        doubles[slot] = ((Number) value).doubleValue();
+      } else {
+        objects = ensureCapacity(objects, slot);
+        objects[slot] = value;
+      }
+    }
+
+    void clear(int slot) {
+      nulls.clear(slot);
+      clearObject(slot);
+    }
+
+    private void clearObject(int slot) {
+      if (objects != null && slot < objects.length) {
+        objects[slot] = null;
+      }
+    }
+
+    /**
+     * Returns the value of a slot as an instance of the class it was set with.
+     */
+    Object get(int slot) {
+      if (valueClass == Integer.class) {
+        return (int) longs[slot];
+      } else if (valueClass == Long.class) {
+        return longs[slot];
+      } else if (valueClass == Double.class) {
+        return doubles[slot];
+      } else if (valueClass == Float.class) {
+        return (float) doubles[slot];
+      } else if (valueClass == Short.class) {
+        return (short) longs[slot];
+      } else if (valueClass == Byte.class) {
+        return (byte) longs[slot];
+      }
+      return objects[slot];
+    }
+
+    /**
+     * Clears the rows whose value does not satisfy a condition.
+     */
+    void filter(BitSet rows, Condition condition) {
+      if (longs != null) {
+        long constant = ((Number) condition.constant).longValue();
+        for (int slot = rows.nextSetBit(0); slot >= 0; slot = rows.nextSetBit(slot + 1)) {
+          if (!condition.matches(Long.compare(longs[slot], constant))) {
+            rows.clear(slot);
+          }
+        }
+      } else if (doubles != null) {
+        // a float field is compared with a constant rounded to float, unless it is a double
+        double constant = valueClass == Float.class && !(condition.constant instanceof Double)
+            ? ((Number) condition.constant).floatValue()
+            : ((Number) condition.constant).doubleValue();
+        for (int slot = rows.nextSetBit(0); slot >= 0; slot = rows.nextSetBit(slot + 1)) {
+          if (!condition.matches(Double.compare(doubles[slot], constant))) {
+            rows.clear(slot);
+          }
+        }
+      } else {
+        for (int slot = rows.nextSetBit(0); slot >= 0; slot = rows.nextSetBit(slot + 1)) {
+          if (!condition.matches(objects[slot].equals(condition.constant) ? 0 : 1)) {
+            rows.clear(slot);
+          }
+        }
+      }
+    }
+
+    private static long[] ensureCapacity(long[] values, int slot) {
+      if (values == null) {
+        return new long[Math.max(16, slot + 1)];
+      }
+      return slot < values.length ? values
+          : Arrays.copyOf(values, Math.max(values.length * 2, slot + 1));
+    }
+
+    private static double[] ensureCapacity(double[] values, int slot) {
+      if (values == null) {
+        return new double[Math.max(16, slot + 1)];
+      }
+      return slot < values.length ? values
+          : Arrays.copyOf(values, Math.max(values.length * 2, slot + 1));
+    }
+
+    private static Object[] ensureCapacity(Object[] values, int slot) {
+      if (values == null) {
+        return new Object[Math.max(16, slot + 1)];
+      }
+      return slot < values.length ? values
+          : Arrays.copyOf(values, Math.max(values.length * 2, slot + 1));
+    }
+  }
+}
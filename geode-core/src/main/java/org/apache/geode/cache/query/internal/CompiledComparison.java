@@ -47,6 +47,12 @@ import org.apache.geode.pdx.internal.PdxString;
 public class CompiledComparison extends AbstractCompiledValue
     implements Negatable, OQLLexerTokenTypes, Indexable {
 
+  /**
+   * The fraction of the entries of a region above which the cost based planner evaluates a
+   * condition by iterating over the region rather than through an index
+   */
+  private static final float INDEX_LOOKUP_MAX_FRACTION = 0.5f;
+
   // persistent inst vars
   public final CompiledValue _left;
   public final CompiledValue _right;
@@ -252,6 +258,11 @@ public class CompiledComparison extends AbstractCompiledValue
     IndexInfo[] indexInfo = getIndexInfo(context);
     if (indexInfo == null)
       return result;
+    if (DefaultQuery.COST_BASED_PLANNING && indexInfo.length == 1
+        && !(this instanceof CompiledLike) && !isIndexLookupCheaper(context, indexInfo[0])) {
+      // evaluate by iteration
+      return result;
+    }
     for (int i = 0; i < indexInfo.length; ++i) {
       result.indexes.add(indexInfo[i]._index);
     }
@@ -262,7 +273,7 @@ public class CompiledComparison extends AbstractCompiledValue
       // out.
       // thus the first index is guaranteed to be on the condition which may match our preferred
       // index
-      if (indexInfo[0]._index.getCanonicalizedIndexedExpression().equals(preferredCondn)
+      if (indexInfo[0]._index.isOrderedBy(preferredCondn, _operator == TOK_EQ)
           && indexInfo[0]._index.getType() != IndexType.PRIMARY_KEY) {
         result.isPreferred = true;
       }
@@ -270,6 +281,34 @@ public class CompiledComparison extends AbstractCompiledValue
     return result;
   }
 
+  /**
+   * Returns true unless the cost based planner estimates that this condition selects more than
+   * {@link #INDEX_LOOKUP_MAX_FRACTION} of the entries of the region, in which case iterating over
+   * the region is cheaper than looking up the index and fetching the selected entries.
+   */
+  private boolean isIndexLookupCheaper(ExecutionContext context, IndexInfo indexInfo)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    if (indexInfo._key().isDependentOnCurrentScope(context)) {
+      // the key is not known before iterating
+      return true;
+    }
+    if (context instanceof QueryExecutionContext
+        && ((QueryExecutionContext) context).isHinted(indexInfo._index.getName())) {
+      return true;
+    }
+    int sizeEstimate;
+    try {
+      sizeEstimate = getSizeEstimate(context);
+    } catch (FunctionDomainException | QueryInvocationTargetException e) {
+      return true;
+    }
+    boolean useIndex = sizeEstimate == Integer.MAX_VALUE
+        || sizeEstimate <= INDEX_LOOKUP_MAX_FRACTION * indexInfo._index.getRegion().size();
+    QueryObserverHolder.getInstance().afterIndexCostEstimate(indexInfo._index, sizeEstimate,
+        useIndex);
+    return useIndex;
+  }
+
   @Override
   public Set computeDependencies(ExecutionContext context)
       throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
@@ -727,7 +766,7 @@ public class CompiledComparison extends AbstractCompiledValue
       PlanInfo pi = this.getPlanInfo(context);
       if (pi.indexes.size() == 1) {
         IndexProtocol ip = (IndexProtocol) pi.indexes.get(0);
-        if (ip.getCanonicalizedIndexedExpression().equals(canonicalizedOrderByClause)
+        if (ip.isOrderedBy(canonicalizedOrderByClause, _operator == TOK_EQ)
             && ip.getType() != IndexType.PRIMARY_KEY && pi.isPreferred) {
           return true;
         }
@@ -780,8 +819,8 @@ public class CompiledComparison extends AbstractCompiledValue
     int thatSize = comparedTo.getSizeEstimate(context);
     int thatOperator = comparedTo.getOperator();
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or costs are estimated.
+    if (context.isFilterChosenBySize()) {
       return thisSize <= thatSize;
     }
 
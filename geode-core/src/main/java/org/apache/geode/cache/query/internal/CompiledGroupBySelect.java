@@ -14,15 +14,19 @@
  */
 package org.apache.geode.cache.query.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.query.Aggregator;
 import org.apache.geode.cache.query.AmbiguousNameException;
 import org.apache.geode.cache.query.FunctionDomainException;
@@ -38,6 +42,7 @@ import org.apache.geode.cache.query.internal.types.TypeUtils;
 import org.apache.geode.cache.query.internal.utils.PDXUtils;
 import org.apache.geode.cache.query.types.ObjectType;
 import org.apache.geode.cache.query.types.StructType;
+import org.apache.geode.internal.cache.PartitionedRegion;
 
 public class CompiledGroupBySelect extends CompiledSelect {
 
@@ -154,12 +159,202 @@ public class CompiledGroupBySelect extends CompiledSelect {
   @Override
   public SelectResults evaluate(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    SelectResults columnarResults = evaluateFromColumnarProjection(context);
+    if (columnarResults != null) {
+      return columnarResults;
+    }
     SelectResults selectResults = super.evaluate(context);
     QueryObserverHolder.getInstance().beforeAggregationsAndGroupBy(selectResults);
 
     return this.applyAggregateAndGroupBy(selectResults, context);
   }
 
+  /**
+   * Aggregates the columns of the {@link ColumnarProjection} of the region the query iterates over,
+   * if the projection has all the fields the where clause, group by and aggregate functions read.
+   *
+   * @return the results, or null if the query has to iterate over the region
+   */
+  private SelectResults evaluateFromColumnarProjection(ExecutionContext context)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    if (this.aggregateFunctions.length == 0 || this.originalOrderByClause != null
+        || getIterators().size() != 1 || this.cachedElementTypeForOrderBy == null
+        || context.isCqQueryContext() || context.getIsPRQueryNode()
+        || context.getPartitionedRegion() != null) {
+      return null;
+    }
+    CompiledIteratorDef iteratorDef = (CompiledIteratorDef) getIterators().get(0);
+    if (!(iteratorDef.getCollectionExpr() instanceof CompiledRegion)) {
+      return null;
+    }
+    Region region = context.getCache()
+        .getRegion(((CompiledRegion) iteratorDef.getCollectionExpr()).getRegionPath());
+    ColumnarProjection projection = region != null ? ColumnarProjection.get(region) : null;
+    if (projection == null
+        || (region instanceof PartitionedRegion) != (context.getBucketList() != null)) {
+      return null;
+    }
+    String iteratorName = iteratorDef.getName();
+
+    // the scanned column of each projected attribute, or -1 for count(*)
+    int[] columns = new int[this.projAttrs.size()];
+    int groupByPosition = -1;
+    int aggFuncIndex = 0;
+    for (int i = 0; i < columns.length; i++) {
+      CompiledValue value;
+      if (this.aggregateColsPos.get(i)) {
+        value = this.aggregateFunctions[aggFuncIndex++].getParameter();
+        if (value == null) {
+          columns[i] = -1;
+          continue;
+        }
+      } else if (groupByPosition < 0) {
+        groupByPosition = i;
+        value = (CompiledValue) ((Object[]) this.projAttrs.get(i))[1];
+      } else {
+        return null;
+      }
+      columns[i] = projection.getColumn(getAttributeName(value, iteratorName));
+      if (columns[i] < 0) {
+        return null;
+      }
+    }
+    List<ColumnarProjection.Condition> conditions = new ArrayList<>();
+    if (getWhereClause() != null && !addConditions(getWhereClause(), projection, iteratorName,
+        context, conditions)) {
+      return null;
+    }
+
+    int[] scanColumns = Arrays.stream(columns).filter(column -> column >= 0).toArray();
+    int[] valueIndexes = new int[columns.length];
+    for (int i = 0, scanIndex = 0; i < columns.length; i++) {
+      valueIndexes[i] = columns[i] >= 0 ? scanIndex++ : -1;
+    }
+    final int groupByValueIndex = groupByPosition >= 0 ? valueIndexes[groupByPosition] : -1;
+    // the group by turned into an order by returns the groups in ascending order
+    Map<Object, Aggregator[]> groups = groupByPosition >= 0 ? new TreeMap<>() : new HashMap<>();
+    boolean scanned = projection.scan(context.getBucketList(), scanColumns, conditions, values -> {
+      Object key = groupByValueIndex >= 0 ? values[groupByValueIndex] : null;
+      Aggregator[] aggregators = groups.get(key);
+      if (aggregators == null) {
+        aggregators = new Aggregator[this.aggregateFunctions.length];
+        refreshAggregators(aggregators, context);
+        groups.put(key, aggregators);
+      }
+      int bitstart = 0;
+      for (Aggregator aggregator : aggregators) {
+        int pos = this.aggregateColsPos.nextSetBit(bitstart);
+        bitstart = pos + 1;
+        // count(*) counts the literal that replaced its parameter
+        aggregator.accumulate(valueIndexes[pos] >= 0 ? values[valueIndexes[pos]] : 0);
+      }
+    });
+    if (!scanned) {
+      return null;
+    }
+
+    ObjectType elementType = this.cachedElementTypeForOrderBy;
+    boolean isStruct = elementType.isStructType();
+    boolean createOrderedResultSet = context.getBucketList() != null && this.orderByAttrs != null;
+    int limitValue = evaluateLimitValue(context, limit);
+    SelectResults newResults =
+        createResultSet(context, elementType, isStruct, createOrderedResultSet);
+    for (Map.Entry<Object, Aggregator[]> group : groups.entrySet()) {
+      Struct prev = null;
+      if (isStruct) {
+        Object[] fieldValues = new Object[columns.length];
+        if (groupByPosition >= 0) {
+          fieldValues[groupByPosition] = group.getKey();
+        }
+        prev = new StructImpl((StructTypeImpl) elementType, fieldValues);
+      }
+      if (!terminateAndAddToResults(isStruct, newResults, group.getValue(), prev, context,
+          !createOrderedResultSet, limitValue)) {
+        break;
+      }
+    }
+    return newResults;
+  }
+
+  /**
+   * Returns the name of the attribute of the iterator a path reads, or null if it is not such a
+   * path.
+   */
+  private String getAttributeName(CompiledValue value, String iteratorName) {
+    if (value instanceof CompiledPath) {
+      CompiledValue receiver = ((CompiledPath) value).getReceiver();
+      if (receiver instanceof CompiledID && iteratorName != null
+          && iteratorName.equals(((CompiledID) receiver).getId())) {
+        return ((CompiledPath) value).getTailID();
+      }
+    } else if (value instanceof CompiledID) {
+      // an implicit attribute of the only iterator
+      String id = ((CompiledID) value).getId();
+      return id.equals(iteratorName) ? null : id;
+    }
+    return null;
+  }
+
+  /**
+   * Adds the comparisons of a where clause that is a conjunction of comparisons of a projected
+   * field with a literal or bind argument.
+   *
+   * @return false if the where clause has any other form
+   */
+  private boolean addConditions(CompiledValue value, ColumnarProjection projection,
+      String iteratorName, ExecutionContext context,
+      List<ColumnarProjection.Condition> conditions) {
+    if (value.getClass() == CompiledJunction.class) {
+      CompiledJunction junction = (CompiledJunction) value;
+      if (junction.getOperator() != LITERAL_and) {
+        return false;
+      }
+      for (Object operand : junction.getChildren()) {
+        if (!addConditions((CompiledValue) operand, projection, iteratorName, context,
+            conditions)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (value.getClass() != CompiledComparison.class) {
+      return false;
+    }
+    CompiledComparison comparison = (CompiledComparison) value;
+    List operands = comparison.getChildren();
+    CompiledValue path = (CompiledValue) operands.get(0);
+    Object constant = getConstant((CompiledValue) operands.get(1), context);
+    int operator = comparison.getOperator();
+    if (constant == null) {
+      constant = getConstant(path, context);
+      path = (CompiledValue) operands.get(1);
+      operator = comparison.reflectOperator(operator);
+    }
+    if (constant == null || !(constant instanceof String
+        || ColumnarProjection.isIntegral(constant.getClass())
+        || ColumnarProjection.isFloatingPoint(constant.getClass()))) {
+      return false;
+    }
+    int column = projection.getColumn(getAttributeName(path, iteratorName));
+    if (column < 0) {
+      return false;
+    }
+    conditions.add(new ColumnarProjection.Condition(column, operator, constant));
+    return true;
+  }
+
+  private Object getConstant(CompiledValue value, ExecutionContext context) {
+    if (value instanceof CompiledLiteral || value instanceof CompiledBindArgument) {
+      try {
+        return value.evaluate(context);
+      } catch (Exception e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
   public SelectResults applyAggregateAndGroupBy(SelectResults baseResults, ExecutionContext context)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
       QueryInvocationTargetException {
@@ -225,9 +225,10 @@ public class CompiledIn extends AbstractCompiledValue implements Indexable {
       // out.
       // thus the first index is guaranteed to be on the condition which may match our preferred
       // index
-      if (indexInfo[0]._index.getCanonicalizedIndexedExpression().equals(preferredCondn)
+      if (indexInfo[0]._index.isOrderedBy(preferredCondn, false)
           && (indexInfo[0]._index.getType() == IndexType.FUNCTIONAL
-              || indexInfo[0]._index.getType() == IndexType.HASH)) {
+              || indexInfo[0]._index.getType() == IndexType.HASH
+              || indexInfo[0]._index.getType() == IndexType.BITMAP)) {
         result.isPreferred = true;
       }
     }
@@ -703,8 +704,8 @@ public class CompiledIn extends AbstractCompiledValue implements Indexable {
     int thatSize = comparedTo.getSizeEstimate(context);
     int thatOperator = comparedTo.getOperator();
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or costs are estimated.
+    if (context.isFilterChosenBySize()) {
       return thisSize <= thatSize;
     }
 
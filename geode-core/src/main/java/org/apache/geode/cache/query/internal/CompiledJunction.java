@@ -1134,8 +1134,10 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
           if (!foundRightIndex) {
             IndexProtocol ip =
                 (IndexProtocol) this._operands[i].getPlanInfo(context).indexes.get(0);
-            if (ip.getCanonicalizedIndexedExpression().equals(canonicalizedOrderByClause)
-                && pi.isPreferred) {
+            boolean equalityLookup = this._operands[i] instanceof CompiledComparison
+                && !(this._operands[i] instanceof CompiledLike)
+                && ((CompiledComparison) this._operands[i]).getOperator() == TOK_EQ;
+            if (ip.isOrderedBy(canonicalizedOrderByClause, equalityLookup) && pi.isPreferred) {
               foundRightIndex = true;
             }
           }
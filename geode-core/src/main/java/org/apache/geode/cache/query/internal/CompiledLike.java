@@ -481,7 +481,7 @@ public class CompiledLike extends CompiledComparison {
       PlanInfo pi = this.getPlanInfo(context);
       if (pi.indexes.size() == 1) {
         IndexProtocol ip = (IndexProtocol) pi.indexes.get(0);
-        if (ip.getCanonicalizedIndexedExpression().equals(canonicalizedOrderByClause)) {
+        if (ip.isOrderedBy(canonicalizedOrderByClause, false)) {
           return true;
         }
       }
@@ -697,8 +697,11 @@ public class CompiledSelect extends AbstractCompiledValue {
       }
     }
     int numElementsInResult = 0;
+    WhereClausePredicate predicate =
+        evaluateWhereClause ? WhereClausePredicate.compile(this.whereClause, context) : null;
     try {
-      doNestedIterations(0, results, context, evaluateWhereClause, numElementsInResult);
+      doNestedIterations(0, results, context, evaluateWhereClause, predicate,
+          numElementsInResult);
     } catch (CompiledSelect.NullIteratorException ignore) {
       return null;
     }
@@ -763,14 +766,15 @@ public class CompiledSelect extends AbstractCompiledValue {
 
   // returns the number of elements added in the return ResultSet
   private int doNestedIterations(int level, SelectResults results, ExecutionContext context,
-      boolean evaluateWhereClause, int numElementsInResult)
+      boolean evaluateWhereClause, WhereClausePredicate predicate, int numElementsInResult)
       throws TypeMismatchException, FunctionDomainException, NameResolutionException,
       QueryInvocationTargetException, CompiledSelect.NullIteratorException {
     List iterList = context.getCurrentIterators();
     if (level == iterList.size()) {
       boolean addToResults = true;
       if (evaluateWhereClause) {
-        Object result = this.whereClause.evaluate(context);
+        Object result = predicate != null ? predicate.evaluate(context)
+            : this.whereClause.evaluate(context);
         QueryObserver observer = QueryObserverHolder.getInstance();
         observer.afterIterationEvaluation(result);
         if (result == null) {
@@ -840,7 +844,7 @@ public class CompiledSelect extends AbstractCompiledValue {
         QueryObserver observer = QueryObserverHolder.getInstance();
         observer.beforeIterationEvaluation(rIter, currObj);
         numElementsInResult = doNestedIterations(level + 1, results, context, evaluateWhereClause,
-            numElementsInResult);
+            predicate, numElementsInResult);
         Integer limitValue = evaluateLimitValue(context, this.limit);
         if (this.orderByAttrs == null && limitValue > -1 && numElementsInResult == limitValue) {
           break;
@@ -48,13 +48,16 @@ import org.apache.geode.cache.query.RegionNotFoundException;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
+import org.apache.geode.cache.query.internal.index.IndexManager;
 import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.NanoTimer;
 import org.apache.geode.internal.cache.BucketRegion;
 import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.InternalRegion;
 import org.apache.geode.internal.cache.LocalDataSet;
 import org.apache.geode.internal.cache.PRQueryProcessor;
 import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.PartitionedRegionDataStore;
 import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.TXStateProxy;
 import org.apache.geode.internal.statistics.StatisticsClock;
@@ -80,6 +83,8 @@ public class DefaultQuery implements Query {
 
   private boolean traceOn = false;
 
+  private volatile boolean waitForIndexUpdates = false;
+
   @Immutable
   private static final Object[] EMPTY_ARRAY = new Object[0];
 
@@ -87,6 +92,16 @@ public class DefaultQuery implements Query {
   public static boolean QUERY_VERBOSE =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.VERBOSE");
 
+  /**
+   * System property to choose the indexes used by queries from estimates of the number of entries
+   * each condition selects, sampled from the distribution of the index keys, rather than from the
+   * operators of the conditions. A condition selecting most of the region is then evaluated by
+   * iterating over the region instead of through its index.
+   */
+  @MutableForTesting
+  public static boolean COST_BASED_PLANNING =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.COST_BASED_PLANNING");
+
   /**
    * System property to cleanup the compiled query. The compiled query will be removed if it is not
    * used for more than the set value. By default its set to 10 minutes, the time is set in
@@ -425,6 +440,9 @@ public class DefaultQuery implements Query {
       try {
         // two-pass evaluation.
         // first pre-compute dependencies, cached in the context.
+        if (this.waitForIndexUpdates) {
+          waitForIndexUpdates(context);
+        }
         this.compiledQuery.computeDependencies(context);
         if (testHook != null) {
           testHook.doTestHook(DefaultQuery.TestHook.SPOTS.BEFORE_QUERY_EXECUTION, this, context);
@@ -921,6 +939,51 @@ public class DefaultQuery implements Query {
     }
   }
 
+  /**
+   * Makes the query wait, before being evaluated, until the indexes maintained asynchronously by the
+   * shared workers reflect the operations completed on the queried regions, so that a thread reads
+   * its own writes through the indexes.
+   *
+   * @see IndexManager#ASYNC_INDEX_MAINTENANCE_THREADS
+   */
+  public void setWaitForIndexUpdates(boolean waitForIndexUpdates) {
+    this.waitForIndexUpdates = waitForIndexUpdates;
+  }
+
+  public boolean isWaitForIndexUpdates() {
+    return this.waitForIndexUpdates;
+  }
+
+  /**
+   * Waits for the index updates of the queried regions. The buckets of a partitioned region are
+   * those of the context, queried by this member.
+   */
+  private void waitForIndexUpdates(ExecutionContext context) {
+    List<Integer> buckets = context.getBucketList();
+    for (String regionPath : getRegionsInQuery(context.bindArguments)) {
+      Region region = this.cache.getRegion(regionPath);
+      if (region instanceof PartitionedRegion) {
+        PartitionedRegionDataStore dataStore = ((PartitionedRegion) region).getDataStore();
+        if (dataStore != null && buckets != null) {
+          for (Integer bucketId : buckets) {
+            waitForIndexUpdates(dataStore.getLocalBucketById(bucketId));
+          }
+        }
+      } else {
+        waitForIndexUpdates(region);
+      }
+    }
+  }
+
+  private static void waitForIndexUpdates(Region region) {
+    if (region instanceof InternalRegion) {
+      IndexManager indexManager = ((InternalRegion) region).getIndexManager();
+      if (indexManager != null) {
+        indexManager.waitForQueuedUpdates();
+      }
+    }
+  }
+
   public boolean isKeepSerialized() {
     return this.keepSerialized;
   }
@@ -686,6 +686,15 @@ public class ExecutionContext {
     this.canceledException = queryCanceledException;
   }
 
+  /**
+   * Returns true if the condition of an AND junction evaluated through its index is chosen by
+   * comparing the size estimates of the conditions rather than their operators, which is the case
+   * when the cost based planner is used.
+   */
+  boolean isFilterChosenBySize() {
+    return DefaultQuery.COST_BASED_PLANNING;
+  }
+
   /**
    * This method attempts to reintrepret a {@link QueryExecutionCanceledException} using the
    * the value returned by {@link #getQueryCanceledException} (set by the {@link QueryMonitor}).
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.Index;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.TypeMismatchException;
@@ -164,6 +165,11 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
           }
         }
         evalOperands.add(0, currentBestFilter);
+        if (DefaultQuery.COST_BASED_PLANNING && currentBestFilter != null) {
+          PlanInfo bestPlanInfo = ((CompiledValue) currentBestFilter).getPlanInfo(context);
+          QueryObserverHolder.getInstance().afterFilterSelection(
+              (Index) bestPlanInfo.indexes.get(0), currentBestFilterSize);
+        }
       }
     } else {
       indexCount = _operands.length;
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * Reads a field or invokes a method on the objects a query touches. Accessors are created once for
+ * a resolved {@link Field} or {@link Method} and cached along with it, so evaluating a path over
+ * many objects does not go through {@link Method#invoke} or {@link Field#get} for each of them.
+ *
+ * <p>
+ * Public getters of public classes are bound to a generated {@link Function} through
+ * {@link LambdaMetafactory}, which the JIT can inline like a direct call. All other members use a
+ * {@link MethodHandle}. Like {@link Method#invoke}, an exception thrown by the member itself is
+ * wrapped in an {@link InvocationTargetException}.
+ */
+abstract class MemberAccessor {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * If true, fields and methods are always accessed through the reflection API.
+   */
+  static final boolean USE_REFLECTION =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "query.useReflectionAccessors");
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * Returns the value of the member for the given target.
+   *
+   * @param target the object to read from, ignored for static members
+   * @param args the arguments of a method, or null for a field or a method without parameters
+   * @throws IllegalAccessException the member is not accessible
+   * @throws InvocationTargetException the member threw an exception
+   */
+  abstract Object invoke(Object target, Object[] args)
+      throws IllegalAccessException, InvocationTargetException;
+
+  /**
+   * Creates an accessor for a field or method that has already been made accessible.
+   */
+  static MemberAccessor create(Member member) {
+    if (!USE_REFLECTION) {
+      try {
+        if (member instanceof Field) {
+          return new HandleAccessor(fieldHandle((Field) member));
+        }
+        Method method = (Method) member;
+        if (isBindable(method)) {
+          Class<?> valueType = MethodType.methodType(method.getReturnType()).wrap().returnType();
+          return new FunctionAccessor(bind(method, Function.class, "apply", valueType));
+        }
+        return new HandleAccessor(methodHandle(method));
+      } catch (Throwable t) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Using reflection to access {}", member, t);
+        }
+      }
+    }
+    return new ReflectionAccessor(member);
+  }
+
+  /**
+   * Creates a reader that returns the value of an accessible field or method without parameters
+   * whose type is {@code byte}, {@code short}, {@code int} or {@code long} as a long, without
+   * boxing it. Returns null if the member has another type or cannot be bound. An exception thrown
+   * by the member propagates unchecked, or wrapped in an
+   * {@link java.lang.reflect.UndeclaredThrowableException} if it is checked.
+   */
+  static ToLongFunction<Object> createLongReader(Member member) {
+    Class<?> type = getValueType(member);
+    if (USE_REFLECTION
+        || (type != byte.class && type != short.class && type != int.class && type != long.class)) {
+      return null;
+    }
+    try {
+      if (member instanceof Method && isBindable((Method) member)) {
+        return bind((Method) member, ToLongFunction.class, "applyAsLong", long.class);
+      }
+      MethodHandle handle = valueHandle(member, long.class);
+      return target -> {
+        try {
+          return (long) handle.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable t) {
+          throw new UndeclaredThrowableException(t);
+        }
+      };
+    } catch (Throwable t) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Unable to create a primitive reader for {}", member, t);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Creates a reader like {@link #createLongReader(Member)} for a member of type {@code float} or
+   * {@code double}.
+   */
+  static ToDoubleFunction<Object> createDoubleReader(Member member) {
+    Class<?> type = getValueType(member);
+    if (USE_REFLECTION || (type != float.class && type != double.class)) {
+      return null;
+    }
+    try {
+      if (member instanceof Method && isBindable((Method) member)) {
+        return bind((Method) member, ToDoubleFunction.class, "applyAsDouble", double.class);
+      }
+      MethodHandle handle = valueHandle(member, double.class);
+      return target -> {
+        try {
+          return (double) handle.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable t) {
+          throw new UndeclaredThrowableException(t);
+        }
+      };
+    } catch (Throwable t) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Unable to create a primitive reader for {}", member, t);
+      }
+      return null;
+    }
+  }
+
+  static Class<?> getValueType(Member member) {
+    if (member instanceof Field) {
+      return ((Field) member).getType();
+    }
+    Method method = (Method) member;
+    return method.getParameterCount() == 0 ? method.getReturnType() : null;
+  }
+
+  /**
+   * Adapts a field getter or a method without parameters to {@code (Object)valueType}.
+   */
+  private static MethodHandle valueHandle(Member member, Class<?> valueType)
+      throws IllegalAccessException {
+    MethodHandle handle = member instanceof Field ? LOOKUP.unreflectGetter((Field) member)
+        : LOOKUP.unreflect((Method) member);
+    if (Modifier.isStatic(member.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle.asType(MethodType.methodType(valueType, Object.class));
+  }
+
+  /**
+   * A lambda can only be spun for a public instance method without parameters that returns a value
+   * and whose class is visible from the class loader of the query engine, since the generated class
+   * refers to the method by name.
+   */
+  private static boolean isBindable(Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    if (method.getParameterCount() != 0 || method.getReturnType() == void.class
+        || Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+        || !Modifier.isPublic(declaringClass.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(declaringClass.getName(), false,
+          MemberAccessor.class.getClassLoader()) == declaringClass;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Spins an implementation of a functional interface taking the target object that invokes the
+   * given method.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T bind(Method method, Class<? super T> functionType, String functionMethod,
+      Class<?> valueType) throws Throwable {
+    MethodHandle implementation = LOOKUP.unreflect(method);
+    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, functionMethod,
+        MethodType.methodType(functionType),
+        MethodType.methodType(valueType.isPrimitive() ? valueType : Object.class, Object.class),
+        implementation, MethodType.methodType(valueType, method.getDeclaringClass()));
+    return (T) callSite.getTarget().invoke();
+  }
+
+  /**
+   * Adapts a field getter to {@code (Object, Object[])Object}.
+   */
+  private static MethodHandle fieldHandle(Field field) throws IllegalAccessException {
+    MethodHandle handle = LOOKUP.unreflectGetter(field);
+    if (Modifier.isStatic(field.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return MethodHandles.dropArguments(
+        handle.asType(MethodType.methodType(Object.class, Object.class)), 1, Object[].class);
+  }
+
+  /**
+   * Adapts a method to {@code (Object, Object[])Object}.
+   */
+  private static MethodHandle methodHandle(Method method) throws IllegalAccessException {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    if (Modifier.isStatic(method.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    int parameterCount = method.getParameterCount();
+    return handle.asType(MethodType.genericMethodType(parameterCount + 1))
+        .asSpreader(Object[].class, parameterCount);
+  }
+
+  private static class FunctionAccessor extends MemberAccessor {
+    private final Function<Object, Object> function;
+
+    FunctionAccessor(Function<Object, Object> function) {
+      this.function = function;
+    }
+
+    @Override
+    Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      try {
+        return function.apply(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  private static class HandleAccessor extends MemberAccessor {
+    private final MethodHandle handle;
+
+    HandleAccessor(MethodHandle handle) {
+      this.handle = handle;
+    }
+
+    @Override
+    Object invoke(Object target, Object[] args) throws InvocationTargetException {
+      try {
+        return (Object) handle.invokeExact(target, args);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  private static class ReflectionAccessor extends MemberAccessor {
+    private final Member member;
+
+    ReflectionAccessor(Member member) {
+      this.member = member;
+    }
+
+    @Override
+    Object invoke(Object target, Object[] args)
+        throws IllegalAccessException, InvocationTargetException {
+      if (member instanceof Field) {
+        return ((Field) member).get(target);
+      }
+      return ((Method) member).invoke(target, args);
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.apache.geode.security.NotAuthorizedException;
  */
 public class MethodDispatch {
   private Method _method;
+  private final MemberAccessor _accessor;
   private final Class _targetClass;
   private final String _methodName;
   private final Class[] _argTypes;
@@ -50,6 +51,7 @@ public class MethodDispatch {
     // override security in case this is a method on a nonpublic class
     // with a public method
     _method.setAccessible(true);
+    _accessor = MemberAccessor.create(_method);
   }
 
   public Object invoke(Object target, List args, ExecutionContext executionContext)
@@ -76,7 +78,7 @@ public class MethodDispatch {
         throw new NotAuthorizedException(UNAUTHORIZED_STRING + _method.getName());
       }
 
-      return _method.invoke(target, argsArray);
+      return _accessor.invoke(target, argsArray);
     } catch (IllegalAccessException e) {
       throw new NameNotFoundException(
           String.format("Method ' %s ' in class ' %s ' is not accessible to the query processor",
@@ -211,6 +211,12 @@ public class QueryExecutionContext extends ExecutionContext {
     return hints != null;
   }
 
+  @Override
+  boolean isFilterChosenBySize() {
+    // the hinted indexes are the cheapest ones
+    return hasHints() || super.isFilterChosenBySize();
+  }
+
   boolean hasMultiHints() {
     return hints != null && hints.size() > 1;
   }
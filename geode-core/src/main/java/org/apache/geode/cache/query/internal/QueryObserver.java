@@ -294,4 +294,30 @@ public interface QueryObserver {
    */
   default void beforeAggregationsAndGroupBy(
       @SuppressWarnings("unused") SelectResults selectResults) {}
+
+  /**
+   * Invoked when the cost based planner has estimated the number of entries selected by a
+   * condition through an index, and decided whether to evaluate the condition through the index or
+   * by iterating over the region.
+   *
+   * @param index the index the condition could be evaluated on
+   * @param sizeEstimate the estimated number of entries selected by the condition
+   * @param useIndex true if the condition is evaluated through the index
+   *
+   * @see DefaultQuery#COST_BASED_PLANNING
+   */
+  default void afterIndexCostEstimate(@SuppressWarnings("unused") Index index,
+      @SuppressWarnings("unused") int sizeEstimate, @SuppressWarnings("unused") boolean useIndex) {}
+
+  /**
+   * Invoked when the cost based planner has chosen, among the conditions of an AND junction, the
+   * one evaluated through its index. The other conditions are evaluated on the entries it selects.
+   *
+   * @param index the index of the chosen condition
+   * @param sizeEstimate the estimated number of entries selected by the chosen condition
+   *
+   * @see DefaultQuery#COST_BASED_PLANNING
+   */
+  default void afterFilterSelection(@SuppressWarnings("unused") Index index,
+      @SuppressWarnings("unused") int sizeEstimate) {}
 }
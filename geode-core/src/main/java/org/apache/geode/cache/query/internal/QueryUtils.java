@@ -35,6 +35,7 @@ import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.index.AbstractIndex;
+import org.apache.geode.cache.query.internal.index.CompositeRangeIndex;
 import org.apache.geode.cache.query.internal.index.IndexData;
 import org.apache.geode.cache.query.internal.index.IndexManager;
 import org.apache.geode.cache.query.internal.index.IndexProtocol;
@@ -881,23 +882,32 @@ public class QueryUtils {
     IndexData rhsIndxData = QueryUtils.getAvailableIndexIfAny(rhs, context, false);
     if (rhsIndxData == null) {
       // release the lock held on lhsIndex as it will not be used
-      Index index = lhsIndxData.getIndex();
-      Index prIndex = ((AbstractIndex) index).getPRIndex();
-      if (prIndex != null) {
-        ((PartitionedIndex) prIndex).releaseIndexReadLockForRemove();
-      } else {
-        ((AbstractIndex) index).releaseIndexReadLockForRemove();
-      }
+      releaseIndexReadLockForRemove(lhsIndxData.getIndex());
       return null;
     }
     IndexProtocol lhsIndx = lhsIndxData.getIndex();
     IndexProtocol rhsIndx = rhsIndxData.getIndex();
+    // the keys of a composite index are not the values of the joined expression
+    if (lhsIndx instanceof CompositeRangeIndex || rhsIndx instanceof CompositeRangeIndex) {
+      releaseIndexReadLockForRemove(lhsIndx);
+      releaseIndexReadLockForRemove(rhsIndx);
+      return null;
+    }
     if (lhsIndx.isValid() && rhsIndx.isValid()) {
       return new IndexData[] {lhsIndxData, rhsIndxData};
     }
     return null;
   }
 
+  private static void releaseIndexReadLockForRemove(Index index) {
+    Index prIndex = ((AbstractIndex) index).getPRIndex();
+    if (prIndex != null) {
+      ((PartitionedIndex) prIndex).releaseIndexReadLockForRemove();
+    } else {
+      ((AbstractIndex) index).releaseIndexReadLockForRemove();
+    }
+  }
+
   /**
    * Gets an Index available for the condition
    *
@@ -117,8 +117,8 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
     // return the one with lower size estimate is better
     boolean isThisBetter = true;
 
-    // Go with the lowest cost when hint is used.
-    if (context instanceof QueryExecutionContext && ((QueryExecutionContext) context).hasHints()) {
+    // Go with the lowest cost when hint is used or costs are estimated.
+    if (context.isFilterChosenBySize()) {
       return thisSize <= comparedTo.getSizeEstimate(context);
     }
 
@@ -515,7 +515,16 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
   }
 
   @Override
-  public int getSizeEstimate(ExecutionContext context) {
+  public int getSizeEstimate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    if (DefaultQuery.COST_BASED_PLANNING) {
+      // the conditions select at most the entries selected by the most selective of them
+      int size = Integer.MAX_VALUE;
+      for (CompiledValue operand : _operands) {
+        size = Math.min(size, ((Filter) operand).getSizeEstimate(context));
+      }
+      return size;
+    }
     // TODO:Asif:Try to estimate better
     return RANGE_SIZE_ESTIMATE;
   }
@@ -838,9 +847,8 @@ public class RangeJunction extends AbstractGroupOrRangeJunction {
 
       int thatOperator = comparedTo.getOperator();
 
-      // Go with the lowest cost when hint is used.
-      if (context instanceof QueryExecutionContext
-          && ((QueryExecutionContext) context).hasHints()) {
+      // Go with the lowest cost when hint is used or costs are estimated.
+      if (context.isFilterChosenBySize()) {
         return thisSize <= comparedTo.getSizeEstimate(context);
       }
 
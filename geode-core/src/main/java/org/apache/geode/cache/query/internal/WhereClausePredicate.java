@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.lang.reflect.Member;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.geode.annotations.internal.MutableForTesting;
+import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.query.AmbiguousNameException;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.Token;
+import org.apache.geode.pdx.FieldType;
+import org.apache.geode.pdx.internal.InternalPdxInstance;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
+import org.apache.geode.pdx.internal.PdxType;
+
+/**
+ * A where clause compiled for evaluation against each element of a full scan. Comparisons of a
+ * numeric attribute of an iterator with a literal or bind argument, such as {@code p.id > 10}, read
+ * the attribute through a cached primitive accessor, or directly from the serialized bytes of a
+ * PdxInstance, and compare it without boxing it or walking the expression tree. AND and OR
+ * junctions over such comparisons short-circuit exactly like {@link CompiledJunction}.
+ *
+ * <p>
+ * The compiled form returns the same values as {@link CompiledValue#evaluate(ExecutionContext)} of
+ * the clause it was compiled from. Whenever an element cannot take the fast path, for example
+ * because it is of another class, the attribute is not numeric, or reading it fails, the original
+ * expression is evaluated for that element.
+ */
+abstract class WhereClausePredicate implements OQLLexerTokenTypes {
+
+  /**
+   * If true, the where clauses of queries that are not answered from an index are compiled before
+   * iterating over the region.
+   */
+  @MutableForTesting
+  static boolean COMPILE_WHERE_CLAUSE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "Query.COMPILE_WHERE_CLAUSE");
+
+  abstract Object evaluate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException;
+
+  /**
+   * Compiles a where clause in the scope of its iterators.
+   *
+   * @return the compiled where clause, or null if no part of it benefits from being compiled
+   */
+  static WhereClausePredicate compile(CompiledValue whereClause, ExecutionContext context) {
+    if (!COMPILE_WHERE_CLAUSE || context.isCqQueryContext()) {
+      return null;
+    }
+    return compileNode(whereClause, context);
+  }
+
+  private static WhereClausePredicate compileNode(CompiledValue value, ExecutionContext context) {
+    if (value.getClass() == CompiledComparison.class) {
+      return compileComparison((CompiledComparison) value, context);
+    }
+    if (value.getClass() == CompiledJunction.class) {
+      return compileJunction((CompiledJunction) value, context);
+    }
+    return null;
+  }
+
+  private static WhereClausePredicate compileJunction(CompiledJunction junction,
+      ExecutionContext context) {
+    List operands = junction.getChildren();
+    WhereClausePredicate[] predicates = new WhereClausePredicate[operands.size()];
+    boolean compiled = false;
+    for (int i = 0; i < predicates.length; i++) {
+      CompiledValue operand = (CompiledValue) operands.get(i);
+      predicates[i] = compileNode(operand, context);
+      if (predicates[i] == null) {
+        predicates[i] = new Delegate(operand);
+      } else {
+        compiled = true;
+      }
+    }
+    return compiled ? new Junction(junction.getOperator(), predicates) : null;
+  }
+
+  private static WhereClausePredicate compileComparison(CompiledComparison comparison,
+      ExecutionContext context) {
+    List operands = comparison.getChildren();
+    CompiledValue path = (CompiledValue) operands.get(0);
+    Object constant = getConstant((CompiledValue) operands.get(1), context);
+    int operator = comparison.getOperator();
+    if (constant == null) {
+      constant = getConstant(path, context);
+      path = (CompiledValue) operands.get(1);
+      operator = comparison.reflectOperator(operator);
+    }
+    if (!isIntegral(constant) && !(constant instanceof Double || constant instanceof Float)) {
+      return null;
+    }
+
+    RuntimeIterator iterator;
+    String attribute;
+    try {
+      if (path instanceof CompiledPath) {
+        iterator = resolveIterator(((CompiledPath) path).getReceiver(), context);
+        attribute = ((CompiledPath) path).getTailID();
+      } else if (path instanceof CompiledID) {
+        // an attribute of the implicit iterator
+        CompiledValue resolved = context.resolve(((CompiledID) path).getId());
+        if (!(resolved instanceof CompiledPath)) {
+          return null;
+        }
+        iterator = resolveIterator(((CompiledPath) resolved).getReceiver(), context);
+        attribute = ((CompiledPath) resolved).getTailID();
+      } else {
+        return null;
+      }
+    } catch (TypeMismatchException | AmbiguousNameException e) {
+      return null;
+    }
+    if (iterator == null) {
+      return null;
+    }
+    return new PrimitiveComparison(comparison, iterator,
+        new AttributeDescriptor(context.getCache().getPdxRegistry(), attribute), attribute,
+        operator, (Number) constant);
+  }
+
+  private static Object getConstant(CompiledValue value, ExecutionContext context) {
+    if (value instanceof CompiledLiteral || value instanceof CompiledBindArgument) {
+      try {
+        return value.evaluate(context);
+      } catch (Exception e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static RuntimeIterator resolveIterator(CompiledValue receiver, ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException {
+    if (receiver instanceof CompiledID) {
+      receiver = context.resolve(((CompiledID) receiver).getId());
+    }
+    return receiver instanceof RuntimeIterator ? (RuntimeIterator) receiver : null;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte;
+  }
+
+  /**
+   * Evaluates a part of the where clause that is not compiled.
+   */
+  private static class Delegate extends WhereClausePredicate {
+    private final CompiledValue value;
+
+    Delegate(CompiledValue value) {
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(ExecutionContext context) throws FunctionDomainException,
+        TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+      return value.evaluate(context);
+    }
+  }
+
+  /**
+   * Same as {@link CompiledJunction#evaluate(ExecutionContext)} over compiled operands.
+   */
+  private static class Junction extends WhereClausePredicate {
+    private final int operator;
+    private final WhereClausePredicate[] operands;
+
+    Junction(int operator, WhereClausePredicate[] operands) {
+      this.operator = operator;
+      this.operands = operands;
+    }
+
+    @Override
+    Object evaluate(ExecutionContext context) throws FunctionDomainException,
+        TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+      Object r = operands[0].evaluate(context); // UNDEFINED, null, or a Boolean
+      if (r instanceof Boolean) {
+        if ((Boolean) r && operator == LITERAL_or) {
+          return r;
+        } else if (!(Boolean) r && operator == LITERAL_and) {
+          return r;
+        }
+      }
+      if (r == null || r == QueryService.UNDEFINED) {
+        r = QueryService.UNDEFINED;
+      } else if (!(r instanceof Boolean)) {
+        throw new TypeMismatchException(
+            String.format(
+                "LITERAL_and/LITERAL_or operands must be of type boolean, not type ' %s '",
+                r.getClass().getName()));
+      }
+      for (int i = 1; i < operands.length; i++) {
+        Object ri;
+        try {
+          ri = operands[i].evaluate(context);
+        } catch (EntryDestroyedException ede) {
+          continue;
+        }
+        if (ri instanceof Boolean) {
+          if ((Boolean) ri && operator == LITERAL_or) {
+            return ri;
+          } else if (!(Boolean) ri && operator == LITERAL_and) {
+            return ri;
+          }
+        }
+        if (ri == null || ri == QueryService.UNDEFINED || r == QueryService.UNDEFINED) {
+          r = QueryService.UNDEFINED;
+          continue;
+        } else if (!(ri instanceof Boolean)) {
+          throw new TypeMismatchException(
+              String.format(
+                  "LITERAL_and/LITERAL_or operands must be of type boolean, not type ' %s '",
+                  ri.getClass().getName()));
+        }
+        if (operator == LITERAL_and) {
+          r = (Boolean) r && (Boolean) ri;
+        } else {
+          r = (Boolean) r || (Boolean) ri;
+        }
+      }
+      return r;
+    }
+  }
+
+  /**
+   * Compares a primitive numeric attribute of the current element of an iterator with a constant.
+   * The attribute is read through an accessor resolved for the class of the last element, or from
+   * the field of the PdxType of the last element.
+   */
+  private static class PrimitiveComparison extends WhereClausePredicate {
+    private final CompiledComparison comparison;
+    private final RuntimeIterator iterator;
+    private final AttributeDescriptor attributeDescriptor;
+    private final String attribute;
+    private final int operator;
+    private final boolean integral;
+    private final long longConstant;
+    private final double doubleConstant;
+    /** the constant as compared with a float attribute, which rounds it unless it is a double */
+    private final double floatConstant;
+
+    private Class<?> readerClass;
+    private ToLongFunction<Object> longReader;
+    private ToDoubleFunction<Object> doubleReader;
+    private boolean floatReader;
+    private Class<?> unsupportedClass;
+
+    private PdxType pdxType;
+    private PdxField pdxField;
+
+    PrimitiveComparison(CompiledComparison comparison, RuntimeIterator iterator,
+        AttributeDescriptor attributeDescriptor, String attribute, int operator,
+        Number constant) {
+      this.comparison = comparison;
+      this.iterator = iterator;
+      this.attributeDescriptor = attributeDescriptor;
+      this.attribute = attribute;
+      this.operator = operator;
+      integral = isIntegral(constant);
+      longConstant = constant.longValue();
+      doubleConstant = constant.doubleValue();
+      floatConstant =
+          constant instanceof Double ? constant.doubleValue() : (float) constant.doubleValue();
+    }
+
+    @Override
+    Object evaluate(ExecutionContext context) throws FunctionDomainException,
+        TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+      Object target = iterator.evaluate(context);
+      if (target != null) {
+        Class<?> targetClass = target.getClass();
+        if (targetClass == readerClass) {
+          try {
+            if (integral) {
+              return compare(longReader.applyAsLong(target));
+            }
+            return compare(doubleReader.applyAsDouble(target), floatReader);
+          } catch (Exception e) {
+            // evaluated again below, which handles the exception as usual
+          }
+        } else if (targetClass == PdxInstanceImpl.class) {
+          PdxInstanceImpl instance = (PdxInstanceImpl) target;
+          PdxType type = instance.getPdxType();
+          if (type != pdxType) {
+            pdxType = type;
+            pdxField = getPrimitiveField(type);
+          }
+          if (pdxField != null) {
+            return compare(instance, pdxField);
+          }
+        } else if (targetClass != unsupportedClass) {
+          // the first evaluation also authorizes a method invocation for the query
+          Object result = comparison.evaluate(context);
+          resolveReader(targetClass, target, context);
+          return result;
+        }
+      }
+      return comparison.evaluate(context);
+    }
+
+    private void resolveReader(Class<?> targetClass, Object target, ExecutionContext context) {
+      unsupportedClass = targetClass;
+      if (target instanceof InternalPdxInstance || target instanceof Token) {
+        return;
+      }
+      Member member = attributeDescriptor.getAuthorizedReadMember(targetClass, context);
+      if (member == null) {
+        return;
+      }
+      if (integral) {
+        ToLongFunction<Object> reader = MemberAccessor.createLongReader(member);
+        if (reader != null) {
+          longReader = reader;
+          readerClass = targetClass;
+          unsupportedClass = null;
+        }
+      } else {
+        ToDoubleFunction<Object> reader = MemberAccessor.createDoubleReader(member);
+        if (reader != null) {
+          doubleReader = reader;
+          floatReader = MemberAccessor.getValueType(member) == float.class;
+          readerClass = targetClass;
+          unsupportedClass = null;
+        }
+      }
+    }
+
+    private PdxField getPrimitiveField(PdxType type) {
+      PdxField field = type.getPdxField(attribute);
+      if (field == null) {
+        return null;
+      }
+      switch (field.getFieldType()) {
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+          return integral ? field : null;
+        case FLOAT:
+        case DOUBLE:
+          return integral ? null : field;
+        default:
+          return null;
+      }
+    }
+
+    private Boolean compare(PdxInstanceImpl instance, PdxField field) {
+      FieldType fieldType = field.getFieldType();
+      switch (fieldType) {
+        case BYTE:
+          return compare(instance.readByte(field));
+        case SHORT:
+          return compare(instance.readShort(field));
+        case INT:
+          return compare(instance.readInt(field));
+        case LONG:
+          return compare(instance.readLong(field));
+        case FLOAT:
+          return compare(instance.readFloat(field), true);
+        case DOUBLE:
+          return compare(instance.readDouble(field), false);
+        default:
+          throw new IllegalStateException("Unexpected field type " + fieldType);
+      }
+    }
+
+    private Boolean compare(long value) {
+      return applyOperator(Long.compare(value, longConstant));
+    }
+
+    /**
+     * Compares like {@link Double#compareTo(Double)}, which is what the comparison of the boxed
+     * values does.
+     */
+    private Boolean compare(double value, boolean isFloat) {
+      return applyOperator(Double.compare(value, isFloat ? floatConstant : doubleConstant));
+    }
+
+    private Boolean applyOperator(int result) {
+      switch (operator) {
+        case TOK_EQ:
+          return result == 0;
+        case TOK_NE:
+          return result != 0;
+        case TOK_LT:
+          return result < 0;
+        case TOK_LE:
+          return result <= 0;
+        case TOK_GT:
+          return result > 0;
+        case TOK_GE:
+          return result >= 0;
+        default:
+          throw new IllegalArgumentException(String.format("Unknown operator: %s", operator));
+      }
+    }
+  }
+}
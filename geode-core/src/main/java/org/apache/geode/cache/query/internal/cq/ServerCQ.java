@@ -17,6 +17,7 @@ package org.apache.geode.cache.query.internal.cq;
 import org.apache.geode.cache.query.CqClosedException;
 import org.apache.geode.cache.query.CqException;
 import org.apache.geode.cache.query.RegionNotFoundException;
+import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.internal.cache.tier.sockets.CacheClientNotifier;
 import org.apache.geode.internal.cache.tier.sockets.ClientProxyMembershipID;
 
@@ -58,6 +59,12 @@ public interface ServerCQ extends InternalCqQuery {
    */
   void setCqResultsCacheInitialized();
 
+  /**
+   * Returns the results of this CQ read from the results key cache of another CQ with the same
+   * query, or null if the query needs to be executed.
+   */
+  SelectResults getResultsOfMatchingCq();
+
   /**
    * Returns true if old value is required for query processing.
    */
@@ -538,6 +538,11 @@ public abstract class AbstractIndex implements IndexProtocol {
     return this.indexedExpression.equals(condnExprStr);
   }
 
+  @Override
+  public boolean isOrderedBy(String canonicalizedExpression, boolean equalityLookup) {
+    return this.indexedExpression.equals(canonicalizedExpression);
+  }
+
   // package-private to avoid synthetic accessor
   Object verifyAndGetPdxDomainObject(Object value) {
     if (value instanceof StructImpl) {
@@ -932,6 +937,12 @@ public abstract class AbstractIndex implements IndexProtocol {
     public void incReadLockCount(int delta) {}
 
     public void incNumBucketIndexes(int delta) {}
+
+    public void incIndexMemory(long delta) {}
+
+    public long getIndexMemory() {
+      return 0L;
+    }
   }
 
   class IMQEvaluator implements IndexedExpressionEvaluator {
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.IndexStatistics;
+import org.apache.geode.cache.query.IndexType;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.IndexInfo;
+import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.RuntimeIterator;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.Bucket;
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * A BitmapIndex is a compact range index that keeps the entries having each index key as a bitmap
+ * of entry ordinals, which suits indexed expressions having few distinct values. It is used for
+ * equality and not-equality conditions. The ordinals are shared by the bitmap indexes of a region,
+ * or of a bucket, so that a conjunction or disjunction of such conditions is evaluated by combining
+ * their bitmaps, see {@link #query(IndexInfo[], Object[], boolean, RuntimeIterator,
+ * ExecutionContext, Collection)}.
+ */
+public class BitmapIndex extends CompactRangeIndex {
+
+  public BitmapIndex(InternalCache cache, String indexName, Region region, String fromClause,
+      String indexedExpression, String projectionAttributes, String origFromClause,
+      String origIndexExpr, String[] definitions, IndexStatistics stats) {
+    super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
+        origFromClause, origIndexExpr, definitions, stats);
+  }
+
+  @Override
+  IndexStore createIndexStore(String indexName, String indexedExpression, String origFromClause) {
+    IndexManager indexManager = ((LocalRegion) region).getIndexManager();
+    EntryOrdinals entryOrdinals =
+        indexManager != null ? indexManager.getEntryOrdinals() : new EntryOrdinals();
+    return new BitmapIndexStore(region, internalIndexStats, (InternalCache) region.getCache(),
+        entryOrdinals);
+  }
+
+  @Override
+  public IndexType getType() {
+    return IndexType.BITMAP;
+  }
+
+  /**
+   * Returns the ordinals of the entries satisfying an equality or not-equality condition on the
+   * key.
+   */
+  OrdinalBitmap getOrdinals(Object key, int operator) throws TypeMismatchException {
+    if (QueryService.UNDEFINED.equals(key)) {
+      // a direct comparison with UNDEFINED never matches
+      return new OrdinalBitmap();
+    }
+    key = TypeUtils.indexKeyFor(getPdxStringForIndexedPdxKeys(key));
+    if (key == null) {
+      key = IndexManager.NULL;
+    }
+    long start = updateIndexUseStats();
+    try {
+      return ((BitmapIndexStore) getIndexStorage()).getOrdinals(key,
+          operator == OQLLexerTokenTypes.TOK_EQ);
+    } finally {
+      updateIndexUseEndStats(start);
+    }
+  }
+
+  /**
+   * Evaluates a conjunction or disjunction of equality and not-equality conditions that use bitmap
+   * indexes of the same region. For the region, or for each bucket of the query, the bitmaps of the
+   * conditions are combined before the values of the remaining entries are added to the results.
+   * An entry that is being updated, or whose ordinal may have been handed to it after the bitmaps
+   * were taken, is checked against the conditions again.
+   *
+   * @param conditions the index info of each condition
+   * @param keys the evaluated key of each condition
+   * @param isIntersection true for a conjunction, false for a disjunction
+   * @param iterator the iterator over the region
+   * @return false, without adding any result, if the conditions cannot be evaluated this way
+   */
+  public static boolean query(IndexInfo[] conditions, Object[] keys, boolean isIntersection,
+      RuntimeIterator iterator, ExecutionContext context, Collection results)
+      throws TypeMismatchException, FunctionDomainException, NameResolutionException,
+      QueryInvocationTargetException {
+    Region region = null;
+    for (IndexInfo condition : conditions) {
+      int operator = condition._operator();
+      if (!(condition._getIndex() instanceof BitmapIndex)) {
+        return false;
+      }
+      if (operator != OQLLexerTokenTypes.TOK_EQ && operator != OQLLexerTokenTypes.TOK_NE
+          && operator != OQLLexerTokenTypes.TOK_NE_ALT) {
+        return false;
+      }
+      Region conditionRegion = getQueriedRegion(condition._getIndex());
+      if (region != null && conditionRegion != region) {
+        return false;
+      }
+      region = conditionRegion;
+    }
+
+    BitmapIndex[] indexes = new BitmapIndex[conditions.length];
+    Region indexRegion = conditions[0]._getIndex().getRegion();
+    if (context.getBucketList() != null && indexRegion instanceof BucketRegion) {
+      for (Object bucketId : context.getBucketList()) {
+        for (int i = 0; i < conditions.length; i++) {
+          indexes[i] = (BitmapIndex) PartitionedIndex.getBucketIndex((PartitionedRegion) region,
+              conditions[i]._getIndex().getName(), (Integer) bucketId);
+        }
+        query(indexes, conditions, keys, isIntersection, iterator, context, results);
+      }
+    } else {
+      for (int i = 0; i < conditions.length; i++) {
+        indexes[i] = (BitmapIndex) conditions[i]._getIndex();
+      }
+      query(indexes, conditions, keys, isIntersection, iterator, context, results);
+    }
+    return true;
+  }
+
+  private static Region getQueriedRegion(IndexProtocol index) {
+    Region region = index.getRegion();
+    return region instanceof BucketRegion ? ((Bucket) region).getPartitionedRegion() : region;
+  }
+
+  /**
+   * Evaluates the conditions on the bitmap indexes of one region or bucket, some of which may be
+   * missing on a bucket.
+   */
+  private static void query(BitmapIndex[] indexes, IndexInfo[] conditions, Object[] keys,
+      boolean isIntersection, RuntimeIterator iterator, ExecutionContext context,
+      Collection results) throws TypeMismatchException, FunctionDomainException,
+      NameResolutionException, QueryInvocationTargetException {
+    BitmapIndex index = null;
+    long releases = 0;
+    long startTime = context.getCache().cacheTimeMillis();
+    OrdinalBitmap ordinals = null;
+    for (int i = 0; i < indexes.length; i++) {
+      OrdinalBitmap bitmap;
+      if (indexes[i] == null) {
+        bitmap = new OrdinalBitmap();
+      } else {
+        if (index == null) {
+          index = indexes[i];
+          releases = index.getEntryOrdinals().getReleases();
+        }
+        bitmap = indexes[i].getOrdinals(keys[i], conditions[i]._operator());
+      }
+      ordinals = ordinals == null ? bitmap
+          : isIntersection ? ordinals.and(bitmap) : ordinals.or(bitmap);
+      if (isIntersection && ordinals.isEmpty()) {
+        return;
+      }
+    }
+    if (index == null) {
+      return;
+    }
+
+    EntryOrdinals entryOrdinals = index.getEntryOrdinals();
+    List<RegionEntry> entries = entryOrdinals.resolve(ordinals);
+    boolean verifyAll = entryOrdinals.getReleases() != releases;
+    IndexStore store = index.getIndexStorage();
+    for (RegionEntry entry : entries) {
+      // Check if query execution on this thread is canceled.
+      QueryMonitor.throwExceptionIfQueryOnCurrentThreadIsCanceled();
+      try {
+        Object value = store.getTargetObject(entry);
+        if (value == null) {
+          continue;
+        }
+        if (verifyAll || entry.isUpdateInProgress() || TEST_ALWAYS_UPDATE_IN_PROGRESS
+            || IndexManager.needsRecalculation(startTime, entry.getLastModified())) {
+          iterator.setCurrent(value);
+          if (!index.evaluateConditions(conditions, isIntersection, context)) {
+            continue;
+          }
+        }
+        results.add(value);
+      } catch (ClassCastException | EntryDestroyedException ignore) {
+        // ignore it
+      }
+    }
+  }
+
+  private boolean evaluateConditions(IndexInfo[] conditions, boolean isIntersection,
+      ExecutionContext context) throws TypeMismatchException, FunctionDomainException,
+      NameResolutionException, QueryInvocationTargetException {
+    for (IndexInfo condition : conditions) {
+      if (evaluateEntry(condition, context, null) != isIntersection) {
+        return !isIntersection;
+      }
+    }
+    return isIntersection;
+  }
+
+  private EntryOrdinals getEntryOrdinals() {
+    return ((BitmapIndexStore) getIndexStorage()).getEntryOrdinals();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
+
+/**
+ * The storage of a {@link BitmapIndex}. Each index key maps to an {@link EntryBitmap}, the bitmap
+ * of the {@link EntryOrdinals ordinals} of the entries having that key, which the lookups
+ * inherited from {@link MemoryIndexStore} see as the collection of those entries.
+ *
+ * The mappings are only changed while holding the lock on the store. Since the store remembers the
+ * key of each entry it maps, the old key passed to an update is not needed, which also covers
+ * in-place modifications of the values.
+ */
+class BitmapIndexStore extends MemoryIndexStore {
+  private final EntryOrdinals entryOrdinals;
+
+  private final InternalIndexStatistics internalIndexStats;
+
+  /** The ordinals of all the entries mapped by this store */
+  private OrdinalBitmap allOrdinals = new OrdinalBitmap();
+
+  /** The index key of each entry mapped by this store, by ordinal */
+  private Object[] keysByOrdinal = new Object[16];
+
+  BitmapIndexStore(Region region, InternalIndexStatistics internalIndexStats, InternalCache cache,
+      EntryOrdinals entryOrdinals) {
+    super(region, internalIndexStats, cache);
+    this.internalIndexStats = internalIndexStats;
+    this.entryOrdinals = entryOrdinals;
+  }
+
+  EntryOrdinals getEntryOrdinals() {
+    return entryOrdinals;
+  }
+
+  @Override
+  public synchronized void updateMapping(Object indexKey, Object oldKey, RegionEntry re,
+      Object oldValue) throws IMQException {
+    try {
+      indexKey = TypeUtils.indexKeyFor(indexKey);
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + indexKey.getClass().getName(), ex);
+    }
+    if (indexKey.equals(QueryService.UNDEFINED)
+        && Token.isInvalidOrRemoved(getTargetObjectForUpdate(re))) {
+      removeEntry(re);
+      return;
+    }
+
+    int ordinal = entryOrdinals.getOrdinal(re);
+    Object currentKey = getKey(ordinal);
+    if (currentKey != null) {
+      if (currentKey.equals(indexKey)) {
+        return;
+      }
+      removeFromBitmap(currentKey, ordinal);
+    } else {
+      ordinal = entryOrdinals.acquire(re);
+      allOrdinals.add(ordinal);
+      internalIndexStats.incNumValues(1);
+    }
+    if (ordinal >= keysByOrdinal.length) {
+      keysByOrdinal =
+          Arrays.copyOf(keysByOrdinal, Math.max(ordinal + 1, keysByOrdinal.length * 2));
+    }
+    keysByOrdinal[ordinal] = indexKey;
+    EntryBitmap entries = (EntryBitmap) valueToEntriesMap.get(indexKey);
+    if (entries == null) {
+      entries = new EntryBitmap();
+      valueToEntriesMap.put(indexKey, entries);
+      internalIndexStats.incNumKeys(1);
+      internalIndexStats.incIndexMemory(KEY_MAPPING_BYTES);
+    }
+    entries.ordinals.add(ordinal);
+  }
+
+  @Override
+  public synchronized void removeMapping(Object indexKey, RegionEntry re) {
+    removeEntry(re);
+  }
+
+  private void removeEntry(RegionEntry re) {
+    int ordinal = entryOrdinals.getOrdinal(re);
+    Object currentKey = getKey(ordinal);
+    if (currentKey == null) {
+      return;
+    }
+    removeFromBitmap(currentKey, ordinal);
+    keysByOrdinal[ordinal] = null;
+    allOrdinals.remove(ordinal);
+    entryOrdinals.release(ordinal);
+    internalIndexStats.incNumValues(-1);
+  }
+
+  private Object getKey(int ordinal) {
+    return ordinal >= 0 && ordinal < keysByOrdinal.length ? keysByOrdinal[ordinal] : null;
+  }
+
+  private void removeFromBitmap(Object indexKey, int ordinal) {
+    EntryBitmap entries = (EntryBitmap) valueToEntriesMap.get(indexKey);
+    entries.ordinals.remove(ordinal);
+    if (entries.ordinals.isEmpty()) {
+      valueToEntriesMap.remove(indexKey);
+      internalIndexStats.incNumKeys(-1);
+      internalIndexStats.incIndexMemory(-KEY_MAPPING_BYTES);
+    }
+  }
+
+  /**
+   * Returns a copy of the bitmap of the entries whose index key is equal, or not equal, to the
+   * key. As for the other lookups, the entries whose key is null or undefined are not equal to any
+   * other key.
+   */
+  synchronized OrdinalBitmap getOrdinals(Object indexKey, boolean equal) {
+    EntryBitmap entries;
+    try {
+      entries = (EntryBitmap) valueToEntriesMap.get(indexKey);
+    } catch (ClassCastException ignore) {
+      // the key is not comparable to the keys of this index so no entry has it
+      entries = null;
+    }
+    if (equal) {
+      return entries == null ? new OrdinalBitmap() : entries.ordinals.copy();
+    }
+    return entries == null ? allOrdinals.copy() : allOrdinals.andNot(entries.ordinals);
+  }
+
+  @Override
+  public synchronized boolean clear() {
+    allOrdinals.forEach(entryOrdinals::release);
+    allOrdinals = new OrdinalBitmap();
+    keysByOrdinal = new Object[16];
+    internalIndexStats.incIndexMemory(-(long) valueToEntriesMap.size() * KEY_MAPPING_BYTES);
+    return super.clear();
+  }
+
+  @Override
+  public int size() {
+    return valueToEntriesMap.size();
+  }
+
+  /**
+   * The entries having an index key. Iterating resolves the ordinals of the entries while holding
+   * the lock on the store, so the iteration sees the entries mapped at that time.
+   */
+  private class EntryBitmap extends AbstractCollection<RegionEntry> {
+    private final OrdinalBitmap ordinals = new OrdinalBitmap();
+
+    @Override
+    public Iterator<RegionEntry> iterator() {
+      synchronized (BitmapIndexStore.this) {
+        return entryOrdinals.resolve(ordinals).iterator();
+      }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof RegionEntry)) {
+        return false;
+      }
+      synchronized (BitmapIndexStore.this) {
+        int ordinal = entryOrdinals.getOrdinal((RegionEntry) o);
+        return ordinal >= 0 && ordinals.contains(ordinal);
+      }
+    }
+
+    @Override
+    public int size() {
+      synchronized (BitmapIndexStore.this) {
+        return ordinals.cardinality();
+      }
+    }
+  }
+}
@@ -14,6 +14,8 @@
  */
 package org.apache.geode.cache.query.internal.index;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -45,6 +47,7 @@ import org.apache.geode.cache.query.internal.CompiledPath;
 import org.apache.geode.cache.query.internal.CompiledSortCriterion;
 import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.IndexInfo;
 import org.apache.geode.cache.query.internal.QRegion;
@@ -95,6 +98,8 @@ public class CompactRangeIndex extends AbstractIndex {
 
   private IndexStore indexStore;
 
+  private final IndexHistogram histogram = new IndexHistogram();
+
   @MutableForTesting
   static boolean TEST_ALWAYS_UPDATE_IN_PROGRESS = false;
 
@@ -103,13 +108,25 @@ public class CompactRangeIndex extends AbstractIndex {
       String origIndexExpr, String[] definitions, IndexStatistics stats) {
     super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
         origFromClause, origIndexExpr, definitions, stats);
+    indexStore = createIndexStore(indexName, indexedExpression, origFromClause);
+  }
+
+  /**
+   * Creates the storage of the index. Called from the constructor. The indexes selected by
+   * {@link IndexManager#PRIMITIVE_KEY_INDEXES_PROP} are stored in pages of unboxed keys, unless
+   * the reverse map kept for in-place modifications is needed.
+   */
+  IndexStore createIndexStore(String indexName, String indexedExpression, String origFromClause) {
     if (IndexManager.IS_TEST_LDM) {
-      indexStore = new MapIndexStore(
+      return new MapIndexStore(
           ((LocalRegion) region).getIndexMap(indexName, indexedExpression, origFromClause), region);
-    } else {
-      indexStore =
-          new MemoryIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
     }
+    if (IndexManager.isPrimitiveKeyIndex(indexName)
+        && !IndexManager.isObjectModificationInplace()) {
+      return new PrimitiveKeyIndexStore(region, internalIndexStats,
+          (InternalCache) region.getCache());
+    }
+    return new MemoryIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
   }
 
   public IndexStore getIndexStorage() {
@@ -134,12 +151,109 @@ public class CompactRangeIndex extends AbstractIndex {
   @Override
   public void initializeIndex(boolean loadEntries) throws IMQException {
     long startTime = System.nanoTime();
-    this.evaluator.initializeIndex(loadEntries);
-    this.internalIndexStats.incNumUpdates(((IMQEvaluator) this.evaluator).getTotalEntriesUpdated());
+    Set<RegionEntry> restored = loadEntries ? restoreCheckpoint() : null;
+    if (restored == null) {
+      this.evaluator.initializeIndex(loadEntries);
+      this.internalIndexStats
+          .incNumUpdates(((IMQEvaluator) this.evaluator).getTotalEntriesUpdated());
+    } else {
+      this.evaluator.initializeIndex(false);
+      addMappingsNotRestored(restored);
+    }
     long endTime = System.nanoTime();
     this.internalIndexStats.incUpdateTime(endTime - startTime);
   }
 
+  /**
+   * Evaluates the entries of the region that were not restored from a checkpoint.
+   */
+  private void addMappingsNotRestored(Set<RegionEntry> restored) throws IMQException {
+    Iterator entries = ((LocalRegion) region).getBestIterator(true);
+    while (entries.hasNext()) {
+      RegionEntry entry = (RegionEntry) entries.next();
+      if (entry == null || entry.isInvalidOrRemoved() || restored.contains(entry)) {
+        continue;
+      }
+      addMapping(entry);
+    }
+  }
+
+  private String getCheckpointDefinition() {
+    return getCanonicalizedFromClause() + '|' + getCanonicalizedIndexedExpression() + '|'
+        + getCanonicalizedProjectionAttributes();
+  }
+
+  /**
+   * Writes a checkpoint of this index if its region supports it. A failure is only logged since
+   * the index can always be rebuilt from the region.
+   */
+  void writeCheckpoint() {
+    if (!(region instanceof LocalRegion) || !(indexStore instanceof MemoryIndexStore)
+        || !isValid() || !isPopulated()
+        || !IndexCheckpoint.isSupported((LocalRegion) region)) {
+      return;
+    }
+    File file = IndexCheckpoint.getCheckpointFile((LocalRegion) region, indexName);
+    try {
+      long mappings = IndexCheckpoint.write(file, getCheckpointDefinition(),
+          IndexCheckpoint.getStorageId((LocalRegion) region),
+          ((MemoryIndexStore) indexStore).getMappings());
+      logger.info("Wrote checkpoint of {} mappings of index {} on region {}", mappings,
+          indexName, region.getFullPath());
+    } catch (IOException | RuntimeException e) {
+      logger.info("Unable to write checkpoint of index {} on region {}: {}", indexName,
+          region.getFullPath(), e.getMessage());
+    }
+  }
+
+  /**
+   * Restores the mappings of unchanged region entries from the checkpoint written when the region
+   * was last closed.
+   *
+   * @return the region entries that were restored, or null if there is no usable checkpoint
+   */
+  Set<RegionEntry> restoreCheckpoint() {
+    if (!(region instanceof LocalRegion)
+        || !IndexCheckpoint.isSupported((LocalRegion) region)) {
+      return null;
+    }
+    File file = IndexCheckpoint.getCheckpointFile((LocalRegion) region, indexName);
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      Set<RegionEntry> restored = IndexCheckpoint.restore(file, getCheckpointDefinition(),
+          IndexCheckpoint.getStorageId((LocalRegion) region), (LocalRegion) region, indexStore);
+      if (restored != null) {
+        this.internalIndexStats.incNumUpdates(restored.size());
+        logger.info("Restored {} entries of index {} on region {} from checkpoint",
+            restored.size(), indexName, region.getFullPath());
+      }
+      return restored;
+    } catch (Exception e) {
+      logger.warn("Unable to restore index {} on region {} from checkpoint, rebuilding it: {}",
+          indexName, region.getFullPath(), e.getMessage());
+      indexStore.clear();
+      return null;
+    }
+  }
+
+  /**
+   * Deletes the checkpoint of this index, if any. Called when the index is removed or its region
+   * destroyed, after which the checkpoint no longer describes the data of the region.
+   */
+  void deleteCheckpoint() {
+    if (!(region instanceof LocalRegion)
+        || !IndexCheckpoint.isSupported((LocalRegion) region)) {
+      return;
+    }
+    File file = IndexCheckpoint.getCheckpointFile((LocalRegion) region, indexName);
+    if (file.exists() && !file.delete()) {
+      logger.info("Unable to delete checkpoint {} of index {} on region {}", file, indexName,
+          region.getFullPath());
+    }
+  }
+
   @Override
   void addMapping(RegionEntry entry) throws IMQException {
     this.evaluator.evaluate(entry, true);
@@ -174,6 +288,7 @@ public class CompactRangeIndex extends AbstractIndex {
         // rely on reverse map in the index store to figure out the real key
         indexStore.removeMapping(IndexManager.NULL, entry);
       }
+      unsampleKey(entry);
     } else if (opCode == CLEAN_UP_THREAD_LOCALS) {
       if (oldKeyValue != null) {
         oldKeyValue.remove();
@@ -191,13 +306,42 @@ public class CompactRangeIndex extends AbstractIndex {
 
   void removeMapping(Object key, RegionEntry entry) throws IMQException {
     indexStore.removeMapping(key, entry);
+    unsampleKey(entry);
   }
 
   @Override
   public boolean clear() {
+    histogram.clear();
     return indexStore.clear();
   }
 
+  /**
+   * Samples a new mapping for the estimates of the cost based planner, if it is used.
+   */
+  private void sampleKey(RegionEntry entry, Object key) {
+    if (DefaultQuery.COST_BASED_PLANNING) {
+      histogram.add(entry, key);
+    }
+  }
+
+  /**
+   * Keeps the sample of the cost based planner current when the key of an entry is updated.
+   */
+  private void resampleKey(RegionEntry entry, Object key) {
+    if (DefaultQuery.COST_BASED_PLANNING) {
+      histogram.update(entry, key);
+    }
+  }
+
+  /**
+   * Removes the mapping of an entry from the sample of the cost based planner.
+   */
+  private void unsampleKey(RegionEntry entry) {
+    if (DefaultQuery.COST_BASED_PLANNING) {
+      histogram.remove(entry);
+    }
+  }
+
 
   @Override
   public List queryEquijoinCondition(IndexProtocol indx, ExecutionContext context)
@@ -319,6 +463,16 @@ public class CompactRangeIndex extends AbstractIndex {
     }
     long start = updateIndexUseStats(false);
     try {
+      if (DefaultQuery.COST_BASED_PLANNING && matchLevel <= 0
+          && (operator == OQLLexerTokenTypes.TOK_LT || operator == OQLLexerTokenTypes.TOK_LE
+              || operator == OQLLexerTokenTypes.TOK_GT || operator == OQLLexerTokenTypes.TOK_GE)) {
+        // the sampled keys follow the distribution of the entries, unlike the interpolation
+        // between the lowest and highest keys below
+        float selectivity = histogram.selectivity(TypeUtils.indexKeyFor(key), operator);
+        if (selectivity >= 0) {
+          return Math.round(selectivity * this.region.size());
+        }
+      }
       switch (operator) {
         case OQLLexerTokenTypes.TOK_EQ: {
           key = TypeUtils.indexKeyFor(key);
@@ -738,7 +892,7 @@ public class CompactRangeIndex extends AbstractIndex {
    *
    * @param upperBoundOperator the operator to use to determine a match against the upper bound
    */
-  private void addToResultsFromEntries(Object lowerBoundKey, Object upperBoundKey,
+  void addToResultsFromEntries(Object lowerBoundKey, Object upperBoundKey,
       int lowerBoundOperator, int upperBoundOperator,
       CloseableIterator<IndexStoreEntry> entriesIter, Collection result, CompiledValue iterOps,
       RuntimeIterator runtimeItr, ExecutionContext context, List projAttrib,
@@ -952,6 +1106,7 @@ public class CompactRangeIndex extends AbstractIndex {
 
   @Override
   void recreateIndexData() throws IMQException {
+    histogram.clear();
     indexStore.clear();
     int numKeys = (int) this.internalIndexStats.getNumberOfKeys();
     if (numKeys > 0) {
@@ -1047,6 +1202,16 @@ public class CompactRangeIndex extends AbstractIndex {
       this.vsdStats.incReadLockCount(delta);
     }
 
+    @Override
+    public void incIndexMemory(long delta) {
+      this.vsdStats.incIndexMemory(delta);
+    }
+
+    @Override
+    public long getIndexMemory() {
+      return this.vsdStats.getIndexMemory();
+    }
+
     /**
      * Returns the total amount of time (in nanoseconds) spent updating this index.
      */
@@ -1523,6 +1688,7 @@ public class CompactRangeIndex extends AbstractIndex {
       }
       RegionEntry re = temp.getRegionEntry();
       indexStore.addMapping(indexKey, re);
+      sampleKey(re, indexKey);
     }
 
     /**
@@ -1585,9 +1751,11 @@ public class CompactRangeIndex extends AbstractIndex {
         // oldKey would be a NullToken in case of update
         if (oldKey == null) {
           indexStore.addMapping(indexKey, entry);
+          sampleKey(entry, indexKey);
         } else {
           // Add new key and remove old
           indexStore.updateMapping(indexKey, oldKey, entry, oldValue);
+          resampleKey(entry, indexKey);
           // reset the thread local as the update is done
           if (oldKeyValue != null) {
             oldKeyValue.remove();
@@ -1599,6 +1767,7 @@ public class CompactRangeIndex extends AbstractIndex {
           oldKeyValuePair.setOldKeyValuePair(indexKey, entry);
         } else {
           indexStore.removeMapping(indexKey, entry);
+          unsampleKey(entry);
         }
       }
     }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.geode.cache.query.AmbiguousNameException;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.AbstractCompiledValue;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+
+/**
+ * The indexed expression of a {@link CompositeRangeIndex}, which evaluates each of its expressions
+ * to a {@link CompositeIndexKey}. When none of the expressions is defined for a value, as for an
+ * invalidated entry, it evaluates to UNDEFINED like the expression of a single expression index.
+ */
+class CompositeIndexExpression extends AbstractCompiledValue {
+  private final CompiledValue[] expressions;
+
+  CompositeIndexExpression(CompiledValue[] expressions) {
+    this.expressions = expressions;
+  }
+
+  @Override
+  public List getChildren() {
+    return Arrays.asList(expressions);
+  }
+
+  @Override
+  public int getType() {
+    return CONSTRUCTION;
+  }
+
+  @Override
+  public Object evaluate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    Object[] values = new Object[expressions.length];
+    boolean undefined = true;
+    for (int i = 0; i < expressions.length; i++) {
+      values[i] = expressions[i].evaluate(context);
+      undefined &= values[i] == QueryService.UNDEFINED;
+    }
+    return undefined ? QueryService.UNDEFINED : CompositeIndexKey.of(values);
+  }
+
+  @Override
+  public Set computeDependencies(ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    for (CompiledValue expression : expressions) {
+      context.addDependencies(this, expression.computeDependencies(context));
+    }
+    return context.getDependencySet(this, true);
+  }
+
+  @Override
+  public void generateCanonicalizedExpression(StringBuilder clauseBuffer, ExecutionContext context)
+      throws AmbiguousNameException, TypeMismatchException, NameResolutionException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < expressions.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      StringBuilder expression = new StringBuilder();
+      expressions[i].generateCanonicalizedExpression(expression, context);
+      sb.append(expression);
+    }
+    clauseBuffer.insert(0, sb);
+  }
+}
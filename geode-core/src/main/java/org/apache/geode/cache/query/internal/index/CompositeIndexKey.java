@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * The index key of a {@link CompositeRangeIndex}: the values of its indexed expressions, compared
+ * element by element. Within an element, null sorts before UNDEFINED, which sorts before any other
+ * value as in the ORDER BY of a query, and other values are compared as the keys of a
+ * {@link CompactRangeIndex}.
+ *
+ * The bounds of lookups on a prefix of the expressions are keys shorter than the indexed keys whose
+ * last element is one of the {@link Bound} markers, see {@link #bound(Object[], Bound)}.
+ */
+class CompositeIndexKey implements Comparable<Object> {
+
+  /**
+   * The markers ending the bound of a lookup. A bound ending with {@link #LOWEST} sorts before all
+   * the keys starting with its other elements, and one ending with {@link #HIGHEST} after them. A
+   * bound ending with {@link #ABOVE_MISSING} sorts after the keys having null or UNDEFINED as next
+   * element, and before the keys having any other value.
+   */
+  enum Bound {
+    LOWEST, ABOVE_MISSING, HIGHEST
+  }
+
+  private static final Comparator COMPARATOR = TypeUtils.getExtendedNumericComparator();
+
+  /** The rank of the elements that are not null, UNDEFINED or a bound marker */
+  private static final int VALUE_RANK = 4;
+
+  private final Object[] elements;
+
+  private CompositeIndexKey(Object[] elements) {
+    this.elements = elements;
+  }
+
+  /**
+   * Returns the key made of the values of the indexed expressions.
+   */
+  static CompositeIndexKey of(Object[] values) throws TypeMismatchException {
+    Object[] elements = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      elements[i] = normalize(values[i]);
+    }
+    return new CompositeIndexKey(elements);
+  }
+
+  /**
+   * Returns a bound made of the given, already normalized, elements followed by the marker.
+   */
+  static CompositeIndexKey bound(Object[] prefix, Bound marker) {
+    Object[] elements = Arrays.copyOf(prefix, prefix.length + 1);
+    elements[prefix.length] = marker;
+    return new CompositeIndexKey(elements);
+  }
+
+  /**
+   * Converts a value of an indexed expression, or a value it is compared to, the way the key of a
+   * single expression index is converted. PdxStrings are compared as Strings since the elements of
+   * a key may come from both PDX and domain objects.
+   */
+  static Object normalize(Object value) throws TypeMismatchException {
+    if (value == null) {
+      return IndexManager.NULL;
+    }
+    if (value instanceof PdxString) {
+      return value.toString();
+    }
+    return TypeUtils.indexKeyFor(value);
+  }
+
+  Object getElement(int index) {
+    return elements[index];
+  }
+
+  int size() {
+    return elements.length;
+  }
+
+  @Override
+  public int compareTo(Object other) {
+    Object[] otherElements = ((CompositeIndexKey) other).elements;
+    int length = Math.min(elements.length, otherElements.length);
+    for (int i = 0; i < length; i++) {
+      int result = compareElements(elements[i], otherElements[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    if (elements.length == otherElements.length) {
+      return 0;
+    }
+    if (elements.length > length) {
+      return elements[length] == Bound.LOWEST ? -1 : 1;
+    }
+    return otherElements[length] == Bound.LOWEST ? 1 : -1;
+  }
+
+  static int compareElements(Object element, Object otherElement) {
+    int rank = rank(element);
+    int otherRank = rank(otherElement);
+    if (rank != otherRank) {
+      return rank < otherRank ? -1 : 1;
+    }
+    if (rank != VALUE_RANK) {
+      return 0;
+    }
+    return COMPARATOR.compare(element, otherElement);
+  }
+
+  private static int rank(Object element) {
+    if (element == Bound.LOWEST) {
+      return 0;
+    } else if (element == IndexManager.NULL) {
+      return 1;
+    } else if (element == QueryService.UNDEFINED) {
+      return 2;
+    } else if (element == Bound.ABOVE_MISSING) {
+      return 3;
+    } else if (element == Bound.HIGHEST) {
+      return 5;
+    }
+    return VALUE_RANK;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof CompositeIndexKey)) {
+      return false;
+    }
+    try {
+      return compareTo(other) == 0;
+    } catch (ClassCastException ignore) {
+      return false;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (Object element : elements) {
+      // numbers of different types may be equal keys
+      int elementHash = element instanceof Number
+          ? Double.hashCode(((Number) element).doubleValue()) : element.hashCode();
+      hash = 31 * hash + elementHash;
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("(");
+    for (int i = 0; i < elements.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(elements[i]);
+    }
+    return sb.append(')').toString();
+  }
+}
@@ -0,0 +1,508 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.IndexStatistics;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.CompiledJunction;
+import org.apache.geode.cache.query.internal.CompiledLike;
+import org.apache.geode.cache.query.internal.CompiledSortCriterion;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.RuntimeIterator;
+import org.apache.geode.cache.query.internal.index.CompositeIndexKey.Bound;
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * A CompositeRangeIndex is a compact range index on a comma separated list of expressions, whose
+ * entries are ordered by the values of the first expression, then of the second one, and so on,
+ * see {@link CompositeIndexKey}.
+ *
+ * The planner uses the index for conditions on its first expression. An equality on the first
+ * expression narrows the lookup to the entries having that value, ordered by the values of the
+ * second expression, and the equality or range conditions of the same conjunction on the following
+ * expressions narrow it further. Those conditions are still evaluated for every entry found.
+ */
+public class CompositeRangeIndex extends CompactRangeIndex {
+
+  /**
+   * The number of index entries after which the size estimate of an equality on the first
+   * expression stops counting, so that estimating a value mapped by many entries stays cheap
+   */
+  static final int MAX_COUNTED_ENTRIES = 1000;
+
+  /** The canonicalized indexed expressions */
+  private final String[] indexedExpressions;
+
+  public CompositeRangeIndex(InternalCache cache, String indexName, Region region,
+      String fromClause, String indexedExpression, String projectionAttributes,
+      String origFromClause, String origIndexExpr, String[] definitions,
+      String[] indexedExpressions, IndexStatistics stats) {
+    super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
+        origFromClause, origIndexExpr, definitions, stats);
+    this.indexedExpressions = indexedExpressions;
+  }
+
+  @Override
+  public boolean isMatchingWithIndexExpression(CompiledValue condnExpr, String condnExprStr,
+      ExecutionContext context) {
+    return indexedExpressions[0].equals(condnExprStr);
+  }
+
+  @Override
+  public boolean isOrderedBy(String canonicalizedExpression, boolean equalityLookup) {
+    return indexedExpressions[0].equals(canonicalizedExpression)
+        || equalityLookup && indexedExpressions[1].equals(canonicalizedExpression);
+  }
+
+  @Override
+  public int getSizeEstimate(Object key, int operator, int matchLevel)
+      throws TypeMismatchException {
+    key = CompositeIndexKey.normalize(key);
+    long start = updateIndexUseStats(false);
+    try {
+      switch (operator) {
+        case OQLLexerTokenTypes.TOK_EQ:
+          return count(CompositeIndexKey.bound(new Object[] {key}, Bound.LOWEST),
+              CompositeIndexKey.bound(new Object[] {key}, Bound.HIGHEST));
+        case OQLLexerTokenTypes.TOK_NE_ALT:
+        case OQLLexerTokenTypes.TOK_NE:
+          return region.size()
+              - count(CompositeIndexKey.bound(new Object[] {key}, Bound.LOWEST),
+                  CompositeIndexKey.bound(new Object[] {key}, Bound.HIGHEST));
+        default:
+          // not attempting to estimate the ranges of the first expression
+          return Integer.MAX_VALUE;
+      }
+    } catch (ClassCastException e) {
+      // no values will match in this index because the key types are not the same
+      return 0;
+    } finally {
+      updateIndexUseEndStats(start, false);
+    }
+  }
+
+  /**
+   * Returns the number of index entries between the given keys, or {@link #MAX_COUNTED_ENTRIES} if
+   * there are more.
+   */
+  private int count(CompositeIndexKey start, CompositeIndexKey end) {
+    int count = 0;
+    CloseableIterator<IndexStoreEntry> iterator =
+        getIndexStorage().iterator(start, true, end, true, null);
+    try {
+      while (count < MAX_COUNTED_ENTRIES && iterator.hasNext()) {
+        iterator.next();
+        count++;
+      }
+    } finally {
+      iterator.close();
+    }
+    return count;
+  }
+
+  @Override
+  void lockedQuery(Object key, int operator, Collection results, CompiledValue iterOps,
+      RuntimeIterator indpndntItr, ExecutionContext context, List projAttrib,
+      SelectResults intermediateResults, boolean isIntersection) throws TypeMismatchException,
+      FunctionDomainException, NameResolutionException, QueryInvocationTargetException {
+    query(key, operator, results, iterOps, indpndntItr, context, null, projAttrib,
+        intermediateResults, isIntersection);
+  }
+
+  @Override
+  void lockedQuery(Object key, int operator, Collection results, Set keysToRemove,
+      ExecutionContext context) throws TypeMismatchException, FunctionDomainException,
+      NameResolutionException, QueryInvocationTargetException {
+    query(key, operator, results, null, null, context, keysToRemove, null, null, true);
+  }
+
+  @Override
+  void lockedQuery(Object lowerBoundKey, int lowerBoundOperator, Object upperBoundKey,
+      int upperBoundOperator, Collection results, Set keysToRemove, ExecutionContext context)
+      throws TypeMismatchException, FunctionDomainException, NameResolutionException,
+      QueryInvocationTargetException {
+    if (isEmpty()) {
+      return;
+    }
+    CompositeIndexKey start = lowerBound(CompositeIndexKey.normalize(lowerBoundKey),
+        lowerBoundOperator == OQLLexerTokenTypes.TOK_GE);
+    CompositeIndexKey end = upperBound(CompositeIndexKey.normalize(upperBoundKey),
+        upperBoundOperator == OQLLexerTokenTypes.TOK_LE);
+    queryRange(start, end, normalize(keysToRemove), false, results, null, null, context, null,
+        null, true);
+  }
+
+  private void query(Object key, int operator, Collection results, CompiledValue iterOps,
+      RuntimeIterator runtimeItr, ExecutionContext context, Set keysToRemove, List projAttrib,
+      SelectResults intermediateResults, boolean isIntersection) throws TypeMismatchException,
+      FunctionDomainException, NameResolutionException, QueryInvocationTargetException {
+    if (isEmpty()) {
+      return;
+    }
+    key = CompositeIndexKey.normalize(key);
+    List<Object> excludedKeys = normalize(keysToRemove);
+    try {
+      switch (operator) {
+        case OQLLexerTokenTypes.TOK_EQ: {
+          CompositeIndexKey[] bounds = getBounds(key, iterOps, context);
+          queryRange(bounds[0], bounds[1], excludedKeys, key == QueryService.UNDEFINED, results,
+              iterOps, runtimeItr, context, projAttrib, intermediateResults, isIntersection);
+        }
+          break;
+        case OQLLexerTokenTypes.TOK_LT:
+        case OQLLexerTokenTypes.TOK_LE:
+          queryRange(lowerBound(null, false),
+              upperBound(key, operator == OQLLexerTokenTypes.TOK_LE), excludedKeys, false, results,
+              iterOps, runtimeItr, context, projAttrib, intermediateResults, isIntersection);
+          break;
+        case OQLLexerTokenTypes.TOK_GT:
+        case OQLLexerTokenTypes.TOK_GE:
+          queryRange(lowerBound(key, operator == OQLLexerTokenTypes.TOK_GE),
+              upperBound(null, false), excludedKeys, false, results, iterOps, runtimeItr, context,
+              projAttrib, intermediateResults, isIntersection);
+          break;
+        case OQLLexerTokenTypes.TOK_NE_ALT:
+        case OQLLexerTokenTypes.TOK_NE: {
+          // the entries whose first value is null or undefined are not equal to the key
+          excludedKeys.add(key);
+          boolean includeUndefined = !excludedKeys.contains(QueryService.UNDEFINED);
+          queryRange(CompositeIndexKey.bound(new Object[0], Bound.LOWEST),
+              CompositeIndexKey.bound(new Object[0], Bound.HIGHEST), excludedKeys,
+              includeUndefined, results, iterOps, runtimeItr, context, projAttrib,
+              intermediateResults, isIntersection);
+        }
+          break;
+        default:
+          throw new AssertionError("Operator = " + operator);
+      }
+    } catch (ClassCastException ex) {
+      if (operator == OQLLexerTokenTypes.TOK_EQ) { // result is empty set
+        return;
+      } else if (operator == OQLLexerTokenTypes.TOK_NE
+          || operator == OQLLexerTokenTypes.TOK_NE_ALT) { // put all in result
+        queryRange(CompositeIndexKey.bound(new Object[0], Bound.LOWEST),
+            CompositeIndexKey.bound(new Object[0], Bound.HIGHEST), new ArrayList<>(), true,
+            results, iterOps, runtimeItr, context, projAttrib, intermediateResults,
+            isIntersection);
+      } else { // otherwise throw exception
+        throw new TypeMismatchException("", ex);
+      }
+    }
+  }
+
+  private static List<Object> normalize(Set keysToRemove) throws TypeMismatchException {
+    List<Object> keys = new ArrayList<>();
+    if (keysToRemove != null) {
+      for (Object key : keysToRemove) {
+        keys.add(CompositeIndexKey.normalize(key));
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the lower bound of a range of the first expression. The range never includes the
+   * entries whose first value is null or undefined, as for the range lookups of a single expression
+   * index.
+   */
+  private static CompositeIndexKey lowerBound(Object key, boolean inclusive) {
+    if (key == null || key == IndexManager.NULL || key == QueryService.UNDEFINED) {
+      return CompositeIndexKey.bound(new Object[0], Bound.ABOVE_MISSING);
+    }
+    return CompositeIndexKey.bound(new Object[] {key}, inclusive ? Bound.LOWEST : Bound.HIGHEST);
+  }
+
+  private static CompositeIndexKey upperBound(Object key, boolean inclusive) {
+    if (key == null) {
+      return CompositeIndexKey.bound(new Object[0], Bound.HIGHEST);
+    }
+    return CompositeIndexKey.bound(new Object[] {key}, inclusive ? Bound.HIGHEST : Bound.LOWEST);
+  }
+
+  /**
+   * Returns the bounds of the lookup of the entries whose first value equals the key, narrowed by
+   * the conditions of the iteration operands on the following expressions: a prefix of equalities
+   * followed by at most one range.
+   */
+  private CompositeIndexKey[] getBounds(Object key, CompiledValue iterOps,
+      ExecutionContext context) throws TypeMismatchException, NameResolutionException {
+    List<Object> prefix = new ArrayList<>();
+    prefix.add(key);
+    CompositeIndexKey[] bounds = {CompositeIndexKey.bound(prefix.toArray(), Bound.LOWEST),
+        CompositeIndexKey.bound(prefix.toArray(), Bound.HIGHEST)};
+    List<Condition> conditions = getConditions(iterOps, context);
+    if (conditions.isEmpty()) {
+      return bounds;
+    }
+
+    Condition lower = null;
+    Condition upper = null;
+    narrowing: while (prefix.size() < indexedExpressions.length) {
+      int position = prefix.size();
+      for (Condition condition : conditions) {
+        if (condition.position == position && condition.operator == OQLLexerTokenTypes.TOK_EQ) {
+          prefix.add(condition.value);
+          continue narrowing;
+        }
+      }
+      for (Condition condition : conditions) {
+        if (condition.position != position) {
+          continue;
+        }
+        if (condition.operator == OQLLexerTokenTypes.TOK_GT
+            || condition.operator == OQLLexerTokenTypes.TOK_GE) {
+          lower = lower == null ? condition : lower;
+        } else {
+          upper = upper == null ? condition : upper;
+        }
+      }
+      break;
+    }
+
+    Object[] elements = prefix.toArray();
+    CompositeIndexKey start;
+    if (lower != null) {
+      start = CompositeIndexKey.bound(append(elements, lower.value),
+          lower.operator == OQLLexerTokenTypes.TOK_GE ? Bound.LOWEST : Bound.HIGHEST);
+    } else {
+      start = CompositeIndexKey.bound(elements, upper != null ? Bound.ABOVE_MISSING : Bound.LOWEST);
+    }
+    CompositeIndexKey end;
+    if (upper != null) {
+      end = CompositeIndexKey.bound(append(elements, upper.value),
+          upper.operator == OQLLexerTokenTypes.TOK_LE ? Bound.HIGHEST : Bound.LOWEST);
+    } else {
+      end = CompositeIndexKey.bound(elements, Bound.HIGHEST);
+    }
+
+    // the values of the conditions may not be comparable to the indexed values, in which case the
+    // conditions are only applied to the entries found
+    CloseableIterator<IndexStoreEntry> iterator = null;
+    try {
+      if (start.compareTo(end) > 0) {
+        return new CompositeIndexKey[] {start, end};
+      }
+      iterator = getIndexStorage().iterator(start, true, end, true, null);
+      iterator.hasNext();
+      return new CompositeIndexKey[] {start, end};
+    } catch (ClassCastException ignore) {
+      return bounds;
+    } finally {
+      if (iterator != null) {
+        iterator.close();
+      }
+    }
+  }
+
+  private static Object[] append(Object[] elements, Object element) {
+    Object[] appended = Arrays.copyOf(elements, elements.length + 1);
+    appended[elements.length] = element;
+    return appended;
+  }
+
+  /**
+   * Returns the comparisons of the iteration operands, a comparison or a conjunction, between one
+   * of the following indexed expressions and a value that does not depend on the current scope.
+   */
+  private List<Condition> getConditions(CompiledValue iterOps, ExecutionContext context)
+      throws TypeMismatchException, NameResolutionException {
+    List operands;
+    if (iterOps instanceof CompiledJunction
+        && ((CompiledJunction) iterOps).getOperator() == OQLLexerTokenTypes.LITERAL_and) {
+      operands = iterOps.getChildren();
+    } else if (iterOps instanceof CompiledComparison) {
+      operands = Collections.singletonList(iterOps);
+    } else {
+      return Collections.emptyList();
+    }
+
+    List<Condition> conditions = new ArrayList<>();
+    for (Object operand : operands) {
+      if (!(operand instanceof CompiledComparison) || operand instanceof CompiledLike) {
+        continue;
+      }
+      CompiledComparison comparison = (CompiledComparison) operand;
+      int operator = comparison.getOperator();
+      if (operator == OQLLexerTokenTypes.TOK_NE || operator == OQLLexerTokenTypes.TOK_NE_ALT) {
+        continue;
+      }
+      CompiledValue left = (CompiledValue) comparison.getChildren().get(0);
+      CompiledValue right = (CompiledValue) comparison.getChildren().get(1);
+      CompiledValue path;
+      CompiledValue key;
+      if (!right.isDependentOnCurrentScope(context)) {
+        path = left;
+        key = right;
+      } else if (!left.isDependentOnCurrentScope(context)) {
+        path = right;
+        key = left;
+        operator = reflect(operator);
+      } else {
+        continue;
+      }
+      StringBuilder sb = new StringBuilder();
+      path.generateCanonicalizedExpression(sb, context);
+      int position = Arrays.asList(indexedExpressions).indexOf(sb.toString());
+      if (position < 1) {
+        continue;
+      }
+      try {
+        Object value = key.evaluate(context);
+        if (value != null && value != QueryService.UNDEFINED) {
+          conditions.add(new Condition(position, operator, CompositeIndexKey.normalize(value)));
+        }
+      } catch (FunctionDomainException | QueryInvocationTargetException
+          | TypeMismatchException ignore) {
+        // the condition is only applied to the entries found
+      }
+    }
+    return conditions;
+  }
+
+  private static int reflect(int operator) {
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+        return OQLLexerTokenTypes.TOK_GT;
+      case OQLLexerTokenTypes.TOK_LE:
+        return OQLLexerTokenTypes.TOK_GE;
+      case OQLLexerTokenTypes.TOK_GT:
+        return OQLLexerTokenTypes.TOK_LT;
+      case OQLLexerTokenTypes.TOK_GE:
+        return OQLLexerTokenTypes.TOK_LE;
+      default:
+        return operator;
+    }
+  }
+
+  /**
+   * Adds the values of the entries whose keys are between the bounds, skipping the keys whose first
+   * value is one of the excluded keys. The entries whose values of all the indexed expressions are
+   * undefined are kept under the UNDEFINED key, and added last if includeUndefined is true.
+   */
+  private void queryRange(CompositeIndexKey start, CompositeIndexKey end, List<Object> excludedKeys,
+      boolean includeUndefined, Collection results, CompiledValue iterOps,
+      RuntimeIterator runtimeItr, ExecutionContext context, List projAttrib,
+      SelectResults intermediateResults, boolean isIntersection) throws TypeMismatchException,
+      FunctionDomainException, NameResolutionException, QueryInvocationTargetException {
+    int limit = -1;
+    Boolean applyLimit = (Boolean) context.cacheGet(CompiledValue.CAN_APPLY_LIMIT_AT_INDEX);
+    if (applyLimit != null && applyLimit) {
+      limit = (Integer) context.cacheGet(CompiledValue.RESULT_LIMIT);
+    }
+    Boolean orderByClause = (Boolean) context.cacheGet(CompiledValue.CAN_APPLY_ORDER_BY_AT_INDEX);
+    boolean asc = true;
+    if (orderByClause != null && orderByClause) {
+      List orderByAttrs = (List) context.cacheGet(CompiledValue.ORDERBY_ATTRIB);
+      CompiledSortCriterion csc = (CompiledSortCriterion) orderByAttrs.get(0);
+      asc = !csc.getCriterion();
+      if (orderByAttrs.size() > 1) {
+        limit = -1;
+      }
+    }
+
+    List<CompositeIndexKey[]> ranges = getRanges(start, end, excludedKeys);
+    if (!asc) {
+      Collections.reverse(ranges);
+    }
+    IndexStore indexStore = getIndexStorage();
+    for (CompositeIndexKey[] range : ranges) {
+      CloseableIterator<IndexStoreEntry> iterator = null;
+      try {
+        if (asc) {
+          iterator = indexStore.iterator(range[0], true, range[1], true, null);
+        } else {
+          iterator = indexStore.descendingIterator(range[0], true, range[1], true, null);
+        }
+        addToResultsFromEntries(range[0], range[1], OQLLexerTokenTypes.TOK_GE,
+            OQLLexerTokenTypes.TOK_LE, iterator, results, iterOps, runtimeItr, context, projAttrib,
+            intermediateResults, isIntersection, limit);
+      } finally {
+        if (iterator != null) {
+          iterator.close();
+        }
+      }
+    }
+    if (includeUndefined) {
+      CloseableIterator<IndexStoreEntry> iterator = indexStore.get(QueryService.UNDEFINED);
+      try {
+        addToResultsFromEntries(QueryService.UNDEFINED, null, OQLLexerTokenTypes.TOK_EQ, -1,
+            iterator, results, iterOps, runtimeItr, context, projAttrib, intermediateResults,
+            isIntersection, limit);
+      } finally {
+        iterator.close();
+      }
+    }
+  }
+
+  /**
+   * Splits the range between the bounds around the excluded values of the first expression.
+   */
+  private static List<CompositeIndexKey[]> getRanges(CompositeIndexKey start,
+      CompositeIndexKey end, List<Object> excludedKeys) {
+    List<CompositeIndexKey[]> ranges = new ArrayList<>();
+    excludedKeys.sort(CompositeIndexKey::compareElements);
+    CompositeIndexKey lower = start;
+    for (Object excludedKey : excludedKeys) {
+      CompositeIndexKey before = CompositeIndexKey.bound(new Object[] {excludedKey}, Bound.LOWEST);
+      CompositeIndexKey after = CompositeIndexKey.bound(new Object[] {excludedKey}, Bound.HIGHEST);
+      addRange(ranges, lower, before.compareTo(end) < 0 ? before : end);
+      if (after.compareTo(lower) > 0) {
+        lower = after;
+      }
+    }
+    addRange(ranges, lower, end);
+    return ranges;
+  }
+
+  private static void addRange(List<CompositeIndexKey[]> ranges, CompositeIndexKey lower,
+      CompositeIndexKey upper) {
+    if (lower.compareTo(upper) < 0) {
+      ranges.add(new CompositeIndexKey[] {lower, upper});
+    }
+  }
+
+  /**
+   * A comparison of one of the indexed expressions, by its position, with a value.
+   */
+  private static class Condition {
+    private final int position;
+    private final int operator;
+    private final Object value;
+
+    private Condition(int position, int operator, Object value) {
+      this.position = position;
+      this.operator = operator;
+      this.value = value;
+    }
+  }
+}
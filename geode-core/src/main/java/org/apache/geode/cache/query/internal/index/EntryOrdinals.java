@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * Numbers the region entries mapped by the bitmap indexes of a region (or of a bucket), so that the
+ * bitmaps of those indexes refer to the same entries by the same ordinals and can be combined. An
+ * ordinal is counted once for each index mapping its entry, and is handed out again once no index
+ * maps the entry anymore, which keeps the ordinals dense.
+ */
+class EntryOrdinals {
+  private final Reference2IntOpenHashMap<RegionEntry> ordinals = new Reference2IntOpenHashMap<>();
+
+  private final IntArrayList freeOrdinals = new IntArrayList();
+
+  private RegionEntry[] entries = new RegionEntry[16];
+
+  private int[] references = new int[16];
+
+  private int nextOrdinal;
+
+  private long releases;
+
+  EntryOrdinals() {
+    ordinals.defaultReturnValue(-1);
+  }
+
+  /**
+   * Returns the ordinal of the entry, assigning one if no index maps the entry yet. Every call must
+   * be balanced by a call to {@link #release}.
+   */
+  synchronized int acquire(RegionEntry entry) {
+    int ordinal = ordinals.getInt(entry);
+    if (ordinal < 0) {
+      if (freeOrdinals.isEmpty()) {
+        ordinal = nextOrdinal++;
+        if (ordinal == entries.length) {
+          entries = Arrays.copyOf(entries, ordinal * 2);
+          references = Arrays.copyOf(references, ordinal * 2);
+        }
+      } else {
+        ordinal = freeOrdinals.removeInt(freeOrdinals.size() - 1);
+      }
+      ordinals.put(entry, ordinal);
+      entries[ordinal] = entry;
+    }
+    references[ordinal]++;
+    return ordinal;
+  }
+
+  synchronized void release(int ordinal) {
+    if (--references[ordinal] == 0) {
+      ordinals.removeInt(entries[ordinal]);
+      entries[ordinal] = null;
+      freeOrdinals.add(ordinal);
+      releases++;
+    }
+  }
+
+  /**
+   * Returns the number of ordinals given up so far. If it has not changed since a bitmap was taken,
+   * none of the ordinals of the bitmap has been handed to another entry since.
+   */
+  synchronized long getReleases() {
+    return releases;
+  }
+
+  /**
+   * Returns the ordinal of the entry, or -1 if no index maps it.
+   */
+  synchronized int getOrdinal(RegionEntry entry) {
+    return ordinals.getInt(entry);
+  }
+
+  /**
+   * Returns the entries currently having the ordinals of the bitmap. Since the bitmap may have been
+   * taken before some of its entries stopped being mapped, an ordinal may have been handed to
+   * another entry in between, see {@link #getReleases}.
+   */
+  synchronized List<RegionEntry> resolve(OrdinalBitmap bitmap) {
+    List<RegionEntry> resolved = new ArrayList<>(bitmap.cardinality());
+    bitmap.forEach(ordinal -> {
+      RegionEntry entry = entries[ordinal];
+      if (entry != null) {
+        resolved.add(entry);
+      }
+    });
+    return resolved;
+  }
+}
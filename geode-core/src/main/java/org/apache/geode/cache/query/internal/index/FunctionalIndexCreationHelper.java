@@ -60,6 +60,12 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
 
   private CompiledValue indexedExpr;
 
+  /**
+   * The canonicalized expressions of a composite index, or null if the index has a single indexed
+   * expression
+   */
+  private String[] compositeIndexedExpressions;
+
   private List fromClauseIterators;
 
   QRegion region;
@@ -144,6 +150,18 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
     return this.isAllKeys;
   }
 
+  /**
+   * Returns true if the indexed expression is a comma separated list of expressions, which is
+   * indexed by a {@link CompositeRangeIndex}.
+   */
+  boolean isCompositeIndex() {
+    return this.compositeIndexedExpressions != null;
+  }
+
+  String[] getCanonicalizedIndexedExpressions() {
+    return this.compositeIndexedExpressions;
+  }
+
   /**
    * The function is modified to optimize the index creation code. If the 0th iterator of from
    * clause is not on Entries, then the 0th iterator is replaced with that of entries & the value
@@ -433,6 +451,11 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
    * TODO: refactor large method prepareIndexExpression
    */
   private void prepareIndexExpression(String indexedExpression) throws IndexInvalidException {
+    List<String> expressions = splitIndexedExpressions(indexedExpression);
+    if (expressions.size() > 1) {
+      prepareCompositeIndexExpression(indexedExpression, expressions);
+      return;
+    }
     CompiledValue expr = this.compiler.compileQuery(indexedExpression);
     if (expr == null) {
       throw new IndexInvalidException(
@@ -511,6 +534,91 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
     this.indexedExpr = expr;
   }
 
+  /**
+   * Splits the indexed expression on the commas that are not nested in parentheses, brackets or
+   * string literals.
+   */
+  private static List<String> splitIndexedExpressions(String indexedExpression)
+      throws IndexInvalidException {
+    List<String> expressions = new ArrayList<>();
+    int depth = 0;
+    boolean inLiteral = false;
+    int start = 0;
+    for (int i = 0; i < indexedExpression.length(); i++) {
+      char c = indexedExpression.charAt(i);
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+      } else if (inLiteral) {
+        continue;
+      } else if (c == '(' || c == '[' || c == '{') {
+        depth++;
+      } else if (c == ')' || c == ']' || c == '}') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        expressions.add(indexedExpression.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    expressions.add(indexedExpression.substring(start).trim());
+    if (expressions.size() > 1 && expressions.contains("")) {
+      throw new IndexInvalidException(
+          String.format("Invalid indexed expression : ' %s '",
+              indexedExpression));
+    }
+    return expressions;
+  }
+
+  /**
+   * Prepares the indexed expressions of a composite index. Each of them must be a valid indexed
+   * expression which is not on map keys, and is modified like a single indexed expression.
+   */
+  private void prepareCompositeIndexExpression(String indexedExpression, List<String> expressions)
+      throws IndexInvalidException {
+    int size = expressions.size();
+    CompiledValue[] compiledExpressions = new CompiledValue[size];
+    CompiledValue[] modifiedExpressions = new CompiledValue[size];
+    String[] canonicalizedExpressions = new String[size];
+    for (int i = 0; i < size; i++) {
+      CompiledValue expr = this.compiler.compileQuery(expressions.get(i));
+      if (expr == null || expr instanceof CompiledUndefined || expr instanceof CompiledLiteral
+          || expr instanceof CompiledComparison || expr instanceof CompiledBindArgument
+          || expr instanceof CompiledNegation || isMapIndexExpression(expr)) {
+        throw new IndexInvalidException(
+            String.format("Invalid indexed expression : ' %s '",
+                indexedExpression));
+      }
+      try {
+        StringBuilder sb = new StringBuilder();
+        expr.generateCanonicalizedExpression(sb, this.context);
+        canonicalizedExpressions[i] = sb.toString();
+        modifiedExpressions[i] = expr;
+        if (!this.isFirstIteratorRegionEntry
+            && canonicalizedExpressions[i].contains(this.canonicalizedIteratorNames[0])) {
+          modifiedExpressions[i] =
+              getModifiedDependentCompiledValue(this.context, -1, expr, true);
+        }
+      } catch (Exception e) {
+        throw new IndexInvalidException(
+            String.format("Invalid indexed expression : ' %s '",
+                indexedExpression),
+            e);
+      }
+      compiledExpressions[i] = expr;
+    }
+    this.compositeIndexedExpressions = canonicalizedExpressions;
+    this.indexedExpression = String.join(", ", canonicalizedExpressions);
+    this.modifiedIndexExpr = new CompositeIndexExpression(modifiedExpressions);
+    this.indexedExpr = new CompositeIndexExpression(compiledExpressions);
+  }
+
+  private static boolean isMapIndexExpression(CompiledValue expr) {
+    if (!(expr instanceof MapIndexable)) {
+      return false;
+    }
+    List<CompiledValue> indexingKeys = ((MapIndexable) expr).getIndexingKeys();
+    return indexingKeys.size() != 1 || indexingKeys.get(0) == CompiledValue.MAP_INDEX_ALL_KEYS;
+  }
+
   private void prepareProjectionAttributes(String projectionAttributes)
       throws IndexInvalidException {
     if (projectionAttributes != null && !projectionAttributes.equals("*")) {
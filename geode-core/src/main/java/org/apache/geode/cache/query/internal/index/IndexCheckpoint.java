@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.versions.VersionStamp;
+import org.apache.geode.internal.tcp.ByteBufferInputStream;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * A checkpoint of the mappings of a {@link CompactRangeIndex} on a persistent region, written when
+ * the region is closed. When the index is created again after a restart, mappings whose region
+ * entry still carries the version recorded in the checkpoint are restored without evaluating the
+ * indexed expression, so their values do not need to be read from disk and deserialized. Entries
+ * that changed since the checkpoint, for example through a GII, are evaluated as usual.
+ *
+ * <p>
+ * A checkpoint is deleted as soon as it has been read, so after an unclean shutdown the index is
+ * rebuilt from the region as before. It is also deleted when its index is removed or its region
+ * destroyed, and it records the disk store and disk region it was written for, so that a leftover
+ * checkpoint is not applied to a region recreated with other data.
+ */
+class IndexCheckpoint {
+
+  /**
+   * If true, the compact range indexes of persistent regions are checkpointed when the region is
+   * closed and restored from the checkpoint when they are created during recovery.
+   */
+  static final boolean CHECKPOINT_ON_CLOSE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "index.checkpointOnClose");
+
+  static final String CHECKPOINT_FILE_PREFIX = "IDXCP";
+
+  static final String CHECKPOINT_FILE_EXT = ".idxcp";
+
+  private static final int MAGIC = 0x49445843;
+
+  private static final byte VERSION_2 = 2;
+
+  private static final byte KEY_RECORD = 1;
+
+  private static final byte NULL_KEY_RECORD = 2;
+
+  private static final byte END_RECORD = 3;
+
+  private IndexCheckpoint() {
+    // static methods only
+  }
+
+  /**
+   * Returns true if indexes on the given region can be checkpointed. The versions of the region
+   * entries are what make a checkpoint safe to apply, so the region needs concurrency checks.
+   */
+  static boolean isSupported(LocalRegion region) {
+    return CHECKPOINT_ON_CLOSE && region.getDataPolicy().withPersistence()
+        && region.getConcurrencyChecksEnabled() && region.getDiskStore() != null;
+  }
+
+  static File getCheckpointFile(LocalRegion region, String indexName) {
+    File dir = region.getDiskStore().getDiskDirs()[0];
+    return new File(dir, CHECKPOINT_FILE_PREFIX + sanitize(region.getFullPath()) + "_"
+        + sanitize(indexName) + CHECKPOINT_FILE_EXT);
+  }
+
+  /**
+   * Returns the identity of the persistent storage of the given region, which changes when the
+   * region is recreated or its disk store is.
+   */
+  static String getStorageId(LocalRegion region) {
+    return region.getDiskStore().getDiskStoreID() + "/" + region.getDiskRegion().getId();
+  }
+
+  private static String sanitize(String name) {
+    return name.replaceAll("[^A-Za-z0-9_\\-]", "_");
+  }
+
+  /**
+   * Writes the mappings of an index store.
+   *
+   * @param file the checkpoint file
+   * @param definition identifies the index definition the mappings belong to
+   * @param storageId identifies the persistent storage of the region, see {@link #getStorageId}
+   * @param valueToEntriesMap the index key to region entries map of the store
+   * @return the number of mappings written
+   * @throws IOException error writing the checkpoint or an index key cannot be serialized
+   */
+  static long write(File file, String definition, String storageId,
+      Map<?, ?> valueToEntriesMap) throws IOException {
+    File tmpFile = new File(file.getPath() + ".tmp");
+    long mappings = 0;
+    // the members of the version stamps, written in full the first time each one is seen
+    Map<Object, Integer> members = new HashMap<>();
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tmpFile), 64 * 1024))) {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION_2);
+        out.writeUTF(definition);
+        out.writeUTF(storageId);
+        List<RegionEntry> entries = new ArrayList<>();
+        for (Map.Entry<?, ?> mapping : valueToEntriesMap.entrySet()) {
+          Object indexKey = mapping.getKey();
+          if (indexKey == QueryService.UNDEFINED) {
+            // evaluated again on restore
+            continue;
+          }
+          if (indexKey instanceof PdxString) {
+            throw new IOException("Index keys of type PdxString are not checkpointed");
+          }
+          collectVersionedEntries(mapping.getValue(), entries);
+          if (entries.isEmpty()) {
+            continue;
+          }
+          if (indexKey == IndexManager.NULL) {
+            out.writeByte(NULL_KEY_RECORD);
+          } else {
+            out.writeByte(KEY_RECORD);
+            DataSerializer.writeObject(indexKey, out);
+          }
+          out.writeInt(entries.size());
+          for (RegionEntry entry : entries) {
+            VersionStamp stamp = entry.getVersionStamp();
+            DataSerializer.writeObject(entry.getKey(), out);
+            Object member = stamp.getMemberID();
+            Integer memberIndex = members.get(member);
+            if (memberIndex == null) {
+              out.writeInt(members.size());
+              DataSerializer.writeObject(member, out);
+              members.put(member, members.size());
+            } else {
+              out.writeInt(memberIndex);
+            }
+            out.writeInt(stamp.getEntryVersion());
+            out.writeLong(stamp.getRegionVersion());
+          }
+          mappings += entries.size();
+          entries.clear();
+        }
+        out.writeByte(END_RECORD);
+        out.writeLong(mappings);
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+    return mappings;
+  }
+
+  private static void collectVersionedEntries(Object value, List<RegionEntry> entries) {
+    if (value instanceof RegionEntry) {
+      addIfVersioned((RegionEntry) value, entries);
+    } else if (value instanceof Collection) {
+      for (Object entry : (Collection<?>) value) {
+        addIfVersioned((RegionEntry) entry, entries);
+      }
+    }
+  }
+
+  private static void addIfVersioned(RegionEntry entry, List<RegionEntry> entries) {
+    if (entry != null && !entry.isDestroyedOrRemoved() && entry.getVersionStamp() != null) {
+      entries.add(entry);
+    }
+  }
+
+  /**
+   * Restores the mappings of a checkpoint whose region entries are unchanged into an index store.
+   * The checkpoint is deleted afterwards, whether or not it could be applied.
+   *
+   * @param file the checkpoint file
+   * @param definition identifies the index definition; a checkpoint of a different definition is
+   *        ignored
+   * @param storageId identifies the persistent storage of the region; a checkpoint written for
+   *        another storage is ignored
+   * @param region the region being indexed
+   * @param store the store to add the mappings to
+   * @return the region entries whose mappings were restored, or null if the checkpoint does not
+   *         belong to this index definition and storage
+   * @throws IOException the checkpoint is malformed or truncated. Mappings may already have been
+   *         added to the store.
+   */
+  static Set<RegionEntry> restore(File file, String definition, String storageId,
+      LocalRegion region, IndexStore store)
+      throws IOException, ClassNotFoundException, IMQException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        InputStream in = openForSequentialRead(file, channel)) {
+      DataInput input = (DataInput) in;
+      if (input.readInt() != MAGIC || input.readByte() != VERSION_2) {
+        throw new IOException("Not an index checkpoint: " + file);
+      }
+      if (!definition.equals(input.readUTF()) || !storageId.equals(input.readUTF())) {
+        return null;
+      }
+      List<Object> members = new ArrayList<>();
+      Set<RegionEntry> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+      long mappings = 0;
+      for (;;) {
+        byte record = input.readByte();
+        if (record == END_RECORD) {
+          break;
+        }
+        Object indexKey;
+        if (record == NULL_KEY_RECORD) {
+          indexKey = IndexManager.NULL;
+        } else if (record == KEY_RECORD) {
+          indexKey = DataSerializer.readObject(input);
+        } else {
+          throw new IOException("Malformed index checkpoint: " + file);
+        }
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+          Object regionKey = DataSerializer.readObject(input);
+          int memberIndex = input.readInt();
+          if (memberIndex == members.size()) {
+            members.add(DataSerializer.readObject(input));
+          } else if (memberIndex < 0 || memberIndex > members.size()) {
+            throw new IOException("Malformed index checkpoint: " + file);
+          }
+          Object member = members.get(memberIndex);
+          int entryVersion = input.readInt();
+          long regionVersion = input.readLong();
+          RegionEntry entry = region.getRegionMap().getEntry(regionKey);
+          if (isUnchanged(entry, member, entryVersion, regionVersion)) {
+            store.addMapping(indexKey, entry);
+            restored.add(entry);
+          }
+        }
+        mappings += count;
+      }
+      if (input.readLong() != mappings) {
+        throw new IOException("Malformed index checkpoint: " + file);
+      }
+      return restored;
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Truncated index checkpoint: " + file, e);
+    } finally {
+      // may fail on platforms that do not allow deleting mapped files; the version checks still
+      // keep a leftover checkpoint from being applied to changed entries
+      file.delete();
+    }
+  }
+
+  private static boolean isUnchanged(RegionEntry entry, Object member, int entryVersion,
+      long regionVersion) {
+    if (entry == null || entry.isInvalidOrRemoved()) {
+      return false;
+    }
+    VersionStamp stamp = entry.getVersionStamp();
+    return stamp != null && stamp.getEntryVersion() == entryVersion
+        && stamp.getRegionVersion() == regionVersion
+        && Objects.equals(stamp.getMemberID(), member);
+  }
+
+  /**
+   * Checkpoints are read front to back exactly once, so they are mapped rather than copied through
+   * a heap buffer when they fit in a single mapping.
+   */
+  private static InputStream openForSequentialRead(File file, FileChannel channel)
+      throws IOException {
+    long size = channel.size();
+    if (size <= Integer.MAX_VALUE) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.load();
+      return new ByteBufferInputStream(buffer);
+    }
+    return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+  }
+}
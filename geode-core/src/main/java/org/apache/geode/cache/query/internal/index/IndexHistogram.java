@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.RegionEntry;
+
+/**
+ * The distribution of the keys of an index, used by the cost based planner to estimate how many
+ * entries a range condition selects. It is a uniform sample of the mappings of the index,
+ * maintained at update time with reservoir sampling, so that skewed key distributions are
+ * estimated as well as uniform ones.
+ *
+ * Only new mappings are offered to the sample. When the key of a sampled entry changes, its key is
+ * replaced, and when a sampled entry is removed, its slot is freed for the next new mapping. The
+ * estimates are approximate.
+ */
+class IndexHistogram {
+
+  static final int SAMPLE_SIZE = 128;
+
+  /** The number of sampled keys below which no estimate is made */
+  static final int MIN_SAMPLES = 32;
+
+  private final AtomicReferenceArray<Sample> samples = new AtomicReferenceArray<>(SAMPLE_SIZE);
+
+  /** The number of mappings the sample is drawn from */
+  private final AtomicLong mappings = new AtomicLong();
+
+  /** The number of empty slots, so that full samples are not searched for one */
+  private final AtomicInteger emptySlots = new AtomicInteger(SAMPLE_SIZE);
+
+  /**
+   * Offers a new mapping of the index to the sample.
+   */
+  void add(RegionEntry entry, Object key) {
+    long count = mappings.incrementAndGet();
+    Sample sample = new Sample(entry, key);
+    for (int i = 0; i < SAMPLE_SIZE && emptySlots.get() > 0; i++) {
+      if (samples.get(i) == null && samples.compareAndSet(i, null, sample)) {
+        emptySlots.decrementAndGet();
+        return;
+      }
+    }
+    long slot = ThreadLocalRandom.current().nextLong(count);
+    if (slot < SAMPLE_SIZE && samples.getAndSet((int) slot, sample) == null) {
+      emptySlots.decrementAndGet();
+    }
+  }
+
+  /**
+   * Replaces the key of an entry whose mapping changed, if the entry is sampled.
+   */
+  void update(RegionEntry entry, Object key) {
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      Sample sample = samples.get(i);
+      if (sample != null && sample.entry == entry) {
+        samples.compareAndSet(i, sample, new Sample(entry, key));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping of an entry, freeing its slot if the entry is sampled.
+   */
+  void remove(RegionEntry entry) {
+    mappings.updateAndGet(count -> Math.max(0, count - 1));
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      Sample sample = samples.get(i);
+      if (sample != null && sample.entry == entry) {
+        if (samples.compareAndSet(i, sample, null)) {
+          emptySlots.incrementAndGet();
+        }
+        return;
+      }
+    }
+  }
+
+  void clear() {
+    mappings.set(0);
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      samples.set(i, null);
+    }
+    emptySlots.set(SAMPLE_SIZE);
+  }
+
+  /**
+   * Returns the fraction of the mapped keys satisfying the comparison of a key with the given
+   * operator, or -1 if too few keys have been sampled. Null and UNDEFINED keys never satisfy a
+   * range comparison, keys of a type not comparable with the given key do not satisfy it either.
+   *
+   * @param key the key, as converted for an index lookup
+   * @param operator the operator comparing the indexed keys on the left to the key on the right
+   */
+  float selectivity(Object key, int operator) {
+    int compared = 0;
+    int matching = 0;
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      Sample entrySample = samples.get(i);
+      if (entrySample == null) {
+        continue;
+      }
+      Object sample = entrySample.key;
+      compared++;
+      if (sample == IndexManager.NULL || sample == QueryService.UNDEFINED) {
+        continue;
+      }
+      try {
+        if (Boolean.TRUE.equals(TypeUtils.compare(sample, key, operator))) {
+          matching++;
+        }
+      } catch (TypeMismatchException ignore) {
+        // not comparable, does not match
+      }
+    }
+    if (compared < MIN_SAMPLES) {
+      return -1;
+    }
+    return (float) matching / compared;
+  }
+
+  private static class Sample {
+    final RegionEntry entry;
+    final Object key;
+
+    Sample(RegionEntry entry, Object key) {
+      this.entry = entry;
+      this.key = key;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -105,6 +106,12 @@ public class IndexManager {
   private ConcurrentMap canonicalizedIteratorNameMap = new ConcurrentHashMap();
   private IndexUpdaterThread updater;
 
+  /** The queue of the index updates, when they are applied by the shared workers */
+  private IndexUpdateQueue updateQueue;
+
+  /** The ordinals of the entries mapped by the bitmap indexes of the region, created on demand */
+  private EntryOrdinals entryOrdinals;
+
   // Threshold for Queue.
   private final int INDEX_MAINTENANCE_BUFFER =
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "AsynchIndexMaintenanceThreshold", -1);
@@ -140,6 +147,25 @@ public class IndexManager {
 
   @MutableForTesting
   public static boolean TEST_RANGEINDEX_ONLY = false;
+
+  /**
+   * System property setting the number of threads applying in parallel the index updates of the
+   * regions, and of the buckets of the partitioned regions, with asynchronous index maintenance.
+   * Unless it is positive, each such region applies its updates with its own
+   * {@link IndexUpdaterThread}.
+   */
+  @MutableForTesting
+  public static int ASYNC_INDEX_MAINTENANCE_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "index.ASYNC_MAINTENANCE_THREADS", 0);
+
+  /**
+   * System property listing, separated by commas, the names of the compact range indexes whose
+   * integral keys are kept unboxed in pages by a {@link PrimitiveKeyIndexStore}, or "*" for all
+   * of them.
+   */
+  public static final String PRIMITIVE_KEY_INDEXES_PROP =
+      DistributionConfig.GEMFIRE_PREFIX + "index.PRIMITIVE_KEY_INDEXES";
+
   public static final String INDEX_ELEMARRAY_THRESHOLD_PROP = "index_elemarray_threshold";
   public static final String INDEX_ELEMARRAY_SIZE_PROP = "index_elemarray_size";
   public static final int INDEX_ELEMARRAY_THRESHOLD =
@@ -172,10 +198,25 @@ public class IndexManager {
         region.getAttributes().getEvictionAttributes().getAction().isOverflowToDisk();
     this.offHeap = region.getAttributes().getOffHeap();
     if (!indexMaintenanceSynchronous) {
-      updater = new IndexUpdaterThread(this.INDEX_MAINTENANCE_BUFFER,
-          "OqlIndexUpdater:" + region.getFullPath());
-      updater.start();
+      if (ASYNC_INDEX_MAINTENANCE_THREADS > 0) {
+        updateQueue = new IndexUpdateQueue(this, ((LocalRegion) region).getCancelCriterion());
+      } else {
+        updater = new IndexUpdaterThread(this.INDEX_MAINTENANCE_BUFFER,
+            "OqlIndexUpdater:" + region.getFullPath());
+        updater.start();
+      }
+    }
+  }
+
+  /**
+   * Returns the entry ordinals shared by the bitmap indexes of the region, so that the bitmaps of
+   * different indexes can be combined.
+   */
+  synchronized EntryOrdinals getEntryOrdinals() {
+    if (entryOrdinals == null) {
+      entryOrdinals = new EntryOrdinals();
     }
+    return entryOrdinals;
   }
 
   /**
@@ -308,8 +349,31 @@ public class IndexManager {
       } else {
         throw new AssertionError("Don't know how to set helper for " + indexType);
       }
+      if (helper instanceof FunctionalIndexCreationHelper
+          && ((FunctionalIndexCreationHelper) helper).isCompositeIndex()) {
+        if (indexType != IndexType.FUNCTIONAL) {
+          throw new UnsupportedOperationException(
+              "Composite index is only supported for functional indexes.");
+        }
+        if (!isCompactOrHash) {
+          if (!isIndexMaintenanceTypeSynchronous()) {
+            throw new UnsupportedOperationException(
+                "Composite index is currently not supported for regions with Asynchronous index maintenance.");
+          }
+          throw new UnsupportedOperationException(
+              "Composite Index is not supported with from clause having multiple iterators(collections).");
+        }
+      }
       if (!isCompactOrHash && indexType != IndexType.PRIMARY_KEY) {
 
+        if (indexType == IndexType.BITMAP) {
+          if (!isIndexMaintenanceTypeSynchronous()) {
+            throw new UnsupportedOperationException(
+                "Bitmap index is currently not supported for regions with Asynchronous index maintenance.");
+          }
+          throw new UnsupportedOperationException(
+              "Bitmap Index is not supported with from clause having multiple iterators(collections).");
+        }
         if (indexType == IndexType.HASH) {
           if (!isIndexMaintenanceTypeSynchronous()) {
             throw new UnsupportedOperationException(
@@ -340,6 +404,10 @@ public class IndexManager {
         }
       }
 
+      if (indexType == IndexType.BITMAP && helper.isMapTypeIndex()) {
+        throw new UnsupportedOperationException("Bitmap Index is not supported on map fields.");
+      }
+
       if (logger.isDebugEnabled()) {
         logger.debug("Started creating index with indexName: {} On region: {}", indexName,
             region.getFullPath());
@@ -453,26 +521,16 @@ public class IndexManager {
     }
 
     // indexedExpression requirement
-    CompiledValue cv = helper.getCompiledIndexedExpression();
-    int nodeType;
-    do {
-      nodeType = cv.getType();
-      if (nodeType == CompiledValue.PATH) {
-        cv = ((CompiledPath) cv).getReceiver();
-      }
-    } while (nodeType == CompiledValue.PATH);
-    // end of path, nodeType at this point should be an Identifier
-    if (nodeType != OQLLexerTokenTypes.Identifier && nodeType != OQLLexerTokenTypes.METHOD_INV) {
-      if (nodeType == OQLLexerTokenTypes.TOK_LBRACK && !helper.isMapTypeIndex()
-          && helper.modifiedIndexExpr instanceof MapIndexable) {
-        if (((MapIndexable) helper.modifiedIndexExpr).getIndexingKeys().size() == 1) {
-
-        } else {
+    if (helper.isCompositeIndex()) {
+      for (Object expression : helper.getCompiledIndexedExpression().getChildren()) {
+        if (!isCompactIndexExpression((CompiledValue) expression, (CompiledValue) expression,
+            false)) {
           return false;
         }
-      } else {
-        return false;
       }
+    } else if (!isCompactIndexExpression(helper.getCompiledIndexedExpression(),
+        helper.modifiedIndexExpr, helper.isMapTypeIndex())) {
+      return false;
     }
 
     // fromClause requirement
@@ -495,6 +553,35 @@ public class IndexManager {
     return true;
   }
 
+  /**
+   * Return true if the indexed expression is a path expression, or an index operation with a
+   * single key on a path expression, which a compact index can evaluate.
+   */
+  private boolean isCompactIndexExpression(CompiledValue cv, CompiledValue modifiedIndexExpr,
+      boolean isMapTypeIndex) {
+    int nodeType;
+    do {
+      nodeType = cv.getType();
+      if (nodeType == CompiledValue.PATH) {
+        cv = ((CompiledPath) cv).getReceiver();
+      }
+    } while (nodeType == CompiledValue.PATH);
+    // end of path, nodeType at this point should be an Identifier
+    if (nodeType != OQLLexerTokenTypes.Identifier && nodeType != OQLLexerTokenTypes.METHOD_INV) {
+      if (nodeType == OQLLexerTokenTypes.TOK_LBRACK && !isMapTypeIndex
+          && modifiedIndexExpr instanceof MapIndexable) {
+        if (((MapIndexable) modifiedIndexExpr).getIndexingKeys().size() == 1) {
+
+        } else {
+          return false;
+        }
+      } else {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public Index getIndex(String indexName) {
     IndexTask indexTask = new IndexTask(cache, indexName);
     Object ind = this.indexes.get(indexTask);
@@ -836,6 +923,9 @@ public class IndexManager {
     if (this.indexes.remove(indexTask) != null) {
       AbstractIndex indexHandle = (AbstractIndex) index;
       indexHandle.destroy();
+      if (indexHandle instanceof CompactRangeIndex) {
+        ((CompactRangeIndex) indexHandle).deleteCheckpoint();
+      }
     }
   }
 
@@ -858,6 +948,9 @@ public class IndexManager {
       numIndexes++;
       IndexTask indexTask = (IndexTask) entry.getKey();
       this.indexes.remove(indexTask);
+      if (ind instanceof CompactRangeIndex) {
+        ((CompactRangeIndex) ind).deleteCheckpoint();
+      }
     }
     return numIndexes;
   }
@@ -883,6 +976,8 @@ public class IndexManager {
     }
     if (isIndexMaintenanceTypeSynchronous()) {
       recreateAllIndexesForRegion();
+    } else if (updateQueue != null) {
+      updateQueue.addTask(RECREATE_INDEX, null, IndexProtocol.OTHER_OP);
     } else {
       // System.out.println("Aynchronous update");
       updater.addTask(RECREATE_INDEX, null, IndexProtocol.OTHER_OP);
@@ -902,20 +997,38 @@ public class IndexManager {
     boolean oldReadSerialized = this.cache.getPdxReadSerializedOverride();
     this.cache.setPdxReadSerializedOverride(true);
     try {
+      // Entries restored from a checkpoint do not need their value to be read from disk
+      Map<Index, Set<RegionEntry>> restoredEntries = new HashMap<>();
+      for (Index index : indexSet) {
+        if (index instanceof CompactRangeIndex && !((AbstractIndex) index).isPopulated()) {
+          Set<RegionEntry> restored = ((CompactRangeIndex) index).restoreCheckpoint();
+          if (restored != null) {
+            restoredEntries.put(index, restored);
+          }
+        }
+      }
       Iterator entryIter = ((LocalRegion) region).getBestIterator(true);
       while (entryIter.hasNext()) {
         RegionEntry entry = (RegionEntry) entryIter.next();
         if (entry == null || entry.isInvalidOrRemoved()) {
           continue;
         }
-        // Fault in the value once before index update so that every index
-        // update does not have
-        // to read the value from disk every time.
-        entry.getValue((LocalRegion) this.region);
+        boolean faultedIn = false;
         Iterator<Index> indexSetIterator = indexSet.iterator();
         while (indexSetIterator.hasNext()) {
           AbstractIndex index = (AbstractIndex) indexSetIterator.next();
+          Set<RegionEntry> restored = restoredEntries.get(index);
+          if (restored != null && restored.contains(entry)) {
+            continue;
+          }
           if (!index.isPopulated() && index.getType() != IndexType.PRIMARY_KEY) {
+            if (!faultedIn) {
+              // Fault in the value once before index update so that every index
+              // update does not have
+              // to read the value from disk every time.
+              entry.getValue((LocalRegion) this.region);
+              faultedIn = true;
+            }
             if (logger.isDebugEnabled()) {
               logger.debug("Adding to index :{}{} value :{}", index.getName(),
                   this.region.getFullPath(), entry.getKey());
@@ -985,12 +1098,46 @@ public class IndexManager {
     if (isIndexMaintenanceTypeSynchronous()) {
       // System.out.println("Synchronous update");
       processAction(entry, action, opCode);
+    } else if (updateQueue != null) {
+      updateQueue.addTask(action, entry, opCode);
     } else {
       // System.out.println("Aynchronous update");
       updater.addTask(action, entry, opCode);
     }
   }
 
+  /**
+   * Applies an index update queued for asynchronous maintenance by the shared workers.
+   */
+  void processQueuedAction(int action, RegionEntry entry, int opCode) {
+    try {
+      if (action == RECREATE_INDEX) {
+        recreateAllIndexesForRegion();
+      } else {
+        entry.setUpdateInProgress(true);
+        try {
+          processAction(entry, action, opCode);
+        } finally {
+          entry.setUpdateInProgress(false);
+        }
+      }
+    } catch (Exception e) {
+      logger.warn("Asynchronous update of the indexes of region {} failed",
+          region.getFullPath(), e);
+    }
+  }
+
+  /**
+   * Waits until the indexes reflect the operations completed on the region before the call. Only
+   * the index updates applied by the shared workers are waited for, see
+   * {@link #ASYNC_INDEX_MAINTENANCE_THREADS}.
+   */
+  public void waitForQueuedUpdates() {
+    if (updateQueue != null) {
+      updateQueue.waitForAppliedUpdates();
+    }
+  }
+
   /**
    * @param opCode one of IndexProtocol.OTHER_OP, BEFORE_UPDATE_OP, AFTER_UPDATE_OP.
    */
@@ -1240,7 +1387,8 @@ public class IndexManager {
           continue;
         }
         IndexProtocol index = (IndexProtocol) ind;
-        if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH) {
+        if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH
+            || index.getType() == IndexType.BITMAP) {
           AbstractIndex aIndex = ((AbstractIndex) index);
           start = ((AbstractIndex) index).updateIndexUpdateStats();
           ((AbstractIndex) index).recreateIndexData();
@@ -1302,13 +1450,39 @@ public class IndexManager {
     return ((HasCachePerfStats) this.region).getCachePerfStats();
   }
 
+  /**
+   * Writes a checkpoint of each index that can be restored from one when the region is recovered.
+   * Called when the region is closed.
+   */
+  public void writeCheckpoints() {
+    for (Object index : this.indexes.values()) {
+      if (index instanceof CompactRangeIndex) {
+        ((CompactRangeIndex) index).writeCheckpoint();
+      }
+    }
+  }
+
+  /**
+   * Deletes the checkpoint of each index. Called when the region is destroyed.
+   */
+  public void deleteCheckpoints() {
+    for (Object index : this.indexes.values()) {
+      if (index instanceof CompactRangeIndex) {
+        ((CompactRangeIndex) index).deleteCheckpoint();
+      }
+    }
+  }
+
   /**
    * Callback for destroying IndexManager Called after Region.destroy() called
    */
   public void destroy() throws QueryException {
     this.indexes.clear();
-    if (!isIndexMaintenanceTypeSynchronous())
+    if (updateQueue != null) {
+      updateQueue.close();
+    } else if (!isIndexMaintenanceTypeSynchronous()) {
       updater.shutdown();
+    }
   }
 
   /**
@@ -1363,6 +1537,23 @@ public class IndexManager {
     return (INPLACE_OBJECT_MODIFICATION || INPLACE_OBJECT_MODIFICATION_FOR_TEST);
   }
 
+  /**
+   * Returns whether the index is selected by {@link #PRIMITIVE_KEY_INDEXES_PROP}.
+   */
+  static boolean isPrimitiveKeyIndex(String indexName) {
+    String indexNames = System.getProperty(PRIMITIVE_KEY_INDEXES_PROP);
+    if (indexNames == null) {
+      return false;
+    }
+    for (String name : indexNames.split(",")) {
+      name = name.trim();
+      if (name.equals("*") || name.equals(indexName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Asif : This function is used exclusively by Index Manager. It gets the unique Iterator name for
    * a Iterator definition, if it already exists, else creates a unqiue name & also stores it in a
@@ -1624,6 +1815,11 @@ public class IndexManager {
             projectionAttributes, origFromClause, origIndexedExpression, definitions, stats);
         logger.info("Using Primary Key index implementation for '{}' on region {}", indexName,
             region.getFullPath());
+      } else if (indexType == IndexType.BITMAP) {
+        index = new BitmapIndex(cache, indexName, region, fromClause, indexedExpression,
+            projectionAttributes, origFromClause, origIndexedExpression, definitions, stats);
+        logger.info("Using Bitmap index implementation for '{}' on region {}", indexName,
+            region.getFullPath());
       } else if (indexType == IndexType.HASH) {
         index = new HashIndex(cache, indexName, region, fromClause, indexedExpression,
             projectionAttributes, origFromClause, origIndexedExpression, definitions, stats);
@@ -1634,7 +1830,16 @@ public class IndexManager {
         // boolean isCompact = !helper.isMapTypeIndex() &&
         // shouldCreateCompactIndex((FunctionalIndexCreationHelper)helper);
         if (this.isCompactOrHash || this.isLDM) {
-          if (indexType == IndexType.FUNCTIONAL && !helper.isMapTypeIndex()) {
+          if (indexType == IndexType.FUNCTIONAL
+              && ((FunctionalIndexCreationHelper) helper).isCompositeIndex()) {
+            index = new CompositeRangeIndex(cache, indexName, region, fromClause,
+                indexedExpression, projectionAttributes, origFromClause, origIndexedExpression,
+                definitions, ((FunctionalIndexCreationHelper) helper)
+                    .getCanonicalizedIndexedExpressions(),
+                stats);
+            logger.info("Using Composite Range index implementation for '{}' on region {}",
+                indexName, region.getFullPath());
+          } else if (indexType == IndexType.FUNCTIONAL && !helper.isMapTypeIndex()) {
             index = new CompactRangeIndex(cache, indexName, region, fromClause, indexedExpression,
                 projectionAttributes, origFromClause, origIndexedExpression, definitions, stats);
             logger.info("Using Compact Range index implementation for '{}' on region {}", indexName,
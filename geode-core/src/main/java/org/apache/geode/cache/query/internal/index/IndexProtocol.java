@@ -167,4 +167,12 @@ public interface IndexProtocol extends Index {
   boolean isMatchingWithIndexExpression(CompiledValue condnExpr, String condnExprStr,
       ExecutionContext context)
       throws AmbiguousNameException, TypeMismatchException, NameResolutionException;
+
+  /**
+   * Returns true if the results of a lookup on this index are ordered by the canonicalized
+   * expression.
+   *
+   * @param equalityLookup true if the lookup is an equality on the indexed expression
+   */
+  boolean isOrderedBy(String canonicalizedExpression, boolean equalityLookup);
 }
@@ -43,6 +43,7 @@ public class IndexStats {
   private static final int readLockCountId;
   private static final int numMapIndexKeysId;
   private static final int numBucketIndexesId;
+  private static final int indexMemoryId;
 
   /** The Statistics object that we delegate most behavior to */
   private final Statistics stats;
@@ -71,7 +72,9 @@ public class IndexStats {
             f.createIntGauge("readLockCount", "Current number of read locks taken.", "uses"),
             f.createLongGauge("numMapIndexKeys", "Number of keys in this Map index", "keys"),
             f.createIntGauge("numBucketIndexes",
-                "Number of bucket indexes in the partitioned region", "indexes"),});
+                "Number of bucket indexes in the partitioned region", "indexes"),
+            f.createLongGauge("indexMemory",
+                "Estimated heap used by the structures mapping the keys of this index", "bytes"),});
 
     // Initialize id fields
     numKeysId = type.nameToId("numKeys");
@@ -85,6 +88,7 @@ public class IndexStats {
     readLockCountId = type.nameToId("readLockCount");
     numMapIndexKeysId = type.nameToId("numMapIndexKeys");
     numBucketIndexesId = type.nameToId("numBucketIndexes");
+    indexMemoryId = type.nameToId("indexMemory");
   }
 
   /**
@@ -136,6 +140,10 @@ public class IndexStats {
     return stats.getInt(numBucketIndexesId);
   }
 
+  public long getIndexMemory() {
+    return stats.getLong(indexMemoryId);
+  }
+
   public void incNumUpdates() {
     this.stats.incLong(numUpdatesId, 1);
   }
@@ -192,6 +200,10 @@ public class IndexStats {
     this.stats.incInt(numBucketIndexesId, delta);
   }
 
+  public void incIndexMemory(long delta) {
+    this.stats.incLong(indexMemoryId, delta);
+  }
+
   /**
    * Closes these stats so that they can not longer be used. The stats are closed when the cache is
    * closed.
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.geode.CancelCriterion;
+import org.apache.geode.annotations.internal.MakeNotStatic;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.logging.internal.executors.LoggingExecutors;
+
+/**
+ * The index updates of a region, or of a bucket of a partitioned region, with asynchronous index
+ * maintenance, queued by the threads modifying the region. Unlike an
+ * {@link IndexManager.IndexUpdaterThread}, the queue has no thread of its own: it is drained by a
+ * pool of workers shared by all such regions, a batch of updates at a time, so that the updates of
+ * different buckets are applied in parallel while those of a bucket are applied in order.
+ *
+ * The updates are numbered as they are queued, which lets a query wait until those queued before
+ * it started have been applied, see {@link #waitForAppliedUpdates()}.
+ */
+class IndexUpdateQueue {
+
+  /** The maximum number of updates a worker applies before letting other queues be drained */
+  static final int BATCH_SIZE = 256;
+
+  private static final long WAIT_MILLIS = 100;
+
+  private final IndexManager indexManager;
+
+  private final CancelCriterion stopper;
+
+  private final Queue<Object[]> pendingTasks = new ConcurrentLinkedQueue<>();
+
+  /** Whether a worker is draining, or has been asked to drain, the queue */
+  private final AtomicBoolean draining = new AtomicBoolean();
+
+  private final AtomicLong numQueued = new AtomicLong();
+
+  /** The number of updates applied, guarded by this queue */
+  private long numApplied;
+
+  private volatile boolean closed;
+
+  IndexUpdateQueue(IndexManager indexManager, CancelCriterion stopper) {
+    this.indexManager = indexManager;
+    this.stopper = stopper;
+  }
+
+  void addTask(int action, RegionEntry entry, int opCode) {
+    // numbered before being queued so that, when waiting for the updates numbered so far, the
+    // updates queued before any of them are waited for too
+    numQueued.incrementAndGet();
+    pendingTasks.add(new Object[] {action, entry, opCode});
+    scheduleDrain();
+  }
+
+  /**
+   * Waits until the updates queued before the call have been applied, or the queue is closed.
+   * Returns early if the calling thread is interrupted, with its interrupt status set.
+   */
+  void waitForAppliedUpdates() {
+    long target = numQueued.get();
+    synchronized (this) {
+      while (numApplied < target && !closed) {
+        stopper.checkCancelInProgress(null);
+        try {
+          wait(WAIT_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards the pending updates and releases the waiting threads.
+   */
+  void close() {
+    closed = true;
+    pendingTasks.clear();
+    synchronized (this) {
+      notifyAll();
+    }
+  }
+
+  private void scheduleDrain() {
+    if (!closed && draining.compareAndSet(false, true)) {
+      try {
+        Workers.getExecutorService().execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        draining.set(false);
+        throw e;
+      }
+    }
+  }
+
+  private void drain() {
+    List<Object[]> batch = new ArrayList<>();
+    try {
+      Object[] task;
+      while (batch.size() < BATCH_SIZE && (task = pendingTasks.poll()) != null) {
+        batch.add(task);
+      }
+      for (Object[] queued : batch) {
+        if (closed || stopper.isCancelInProgress()) {
+          break;
+        }
+        indexManager.processQueuedAction((Integer) queued[0], (RegionEntry) queued[1],
+            (Integer) queued[2]);
+      }
+    } finally {
+      synchronized (this) {
+        numApplied += batch.size();
+        notifyAll();
+      }
+      draining.set(false);
+      // updates queued while draining could not schedule another drain
+      if (!pendingTasks.isEmpty()) {
+        scheduleDrain();
+      }
+    }
+  }
+
+  /**
+   * The workers draining the queues.
+   */
+  private static class Workers {
+
+    @MakeNotStatic
+    private static ExecutorService execService;
+
+    static synchronized ExecutorService getExecutorService() {
+      if (execService == null || execService.isShutdown()) {
+        execService = LoggingExecutors.newFixedThreadPool("IndexUpdater", true,
+            IndexManager.ASYNC_INDEX_MAINTENANCE_THREADS);
+      }
+      return execService;
+    }
+  }
+}
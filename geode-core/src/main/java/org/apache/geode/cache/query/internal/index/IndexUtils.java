@@ -94,6 +94,16 @@ public class IndexUtils {
               context);
         }
       }
+      // A bitmap index also only answers equality and not equals conditions
+      if (indxData == null) {
+        if (useOnlyExactIndexs) {
+          indxData =
+              qs.getIndex(regionpath, defintions, IndexType.BITMAP, indexedExpression, context);
+        } else {
+          indxData = qs.getBestMatchIndex(regionpath, defintions, IndexType.BITMAP,
+              indexedExpression, context);
+        }
+      }
     }
 
     // If Primary Key Index not found or is not valid search for FUNCTIONAL
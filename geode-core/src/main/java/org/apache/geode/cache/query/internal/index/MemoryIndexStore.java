@@ -51,6 +51,12 @@ import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
  * @since GemFire 8.0
  */
 public class MemoryIndexStore implements IndexStore {
+  /**
+   * An estimate of the heap used to map one index key in the skip list, including the node, its
+   * share of the index levels and the boxed key of a primitive value.
+   */
+  static final int KEY_MAPPING_BYTES = 64;
+
   /**
    * Map for valueOf(indexedExpression)=>RegionEntries. SortedMap<Object, (RegionEntry |
    * List<RegionEntry>)>. Package access for unit tests.
@@ -148,6 +154,7 @@ public class MemoryIndexStore implements IndexStore {
           continue;
         } else if (regionEntries == null) {
           internalIndexStats.incNumKeys(1);
+          internalIndexStats.incIndexMemory(KEY_MAPPING_BYTES);
           numIndexKeys.incrementAndGet();
         } else if (regionEntries instanceof RegionEntry) {
           IndexElemArray elemArray = new IndexElemArray();
@@ -325,6 +332,7 @@ public class MemoryIndexStore implements IndexStore {
               if (this.valueToEntriesMap.remove(newKey, regionEntries)) {
                 numIndexKeys.decrementAndGet();
                 internalIndexStats.incNumKeys(-1);
+                internalIndexStats.incIndexMemory(-KEY_MAPPING_BYTES);
               } else {
                 // is another thread has since done an add and shifted us into a collection
                 retry = true;
@@ -362,6 +370,7 @@ public class MemoryIndexStore implements IndexStore {
                   if (valueToEntriesMap.remove(newKey, entries)) {
                     numIndexKeys.decrementAndGet();
                     internalIndexStats.incNumKeys(-1);
+                    internalIndexStats.incIndexMemory(-KEY_MAPPING_BYTES);
                   }
                 }
               }
@@ -530,7 +539,7 @@ public class MemoryIndexStore implements IndexStore {
     return new NonTXEntry((LocalRegion) region, entry);
   }
 
-  private Object getTargetObjectForUpdate(RegionEntry entry) {
+  Object getTargetObjectForUpdate(RegionEntry entry) {
     if (indexOnValues) {
       Object o = entry.getValue((LocalRegion) this.region);
       try {
@@ -556,10 +565,17 @@ public class MemoryIndexStore implements IndexStore {
     if (IndexManager.isObjectModificationInplace()) {
       this.entryToValuesMap.clear();
     }
-    numIndexKeys.set(0);
+    internalIndexStats.incIndexMemory(-(long) numIndexKeys.getAndSet(0) * KEY_MAPPING_BYTES);
     return true;
   }
 
+  /**
+   * Returns the mappings of this store from index key to region entries.
+   */
+  Map<?, ?> getMappings() {
+    return valueToEntriesMap;
+  }
+
   @Override
   public int size(Object key) {
     Object obj = valueToEntriesMap.get(key);
@@ -794,7 +810,7 @@ public class MemoryIndexStore implements IndexStore {
     private Object value;
     private long iteratorStartTime;
 
-    private MemoryIndexStoreEntry(long iteratorStartTime) {
+    MemoryIndexStoreEntry(long iteratorStartTime) {
       this.iteratorStartTime = iteratorStartTime;
     }
 
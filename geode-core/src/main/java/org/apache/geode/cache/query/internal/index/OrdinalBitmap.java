@@ -0,0 +1,479 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints laid out like a roaring bitmap. The ints are partitioned
+ * on their high 16 bits and the low 16 bits of each partition are kept in a container, which is a
+ * sorted array while the partition is sparse and a bitmap of 65536 bits once it is dense.
+ *
+ * {@link #add} and {@link #remove} modify the bitmap in place, while {@link #and}, {@link #or} and
+ * {@link #andNot} return a new bitmap. This class is not thread safe.
+ */
+class OrdinalBitmap {
+  /** The largest array container, which takes as much memory as a bitmap container */
+  private static final int MAX_ARRAY_CARDINALITY = 4096;
+
+  private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+  /** The high 16 bits of the ints of each container, in ascending order */
+  private char[] keys;
+
+  private Container[] containers;
+
+  private int size;
+
+  OrdinalBitmap() {
+    this(4);
+  }
+
+  private OrdinalBitmap(int capacity) {
+    this.keys = new char[capacity];
+    this.containers = new Container[capacity];
+  }
+
+  void add(int ordinal) {
+    char high = (char) (ordinal >>> 16);
+    int index = indexOf(high);
+    if (index < 0) {
+      index = -index - 1;
+      insert(index, high, new ArrayContainer());
+    }
+    containers[index] = containers[index].add((char) ordinal);
+  }
+
+  boolean remove(int ordinal) {
+    int index = indexOf((char) (ordinal >>> 16));
+    if (index < 0) {
+      return false;
+    }
+    Container container = containers[index];
+    int cardinality = container.cardinality();
+    container = container.remove((char) ordinal);
+    if (container.cardinality() == cardinality) {
+      return false;
+    }
+    if (container.cardinality() == 0) {
+      System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+      System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+      containers[--size] = null;
+    } else {
+      containers[index] = container;
+    }
+    return true;
+  }
+
+  boolean contains(int ordinal) {
+    int index = indexOf((char) (ordinal >>> 16));
+    return index >= 0 && containers[index].contains((char) ordinal);
+  }
+
+  int cardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  OrdinalBitmap copy() {
+    OrdinalBitmap copy = new OrdinalBitmap(Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      copy.append(keys[i], containers[i].copy());
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the ints that are in both this bitmap and the other one.
+   */
+  OrdinalBitmap and(OrdinalBitmap other) {
+    OrdinalBitmap result = new OrdinalBitmap(Math.max(Math.min(size, other.size), 1));
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ints that are in this bitmap, the other one or both.
+   */
+  OrdinalBitmap or(OrdinalBitmap other) {
+    OrdinalBitmap result = new OrdinalBitmap(Math.max(size + other.size, 1));
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || i < size && keys[i] < other.keys[j]) {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      } else if (i == size || keys[i] > other.keys[j]) {
+        result.append(other.keys[j], other.containers[j].copy());
+        j++;
+      } else {
+        result.append(keys[i], containers[i].or(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ints that are in this bitmap but not in the other one.
+   */
+  OrdinalBitmap andNot(OrdinalBitmap other) {
+    OrdinalBitmap result = new OrdinalBitmap(Math.max(size, 1));
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      while (j < other.size && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.size && other.keys[j] == keys[i]) {
+        result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+      } else {
+        result.append(keys[i], containers[i].copy());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Passes the ints of this bitmap to the action in ascending order.
+   */
+  void forEach(IntConsumer action) {
+    for (int i = 0; i < size; i++) {
+      containers[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  private int indexOf(char high) {
+    return Arrays.binarySearch(keys, 0, size, high);
+  }
+
+  private void insert(int index, char high, Container container) {
+    ensureCapacity(size + 1);
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = high;
+    containers[index] = container;
+    size++;
+  }
+
+  private void appendIfNotEmpty(char high, Container container) {
+    if (container.cardinality() > 0) {
+      append(high, container);
+    }
+  }
+
+  private void append(char high, Container container) {
+    ensureCapacity(size + 1);
+    keys[size] = high;
+    containers[size] = container;
+    size++;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > keys.length) {
+      int newCapacity = Math.max(capacity, keys.length * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+  }
+
+  /**
+   * The low 16 bits of the ints of one partition. The modifying methods return the container that
+   * replaces this one, which is a different kind of container when the cardinality crosses
+   * {@link #MAX_ARRAY_CARDINALITY}.
+   */
+  private abstract static class Container {
+    abstract int cardinality();
+
+    abstract boolean contains(char value);
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    abstract Container copy();
+
+    abstract void forEach(int high, IntConsumer action);
+  }
+
+  private static class ArrayContainer extends Container {
+    private char[] values;
+
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    private ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == MAX_ARRAY_CARDINALITY) {
+        return toBitmapContainer().add(value);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values =
+            Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), MAX_ARRAY_CARDINALITY));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other) {
+      char[] result = new char[Math.min(cardinality, other.cardinality())];
+      int resultCardinality = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i])) {
+          result[resultCardinality++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, resultCardinality);
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.or(this);
+      }
+      ArrayContainer that = (ArrayContainer) other;
+      char[] result = new char[cardinality + that.cardinality];
+      int resultCardinality = 0;
+      int i = 0;
+      int j = 0;
+      while (i < cardinality || j < that.cardinality) {
+        if (j == that.cardinality || i < cardinality && values[i] < that.values[j]) {
+          result[resultCardinality++] = values[i++];
+        } else if (i == cardinality || values[i] > that.values[j]) {
+          result[resultCardinality++] = that.values[j++];
+        } else {
+          result[resultCardinality++] = values[i++];
+          j++;
+        }
+      }
+      ArrayContainer union = new ArrayContainer(result, resultCardinality);
+      return resultCardinality > MAX_ARRAY_CARDINALITY ? union.toBitmapContainer() : union;
+    }
+
+    @Override
+    Container andNot(Container other) {
+      char[] result = new char[cardinality];
+      int resultCardinality = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (!other.contains(values[i])) {
+          result[resultCardinality++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, resultCardinality);
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+      for (int i = 0; i < cardinality; i++) {
+        action.accept(high | values[i]);
+      }
+    }
+
+    private BitmapContainer toBitmapContainer() {
+      BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+      for (int i = 0; i < cardinality; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static class BitmapContainer extends Container {
+    private final long[] words;
+
+    private int cardinality;
+
+    private BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add(char value) {
+      long word = words[value >>> 6];
+      long bit = 1L << value;
+      if ((word & bit) == 0) {
+        words[value >>> 6] = word | bit;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      long word = words[value >>> 6];
+      long bit = 1L << value;
+      if ((word & bit) != 0) {
+        words[value >>> 6] = word & ~bit;
+        cardinality--;
+        if (cardinality <= MAX_ARRAY_CARDINALITY / 2) {
+          return toArrayContainer();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      long[] result = new long[BITMAP_WORDS];
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        result[i] = words[i] & otherWords[i];
+      }
+      return fromWords(result);
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof ArrayContainer) {
+        Container result = copy();
+        other.forEach(0, value -> result.add((char) value));
+        return result;
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      long[] result = new long[BITMAP_WORDS];
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        result[i] = words[i] | otherWords[i];
+      }
+      return fromWords(result);
+    }
+
+    @Override
+    Container andNot(Container other) {
+      long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+      if (other instanceof ArrayContainer) {
+        other.forEach(0, value -> result[value >>> 6] &= ~(1L << value));
+      } else {
+        long[] otherWords = ((BitmapContainer) other).words;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+          result[i] &= ~otherWords[i];
+        }
+      }
+      return fromWords(result);
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          action.accept(high | (i << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    private ArrayContainer toArrayContainer() {
+      char[] values = new char[Math.max(cardinality, 1)];
+      int[] index = new int[1];
+      forEach(0, value -> values[index[0]++] = (char) value);
+      return new ArrayContainer(values, cardinality);
+    }
+
+    private static Container fromWords(long[] words) {
+      int cardinality = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+      }
+      BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+      return cardinality <= MAX_ARRAY_CARDINALITY ? bitmap.toArrayContainer() : bitmap;
+    }
+  }
+}
@@ -102,6 +102,11 @@ public class PartitionedIndex extends AbstractIndex {
         throw new UnsupportedOperationException(
             "Hash index is currently not supported for regions with Asynchronous index maintenance.");
       }
+    } else if (iType == IndexType.BITMAP) {
+      if (!getRegion().getAttributes().getIndexMaintenanceSynchronous()) {
+        throw new UnsupportedOperationException(
+            "Bitmap index is currently not supported for regions with Asynchronous index maintenance.");
+      }
     }
   }
 
@@ -518,6 +523,16 @@ public class PartitionedIndex extends AbstractIndex {
       this.vsdStats.incNumBucketIndexes(delta);
     }
 
+    @Override
+    public void incIndexMemory(long delta) {
+      this.vsdStats.incIndexMemory(delta);
+    }
+
+    @Override
+    public long getIndexMemory() {
+      return this.vsdStats.getIndexMemory();
+    }
+
     /**
      * Returns the number of keys in this index at the highest level
      */
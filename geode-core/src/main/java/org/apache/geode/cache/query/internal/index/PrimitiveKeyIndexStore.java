@@ -0,0 +1,801 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * An index store for the compact range indexes on int or long values. Instead of a skip list node
+ * and a boxed key per index key, the integral keys are kept unboxed in sorted pages of up to
+ * {@link #PAGE_CAPACITY} keys, and only the pages are mapped in a skip list, by the lowest key
+ * each page may hold. The other keys, such as strings, floating point numbers, null and undefined,
+ * are mapped as by {@link MemoryIndexStore}, and the lookups merge both in index key order.
+ *
+ * The pages are immutable except for the entries of their keys, so the mappings are only changed
+ * while holding the lock on the store, and a page is replaced by a copy when a key is added or
+ * removed. Lookups do not lock: they move through the pages by key, so they see each key once
+ * even while a page is split or merged.
+ *
+ * The integral keys are returned as Integers, unless a long key was mapped since the store was
+ * created or cleared.
+ *
+ * The key mapping each entry is also kept by entry, so that the mapping of a value modified in
+ * place, whose old key can no longer be computed from it, is found without scanning the pages.
+ */
+class PrimitiveKeyIndexStore extends MemoryIndexStore {
+  /** The most keys a page holds before it is split in two */
+  static final int PAGE_CAPACITY = 256;
+
+  /** An estimate of the heap used by a page besides its slots, including its skip list node */
+  private static final int PAGE_BYTES = 136;
+
+  /** The heap used by each slot of a page: the unboxed key and the reference to its entries */
+  private static final int SLOT_BYTES = 12;
+
+  private static final Page EMPTY_PAGE = new Page(new long[0], new Object[0]);
+
+  private static final Comparator COMPARATOR = TypeUtils.getExtendedNumericComparator();
+
+  /**
+   * The pages of integral keys, by the lowest key each page may hold. The first page, which may
+   * hold any key down to Long.MIN_VALUE, is never removed.
+   */
+  private final ConcurrentNavigableMap<Long, Page> pages = new ConcurrentSkipListMap<>();
+
+  /** The mappings of the keys that are not integral */
+  private final ConcurrentNavigableMap<Object, Object> objectKeys =
+      new ConcurrentSkipListMap<>(COMPARATOR);
+
+  /** The key mapping each entry, changed only while holding the lock on the store */
+  private final Map<RegionEntry, Object> entryToKey = new HashMap<>();
+
+  private final InternalIndexStatistics internalIndexStats;
+
+  private final InternalCache cache;
+
+  private volatile int numKeys;
+
+  /** Whether a long key was mapped, otherwise the integral keys are returned as Integers */
+  private volatile boolean longKeys;
+
+  /** The heap reported in the stats for the pages and the mappings of the other keys */
+  private long memory;
+
+  PrimitiveKeyIndexStore(Region region, InternalIndexStatistics internalIndexStats,
+      InternalCache cache) {
+    super(region, internalIndexStats, cache);
+    this.internalIndexStats = internalIndexStats;
+    this.cache = cache;
+    pages.put(Long.MIN_VALUE, EMPTY_PAGE);
+  }
+
+  private static boolean isIntegral(Object indexKey) {
+    return indexKey instanceof Integer || indexKey instanceof Long;
+  }
+
+  private Object boxKey(long key) {
+    if (longKeys) {
+      return key;
+    }
+    return (int) key;
+  }
+
+  private static boolean isSameKey(Object key, Object otherKey) {
+    if (isIntegral(key) && isIntegral(otherKey)) {
+      return ((Number) key).longValue() == ((Number) otherKey).longValue();
+    }
+    return key.equals(otherKey);
+  }
+
+  @Override
+  public synchronized void updateMapping(Object indexKey, Object oldKey, RegionEntry re,
+      Object oldValue) throws IMQException {
+    try {
+      indexKey = TypeUtils.indexKeyFor(indexKey);
+      // the key mapping the entry is known even if the value was modified in place
+      Object mappedKey = entryToKey.get(re);
+      if (mappedKey != null) {
+        oldKey = mappedKey;
+      } else if (oldKey != null) {
+        oldKey = TypeUtils.indexKeyFor(oldKey);
+      }
+      if (oldKey != null && isSameKey(oldKey, indexKey)) {
+        return;
+      }
+      if (indexKey.equals(QueryService.UNDEFINED)
+          && Token.isInvalidOrRemoved(getTargetObjectForUpdate(re))) {
+        if (oldKey != null) {
+          basicRemoveMapping(oldKey, re);
+        }
+        entryToKey.remove(re);
+        return;
+      }
+
+      if (isIntegral(indexKey)) {
+        if (indexKey instanceof Long) {
+          longKeys = true;
+        }
+        addToPage(((Number) indexKey).longValue(), re);
+      } else {
+        addToObjectKeys(indexKey, re);
+      }
+      if (oldKey != null) {
+        basicRemoveMapping(oldKey, re);
+      }
+      entryToKey.put(re, indexKey);
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + indexKey.getClass().getName(), ex);
+    }
+    internalIndexStats.incNumValues(1);
+  }
+
+  @Override
+  public synchronized void removeMapping(Object indexKey, RegionEntry re) throws IMQException {
+    try {
+      // the value may have been modified in place, so remove the key mapping the entry
+      Object key = entryToKey.remove(re);
+      if (key == null) {
+        key = TypeUtils.indexKeyFor(indexKey);
+      }
+      if (key != null) {
+        basicRemoveMapping(key, re);
+      }
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not find old key: " + indexKey.getClass().getName(), ex);
+    }
+  }
+
+  private boolean basicRemoveMapping(Object indexKey, RegionEntry re) {
+    boolean found = isIntegral(indexKey) ? removeFromPage(((Number) indexKey).longValue(), re)
+        : removeFromObjectKeys(indexKey, re);
+    if (found) {
+      internalIndexStats.incNumValues(-1);
+    }
+    return found;
+  }
+
+  /**
+   * Returns the entries of a key with the entry added to them, which are the same entries unless
+   * they are replaced by a larger collection.
+   */
+  private static Object addEntry(Object entries, RegionEntry re) {
+    if (entries == null) {
+      return re;
+    }
+    if (entries instanceof RegionEntry) {
+      IndexElemArray elemArray = new IndexElemArray();
+      elemArray.add(entries);
+      elemArray.add(re);
+      return elemArray;
+    }
+    if (entries instanceof IndexElemArray
+        && ((IndexElemArray) entries).size() >= IndexManager.INDEX_ELEMARRAY_THRESHOLD) {
+      IndexConcurrentHashSet set =
+          new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+      set.addAll((Collection) entries);
+      set.add(re);
+      return set;
+    }
+    ((Collection) entries).add(re);
+    return entries;
+  }
+
+  private void addToPage(long key, RegionEntry re) {
+    Map.Entry<Long, Page> mapping = pages.floorEntry(key);
+    Page page = mapping.getValue();
+    int index = Arrays.binarySearch(page.keys, key);
+    if (index >= 0) {
+      Object entries = page.entries.get(index);
+      Object newEntries = addEntry(entries, re);
+      if (newEntries != entries) {
+        page.entries.set(index, newEntries);
+      }
+      return;
+    }
+
+    Page newPage = page.insert(-index - 1, key, re);
+    if (newPage.size() > PAGE_CAPACITY) {
+      Page left = newPage.slice(0, newPage.size() / 2);
+      Page right = newPage.slice(newPage.size() / 2, newPage.size());
+      // the right half is mapped before it is removed from the page, so that lookups moving to the
+      // next page after the truncated one find its keys
+      pages.put(right.keys[0], right);
+      pages.put(mapping.getKey(), left);
+      updateMemory(left.bytes() + right.bytes() - page.bytes());
+    } else {
+      pages.put(mapping.getKey(), newPage);
+      updateMemory(newPage.bytes() - page.bytes());
+    }
+    keyAdded();
+  }
+
+  private boolean removeFromPage(long key, RegionEntry re) {
+    Map.Entry<Long, Page> mapping = pages.floorEntry(key);
+    Page page = mapping.getValue();
+    int index = Arrays.binarySearch(page.keys, key);
+    if (index < 0) {
+      return false;
+    }
+    Object entries = page.entries.get(index);
+    if (!removeEntry(entries, re)) {
+      return false;
+    }
+    if (entries instanceof Collection && !((Collection) entries).isEmpty()) {
+      return true;
+    }
+
+    Page newPage = page.delete(index);
+    long lowestKey = mapping.getKey();
+    Map.Entry<Long, Page> next = pages.higherEntry(lowestKey);
+    if (next != null && newPage.size() + next.getValue().size() <= PAGE_CAPACITY / 2) {
+      // the next page is merged into this one before it is removed, as when splitting
+      Page merged = newPage.append(next.getValue());
+      pages.put(lowestKey, merged);
+      pages.remove(next.getKey());
+      updateMemory(merged.bytes() - page.bytes() - next.getValue().bytes());
+    } else if (newPage.size() == 0 && lowestKey != Long.MIN_VALUE) {
+      pages.remove(lowestKey);
+      updateMemory(-page.bytes());
+    } else {
+      pages.put(lowestKey, newPage);
+      updateMemory(newPage.bytes() - page.bytes());
+    }
+    keyRemoved();
+    return true;
+  }
+
+  private void addToObjectKeys(Object key, RegionEntry re) {
+    Object entries = objectKeys.get(key);
+    Object newEntries = addEntry(entries, re);
+    if (newEntries != entries) {
+      objectKeys.put(key, newEntries);
+    }
+    if (entries == null) {
+      updateMemory(KEY_MAPPING_BYTES);
+      keyAdded();
+    }
+  }
+
+  private boolean removeFromObjectKeys(Object key, RegionEntry re) {
+    Object entries = objectKeys.get(key);
+    if (entries == null || !removeEntry(entries, re)) {
+      return false;
+    }
+    if (entries instanceof RegionEntry || ((Collection) entries).isEmpty()) {
+      objectKeys.remove(key);
+      updateMemory(-KEY_MAPPING_BYTES);
+      keyRemoved();
+    }
+    return true;
+  }
+
+  private static boolean removeEntry(Object entries, RegionEntry re) {
+    if (entries instanceof RegionEntry) {
+      return entries == re;
+    }
+    return ((Collection) entries).remove(re);
+  }
+
+  private void keyAdded() {
+    numKeys++;
+    internalIndexStats.incNumKeys(1);
+  }
+
+  private void keyRemoved() {
+    numKeys--;
+    internalIndexStats.incNumKeys(-1);
+  }
+
+  private void updateMemory(long delta) {
+    memory += delta;
+    internalIndexStats.incIndexMemory(delta);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> get(Object indexKey) {
+    return new PrimitiveKeyIndexStoreIterator(indexKey, true, indexKey, true, false, indexKey,
+        null);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(start, startInclusive, end, endInclusive, false,
+        null, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(start, startInclusive, null, false, false, null,
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(null, false, null, false, false, null,
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(start, startInclusive, end, endInclusive, true,
+        null, keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(start, startInclusive, null, false, true, null,
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Collection keysToRemove) {
+    return new PrimitiveKeyIndexStoreIterator(null, false, null, false, true, null,
+        keysToRemove);
+  }
+
+  @Override
+  public Iterator<IndexStoreEntry> getKeysIterator() {
+    PrimitiveKeyIndexStoreIterator keys =
+        new PrimitiveKeyIndexStoreIterator(null, false, null, false, false, null, null);
+    return new Iterator<IndexStoreEntry>() {
+      private boolean advanced;
+      private boolean hasNext;
+
+      @Override
+      public boolean hasNext() {
+        if (!advanced) {
+          hasNext = keys.advanceKey();
+          advanced = true;
+        }
+        return hasNext;
+      }
+
+      @Override
+      public IndexStoreEntry next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        advanced = false;
+        return new MemoryIndexStoreKey(keys.currKey);
+      }
+    };
+  }
+
+  @Override
+  Map<?, ?> getMappings() {
+    Map<Object, Object> mappings = new LinkedHashMap<>(objectKeys);
+    for (Page page : pages.values()) {
+      for (int i = 0; i < page.size(); i++) {
+        mappings.put(boxKey(page.keys[i]), page.entries.get(i));
+      }
+    }
+    return mappings;
+  }
+
+  @Override
+  public synchronized boolean clear() {
+    pages.clear();
+    pages.put(Long.MIN_VALUE, EMPTY_PAGE);
+    objectKeys.clear();
+    entryToKey.clear();
+    numKeys = 0;
+    longKeys = false;
+    updateMemory(-memory);
+    return true;
+  }
+
+  @Override
+  public int size(Object key) {
+    Object entries;
+    if (isIntegral(key)) {
+      long integralKey = ((Number) key).longValue();
+      Page page = pages.floorEntry(integralKey).getValue();
+      int index = Arrays.binarySearch(page.keys, integralKey);
+      entries = index >= 0 ? page.entries.get(index) : null;
+    } else {
+      entries = objectKeys.get(key);
+    }
+    if (entries == null) {
+      return 0;
+    }
+    return entries instanceof RegionEntry ? 1 : ((Collection) entries).size();
+  }
+
+  @Override
+  public int size() {
+    return numKeys;
+  }
+
+  @Override
+  public String printAll() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<?, ?> mapping : getMappings().entrySet()) {
+      sb.append("Key: ").append(mapping.getKey());
+      Object value = mapping.getValue();
+      if (value instanceof Collection) {
+        for (Object entry : (Collection) value) {
+          sb.append(" Value:").append(getTargetObject((RegionEntry) entry));
+        }
+      } else {
+        sb.append(" Value:").append(getTargetObject((RegionEntry) value));
+      }
+      sb.append("\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * A page of sorted integral keys and their entries. Only the entries of a key are changed in
+   * place, the pages with other keys are copies.
+   */
+  private static class Page {
+    final long[] keys;
+    final AtomicReferenceArray<Object> entries;
+
+    Page(long[] keys, Object[] entries) {
+      this.keys = keys;
+      this.entries = new AtomicReferenceArray<>(entries);
+    }
+
+    int size() {
+      return keys.length;
+    }
+
+    long bytes() {
+      return keys.length == 0 ? 0 : PAGE_BYTES + (long) SLOT_BYTES * keys.length;
+    }
+
+    /**
+     * Returns the position of the lowest key greater than, or equal to when inclusive, the key, or
+     * the size of the page if there is none.
+     */
+    int ceilingIndex(long key, boolean inclusive) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return inclusive ? index : index + 1;
+      }
+      return -index - 1;
+    }
+
+    /**
+     * Returns the position of the highest key lower than, or equal to when inclusive, the key, or
+     * -1 if there is none.
+     */
+    int floorIndex(long key, boolean inclusive) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return inclusive ? index : index - 1;
+      }
+      return -index - 2;
+    }
+
+    private Object[] entriesArray() {
+      Object[] array = new Object[keys.length];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = entries.get(i);
+      }
+      return array;
+    }
+
+    Page insert(int index, long key, Object keyEntries) {
+      Object[] oldEntries = entriesArray();
+      long[] newKeys = new long[keys.length + 1];
+      Object[] newEntries = new Object[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(oldEntries, 0, newEntries, 0, index);
+      newKeys[index] = key;
+      newEntries[index] = keyEntries;
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(oldEntries, index, newEntries, index + 1, keys.length - index);
+      return new Page(newKeys, newEntries);
+    }
+
+    Page delete(int index) {
+      Object[] oldEntries = entriesArray();
+      long[] newKeys = new long[keys.length - 1];
+      Object[] newEntries = new Object[keys.length - 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(oldEntries, 0, newEntries, 0, index);
+      System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+      System.arraycopy(oldEntries, index + 1, newEntries, index, keys.length - index - 1);
+      return new Page(newKeys, newEntries);
+    }
+
+    Page slice(int from, int to) {
+      return new Page(Arrays.copyOfRange(keys, from, to),
+          Arrays.copyOfRange(entriesArray(), from, to));
+    }
+
+    Page append(Page next) {
+      long[] newKeys = Arrays.copyOf(keys, keys.length + next.keys.length);
+      Object[] newEntries = Arrays.copyOf(entriesArray(), newKeys.length);
+      System.arraycopy(next.keys, 0, newKeys, keys.length, next.keys.length);
+      System.arraycopy(next.entriesArray(), 0, newEntries, keys.length, next.keys.length);
+      return new Page(newKeys, newEntries);
+    }
+  }
+
+  /**
+   * Iterates over the entries of the keys within the bounds, merging the keys of the pages with the
+   * other keys. As with {@link MemoryIndexStore}, null and undefined keys are skipped unless they
+   * are the key looked up, as well as the keys to remove.
+   */
+  private class PrimitiveKeyIndexStoreIterator implements CloseableIterator<IndexStoreEntry> {
+    private final Object lower;
+    private final boolean lowerInclusive;
+    private final Object upper;
+    private final boolean upperInclusive;
+    private final boolean descending;
+    private final Object indexKey;
+    private final Collection keysToRemove;
+    private final Iterator<Map.Entry<Object, Object>> objectIterator;
+    private final MemoryIndexStoreEntry currentEntry;
+
+    /** The last integral key visited, or the bound to start from */
+    private long pagePosition;
+    private boolean pagePositionInclusive;
+    private boolean pagesDone;
+
+    private boolean pageHeadValid;
+    private long pageHead;
+    private Object pageHeadEntries;
+    private Map.Entry<Object, Object> objectHead;
+
+    Object currKey;
+    private Object currEntries;
+    private Iterator valuesIterator;
+    private boolean pendingEntry;
+
+    PrimitiveKeyIndexStoreIterator(Object lower, boolean lowerInclusive, Object upper,
+        boolean upperInclusive, boolean descending, Object indexKey, Collection keysToRemove) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+      this.descending = descending;
+      this.indexKey = indexKey;
+      this.keysToRemove = keysToRemove == null ? null : new HashSet(keysToRemove);
+      this.currentEntry = new MemoryIndexStoreEntry(cache.cacheTimeMillis());
+
+      NavigableMap<Object, Object> view = objectKeys;
+      if (lower != null && upper != null) {
+        view = objectKeys.subMap(lower, lowerInclusive, upper, upperInclusive);
+      } else if (lower != null) {
+        view = objectKeys.tailMap(lower, lowerInclusive);
+      } else if (upper != null) {
+        view = objectKeys.headMap(upper, upperInclusive);
+      }
+      this.objectIterator = (descending ? view.descendingMap() : view).entrySet().iterator();
+
+      Object start = descending ? upper : lower;
+      boolean startInclusive = descending ? upperInclusive : lowerInclusive;
+      if (isIntegral(start)) {
+        pagePosition = ((Number) start).longValue();
+        pagePositionInclusive = startInclusive;
+      } else {
+        pagePosition = startPosition(start);
+        pagePositionInclusive = true;
+      }
+    }
+
+    /**
+     * Returns the integral key to start from for a bound that is not integral. The keys from there
+     * are still compared to the bound since floating point bounds are compared with the keys
+     * converted to floating point.
+     */
+    private long startPosition(Object start) {
+      if (start instanceof Double || start instanceof Float) {
+        double bound = ((Number) start).doubleValue();
+        if (!Double.isNaN(bound) && !Double.isInfinite(bound)) {
+          double slack = 2 * (start instanceof Float ? Math.ulp((Float) start) : Math.ulp(bound));
+          double position = descending ? Math.ceil(bound) + slack + 1
+              : Math.floor(bound) - slack - 1;
+          // the conversion saturates at the range of long
+          return (long) position;
+        }
+      }
+      return descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+
+    private boolean isAboveLower(long key) {
+      if (lower == null) {
+        return true;
+      }
+      int result = isIntegral(lower) ? Long.compare(key, ((Number) lower).longValue())
+          : COMPARATOR.compare(key, lower);
+      return result > 0 || result == 0 && lowerInclusive;
+    }
+
+    private boolean isBelowUpper(long key) {
+      if (upper == null) {
+        return true;
+      }
+      int result = isIntegral(upper) ? Long.compare(key, ((Number) upper).longValue())
+          : COMPARATOR.compare(key, upper);
+      return result < 0 || result == 0 && upperInclusive;
+    }
+
+    /**
+     * Moves to the next integral key within the bounds.
+     */
+    private void advancePages() {
+      while (seekPages()) {
+        if (descending ? !isAboveLower(pageHead) : !isBelowUpper(pageHead)) {
+          break;
+        }
+        if (descending ? isBelowUpper(pageHead) : isAboveLower(pageHead)) {
+          pageHeadValid = true;
+          return;
+        }
+      }
+      pagesDone = true;
+    }
+
+    /**
+     * Moves to the integral key after the current position in the order of the iteration.
+     */
+    private boolean seekPages() {
+      Map.Entry<Long, Page> mapping = pages.floorEntry(pagePosition);
+      if (mapping == null && !descending) {
+        // only while the store is cleared
+        mapping = pages.firstEntry();
+      }
+      while (mapping != null) {
+        Page page = mapping.getValue();
+        int index = descending ? page.floorIndex(pagePosition, pagePositionInclusive)
+            : page.ceilingIndex(pagePosition, pagePositionInclusive);
+        if (index >= 0 && index < page.size()) {
+          pageHead = page.keys[index];
+          pageHeadEntries = page.entries.get(index);
+          pagePosition = pageHead;
+          pagePositionInclusive = false;
+          return true;
+        }
+        mapping = descending ? pages.lowerEntry(mapping.getKey())
+            : pages.higherEntry(mapping.getKey());
+      }
+      return false;
+    }
+
+    /**
+     * Moves to the next key, setting the current key and its entries.
+     */
+    boolean advanceKey() {
+      while (true) {
+        if (!pageHeadValid && !pagesDone) {
+          advancePages();
+        }
+        if (objectHead == null && objectIterator.hasNext()) {
+          objectHead = objectIterator.next();
+        }
+        Object key;
+        Object entries;
+        if (pageHeadValid && (objectHead == null || isPageHeadFirst())) {
+          key = boxKey(pageHead);
+          entries = pageHeadEntries;
+          pageHeadValid = false;
+        } else if (objectHead != null) {
+          key = objectHead.getKey();
+          entries = objectHead.getValue();
+          objectHead = null;
+        } else {
+          currKey = null;
+          return false;
+        }
+        // skipping null & undefined is required so that they do not get into results of range
+        // queries
+        if (key != indexKey && (key == QueryService.UNDEFINED || key == IndexManager.NULL
+            || keysToRemove != null && removeFromKeysToRemove(key))) {
+          continue;
+        }
+        currKey = key;
+        currEntries = entries;
+        return true;
+      }
+    }
+
+    private boolean isPageHeadFirst() {
+      int result = COMPARATOR.compare(pageHead, objectHead.getKey());
+      return descending ? result >= 0 : result <= 0;
+    }
+
+    private boolean removeFromKeysToRemove(Object key) {
+      Iterator iterator = keysToRemove.iterator();
+      while (iterator.hasNext()) {
+        try {
+          if (TypeUtils.compare(key, iterator.next(), OQLLexerTokenTypes.TOK_EQ)
+              .equals(Boolean.TRUE)) {
+            iterator.remove();
+            return true;
+          }
+        } catch (TypeMismatchException e) {
+          // they are not equals, so we just continue iterating
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (pendingEntry || valuesIterator != null && valuesIterator.hasNext()) {
+        return true;
+      }
+      while (advanceKey()) {
+        if (currEntries instanceof Collection) {
+          valuesIterator = ((Collection) currEntries).iterator();
+          if (valuesIterator.hasNext()) {
+            return true;
+          }
+        } else {
+          valuesIterator = null;
+          pendingEntry = true;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public MemoryIndexStoreEntry next() {
+      RegionEntry re;
+      if (valuesIterator == null) {
+        if (!pendingEntry) {
+          throw new NoSuchElementException();
+        }
+        pendingEntry = false;
+        re = (RegionEntry) currEntries;
+      } else {
+        re = (RegionEntry) valuesIterator.next();
+        if (re == null) {
+          throw new NoSuchElementException();
+        }
+      }
+      currentEntry.setMemoryIndexStoreEntry(currKey, re);
+      return currentEntry;
+    }
+
+    @Override
+    public void close() {
+      // do nothing
+    }
+  }
+}
@@ -102,6 +102,8 @@ import org.apache.geode.internal.cache.persistence.DiskRecoveryStore;
 import org.apache.geode.internal.cache.persistence.DiskRegionView;
 import org.apache.geode.internal.cache.persistence.DiskStoreFilter;
 import org.apache.geode.internal.cache.persistence.DiskStoreID;
+import org.apache.geode.internal.cache.persistence.OplogBlockChecksums;
+import org.apache.geode.internal.cache.persistence.OplogReadCache;
 import org.apache.geode.internal.cache.persistence.OplogType;
 import org.apache.geode.internal.cache.persistence.PRPersistentConfig;
 import org.apache.geode.internal.cache.persistence.PersistentMemberID;
@@ -263,6 +265,30 @@ public class DiskStoreImpl implements DiskStore {
   static final boolean SYNC_IF_WRITES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "syncMetaDataWrites");
 
+  /**
+   * This system property turns on writing per-block checksums for every oplog file once it is no
+   * longer being appended to. The checksums are used to detect corruption during recovery and
+   * offline validation.
+   */
+  static final boolean CHECKSUM_OPLOGS =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "disk.checksumOplogs");
+
+  /**
+   * This system property keeps oplog writes out of the OS page cache. Flushed ranges of the crf
+   * and drf are written back and dropped from the page cache in chunks so that dirty pages do not
+   * accumulate and compete with the heap and off-heap memory. Only supported on Linux.
+   */
+  static final boolean DROP_OPLOG_PAGE_CACHE =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "disk.dropOplogPageCache");
+
+  /**
+   * The number of megabytes of recently read crf values to keep in a user-space cache. Intended
+   * to be used with {@link #DROP_OPLOG_PAGE_CACHE} so that hot values faulted in from disk are not
+   * read from the device every time. The default of zero disables the cache.
+   */
+  static final int OPLOG_READ_CACHE_MB =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.oplogReadCacheMB", 0);
+
   /**
    * For testing - to keep track of files for which fallocate happened
    */
@@ -3959,6 +3985,9 @@ public class DiskStoreImpl implements DiskStore {
     if (getDeadRecordCount() > 0) {
       System.out.println("Disk store contains " + getDeadRecordCount() + " compactable records.");
     }
+    for (OplogBlockChecksums.ValidationResult result : getCorruptOplogFiles()) {
+      System.out.println("Checksum validation failed for " + result);
+    }
     System.out
         .println("Total number of region entries in this disk store is: " + getLiveEntryCount());
   }
@@ -3983,6 +4012,47 @@ public class DiskStoreImpl implements DiskStore {
     return this.deadRecordCount;
   }
 
+  private final OplogReadCache oplogReadCache =
+      OPLOG_READ_CACHE_MB > 0 ? new OplogReadCache(OPLOG_READ_CACHE_MB * 1024L * 1024L) : null;
+
+  /**
+   * Returns the cache of recently read crf values or null if it is disabled.
+   */
+  OplogReadCache getOplogReadCache() {
+    return this.oplogReadCache;
+  }
+
+  private final List<OplogBlockChecksums.ValidationResult> corruptOplogFiles =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private final ConcurrentMap<Long, OplogBlockChecksums.ValidationResult> corruptCrfs =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Records an oplog file whose contents did not match its block checksums.
+   */
+  void addCorruptOplogFile(long oplogId, boolean isCrf,
+      OplogBlockChecksums.ValidationResult result) {
+    this.corruptOplogFiles.add(result);
+    if (isCrf) {
+      this.corruptCrfs.put(oplogId, result);
+    }
+  }
+
+  public List<OplogBlockChecksums.ValidationResult> getCorruptOplogFiles() {
+    synchronized (this.corruptOplogFiles) {
+      return new ArrayList<>(this.corruptOplogFiles);
+    }
+  }
+
+  /**
+   * Returns the checksum validation failure of the crf of the given oplog or null if its crf had
+   * no corrupt blocks.
+   */
+  OplogBlockChecksums.ValidationResult getCorruptCrf(long oplogId) {
+    return this.corruptCrfs.get(oplogId);
+  }
+
   private void offlineCompact() {
     assert isOfflineCompacting();
     this.RECOVER_VALUES = false;
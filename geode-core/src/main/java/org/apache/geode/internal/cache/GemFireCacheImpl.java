@@ -197,6 +197,7 @@ import org.apache.geode.internal.cache.persistence.PersistentMemberManager;
 import org.apache.geode.internal.cache.snapshot.CacheSnapshotServiceImpl;
 import org.apache.geode.internal.cache.tier.Acceptor;
 import org.apache.geode.internal.cache.tier.sockets.AcceptorImpl;
+import org.apache.geode.internal.cache.tier.sockets.BaseCommand;
 import org.apache.geode.internal.cache.tier.sockets.CacheClientNotifier;
 import org.apache.geode.internal.cache.tier.sockets.CacheClientProxy;
 import org.apache.geode.internal.cache.tier.sockets.ClientHealthMonitor;
@@ -2589,6 +2590,8 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
       // now that all the cache servers have stopped empty the static pool of commBuffers it might
       // have used.
       ServerConnection.emptyCommBufferPool();
+      // and stop the threads that gathered the entries of their register interest responses
+      BaseCommand.stopRegisterInterestExecutor();
     }
 
     // stop HA services if they had been started
@@ -2460,7 +2460,8 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
             DefaultQueryService qs = (DefaultQueryService) getGemFireCache().getLocalQueryService();
             String fromClause =
                 icd.getIndexType() == IndexType.FUNCTIONAL || icd.getIndexType() == IndexType.HASH
-                    ? icd.getIndexFromClause() : getFullPath();
+                    || icd.getIndexType() == IndexType.BITMAP ? icd.getIndexFromClause()
+                        : getFullPath();
             // load entries during initialization only for non overflow regions
             indexes.add(
                 qs.createIndex(icd.getIndexName(), icd.getIndexType(), icd.getIndexExpression(),
@@ -2668,6 +2669,11 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
             if (this instanceof BucketRegion) {
               indexManager.removeBucketIndexes(getPartitionedRegion());
             }
+            if (isClose && !cache.forcedDisconnect()) {
+              indexManager.writeCheckpoints();
+            } else if (!isClose) {
+              indexManager.deleteCheckpoints();
+            }
             indexManager.destroy();
           } catch (QueryException e) {
             throw new IndexMaintenanceException(e);
@@ -88,6 +88,8 @@ import org.apache.geode.internal.cache.persistence.BytesAndBits;
 import org.apache.geode.internal.cache.persistence.DiskRecoveryStore;
 import org.apache.geode.internal.cache.persistence.DiskRegionView;
 import org.apache.geode.internal.cache.persistence.DiskStoreID;
+import org.apache.geode.internal.cache.persistence.OplogBlockChecksums;
+import org.apache.geode.internal.cache.persistence.OplogReadCache;
 import org.apache.geode.internal.cache.persistence.UninterruptibleFileChannel;
 import org.apache.geode.internal.cache.persistence.UninterruptibleRandomAccessFile;
 import org.apache.geode.internal.cache.versions.CompactVersionHolder;
@@ -932,6 +934,10 @@ public class Oplog implements CompactableOplog, Flushable {
           this.drf.raf = null;
           this.drf.RAFClosed = true;
         }
+        if (!offline) {
+          // this may have been the active oplog when the disk store was closed
+          writeMissingChecksumsAsync();
+        }
         // no need to seek to the end; we will not be writing to a recovered
         // oplog; only reading
         // this.crf.raf.seek(this.crf.currSize);
@@ -1060,6 +1066,92 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Writes the block checksums of an oplog file that will no longer be appended to. Checksums are
+   * only used to detect corruption so failing to write them does not fail the oplog.
+   */
+  private void writeChecksums(File f) {
+    if (!DiskStoreImpl.CHECKSUM_OPLOGS || f == null || getParent().isValidating()) {
+      return;
+    }
+    try {
+      OplogBlockChecksums.writeFor(f);
+      if (!f.exists()) {
+        // the oplog file was deleted while we were computing its checksums
+        OplogBlockChecksums.deleteFor(f);
+      }
+    } catch (IOException e) {
+      OplogBlockChecksums.deleteFor(f);
+      if (f.exists()) {
+        logger.warn(String.format("Could not write checksums for %s for disk store %s.",
+            f.getAbsolutePath(), getParent().getName()), e);
+      }
+    }
+  }
+
+  private void writeMissingChecksumsAsync() {
+    if (!DiskStoreImpl.CHECKSUM_OPLOGS) {
+      return;
+    }
+    final File crfFile = this.crf.f;
+    final File drfFile = this.drf.f;
+    getParent().executeDelayedExpensiveWrite(new Runnable() {
+      @Override
+      public void run() {
+        for (File f : new File[] {crfFile, drfFile}) {
+          if (f != null && f.exists() && !OplogBlockChecksums.getChecksumFile(f).exists()) {
+            writeChecksums(f);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Validates an oplog file against its block checksums, if it has any, before it is recovered.
+   * Corrupt files are logged and recorded on the disk store so that offline validation can report
+   * which blocks, and which entries, are affected.
+   *
+   * @return the failed validation if the file has checksums that do not match its contents,
+   *         otherwise null
+   */
+  private OplogBlockChecksums.ValidationResult validateChecksums(File f, boolean isCrf) {
+    OplogBlockChecksums.ValidationResult result;
+    try {
+      result = OplogBlockChecksums.validateIfPresent(f);
+    } catch (IOException e) {
+      logger.warn(String.format("Ignoring unreadable checksums of %s for disk store %s.",
+          f.getAbsolutePath(), getParent().getName()), e);
+      return null;
+    }
+    if (result == null || result.isValid()) {
+      return null;
+    }
+    logger.error("Checksum validation failed for {} {} for disk store {}: {}", toString(),
+        f.getAbsolutePath(), getParent().getName(), result);
+    getParent().addCorruptOplogFile(this.oplogId, isCrf, result);
+    return result;
+  }
+
+  /**
+   * Validates a crf or drf against its block checksums before it is recovered. Unlike a krf, which
+   * can be rebuilt from its crf, these files have no redundant copy: recovering past a corrupt
+   * block could bring back stale values or, for a drf, entries that were destroyed. So recovery
+   * fails unless the disk store is only being validated, in which case the corruption has been
+   * recorded for the report and the file is read as far as it can be.
+   */
+  private void validateChecksumsForRecovery(File f, boolean isCrf) {
+    OplogBlockChecksums.ValidationResult result = validateChecksums(f, isCrf);
+    if (result == null || getParent().isValidating()) {
+      return;
+    }
+    throw new DiskAccessException(String.format(
+        "Could not recover %s because it does not match its checksums (%s). Only its first %s"
+            + " bytes are intact. Restore the file from a backup or revoke this member's"
+            + " persistent data.",
+        f.getAbsolutePath(), result, result.getValidPrefixLength()), getParent());
+  }
+
   /**
    * Creates the crf oplog file
    */
@@ -1460,6 +1552,7 @@ public class Oplog implements CompactableOplog, Flushable {
       }
       logger.info("Recovering {} {} for disk store {}.",
           new Object[] {toString(), drfFile.getAbsolutePath(), getParent().getName()});
+      validateChecksumsForRecovery(drfFile, false);
       this.recoverDelEntryId = DiskStoreImpl.INVALID_ID;
       boolean readLastRecord = true;
       CountingDataInputStream dis = null;
@@ -1621,6 +1714,16 @@ public class Oplog implements CompactableOplog, Flushable {
       logger.info("Removing incomplete krf {} for oplog {}, disk store {}",
           new Object[] {f.getName(), this.oplogId, getParent().getName()});
       f.delete();
+    } else if (validateChecksums(f, false) != null) {
+      // The crf has everything the krf has so recover from it instead.
+      if (getParent().isValidating()) {
+        return false;
+      }
+      logger.warn("Removing corrupt krf {} for oplog {}, disk store {}",
+          new Object[] {f.getName(), this.oplogId, getParent().getName()});
+      OplogBlockChecksums.deleteFor(f);
+      f.delete();
+      return false;
     }
     // Set krfCreated to true since we have a krf.
     this.krfCreated.set(true);
@@ -2206,6 +2309,9 @@ public class Oplog implements CompactableOplog, Flushable {
       }
 
       long byteCount;
+      // Validate the crf even if its keys come from the krf: its values are faulted in from it
+      // later, and offline validation reports the entries with values in corrupt blocks.
+      validateChecksumsForRecovery(crfFile, true);
       // if we have a KRF then read it and delay reading the CRF.
       // Unless we are in synchronous recovery mode
       if (!readKrf(deletedIds, recoverValues, recoverValuesSync, oplogsNeedingValueRecovery,
@@ -3740,6 +3846,9 @@ public class Oplog implements CompactableOplog, Flushable {
           // their pregrow size
           unpreblow(Oplog.this.crf, getMaxCrfSize());
           unpreblow(Oplog.this.drf, getMaxDrfSize());
+          // Nothing more will be appended to the crf and drf
+          writeChecksums(Oplog.this.crf.f);
+          writeChecksums(Oplog.this.drf.f);
           // Close the crf using closeRAF. We will reopen the crf if we
           // need it to fault in or to read values during compaction.
           closeRAF();
@@ -3966,6 +4075,7 @@ public class Oplog implements CompactableOplog, Flushable {
     if (this.krf.f.exists()) {
       this.krf.f.delete();
     }
+    OplogBlockChecksums.deleteFor(this.krf.f);
   }
 
   public void krfClose() {
@@ -3994,6 +4104,7 @@ public class Oplog implements CompactableOplog, Flushable {
       } else {
         // Mark that this krf is complete.
         getParent().getDiskInitFile().krfCreate(this.oplogId);
+        writeChecksums(this.krf.f);
         logger.info("Created {} {} for disk store {}.",
             new Object[] {toString(), "krf", getParent().getName()});
       }
@@ -5118,6 +5229,7 @@ public class Oplog implements CompactableOplog, Flushable {
           // 41201
           olf.bytesFlushed += flushed;
           bb.clear();
+          dropFlushedPages(olf);
         }
         if (doSync) {
           if (SYNC_WRITES) {
@@ -5155,6 +5267,7 @@ public class Oplog implements CompactableOplog, Flushable {
         // update bytesFlushed after entire writeBuffer is flushed to fix bug 41201
         olf.bytesFlushed += flushed;
         b1.clear();
+        dropFlushedPages(olf);
       }
     } catch (ClosedChannelException ignore) {
       // It is possible for a channel to be closed when our code does not
@@ -5165,6 +5278,36 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * The number of flushed bytes of an oplog file that are dropped from the OS page cache at a
+   * time when {@link DiskStoreImpl#DROP_OPLOG_PAGE_CACHE} is set.
+   */
+  private static final long PAGE_CACHE_DROP_CHUNK = 8L * 1024 * 1024;
+
+  /**
+   * Asks the OS to write back and drop the flushed pages of an oplog file. The previous chunk is
+   * advised again because its pages were still dirty, and so could not be dropped, when its
+   * writeback was started. Must be called while synchronized on this.lock.
+   */
+  private void dropFlushedPages(OplogFile olf) {
+    if (!DiskStoreImpl.DROP_OPLOG_PAGE_CACHE) {
+      return;
+    }
+    final long end = olf.bytesFlushed;
+    if (end - olf.pageCacheDroppedOffset < PAGE_CACHE_DROP_CHUNK) {
+      return;
+    }
+    final long start = Math.max(0L, olf.pageCacheDroppedOffset - PAGE_CACHE_DROP_CHUNK);
+    olf.pageCacheDroppedOffset = end;
+    final String path = olf.f.getAbsolutePath();
+    getParent().executeDelayedExpensiveWrite(new Runnable() {
+      @Override
+      public void run() {
+        NativeCalls.getInstance().dropFileCache(path, start, end - start);
+      }
+    });
+  }
+
   public void flushAll() {
     flushAll(false);
   }
@@ -5411,12 +5554,27 @@ public class Oplog implements CompactableOplog, Flushable {
     } else {
       if (offsetInOplog == -1)
         return null;
+      OplogReadCache readCache = getParent().getOplogReadCache();
+      if (readCache != null) {
+        byte[] cachedBytes = readCache.get(this.oplogId, offsetInOplog, valueLength);
+        if (cachedBytes != null) {
+          bb = new BytesAndBits(cachedBytes, userBits);
+          final Version version = getProductVersionIfOld();
+          if (version != null) {
+            bb.setVersion(version);
+          }
+          return bb;
+        }
+      }
       try {
         for (;;) {
           dr.getCancelCriterion().checkCancelInProgress(null);
           boolean interrupted = Thread.interrupted();
           try {
             bb = attemptGet(dr, offsetInOplog, bitOnly, valueLength, userBits);
+            if (readCache != null) {
+              readCache.put(this.oplogId, offsetInOplog, bb.getBytes());
+            }
             break;
           } catch (InterruptedIOException ignore) { // bug 39756
             // ignore, we'll clear and retry.
@@ -5604,6 +5762,7 @@ public class Oplog implements CompactableOplog, Flushable {
       getParent().executeDelayedExpensiveWrite(new Runnable() {
         @Override
         public void run() {
+          OplogBlockChecksums.deleteFor(krf);
           if (!krf.delete()) {
             if (krf.exists()) {
               logger.warn("Could not delete the file {} {} for disk store {}.",
@@ -5670,6 +5829,7 @@ public class Oplog implements CompactableOplog, Flushable {
       getParent().executeDelayedExpensiveWrite(new Runnable() {
         @Override
         public void run() {
+          OplogBlockChecksums.deleteFor(olf.f);
           if (!olf.f.delete() && olf.f.exists()) {
             logger.warn("Could not delete the file {} {} for disk store {}.",
                 Oplog.this.toString(), getFileType(olf),
@@ -6489,6 +6649,7 @@ public class Oplog implements CompactableOplog, Flushable {
     public long currSize;
     public long bytesFlushed;
     public boolean unpreblown;
+    public long pageCacheDroppedOffset;
   }
 
   private static class KRFile {
@@ -15,29 +15,33 @@
 package org.apache.geode.internal.cache;
 
 import static java.lang.Integer.getInteger;
-import static java.lang.Integer.valueOf;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.InternalGemFireException;
 import org.apache.geode.annotations.internal.MakeNotStatic;
 import org.apache.geode.annotations.internal.MutableForTesting;
-import org.apache.geode.cache.CacheRuntimeException;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
@@ -61,24 +65,43 @@ import org.apache.geode.logging.internal.log4j.api.LogService;
 
 /**
  * This class takes the responsibility of executing the query on a data store for the buckets
- * specified in bucketList. It contains a {@code PRQueryExecutor} thread-pool executor that takes a
- * {@code Callable} task identified by {@code PartitionedRegion}, queryString and bucketId.
+ * specified in bucketList. If more than one thread is configured, the buckets are scanned in
+ * parallel by the calling thread and the workers of the {@code PRQueryExecutor} work-stealing pool.
  *
- * The QueryTasks add results directly to a results queue. The BucketQueryResult is used not only to
- * indicate completion, and holds an exception if there one occurred while processing a query.
+ * Each bucket adds its results directly to the result collector. The {@code BucketScan} holds the
+ * first exception that occurred while scanning the buckets.
  */
 public class PRQueryProcessor {
   private static final Logger logger = LogService.getLogger();
 
+  /**
+   * The number of seconds to wait for the threads scanning the buckets of a query to finish once
+   * the calling thread has run out of buckets to scan.
+   */
   static final int BUCKET_QUERY_TIMEOUT = 60;
 
-  public static final int NUM_THREADS =
-      getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.numThreads", 1);
+  /**
+   * The number of threads that scan the local buckets of a query in parallel. Zero uses one thread
+   * per available processor.
+   */
+  public static final int NUM_THREADS = getNumThreads(
+      getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.numThreads", 1));
+
+  /**
+   * If true, fewer threads scan the buckets of a query while the system load average shows that the
+   * processors are already busy.
+   */
+  static final boolean ADAPT_TO_LOAD = !Boolean
+      .getBoolean(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.ignoreSystemLoad");
 
   /* For Test purpose */
   @MutableForTesting
   public static int TEST_NUM_THREADS = 0;
 
+  private static int getNumThreads(int numThreads) {
+    return numThreads == 0 ? Runtime.getRuntime().availableProcessors() : numThreads;
+  }
+
   private PartitionedRegionDataStore _prds;
   private PartitionedRegion pr;
   private final DefaultQuery query;
@@ -93,6 +116,7 @@ public class PRQueryProcessor {
       List<Integer> buckets) {
     Assert.assertTrue(!buckets.isEmpty(), "bucket list can not be empty. ");
     this._prds = prDS;
+    this.pr = prDS.partitionedRegion;
     this._bucketsToQuery = buckets;
     prDS.partitionedRegion.getCache().getLocalQueryService();
     this.query = query;
@@ -131,65 +155,85 @@ public class PRQueryProcessor {
     if (Thread.interrupted())
       throw new InterruptedException();
 
-    java.util.List callableTasks = buildCallableTaskList(resultCollector);
     ExecutorService execService = PRQueryExecutor.getExecutorService();
+    int parallelism = PRQueryExecutor.getParallelism(this._bucketsToQuery.size());
+    if (parallelism <= 1) {
+      executeSequentially(resultCollector, this._bucketsToQuery);
+      return;
+    }
 
-    boolean reattemptNeeded = false;
-    ForceReattemptException fre = null;
-
-    if (callableTasks != null && !callableTasks.isEmpty()) {
-      List futures = null;
-      futures = execService.invokeAll(callableTasks, 300, TimeUnit.SECONDS);
-
-      if (futures != null) {
-        Iterator itr = futures.iterator();
-        while (itr.hasNext() && !execService.isShutdown() && !execService.isTerminated()) {
-          Future fut = (Future) itr.next();
-          QueryTask.BucketQueryResult bqr = null;
-
-          try {
-            bqr = (QueryTask.BucketQueryResult) fut.get(BUCKET_QUERY_TIMEOUT, TimeUnit.SECONDS);
-            bqr.handleAndThrowException();
-            if (bqr.retry) {
-              reattemptNeeded = true;
-            }
-
-          } catch (TimeoutException e) {
-            throw new InternalGemFireException(
-                String.format("Timed out while executing query, time exceeded %s",
-                    BUCKET_QUERY_TIMEOUT),
-                e);
-          } catch (ExecutionException ee) {
-            Throwable cause = ee.getCause();
-            if (cause instanceof QueryException) {
-              throw (QueryException) cause;
-            } else {
-              throw new InternalGemFireException(
-                  "Got unexpected exception while executing query on partitioned region bucket",
-                  cause);
-            }
-          }
-        }
-
-        CompiledSelect cs = this.query.getSimpleSelect();
+    CompiledSelect cs = this.query.getSimpleSelect();
+    int limit = this.query.getLimit(parameters);
+    BucketScan scan = new BucketScan(resultCollector, sortBySize(this._bucketsToQuery),
+        isLimitSharedAcrossBuckets(cs, limit) ? limit : -1);
 
-        if (cs != null && (cs.isOrderBy() || cs.isGroupBy())) {
-          ExecutionContext context = new QueryExecutionContext(this.parameters, pr.getCache());
-          int limit = this.query.getLimit(parameters);
-          Collection mergedResults = coalesceOrderedResults(resultCollector, context, cs, limit);
-          resultCollector.clear();
-          resultCollector.add(mergedResults);
-        }
+    // The calling thread scans buckets too, so only parallelism - 1 workers are forked
+    List<Future<Void>> futures = new ArrayList<>(parallelism - 1);
+    try {
+      for (int i = 1; i < parallelism; i++) {
+        futures.add(execService.submit(scan));
+      }
+    } catch (RejectedExecutionException e) {
+      this.pr.checkReadiness();
+      throw e;
+    }
+    scan.call();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(BUCKET_QUERY_TIMEOUT);
+    for (Future<Void> future : futures) {
+      try {
+        future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        InternalGemFireException timeout = new InternalGemFireException(
+            String.format("Timed out while executing query, time exceeded %s",
+                BUCKET_QUERY_TIMEOUT),
+            e);
+        // stop the workers from starting on further buckets
+        scan.cancel(timeout);
+        throw timeout;
+      } catch (ExecutionException ee) {
+        throw new InternalGemFireException(
+            "Got unexpected exception while executing query on partitioned region bucket",
+            ee.getCause());
       }
     }
+    scan.throwException();
 
-    if (execService == null || execService.isShutdown() || execService.isTerminated()) {
-      this._prds.partitionedRegion.checkReadiness();
+    if (cs != null && (cs.isOrderBy() || cs.isGroupBy())) {
+      ExecutionContext context =
+          new QueryExecutionContext(this.parameters, this.pr.getCache(), this.query);
+      Collection mergedResults = coalesceOrderedResults(resultCollector, context, cs, limit);
+      resultCollector.clear();
+      resultCollector.add(mergedResults);
     }
+  }
 
-    if (reattemptNeeded) {
-      throw fre;
+  /**
+   * Without an ORDER BY, any rows satisfy a LIMIT. Once the buckets scanned so far have produced
+   * enough of them, the remaining buckets can be skipped. This does not hold when the rows of
+   * different buckets are combined, as they are for DISTINCT, GROUP BY and COUNT queries.
+   */
+  private static boolean isLimitSharedAcrossBuckets(CompiledSelect cs, int limit) {
+    return limit > 0 && cs != null && !cs.isOrderBy() && !cs.isGroupBy() && !cs.isDistinct()
+        && !cs.isCount();
+  }
+
+  /**
+   * Orders the buckets largest first, so that the small buckets at the end of the list balance the
+   * time the workers take.
+   */
+  private List<Integer> sortBySize(List<Integer> buckets) {
+    PartitionedRegionDataStore dataStore = this.pr.getDataStore();
+    if (dataStore == null) {
+      return buckets;
+    }
+    Map<Integer, Integer> sizes = new HashMap<>();
+    for (Integer bucketId : buckets) {
+      BucketRegion bucket = dataStore.getLocalBucketById(bucketId);
+      sizes.put(bucketId, bucket == null ? 0 : bucket.size());
     }
+    List<Integer> sorted = new ArrayList<>(buckets);
+    sorted.sort(Comparator.comparing(sizes::get, Comparator.reverseOrder()));
+    return sorted;
   }
 
   private void executeSequentially(Collection<Collection> resultCollector, List buckets)
@@ -230,7 +274,10 @@ public class PRQueryProcessor {
 
   }
 
-  private void executeQueryOnBuckets(Collection<Collection> resultCollector,
+  /**
+   * @return the number of rows the buckets produced
+   */
+  private int executeQueryOnBuckets(Collection<Collection> resultCollector,
       ExecutionContext context)
       throws ForceReattemptException, QueryInvocationTargetException, QueryException {
     // Check if QueryMonitor is enabled, if so add query to be monitored.
@@ -252,6 +299,7 @@ public class PRQueryProcessor {
         resultCollector.add((Collection) results);
       }
       isIndexUsedForLocalQuery = ((QueryExecutionContext) context).isIndexUsed();
+      return ((Collection) results).size();
 
     } catch (BucketMovedException bme) {
       if (logger.isDebugEnabled()) {
@@ -276,14 +324,6 @@ public class PRQueryProcessor {
     }
   }
 
-  private List<QueryTask> buildCallableTaskList(Collection<Collection> resultsColl) {
-    List<QueryTask> callableTasks = new ArrayList<>();
-    for (Integer bId : _bucketsToQuery) {
-      callableTasks.add(new QueryTask(this.query, this.parameters, _prds, bId, resultsColl));
-    }
-    return callableTasks;
-  }
-
   public boolean isIndexUsed() {
     return isIndexUsedForLocalQuery;
   }
@@ -297,14 +337,28 @@ public class PRQueryProcessor {
   }
 
   /**
-   * A ThreadPool ( Fixed Size ) with an executor service to execute the query execution spread over
-   * buckets.
+   * A work-stealing pool that scans the buckets of a query in parallel.
    */
   static class PRQueryExecutor {
 
     @MakeNotStatic
     private static ExecutorService execService = null;
 
+    @MakeNotStatic
+    private static volatile int poolSize;
+
+    /**
+     * How long a sample of the system load average is used before it is read again
+     */
+    private static final long LOAD_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @MakeNotStatic
+    private static volatile double systemLoad = -1;
+
+    @MakeNotStatic
+    private static volatile long systemLoadSampleTime =
+        System.nanoTime() - LOAD_SAMPLE_INTERVAL_NANOS;
+
     /**
      * Closes the executor service. This is called from
      * {@link PartitionedRegion#afterRegionsClosedByCacheClose(InternalCache)}
@@ -333,9 +387,40 @@ public class PRQueryProcessor {
      */
     static synchronized void initializeExecutorService() {
       if (execService == null || execService.isShutdown() || execService.isTerminated()) {
-        int numThreads = (TEST_NUM_THREADS > 1 ? TEST_NUM_THREADS : NUM_THREADS);
-        execService = LoggingExecutors.newFixedThreadPool("PRQueryProcessor", true, numThreads);
+        poolSize = (TEST_NUM_THREADS > 1 ? TEST_NUM_THREADS : NUM_THREADS);
+        execService = LoggingExecutors.newWorkStealingPool("PRQueryProcessor", poolSize);
+      }
+    }
+
+    /**
+     * Returns the number of threads, including the calling thread, that should scan the given
+     * number of buckets. Processors that the system load average shows to be busy are not counted,
+     * except for the one the calling thread already runs on.
+     */
+    static int getParallelism(int numBuckets) {
+      int parallelism = Math.min(numBuckets, poolSize + 1);
+      if (ADAPT_TO_LOAD && TEST_NUM_THREADS <= 1) {
+        double load = getSystemLoad();
+        if (load >= 0) {
+          int idleProcessors =
+              Runtime.getRuntime().availableProcessors() - (int) Math.ceil(load) + 1;
+          parallelism = Math.min(parallelism, Math.max(1, idleProcessors));
+        }
+      }
+      return parallelism;
+    }
+
+    /**
+     * Returns the system load average, read at most once per {@link #LOAD_SAMPLE_INTERVAL_NANOS}.
+     * Concurrent queries may both read it when the sample expires, which is harmless.
+     */
+    private static double getSystemLoad() {
+      long now = System.nanoTime();
+      if (now - systemLoadSampleTime >= LOAD_SAMPLE_INTERVAL_NANOS) {
+        systemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        systemLoadSampleTime = now;
       }
+      return systemLoad;
     }
   }
 
@@ -386,85 +471,62 @@ public class PRQueryProcessor {
   }
 
   /**
-   * Implementation of call-able task to execute query on a bucket region. This task will be
-   * generated by the PRQueryProcessor.
-   *
+   * Scans buckets claimed from a shared list until all of them have been scanned, one of them has
+   * failed, or the shared LIMIT has been reached. The same instance is run by every worker of a
+   * query, which keeps the workers busy however unevenly the buckets are sized.
    */
-  @SuppressWarnings("synthetic-access")
-  private class QueryTask implements Callable {
-    private final DefaultQuery query;
-    private final Object[] parameters;
-    private final PartitionedRegionDataStore _prDs;
-    private final Integer _bucketId;
-    private final Collection<Collection> resultColl;
-
-    public QueryTask(DefaultQuery query, Object[] parameters, PartitionedRegionDataStore prDS,
-        Integer bucketId, final Collection<Collection> rColl) {
-      this.query = query;
-      this._prDs = prDS;
-      this._bucketId = bucketId;
-      this.resultColl = rColl;
-      this.parameters = parameters;
+  private class BucketScan implements Callable<Void> {
+    private final Collection<Collection> resultCollector;
+    private final List<Integer> buckets;
+    private final int limit;
+    private final AtomicInteger nextBucket = new AtomicInteger();
+    private final AtomicInteger rowCount = new AtomicInteger();
+    private final AtomicReference<Exception> exception = new AtomicReference<>();
+
+    BucketScan(Collection<Collection> resultCollector, List<Integer> buckets, int limit) {
+      this.resultCollector = resultCollector;
+      this.buckets = buckets;
+      this.limit = limit;
     }
 
     @Override
-    public Object call() throws Exception {
-      BucketQueryResult bukResult = new BucketQueryResult(this._bucketId);
-      try {
-        List<Integer> bucketList = Collections.singletonList(this._bucketId);
-        ExecutionContext context =
-            new QueryExecutionContext(this.parameters, pr.getCache(), this.query);
-        context.setBucketList(bucketList);
-        executeQueryOnBuckets(this.resultColl, context);
-      } catch (ForceReattemptException | QueryException | CacheRuntimeException fre) {
-        bukResult.setException(fre);
+    public Void call() {
+      int index;
+      while (exception.get() == null && (limit < 0 || rowCount.get() < limit)
+          && (index = nextBucket.getAndIncrement()) < buckets.size()) {
+        try {
+          ExecutionContext context =
+              new QueryExecutionContext(parameters, pr.getCache(), query);
+          context.setBucketList(Collections.singletonList(buckets.get(index)));
+          int rows = executeQueryOnBuckets(resultCollector, context);
+          if (limit >= 0) {
+            rowCount.addAndGet(rows);
+          }
+        } catch (ForceReattemptException | QueryException | RuntimeException e) {
+          exception.compareAndSet(null, e);
+        }
       }
-      // Exception
-      return bukResult;
+      return null;
     }
 
     /**
-     * Encapsulates the result for the query on the bucket.
-     *
+     * Stops the scan of any buckets not yet started.
      */
-    private class BucketQueryResult {
-
-      private int _buk;
-      private Exception _ex = null;
-      public boolean retry = false;
-
-      public BucketQueryResult(int bukId) {
-        this._buk = bukId;
-      }
-
-      public Exception getException() {
-        return _ex;
-      }
-
-      public boolean exceptionOccurred() {
-        return _ex != null;
-      }
-
-      public void setException(Exception e) {
-        this._ex = e;
-      }
-
-      public Integer getBucketId() {
-        return valueOf(this._buk);
-      }
-
-      public boolean isReattemptNeeded() {
-        return this._ex instanceof ForceReattemptException;
-      }
+    void cancel(Exception reason) {
+      exception.compareAndSet(null, reason);
+    }
 
-      public void handleAndThrowException() throws QueryException {
-        if (_ex != null) {
-          if (_ex instanceof QueryException) {
-            throw (QueryException) _ex;
-          } else if (_ex instanceof CacheRuntimeException) {
-            throw (CacheRuntimeException) _ex;
-          }
-        }
+    /**
+     * Throws the first exception a bucket failed with, if any.
+     */
+    void throwException() throws QueryException, ForceReattemptException {
+      Exception e = exception.get();
+      if (e instanceof ForceReattemptException) {
+        throw (ForceReattemptException) e;
+      } else if (e instanceof QueryException) {
+        throw (QueryException) e;
+      } else if (e != null) {
+        throw (RuntimeException) e;
       }
     }
   }
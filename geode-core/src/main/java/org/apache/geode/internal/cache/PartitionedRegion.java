@@ -4657,11 +4657,16 @@ public class PartitionedRegion extends LocalRegion
       HashSet<Integer> localBuckets = nodeToBuckets.remove(getMyId());
 
       if (localBuckets != null && !localBuckets.isEmpty()) {
-        for (Integer id : localBuckets) {
-          Set keys = fetchAllLocalKeys(id, failures, regex);
-          if (!keys.isEmpty()) {
-            BaseCommand.appendNewRegisterInterestResponseChunkFromLocal(this, values,
-                regex != null ? regex : "ALL_KEYS", keys, servConn);
+        if (BaseCommand.REGISTER_INTEREST_THREADS > 1 && localBuckets.size() > 1) {
+          BaseCommand.appendNewRegisterInterestResponseChunksFromLocalBuckets(this, localBuckets,
+              failures, regex, values, servConn);
+        } else {
+          for (Integer id : localBuckets) {
+            Set keys = fetchAllLocalKeys(id, failures, regex);
+            if (!keys.isEmpty()) {
+              BaseCommand.appendNewRegisterInterestResponseChunkFromLocal(this, values,
+                  regex != null ? regex : "ALL_KEYS", keys, servConn);
+            }
           }
         }
       }
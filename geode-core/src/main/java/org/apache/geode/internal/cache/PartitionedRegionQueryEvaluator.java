@@ -30,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.apache.logging.log4j.Logger;
@@ -94,6 +95,8 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
    */
   public static class MemberResultsList extends ArrayList {
     private boolean isLastChunkReceived = false;
+    private int chunksReceived = 0;
+    private int numChunks = -1;
 
     public boolean isLastChunkReceived() {
       return isLastChunkReceived;
@@ -102,6 +105,19 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     public void setLastChunkReceived(boolean isLastChunkReceived) {
       this.isLastChunkReceived = isLastChunkReceived;
     }
+
+    /**
+     * Counts a chunk streamed from a member, which may arrive out of order.
+     *
+     * @return true if all chunks of the member have been received
+     */
+    boolean chunkReceived(int sequenceNum, boolean lastInSequence) {
+      this.chunksReceived++;
+      if (lastInSequence) {
+        this.numChunks = sequenceNum + 1;
+      }
+      return this.chunksReceived == this.numChunks;
+    }
   }
 
   /**
@@ -133,6 +149,24 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
   // set of members failed to execute query
   private Set<InternalDistributedMember> failedMembers;
 
+  /**
+   * The number of rows that complete the results, or -1 if all rows are needed. Only set for
+   * queries with a LIMIT whose rows are neither ordered nor combined, which any rows satisfy.
+   */
+  private int rowsNeeded = -1;
+  private final AtomicInteger rowsReceived = new AtomicInteger();
+
+  /**
+   * The LIMIT of an ORDER BY query whose member results are merged as they complete, or -1.
+   */
+  private int orderedLimit = -1;
+  /**
+   * The first rows of the members whose results have been completely received, in order. Holding
+   * only these instead of all results of each member bounds the memory of a top-N query by N.
+   */
+  private List mergedOrderedResults;
+  private final Set<InternalDistributedMember> mergedMembers = ConcurrentHashMap.newKeySet();
+
   /**
    * Construct a PartitionedRegionQueryEvaluator
    *
@@ -233,9 +267,12 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       objects = sortIncomingData(objects, orderByAttribs);
     }
 
+    boolean memberCompleted;
     synchronized (results) {
       if (!QueryMonitor.isLowMemory() && !this.executionContext.isCanceled()) {
         results.add(objects);
+        memberCompleted =
+            ((MemberResultsList) results).chunkReceived(sequenceNum, lastInSequence);
       } else {
         if (logger.isDebugEnabled()) {
           logger.debug("query canceled while gathering results, aborting");
@@ -258,9 +295,78 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       }
     }
 
+    if (this.rowsNeeded > 0 && this.rowsReceived.addAndGet(objects.size()) >= this.rowsNeeded) {
+      // Stop waiting for the other members, their remaining chunks are not needed
+      if (logger.isDebugEnabled()) {
+        logger.debug("Received the {} rows the query needs, no longer waiting for results",
+            this.rowsNeeded);
+      }
+      return false;
+    }
+    if (memberCompleted && this.orderedLimit > 0) {
+      mergeOrderedResults(sender, (MemberResultsList) results);
+    }
     return true;
   }
 
+  /**
+   * Merges the complete, ordered results of a member into the first rows received so far, and
+   * drops the rows beyond the LIMIT.
+   */
+  private void mergeOrderedResults(InternalDistributedMember sender, MemberResultsList results) {
+    CompiledSelect cs = this.query.getSimpleSelect();
+    synchronized (this.mergedMembers) {
+      List<Collection> sortedResults = new ArrayList<>();
+      synchronized (results) {
+        for (Object res : results) {
+          sortedResults.add((Collection) res);
+        }
+      }
+      if (this.mergedOrderedResults != null) {
+        sortedResults.add(this.mergedOrderedResults);
+      }
+      try {
+        ExecutionContext localContext =
+            new QueryExecutionContext(this.parameters, this.pr.getCache());
+        List merged = new ArrayList(this.orderedLimit);
+        for (Object row : new NWayMergeResults(sortedResults, cs.isDistinct(), this.orderedLimit,
+            cs.getOrderByAttrs(), localContext, cs.getElementTypeForOrderByQueries())) {
+          merged.add(row);
+        }
+        synchronized (results) {
+          results.clear();
+        }
+        this.mergedOrderedResults = merged;
+        this.mergedMembers.add(sender);
+      } catch (RuntimeException e) {
+        // The results are left as they are, to be merged with all others once the query completes
+        if (logger.isDebugEnabled()) {
+          logger.debug("Unable to merge the ordered results of {}", sender, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the results received so far contain the rows needed for a LIMIT
+   */
+  private boolean isLimitSatisfied() {
+    if (this.rowsNeeded < 0) {
+      return false;
+    }
+    int rows = 0;
+    for (Collection<Collection> memberResults : this.resultsPerMember.values()) {
+      synchronized (memberResults) {
+        for (Object res : memberResults) {
+          if (res instanceof Collection) {
+            rows += ((Collection) res).size();
+          }
+        }
+      }
+    }
+    return rows >= this.rowsNeeded;
+  }
+
   // TODO Asif: optimize it by creating a Sorted SelectResults Object at the time of fromData , so
   // that processData already receives ordered data.
   private List sortIncomingData(List objects, List<CompiledSortCriterion> orderByAttribs) {
@@ -379,6 +485,9 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
         if (th != null) {
           th.hook(0);
         }
+        if (processor != null && isLimitSatisfied()) {
+          processor.stopWaiting();
+        }
       } catch (VirtualMachineError e) {
         SystemFailure.initiateFailure(e);
         throw e;
@@ -398,6 +507,8 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       try {
         // should we allow this to timeout?
         failedMembers = processor.waitForCacheOrQueryException();
+        // A member whose results were all received and merged has not failed
+        failedMembers.removeAll(this.mergedMembers);
         for (InternalDistributedMember member : failedMembers) {
           memberStreamCorrupted(member);
         }
@@ -442,7 +553,8 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
         throw (RuntimeException) localFault;
       }
     }
-    return requiresRetry | localNeedsRetry;
+    // Buckets that failed need not be queried again once the rows for the LIMIT are there
+    return (requiresRetry | localNeedsRetry) && !isLimitSatisfied();
   }
 
   protected Set sendMessage(DistributionMessage m) {
@@ -479,6 +591,7 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     }
     Assert.assertTrue(!(this.bucketsToQuery == null || this.bucketsToQuery.isEmpty()),
         "bucket set is empty.");
+    initializeLimits();
     this.node2bucketIds = buildNodeToBucketMap();
     Assert.assertTrue(!this.node2bucketIds.isEmpty(),
         " There are no data stores hosting any of the buckets.");
@@ -538,6 +651,24 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     return addResultsToResultSet();
   }
 
+  private void initializeLimits() throws QueryException {
+    CompiledSelect cs = this.query == null ? null : this.query.getSimpleSelect();
+    if (cs == null || cs.getType() == CompiledValue.GROUP_BY_SELECT) {
+      return;
+    }
+    int limit = this.query.getLimit(this.parameters);
+    if (limit <= 0) {
+      return;
+    }
+    if (cs.isOrderBy()) {
+      if (this.cumulativeResults.getCollectionType().isOrdered()) {
+        this.orderedLimit = limit;
+      }
+    } else if (!cs.isDistinct() && !cs.isCount()) {
+      this.rowsNeeded = limit;
+    }
+  }
+
   /**
    * Wait for 10 ms between reattempts.
    */
@@ -826,6 +957,9 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
           }
         }
       }
+      if (this.mergedOrderedResults != null) {
+        allResults.add(this.mergedOrderedResults);
+      }
 
       this.cumulativeResults = new NWayMergeResults(allResults, cs.isDistinct(), limit,
           cs.getOrderByAttrs(), localContext, cs.getElementTypeForOrderByQueries());
@@ -1148,5 +1282,13 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
       return PartitionedRegionQueryEvaluator.this.cumulativeResults.getCollectionType()
           .getElementType();
     }
+
+    /**
+     * Stops waiting for the results of the remaining members. Chunks they still send are ignored.
+     */
+    void stopWaiting() {
+      this.abort = true;
+      checkIfDone();
+    }
   }
 }
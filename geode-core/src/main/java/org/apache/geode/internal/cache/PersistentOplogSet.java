@@ -418,6 +418,11 @@ public class PersistentOplogSet implements OplogSet {
                 parent.incLiveEntryCount(vdr.size());
                 out.println(vdr.getName() + ": entryCount=" + vdr.size());
               }
+              int corruptValueCount = vdr.getCorruptValueCount();
+              if (corruptValueCount > 0) {
+                out.println(vdr.getName() + ": " + corruptValueCount
+                    + " entries have values in corrupt oplog blocks");
+              }
             }
           }
         }
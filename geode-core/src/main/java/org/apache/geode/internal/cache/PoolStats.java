@@ -76,6 +76,8 @@ public class PoolStats {
   private static final int clientOpTimedOutId;
   private static final int clientOpFailedId;
   private static final int clientOpDurationId;
+  private static final int nearCacheHitsId;
+  private static final int nearCacheMissesId;
 
   static {
     String statName = "PoolStats";
@@ -145,7 +147,12 @@ public class PoolStats {
             f.createLongCounter("clientOpSendTime",
                 "Total amount of time, in nanoseconds spent doing clientOp sends", "nanoseconds"),
             f.createLongCounter("clientOpTime",
-                "Total amount of time, in nanoseconds spent doing clientOps", "nanoseconds"),});
+                "Total amount of time, in nanoseconds spent doing clientOps", "nanoseconds"),
+            f.createLongCounter("nearCacheHits",
+                "Total number of region gets answered by the near cache of a region", "gets"),
+            f.createLongCounter("nearCacheMisses",
+                "Total number of region gets the near cache of a region sent to a server",
+                "gets"),});
 
     // Initialize id fields
     _INITIAL_CONTACTS = _type.nameToId(INITIAL_CONTACTS);
@@ -181,6 +188,9 @@ public class PoolStats {
     clientOpTimedOutId = _type.nameToId("clientOpTimeouts");
     clientOpFailedId = _type.nameToId("clientOpFailures");
     clientOpDurationId = _type.nameToId("clientOpTime");
+
+    nearCacheHitsId = _type.nameToId("nearCacheHits");
+    nearCacheMissesId = _type.nameToId("nearCacheMisses");
   }
 
   ////////////////////// Instance Fields //////////////////////
@@ -370,4 +380,20 @@ public class PoolStats {
     this._stats.incInt(endClientOpId, 1);
     this._stats.incLong(clientOpDurationId, duration);
   }
+
+  public void incNearCacheHits() {
+    this._stats.incLong(nearCacheHitsId, 1);
+  }
+
+  public long getNearCacheHits() {
+    return this._stats.getLong(nearCacheHitsId);
+  }
+
+  public void incNearCacheMisses() {
+    this._stats.incLong(nearCacheMissesId, 1);
+  }
+
+  public long getNearCacheMisses() {
+    return this._stats.getLong(nearCacheMissesId);
+  }
 }
@@ -34,6 +34,7 @@ import org.apache.geode.internal.cache.eviction.EvictionList;
 import org.apache.geode.internal.cache.persistence.DiskExceptionHandler;
 import org.apache.geode.internal.cache.persistence.DiskRecoveryStore;
 import org.apache.geode.internal.cache.persistence.DiskRegionView;
+import org.apache.geode.internal.cache.persistence.OplogBlockChecksums;
 import org.apache.geode.internal.cache.versions.VersionSource;
 import org.apache.geode.internal.cache.versions.VersionStamp;
 import org.apache.geode.internal.cache.versions.VersionTag;
@@ -149,6 +150,27 @@ public class ValidatingDiskRegion extends DiskRegion implements DiskRecoveryStor
     return this.map.size();
   }
 
+  /**
+   * Returns the number of recovered entries whose value is stored in a block of its crf that
+   * failed checksum validation.
+   */
+  public int getCorruptValueCount() {
+    int count = 0;
+    for (DiskEntry de : this.map.values()) {
+      DiskId id = de.getDiskId();
+      if (id.getOffsetInOplog() < 0) {
+        // invalid and tombstone entries have no value on disk
+        continue;
+      }
+      OplogBlockChecksums.ValidationResult result =
+          getDiskStore().getCorruptCrf(id.getOplogId());
+      if (result != null && result.isCorrupt(id.getOffsetInOplog(), id.getValueLength())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   static class ValidatingDiskEntry implements DiskEntry, RegionEntry {
     private final Object key;
     private final DiskId diskId;
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Offline tool that reassembles the files of a block level incremental backup. Files that were
+ * backed up as a delta of their baseline copy are rebuilt in place so that the backup can be
+ * restored with its restore script. Baseline copies that are themselves deltas are reassembled
+ * first.
+ *
+ * <p>
+ * Usage: {@code java org.apache.geode.internal.cache.backup.BackupFileAssembler <member backup
+ * directory>...}
+ */
+public class BackupFileAssembler {
+
+  private BackupFileAssembler() {
+    // static methods only
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println(
+          "Usage: java " + BackupFileAssembler.class.getName() + " <member backup directory>...");
+      System.exit(1);
+    }
+    try {
+      for (String arg : args) {
+        int count = assemble(Paths.get(arg));
+        System.out.println("Reassembled " + count + " files in " + arg);
+      }
+    } catch (IOException e) {
+      System.err.println("Unable to reassemble backup: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Reassembles all files of a member's backup that were stored as deltas.
+   *
+   * @param memberBackupDir the backup directory of a single member
+   * @return the number of files reassembled
+   * @throws IOException error reading a delta or its baseline, or a reassembled block does not
+   *         match its block manifest
+   */
+  static int assemble(Path memberBackupDir) throws IOException {
+    Path blocksDir = memberBackupDir.resolve(BackupWriter.BLOCKS_DIRECTORY);
+    int count = 0;
+    if (Files.isDirectory(blocksDir)) {
+      List<Path> deltaFiles;
+      try (Stream<Path> files = Files.walk(blocksDir)) {
+        deltaFiles = files.filter(
+            file -> file.getFileName().toString().endsWith(BlockManifest.DELTA_FILE_EXT))
+            .collect(Collectors.toList());
+      }
+      for (Path deltaFile : deltaFiles) {
+        if (assembleFile(deltaFile, new HashSet<>())) {
+          count++;
+        }
+      }
+    }
+    Files.deleteIfExists(memberBackupDir.resolve(BackupWriter.BLOCK_ASSEMBLY_REQUIRED_FILE));
+    return count;
+  }
+
+  private static boolean assembleFile(Path deltaFile, Set<Path> inProgress) throws IOException {
+    if (!Files.exists(deltaFile)) {
+      // already reassembled as the baseline of another file
+      return false;
+    }
+    if (!inProgress.add(deltaFile.toAbsolutePath())) {
+      throw new IOException("Circular baseline reference for " + deltaFile);
+    }
+    Path baselineFile = BlockDelta.readBaselineFile(deltaFile);
+    if (!Files.exists(baselineFile)) {
+      Path baselineDelta = BlockManifest.getDeltaFile(baselineFile);
+      if (baselineDelta == null || !Files.exists(baselineDelta)) {
+        throw new IOException("Baseline file " + baselineFile + " of " + deltaFile
+            + " does not exist");
+      }
+      assembleFile(baselineDelta, inProgress);
+    }
+    Path targetFile = BlockManifest.getBackedUpFile(deltaFile, BlockManifest.DELTA_FILE_EXT);
+    BlockManifest manifest = BlockManifest.read(BlockManifest.getManifestFile(targetFile));
+    BlockDelta.apply(deltaFile, manifest, targetFile);
+    Files.delete(deltaFile);
+    return true;
+  }
+}
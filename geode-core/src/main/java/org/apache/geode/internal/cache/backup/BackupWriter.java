@@ -26,6 +26,8 @@ public interface BackupWriter {
   String BACKUP_DIR_PREFIX = "dir";
   String README_FILE = "README_FILE.txt";
   String DATA_STORES_DIRECTORY = "diskstores";
+  String BLOCKS_DIRECTORY = "blocks";
+  String BLOCK_ASSEMBLY_REQUIRED_FILE = "BLOCK_ASSEMBLY_REQUIRED";
 
   void backupFiles(BackupDefinition backupDefinition) throws IOException;
 
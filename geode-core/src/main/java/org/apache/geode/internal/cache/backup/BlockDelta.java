@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The blocks of a backed up file that differ from its baseline copy. The delta records the
+ * location of the baseline copy so that {@link BackupFileAssembler} can reassemble the file from
+ * the unchanged baseline blocks and the changed blocks stored here.
+ */
+class BlockDelta {
+
+  private static final int MAGIC = 0x47424454;
+
+  private static final byte VERSION_1 = 1;
+
+  private BlockDelta() {
+    // static methods only
+  }
+
+  /**
+   * Writes the changed blocks of a file.
+   *
+   * @param file the file being backed up
+   * @param manifest the manifest of the file
+   * @param baselineFile the baseline copy of the file
+   * @param changedBlocks the blocks that differ from the baseline copy
+   * @param deltaFile the file to write the changed blocks to
+   * @throws IOException error reading the file or writing the delta
+   */
+  static void write(Path file, BlockManifest manifest, Path baselineFile,
+      List<Integer> changedBlocks, Path deltaFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(deltaFile)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION_1);
+      out.writeUTF(baselineFile.toAbsolutePath().toString());
+      out.writeInt(manifest.getBlockSize());
+      out.writeLong(manifest.getFileLength());
+      out.writeInt(changedBlocks.size());
+      ByteBuffer buffer = ByteBuffer.allocate(manifest.getBlockSize());
+      for (int block : changedBlocks) {
+        buffer.clear();
+        buffer.limit(manifest.getBlockLength(block));
+        BlockManifest.readFully(channel, buffer, (long) block * manifest.getBlockSize());
+        out.writeInt(block);
+        out.write(buffer.array(), 0, buffer.limit());
+      }
+    }
+  }
+
+  /**
+   * Returns the baseline copy a delta was taken against.
+   */
+  static Path readBaselineFile(Path deltaFile) throws IOException {
+    try (DataInputStream in = openAndCheckHeader(deltaFile)) {
+      return Paths.get(in.readUTF());
+    }
+  }
+
+  /**
+   * Reassembles a file from its baseline copy and its changed blocks. Every block is verified
+   * against the manifest of the file before the file is moved into place.
+   *
+   * @param deltaFile the changed blocks
+   * @param manifest the manifest of the file being reassembled
+   * @param targetFile the file to create
+   * @throws IOException error reading the baseline or the delta, or a block does not match the
+   *         manifest
+   */
+  static void apply(Path deltaFile, BlockManifest manifest, Path targetFile) throws IOException {
+    Path tmpFile = targetFile.resolveSibling(targetFile.getFileName() + ".tmp");
+    try (DataInputStream in = openAndCheckHeader(deltaFile)) {
+      Path baselineFile = Paths.get(in.readUTF());
+      int blockSize = in.readInt();
+      long fileLength = in.readLong();
+      if (blockSize != manifest.getBlockSize() || fileLength != manifest.getFileLength()) {
+        throw new IOException("Delta " + deltaFile + " does not match its block manifest");
+      }
+      int changedCount = in.readInt();
+      byte[] block = new byte[blockSize];
+      ByteBuffer buffer = ByteBuffer.wrap(block);
+      try (FileChannel baseline = FileChannel.open(baselineFile, StandardOpenOption.READ);
+          FileChannel target = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        int nextChanged = changedCount > 0 ? in.readInt() : -1;
+        for (int i = 0; i < manifest.getBlockCount(); i++) {
+          int length = manifest.getBlockLength(i);
+          buffer.clear();
+          buffer.limit(length);
+          if (i == nextChanged) {
+            in.readFully(block, 0, length);
+            changedCount--;
+            nextChanged = changedCount > 0 ? in.readInt() : -1;
+          } else {
+            BlockManifest.readFully(baseline, buffer, (long) i * blockSize);
+            buffer.flip();
+          }
+          if (!Arrays.equals(BlockManifest.hash(block, length), manifest.getBlockHash(i))) {
+            throw new IOException("Block " + i + " of " + targetFile
+                + " does not match its block manifest");
+          }
+          while (buffer.hasRemaining()) {
+            target.write(buffer, (long) i * blockSize + buffer.position());
+          }
+        }
+        if (changedCount > 0) {
+          throw new IOException("Delta " + deltaFile + " has blocks past the end of the file");
+        }
+        target.force(true);
+      }
+      Files.move(tmpFile, targetFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  private static DataInputStream openAndCheckHeader(Path deltaFile) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(deltaFile)));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a block delta: " + deltaFile);
+      }
+      byte version = in.readByte();
+      if (version != VERSION_1) {
+        throw new IOException("Unsupported block delta version " + version + ": " + deltaFile);
+      }
+      return in;
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+}
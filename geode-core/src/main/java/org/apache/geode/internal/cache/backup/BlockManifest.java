@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The content hashes of the fixed size blocks of a backed up file. A manifest is stored for each
+ * disk store file of a backup under {@link BackupWriter#BLOCKS_DIRECTORY}, mirroring the layout of
+ * {@link BackupWriter#DATA_STORES_DIRECTORY}. An incremental backup compares a file against the
+ * manifest of its baseline copy and only stores the blocks that changed.
+ */
+class BlockManifest {
+
+  static final String MANIFEST_FILE_EXT = ".blockmap";
+
+  static final String DELTA_FILE_EXT = ".delta";
+
+  static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+  private static final int MAGIC = 0x47424D50;
+
+  private static final byte VERSION_1 = 1;
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  private final int blockSize;
+
+  private final long fileLength;
+
+  private final byte[][] hashes;
+
+  BlockManifest(int blockSize, long fileLength, byte[][] hashes) {
+    this.blockSize = blockSize;
+    this.fileLength = fileLength;
+    this.hashes = hashes;
+  }
+
+  int getBlockSize() {
+    return blockSize;
+  }
+
+  long getFileLength() {
+    return fileLength;
+  }
+
+  int getBlockCount() {
+    return hashes.length;
+  }
+
+  byte[] getBlockHash(int block) {
+    return hashes[block];
+  }
+
+  /**
+   * Returns the length of the given block. Only the last block may be shorter than the block size.
+   */
+  int getBlockLength(int block) {
+    return (int) Math.min(blockSize, fileLength - (long) block * blockSize);
+  }
+
+  /**
+   * Returns the blocks of this file that are not stored, with identical content, at the same
+   * position of the baseline file.
+   */
+  List<Integer> getChangedBlocks(BlockManifest baseline) {
+    List<Integer> changed = new ArrayList<>();
+    for (int i = 0; i < hashes.length; i++) {
+      if (!isUnchanged(i, baseline)) {
+        changed.add(i);
+      }
+    }
+    return changed;
+  }
+
+  private boolean isUnchanged(int block, BlockManifest baseline) {
+    return baseline != null && baseline.blockSize == blockSize
+        && block < baseline.getBlockCount()
+        && baseline.getBlockLength(block) == getBlockLength(block)
+        && Arrays.equals(baseline.hashes[block], hashes[block]);
+  }
+
+  /**
+   * Hashes the blocks of a file.
+   *
+   * @param file the file to hash
+   * @param blockSize the block size in bytes
+   * @return the manifest of the file
+   * @throws IOException error reading the file
+   */
+  static BlockManifest compute(Path file, int blockSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileLength = channel.size();
+      int blockCount = (int) ((fileLength + blockSize - 1) / blockSize);
+      byte[][] hashes = new byte[blockCount][];
+      MessageDigest digest = newDigest();
+      ByteBuffer buffer = ByteBuffer.allocate(blockSize);
+      for (int i = 0; i < blockCount; i++) {
+        buffer.clear();
+        long position = (long) i * blockSize;
+        int length = (int) Math.min(blockSize, fileLength - position);
+        buffer.limit(length);
+        readFully(channel, buffer, position);
+        digest.update(buffer.array(), 0, length);
+        hashes[i] = digest.digest();
+      }
+      return new BlockManifest(blockSize, fileLength, hashes);
+    }
+  }
+
+  static byte[] hash(byte[] bytes, int length) {
+    MessageDigest digest = newDigest();
+    digest.update(bytes, 0, length);
+    return digest.digest();
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+    }
+  }
+
+  static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file at " + position);
+      }
+      position += read;
+    }
+  }
+
+  void write(Path manifestFile) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifestFile)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION_1);
+      out.writeInt(blockSize);
+      out.writeLong(fileLength);
+      out.writeInt(hashes.length);
+      for (byte[] hash : hashes) {
+        out.writeByte(hash.length);
+        out.write(hash);
+      }
+    }
+  }
+
+  static BlockManifest read(Path manifestFile) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a block manifest: " + manifestFile);
+      }
+      byte version = in.readByte();
+      if (version != VERSION_1) {
+        throw new IOException(
+            "Unsupported block manifest version " + version + ": " + manifestFile);
+      }
+      int blockSize = in.readInt();
+      long fileLength = in.readLong();
+      int blockCount = in.readInt();
+      if (blockSize <= 0 || blockCount != (fileLength + blockSize - 1) / blockSize) {
+        throw new IOException("Malformed block manifest: " + manifestFile);
+      }
+      byte[][] hashes = new byte[blockCount][];
+      for (int i = 0; i < blockCount; i++) {
+        hashes[i] = new byte[in.readUnsignedByte()];
+        in.readFully(hashes[i]);
+      }
+      return new BlockManifest(blockSize, fileLength, hashes);
+    }
+  }
+
+  /**
+   * Returns the manifest file of a file backed up to
+   * {@code <member>/diskstores/<diskstore>/dir<N>/<file>}, or null if the file is not in a backup
+   * directory.
+   */
+  static Path getManifestFile(Path backedUpFile) {
+    return getBlocksFile(backedUpFile, MANIFEST_FILE_EXT);
+  }
+
+  /**
+   * Returns the file holding the changed blocks of a file that was backed up as a delta of its
+   * baseline copy, or null if the file is not in a backup directory.
+   */
+  static Path getDeltaFile(Path backedUpFile) {
+    return getBlocksFile(backedUpFile, DELTA_FILE_EXT);
+  }
+
+  /**
+   * Returns the backed up file a delta or manifest file belongs to.
+   */
+  static Path getBackedUpFile(Path blocksFile, String extension) {
+    String name = blocksFile.getFileName().toString();
+    Path dir = blocksFile.getParent();
+    Path storeDir = dir.getParent();
+    Path memberDir = storeDir.getParent().getParent();
+    return memberDir.resolve(BackupWriter.DATA_STORES_DIRECTORY).resolve(storeDir.getFileName())
+        .resolve(dir.getFileName())
+        .resolve(name.substring(0, name.length() - extension.length()));
+  }
+
+  private static Path getBlocksFile(Path backedUpFile, String extension) {
+    Path dir = backedUpFile.toAbsolutePath().getParent();
+    Path storeDir = dir == null ? null : dir.getParent();
+    Path storesDir = storeDir == null ? null : storeDir.getParent();
+    Path memberDir = storesDir == null ? null : storesDir.getParent();
+    if (memberDir == null) {
+      return null;
+    }
+    return memberDir.resolve(BackupWriter.BLOCKS_DIRECTORY).resolve(storeDir.getFileName())
+        .resolve(dir.getFileName()).resolve(backedUpFile.getFileName() + extension);
+  }
+}
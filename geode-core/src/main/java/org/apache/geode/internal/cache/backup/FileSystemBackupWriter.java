@@ -16,24 +16,50 @@ package org.apache.geode.internal.cache.backup;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 
 import org.apache.geode.cache.DiskStore;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.cache.DirectoryHolder;
 import org.apache.geode.internal.cache.DiskStoreImpl;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.logging.internal.executors.LoggingExecutors;
 
 class FileSystemBackupWriter implements BackupWriter {
 
+  /**
+   * If true, block hashes are recorded for every backed up disk store file and an incremental
+   * backup only stores the blocks of a file that differ from its baseline copy.
+   */
+  static final boolean BLOCK_LEVEL_INCREMENTAL =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "backup.blockLevelIncremental");
+
+  /**
+   * The maximum number of disk stores whose oplogs are backed up concurrently.
+   */
+  static final int BACKUP_CONCURRENCY =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "backup.concurrency",
+          Runtime.getRuntime().availableProcessors());
+
   private final Path backupDirectory;
   private final FileSystemIncrementalBackupLocation incrementalBaselineLocation;
   private final BackupFilter filter;
+  private final boolean incremental;
+  private final boolean blockLevelIncremental;
+  private volatile boolean blockAssemblyRequired;
 
   FileSystemBackupWriter(Path backupDirectory) {
     this(backupDirectory, null);
@@ -41,9 +67,17 @@ class FileSystemBackupWriter implements BackupWriter {
 
   FileSystemBackupWriter(Path backupDirectory,
       FileSystemIncrementalBackupLocation incrementalBaselineLocation) {
+    this(backupDirectory, incrementalBaselineLocation, BLOCK_LEVEL_INCREMENTAL);
+  }
+
+  FileSystemBackupWriter(Path backupDirectory,
+      FileSystemIncrementalBackupLocation incrementalBaselineLocation,
+      boolean blockLevelIncremental) {
     this.backupDirectory = backupDirectory;
     this.incrementalBaselineLocation = incrementalBaselineLocation;
+    this.blockLevelIncremental = blockLevelIncremental;
     filter = createBackupFilter(incrementalBaselineLocation);
+    incremental = filter instanceof IncrementalBackupFilter;
   }
 
   private BackupFilter createBackupFilter(
@@ -83,6 +117,10 @@ class FileSystemBackupWriter implements BackupWriter {
     backupConfigFiles(backupDefinition.getConfigFiles());
     backupUserFiles(backupDefinition.getUserFiles(), restoreScript);
     backupDeployedJars(backupDefinition.getDeployedJars(), restoreScript);
+    if (blockAssemblyRequired) {
+      Files.createFile(backupDirectory.resolve(BLOCK_ASSEMBLY_REQUIRED_FILE));
+      restoreScript.setBlockAssemblyRequired(true);
+    }
     File scriptFile = restoreScript.generate(backupDirectory.toFile());
     backupRestoreScript(scriptFile.toPath());
     writeReadMe();
@@ -103,8 +141,13 @@ class FileSystemBackupWriter implements BackupWriter {
       Path destinationDirectory = getOplogBackupDir(entry.getKey(),
           ((DiskStoreImpl) entry.getKey()).getInforFileDirIndex());
       Files.createDirectories(destinationDirectory);
-      Files.copy(entry.getValue(), destinationDirectory.resolve(entry.getValue().getFileName()),
-          StandardCopyOption.COPY_ATTRIBUTES);
+      Path destination = destinationDirectory.resolve(entry.getValue().getFileName());
+      Files.copy(entry.getValue(), destination, StandardCopyOption.COPY_ATTRIBUTES);
+      if (blockLevelIncremental) {
+        File baselineFile = incremental ? incrementalBaselineLocation
+            .getBackedUpDiskInitFile(entry.getKey(), destination.getFileName().toString()) : null;
+        backupBlocks(destination, baselineFile);
+      }
     }
   }
 
@@ -144,34 +187,79 @@ class FileSystemBackupWriter implements BackupWriter {
     moveFilesOrDirectories(configFiles, configDirectory);
   }
 
+  /**
+   * Moves the oplogs of each disk store into the backup. Disk stores are backed up concurrently
+   * since they usually live on different disks; the restore script is updated afterwards in disk
+   * store order.
+   */
   private void backupOplogs(Map<DiskStore, Collection<Path>> oplogFiles,
       RestoreScript restoreScript) throws IOException {
     File storesDir = new File(backupDirectory.toFile(), DATA_STORES_DIRECTORY);
-    for (Map.Entry<DiskStore, Collection<Path>> entry : oplogFiles.entrySet()) {
-      DiskStoreImpl diskStore = (DiskStoreImpl) entry.getKey();
-      boolean diskstoreHasFilesInBackup = false;
-      for (Path path : entry.getValue()) {
-        if (filter.accept(diskStore, path)) {
-          diskstoreHasFilesInBackup = true;
-          int index = diskStore.getInforFileDirIndex();
-          Path backupDir = createOplogBackupDir(diskStore, index);
-          backupOplog(backupDir, path);
-        } else {
-          Map<String, File> baselineOplogMap =
-              incrementalBaselineLocation.getBackedUpOplogs(diskStore);
-          restoreScript.addBaselineFile(baselineOplogMap.get(path.getFileName().toString()),
-              new File(path.toAbsolutePath().getParent().getParent().toFile(),
-                  path.getFileName().toString()));
+    Map<DiskStoreImpl, Future<Map<File, File>>> results = new LinkedHashMap<>();
+    int threads = Math.max(1, Math.min(BACKUP_CONCURRENCY, oplogFiles.size()));
+    ExecutorService executor =
+        LoggingExecutors.newFixedThreadPool("BackupOplogCopier", true, threads);
+    try {
+      for (Map.Entry<DiskStore, Collection<Path>> entry : oplogFiles.entrySet()) {
+        DiskStoreImpl diskStore = (DiskStoreImpl) entry.getKey();
+        results.put(diskStore,
+            executor.submit(() -> backupDiskStoreOplogs(diskStore, entry.getValue())));
+      }
+      for (Map.Entry<DiskStoreImpl, Future<Map<File, File>>> entry : results.entrySet()) {
+        DiskStoreImpl diskStore = entry.getKey();
+        Map<File, File> baselineFiles = getResult(entry.getValue());
+        restoreScript.addBaselineFiles(baselineFiles);
+        if (baselineFiles.size() < oplogFiles.get(diskStore).size()) {
+          addDiskStoreDirectoriesToRestoreScript(diskStore, getBaseBackupDirectory().toFile(),
+              restoreScript);
         }
+        File targetStoresDir = new File(storesDir, getBackupDirName(diskStore));
+        addDiskStoreDirectoriesToRestoreScript(diskStore, targetStoresDir, restoreScript);
       }
-      if (diskstoreHasFilesInBackup) {
-        addDiskStoreDirectoriesToRestoreScript((DiskStoreImpl) entry.getKey(),
-            getBaseBackupDirectory().toFile(), restoreScript);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while backing up oplogs");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
       }
-      File targetStoresDir = new File(storesDir, getBackupDirName(diskStore));
-      addDiskStoreDirectoriesToRestoreScript(diskStore, targetStoresDir, restoreScript);
+      throw new IOException(cause);
+    }
+  }
 
+  /**
+   * Moves the oplogs of a disk store into the backup.
+   *
+   * @return the baseline copies of the oplogs that are not part of this backup, mapped to the
+   *         location they are restored to
+   */
+  private Map<File, File> backupDiskStoreOplogs(DiskStoreImpl diskStore, Collection<Path> oplogs)
+      throws IOException {
+    Map<File, File> baselineFiles = new LinkedHashMap<>();
+    Map<String, File> baselineOplogMap = incremental
+        ? incrementalBaselineLocation.getBackedUpOplogs(diskStore) : Collections.emptyMap();
+    for (Path path : oplogs) {
+      File baselineFile = baselineOplogMap.get(path.getFileName().toString());
+      if (filter.accept(diskStore, path)) {
+        int index = diskStore.getInforFileDirIndex();
+        Path backupDir = createOplogBackupDir(diskStore, index);
+        backupOplog(backupDir, path, baselineFile);
+      } else {
+        baselineFiles.put(baselineFile, new File(
+            path.toAbsolutePath().getParent().getParent().toFile(),
+            path.getFileName().toString()));
+      }
     }
+    return baselineFiles;
   }
 
   private Path getOplogBackupDir(DiskStore diskStore, int index) {
@@ -204,8 +292,37 @@ class FileSystemBackupWriter implements BackupWriter {
     return name + "_" + diskStore.getDiskStoreID().toString();
   }
 
-  private void backupOplog(Path targetDir, Path path) throws IOException {
+  private void backupOplog(Path targetDir, Path path, File baselineFile) throws IOException {
     backupFile(targetDir, path.toFile());
+    if (blockLevelIncremental) {
+      backupBlocks(targetDir.resolve(path.getFileName()), baselineFile);
+    }
+  }
+
+  /**
+   * Records the block hashes of a file that was backed up. If the baseline recorded the block
+   * hashes of its copy of the file, only the changed blocks are kept in this backup and the file
+   * itself is replaced by a delta that {@link BackupFileAssembler} reassembles before a restore.
+   */
+  private void backupBlocks(Path backedUpFile, File baselineFile) throws IOException {
+    BlockManifest manifest =
+        BlockManifest.compute(backedUpFile, BlockManifest.DEFAULT_BLOCK_SIZE);
+    Path manifestFile = BlockManifest.getManifestFile(backedUpFile);
+    Files.createDirectories(manifestFile.getParent());
+    if (baselineFile != null) {
+      Path baselineManifestFile = BlockManifest.getManifestFile(baselineFile.toPath());
+      if (baselineManifestFile != null && Files.exists(baselineManifestFile)) {
+        List<Integer> changedBlocks =
+            manifest.getChangedBlocks(BlockManifest.read(baselineManifestFile));
+        if (changedBlocks.size() < manifest.getBlockCount()) {
+          BlockDelta.write(backedUpFile, manifest, baselineFile.toPath(), changedBlocks,
+              BlockManifest.getDeltaFile(backedUpFile));
+          Files.delete(backedUpFile);
+          blockAssemblyRequired = true;
+        }
+      }
+    }
+    manifest.write(manifestFile);
   }
 
   private void backupFile(Path targetDir, File file) throws IOException {
@@ -64,6 +64,22 @@ class FileSystemIncrementalBackupLocation implements IncrementalBackupLocation {
     return FileUtils.listFiles(baselineDir, new String[] {"krf", "drf", "crf"}, true);
   }
 
+  /**
+   * Returns where the baseline backup stored the init file of a disk store, or null if there is no
+   * usable baseline. The returned file may not exist if the baseline stored it as a block delta.
+   */
+  File getBackedUpDiskInitFile(DiskStore diskStore, String fileName) {
+    File checkedBaselineDir = checkBaseline(diskStore);
+    if (checkedBaselineDir == null) {
+      return null;
+    }
+    File baselineDir = new File(checkedBaselineDir, BackupWriter.DATA_STORES_DIRECTORY);
+    baselineDir = new File(baselineDir, getBackupDirName((DiskStoreImpl) diskStore));
+    baselineDir = new File(baselineDir,
+        BackupWriter.BACKUP_DIR_PREFIX + ((DiskStoreImpl) diskStore).getInforFileDirIndex());
+    return new File(baselineDir, fileName);
+  }
+
   Collection<File> getPreviouslyBackedUpOpLogs(File checkedBaselineDir) throws IOException {
     BackupInspector inspector = createBackupInspector(checkedBaselineDir);
     HashSet<File> oplogs = new HashSet<>();
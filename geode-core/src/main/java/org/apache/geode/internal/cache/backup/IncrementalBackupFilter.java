@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache.backup;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 
@@ -32,6 +33,14 @@ public class IncrementalBackupFilter implements BackupFilter {
   @Override
   public boolean accept(DiskStore diskStore, Path path) throws IOException {
     Map<String, File> baselineOplogMap = incrementalBackupLocation.getBackedUpOplogs(diskStore);
-    return !baselineOplogMap.containsKey(path.getFileName().toString());
+    File baselineFile = baselineOplogMap.get(path.getFileName().toString());
+    if (baselineFile == null) {
+      return true;
+    }
+    // If the baseline recorded block hashes, its copy is only reusable if it is still complete.
+    // Otherwise the file is backed up again and the writer only stores the blocks that changed.
+    Path manifestFile = BlockManifest.getManifestFile(baselineFile.toPath());
+    return manifestFile != null && Files.exists(manifestFile)
+        && BlockManifest.read(manifestFile).getFileLength() != Files.size(path);
   }
 }
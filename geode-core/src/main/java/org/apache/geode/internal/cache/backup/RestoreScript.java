@@ -42,6 +42,10 @@ class RestoreScript {
 
   static final String REFUSE_TO_OVERWRITE_MESSAGE = "Backup not restored. Refusing to overwrite ";
 
+  static final String BLOCK_ASSEMBLY_REQUIRED_MESSAGE =
+      "Backup not restored. Reassemble the block level incremental files first by running "
+          + BackupFileAssembler.class.getName() + " on this directory.";
+
   private static final String[] ABOUT_SCRIPT_COMMENT =
       {"Restore a backup of gemfire persistent data to the location it was backed up",
           "from. This script will refuse to restore if the original data still exists.",
@@ -50,12 +54,16 @@ class RestoreScript {
   private static final String EXISTENCE_CHECK_COMMENT =
       "Test for existing originals.  If they exist, do not restore the backup.";
 
+  private static final String BLOCK_ASSEMBLY_CHECK_COMMENT =
+      "Test for block level incremental files that have not been reassembled.";
+
   private static final String RESTORE_DATA_COMMENT = "Restore data";
 
   private final ScriptGenerator generator;
   private final Map<File, File> baselineFiles = new HashMap<>();
   private final Map<File, File> backedUpFiles = new LinkedHashMap<>();
   private final List<File> existenceTests = new ArrayList<>();
+  private boolean blockAssemblyRequired;
 
   RestoreScript() {
     this(SystemUtils.isWindows() ? new WindowsScriptGenerator() : new UnixScriptGenerator());
@@ -77,6 +85,14 @@ class RestoreScript {
     backedUpFiles.put(backupFile, originalFile.getAbsoluteFile());
   }
 
+  /**
+   * Makes the script refuse to restore until {@link BackupFileAssembler} has reassembled the files
+   * that were backed up as block deltas.
+   */
+  void setBlockAssemblyRequired(boolean blockAssemblyRequired) {
+    this.blockAssemblyRequired = blockAssemblyRequired;
+  }
+
   void addExistenceTest(final File originalFile) {
     existenceTests.add(originalFile.getAbsoluteFile());
   }
@@ -88,6 +104,7 @@ class RestoreScript {
       writePreamble(writer);
       writeAbout(writer);
       writeExistenceTest(writer);
+      writeBlockAssemblyCheck(writer);
       writeRestoreData(writer, outputDir.toPath());
       writeIncrementalData(writer);
       generator.writeExit(writer);
@@ -117,13 +134,22 @@ class RestoreScript {
     writer.newLine();
   }
 
+  private void writeBlockAssemblyCheck(BufferedWriter writer) throws IOException {
+    if (!blockAssemblyRequired) {
+      return;
+    }
+    generator.writeComment(writer, BLOCK_ASSEMBLY_CHECK_COMMENT);
+    generator.writeBlockAssemblyCheck(writer, BackupWriter.BLOCK_ASSEMBLY_REQUIRED_FILE);
+    writer.newLine();
+  }
+
   private void writeRestoreData(BufferedWriter writer, Path outputDir) throws IOException {
     generator.writeComment(writer, RESTORE_DATA_COMMENT);
     for (Map.Entry<File, File> entry : backedUpFiles.entrySet()) {
       File backup = entry.getKey();
       String[] backupFiles = backup.list();
-      boolean backupHasFiles =
-          backup.isDirectory() && backupFiles != null && backupFiles.length != 0;
+      boolean backupHasFiles = backup.isDirectory()
+          && (backupFiles != null && backupFiles.length != 0 || hasBlockDeltas(backup));
       backup = outputDir.relativize(backup.toPath()).toFile();
       File original = entry.getValue();
       if (original.isDirectory()) {
@@ -134,6 +160,23 @@ class RestoreScript {
     }
   }
 
+  /**
+   * Returns true if files of the given backup directory were stored as block deltas. They will be
+   * in the directory once the backup has been reassembled.
+   */
+  private boolean hasBlockDeltas(File backupDir) {
+    if (!blockAssemblyRequired) {
+      return false;
+    }
+    Path deltaFile = BlockManifest.getDeltaFile(backupDir.toPath().resolve("file"));
+    if (deltaFile == null) {
+      return false;
+    }
+    String[] blockFiles = deltaFile.getParent().toFile()
+        .list((dir, name) -> name.endsWith(BlockManifest.DELTA_FILE_EXT));
+    return blockFiles != null && blockFiles.length != 0;
+  }
+
   private void writeIncrementalData(BufferedWriter writer) throws IOException {
     // Write out baseline file copies in restore script (if there are any) if this is a restore
     // for an incremental backup
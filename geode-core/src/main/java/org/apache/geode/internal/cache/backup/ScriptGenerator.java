@@ -31,6 +31,8 @@ interface ScriptGenerator {
 
   void writeExistenceTest(BufferedWriter writer, File file) throws IOException;
 
+  void writeBlockAssemblyCheck(BufferedWriter writer, String markerFileName) throws IOException;
+
   void writeComment(BufferedWriter writer, String string) throws IOException;
 
   String getScriptName();
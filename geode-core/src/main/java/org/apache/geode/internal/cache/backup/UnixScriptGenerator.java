@@ -63,6 +63,14 @@ class UnixScriptGenerator implements ScriptGenerator {
     writer.newLine();
   }
 
+  @Override
+  public void writeBlockAssemblyCheck(final BufferedWriter writer, final String markerFileName)
+      throws IOException {
+    writer.write("test -e '" + markerFileName + "' && echo '"
+        + RestoreScript.BLOCK_ASSEMBLY_REQUIRED_MESSAGE + "' && exit 1 ");
+    writer.newLine();
+  }
+
   @Override
   public void writeExit(final BufferedWriter writer) {
     // do nothing
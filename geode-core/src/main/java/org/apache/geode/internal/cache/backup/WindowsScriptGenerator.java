@@ -81,6 +81,14 @@ class WindowsScriptGenerator implements ScriptGenerator {
     writer.newLine();
   }
 
+  @Override
+  public void writeBlockAssemblyCheck(BufferedWriter writer, String markerFileName)
+      throws IOException {
+    writer.write("IF EXIST \"" + markerFileName + "\" echo \""
+        + RestoreScript.BLOCK_ASSEMBLY_REQUIRED_MESSAGE + "\" && exit /B 1 ");
+    writer.newLine();
+  }
+
   @Override
   public void writeExit(BufferedWriter writer) throws IOException {
     writeComment(writer, WindowsScriptGenerator.EXIT_MARKER);
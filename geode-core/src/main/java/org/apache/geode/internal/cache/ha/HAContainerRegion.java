@@ -21,8 +21,10 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.geode.CancelException;
 import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.EntryNotFoundException;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionDestroyedException;
+import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.tier.sockets.CacheClientProxy;
 import org.apache.geode.internal.cache.tier.sockets.ClientProxyMembershipID;
 import org.apache.geode.internal.cache.tier.sockets.ClientUpdateMessageImpl;
@@ -148,6 +150,20 @@ public class HAContainerRegion implements HAContainerWrapper {
     return entry;
   }
 
+  /**
+   * Reads the value of the key back from disk if it has been overflowed, so that the next get of
+   * the key finds it in memory.
+   */
+  void prefetch(Object key) {
+    try {
+      if (((LocalRegion) map).getValueInVM(key) == null) {
+        map.get(key);
+      }
+    } catch (EntryNotFoundException ignore) {
+      // already removed
+    }
+  }
+
   @Override
   public boolean isEmpty() {
     return map.isEmpty();
@@ -14,8 +14,13 @@
  */
 package org.apache.geode.internal.cache.ha;
 
+import static org.apache.geode.internal.lang.SystemPropertyHelper.HA_REGION_QUEUE_DEFER_PUBLISH_PROPERTY;
+import static org.apache.geode.internal.lang.SystemPropertyHelper.HA_REGION_QUEUE_DELTA_CONFLATION_PROPERTY;
 import static org.apache.geode.internal.lang.SystemPropertyHelper.HA_REGION_QUEUE_EXPIRY_TIME_PROPERTY;
+import static org.apache.geode.internal.lang.SystemPropertyHelper.HA_REGION_QUEUE_PREFETCH_SIZE_PROPERTY;
+import static org.apache.geode.internal.lang.SystemPropertyHelper.HA_REGION_QUEUE_PREFETCH_THREADS_PROPERTY;
 import static org.apache.geode.internal.lang.SystemPropertyHelper.THREAD_ID_EXPIRY_TIME_PROPERTY;
+import static org.apache.geode.internal.lang.SystemPropertyHelper.getProductBooleanProperty;
 import static org.apache.geode.internal.lang.SystemPropertyHelper.getProductIntegerProperty;
 
 import java.io.DataInput;
@@ -41,7 +46,12 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.Logger;
@@ -106,6 +116,7 @@ import org.apache.geode.internal.util.concurrent.StoppableCondition;
 import org.apache.geode.internal.util.concurrent.StoppableReentrantLock;
 import org.apache.geode.internal.util.concurrent.StoppableReentrantReadWriteLock;
 import org.apache.geode.internal.util.concurrent.StoppableReentrantReadWriteLock.StoppableWriteLock;
+import org.apache.geode.logging.internal.executors.LoggingExecutors;
 import org.apache.geode.logging.internal.executors.LoggingThread;
 import org.apache.geode.logging.internal.log4j.api.LogService;
 
@@ -222,6 +233,12 @@ public class HARegionQueue implements RegionQueue {
   @MakeNotStatic
   private static QueueRemovalThread qrmThread;
 
+  /**
+   * Reads overflowed events back from disk ahead of their dispatch, when a prefetch size is set
+   */
+  @MakeNotStatic
+  private static ExecutorService prefetchExecutor;
+
   /** protects from modification during GII chunking */
   private StoppableReentrantReadWriteLock giiLock;
 
@@ -309,6 +326,62 @@ public class HARegionQueue implements RegionQueue {
   @MutableForTesting
   static boolean isUsedByTest = false;
 
+  /**
+   * Whether the positions published to a non durable blocking queue while its lock is held by
+   * another thread are added to the available IDs by that thread, rather than by the publishing
+   * thread once it gets the lock.
+   */
+  @MutableForTesting
+  static boolean deferPublish =
+      getProductBooleanProperty(HA_REGION_QUEUE_DEFER_PUBLISH_PROPERTY).orElse(false);
+
+  /**
+   * The number of events following a peeked event whose values are read back from disk ahead of
+   * time when they have been overflowed. Prefetching is disabled when not positive.
+   */
+  @MutableForTesting
+  static int prefetchSize = getProductIntegerProperty(HA_REGION_QUEUE_PREFETCH_SIZE_PROPERTY)
+      .orElse(0);
+
+  /**
+   * The maximum number of threads prefetching overflowed events for all queues. Prefetches that do
+   * not fit in the pool's bounded feed are dropped; the events are then read when peeked.
+   */
+  @MutableForTesting
+  static int prefetchThreads = getProductIntegerProperty(HA_REGION_QUEUE_PREFETCH_THREADS_PROPERTY)
+      .orElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+  /**
+   * The maximum number of prefetches waiting for a thread
+   */
+  private static final int PREFETCH_FEED_SIZE = 1000;
+
+  /**
+   * Whether a prefetch of overflowed events is in progress for this queue
+   */
+  private final AtomicBoolean prefetching = new AtomicBoolean();
+
+  /**
+   * The highest position whose event has been prefetched
+   */
+  private volatile long prefetchedPosition;
+
+  /**
+   * Whether the updates dispatched to a client with conflation enabled are sent as deltas when
+   * they did not replace an older queued update of their key, the client then holding the value
+   * the delta applies to.
+   */
+  @MutableForTesting
+  static boolean deltaConflation =
+      getProductBooleanProperty(HA_REGION_QUEUE_DELTA_CONFLATION_PROPERTY).orElse(false);
+
+  /**
+   * The IDs of the queued events that replaced an older queued event of their key by conflation,
+   * null if delta conflation is not enabled.
+   */
+  private final Set<EventID> conflatingEvents =
+      deltaConflation ? ConcurrentHashMap.newKeySet() : null;
+
   /**
    * Used by durable queues to maintain acked events by client
    */
@@ -858,6 +931,12 @@ public class HARegionQueue implements RegionQueue {
       qrmThread.setName("Queue Removal Thread");
       qrmThread.start();
     }
+    if (prefetchExecutor == null && prefetchSize > 0) {
+      ThreadPoolExecutor executor = LoggingExecutors.newFixedThreadPool("Queue Prefetcher ",
+          true, Math.max(1, prefetchThreads), 60, new LinkedBlockingQueue<>(PREFETCH_FEED_SIZE));
+      executor.allowCoreThreadTimeOut(true);
+      prefetchExecutor = executor;
+    }
   }
 
   /**
@@ -872,6 +951,10 @@ public class HARegionQueue implements RegionQueue {
       dispatchedMessagesMap = null;
 
     }
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+      prefetchExecutor = null;
+    }
   }
 
   /**
@@ -1114,10 +1197,21 @@ public class HARegionQueue implements RegionQueue {
   private void destroyFromQueue(Object key) {
     Object event = this.region.get(key);
     this.region.localDestroy(key);
+    if (this.conflatingEvents != null && event instanceof Conflatable) {
+      this.conflatingEvents.remove(((Conflatable) event).getEventId());
+    }
 
     maintainCqStats(event, -1);
   }
 
+  /**
+   * Returns true if the given queued update can be sent as a delta to a client with conflation
+   * enabled, because no older queued update of its key was conflated away.
+   */
+  public boolean canSendConflatedDelta(EventID eventId) {
+    return this.conflatingEvents != null && !this.conflatingEvents.contains(eventId);
+  }
+
   /** Returns the {@code toString} for this RegionQueue object */
   @Override
   public String toString() {
@@ -1375,6 +1469,7 @@ public class HARegionQueue implements RegionQueue {
         throw new InterruptedException();
       }
 
+      prefetchAfter(next);
       object = (Conflatable) this.region.get(next);
 
       // It is possible for the object to be null if a queue removal
@@ -1526,6 +1621,9 @@ public class HARegionQueue implements RegionQueue {
     }
     for (int i = 0; i < limit; i++) {
       Long counter = (Long) itr.next();
+      if (i == 0) {
+        prefetchAfter(counter + limit - 1);
+      }
       Object eventOrWrapper = this.region.get(counter);
       Object event;
       if (eventOrWrapper instanceof HAEventWrapper) {
@@ -1546,6 +1644,65 @@ public class HARegionQueue implements RegionQueue {
     return batch;
   }
 
+  /**
+   * Reads back from disk, on another thread, the overflowed events of the positions following the
+   * given one, in the order they are available, so that they are found in memory when peeked. A
+   * prefetch is started once half of the events prefetched by the previous one have been peeked.
+   * Does nothing unless the events are held in an overflowing container and a prefetch size is set.
+   *
+   * @param position the last position being peeked
+   */
+  private void prefetchAfter(long position) {
+    ExecutorService executor = prefetchExecutor;
+    if (executor == null || !(this.haContainer instanceof HAContainerRegion)
+        || position + prefetchSize / 2 < this.prefetchedPosition) {
+      return;
+    }
+    if (this.prefetching.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::prefetch);
+      } catch (RejectedExecutionException ignore) {
+        this.prefetching.set(false);
+      }
+    }
+  }
+
+  private void prefetch() {
+    try {
+      long prefetched = this.prefetchedPosition;
+      List<Long> positions = new ArrayList<>(prefetchSize);
+      acquireReadLock();
+      try {
+        // the positions prefetched but not yet removed are at the head of the queue
+        Iterator itr = this.idsAvailable.iterator();
+        for (int scanned = 0; itr.hasNext() && scanned < 2 * prefetchSize
+            && positions.size() < prefetchSize; scanned++) {
+          Long position = (Long) itr.next();
+          if (position > prefetched) {
+            positions.add(position);
+          }
+        }
+      } finally {
+        releaseReadLock();
+      }
+      HAContainerRegion container = (HAContainerRegion) this.haContainer;
+      for (Long position : positions) {
+        if (this.destroyInProgress) {
+          break;
+        }
+        Object wrapper = this.region.get(position);
+        if (wrapper instanceof HAEventWrapper) {
+          container.prefetch(wrapper);
+        }
+        this.prefetchedPosition = Math.max(this.prefetchedPosition, position);
+      }
+    } catch (RegionDestroyedException | CancelException ignore) {
+      // the queue is going away
+    } finally {
+      this.prefetching.set(false);
+    }
+  }
+
   @Override
   public void addCacheListener(CacheListener listener) {
     // nothing
@@ -2197,6 +2354,17 @@ public class HARegionQueue implements RegionQueue {
      */
     protected final StoppableCondition blockCond;
 
+    /**
+     * The positions published while the lock was held by another thread, added to the available
+     * IDs by the next thread acquiring the lock. Null unless publishing is deferred.
+     */
+    private final ConcurrentLinkedQueue<Long> publishedIDs;
+
+    /**
+     * The number of threads waiting for data, which publishing threads wake up
+     */
+    private final AtomicInteger waitingForData = new AtomicInteger();
+
     /**
      * @param hrqa HARegionQueueAttributes through which expiry time etc for the HARegionQueue can
      *        be set
@@ -2212,6 +2380,8 @@ public class HARegionQueue implements RegionQueue {
       this.putPermits = this.capacity;
       this.lock = new StoppableReentrantLock(this.region.getCancelCriterion());
       this.blockCond = lock.newCondition();
+      this.publishedIDs = deferPublish && this.getClass() == BlockingHARegionQueue.class
+          ? new ConcurrentLinkedQueue<>() : null;
 
       super.putGIIDataInRegion();
       if (this.getClass() == BlockingHARegionQueue.class) {
@@ -2335,12 +2505,60 @@ public class HARegionQueue implements RegionQueue {
       }
     }
 
+    /**
+     * Adds the position to the available IDs. When publishing is deferred and the lock is held by
+     * another thread, the position is left for the next thread acquiring the lock to add, unless a
+     * thread is waiting for data and has to be woken up.
+     */
+    @Override
+    void publish(Long position) throws InterruptedException {
+      if (this.publishedIDs == null) {
+        super.publish(position);
+        return;
+      }
+      if (logger.isDebugEnabled()) {
+        logger.debug("Publishing position " + position + " to available IDs. Region: "
+            + this.region.getName());
+      }
+      this.publishedIDs.add(position);
+      if (this.waitingForData.get() > 0) {
+        this.lock.lock();
+      } else if (!this.lock.tryLock()) {
+        return;
+      }
+      try {
+        addPublishedIDs();
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    /**
+     * Adds the positions published while the lock was held by another thread to the available
+     * IDs, notifying the waiting peek & take threads. Caller must hold the lock.
+     */
+    private void addPublishedIDs() {
+      if (this.publishedIDs == null) {
+        return;
+      }
+      boolean added = false;
+      Long position;
+      while ((position = this.publishedIDs.poll()) != null) {
+        this.idsAvailable.add(position);
+        added = true;
+      }
+      if (added) {
+        notifyPeekAndTakeThreads();
+      }
+    }
+
     /**
      * Identical to the acquireReadLock as there is only one type of Lock object in this class.
      */
     @Override
     void acquireWriteLock() {
       this.lock.lock();
+      addPublishedIDs();
     }
 
     /**
@@ -2349,6 +2567,7 @@ public class HARegionQueue implements RegionQueue {
     @Override
     void acquireReadLock() {
       this.lock.lock();
+      addPublishedIDs();
     }
 
     /**
@@ -2372,19 +2591,27 @@ public class HARegionQueue implements RegionQueue {
      */
     @Override
     boolean waitForData() throws InterruptedException {
-      while (this.internalIsEmpty()) {
-        region.getCache().getCancelCriterion().checkCancelInProgress(null);
-        boolean interrupted = Thread.currentThread().isInterrupted();
-        try {
-          blockCond.await(StoppableCondition.TIME_TO_WAIT);
-        } catch (InterruptedException ie) {
-          interrupted = true;
-          region.getCache().getCancelCriterion().checkCancelInProgress(ie);
-          throw new TimeoutException(ie);
-        } finally {
-          if (interrupted)
-            Thread.currentThread().interrupt();
+      // publishing threads take the lock to wake this thread up once it is counted as waiting
+      this.waitingForData.incrementAndGet();
+      try {
+        addPublishedIDs();
+        while (this.internalIsEmpty()) {
+          region.getCache().getCancelCriterion().checkCancelInProgress(null);
+          boolean interrupted = Thread.currentThread().isInterrupted();
+          try {
+            blockCond.await(StoppableCondition.TIME_TO_WAIT);
+          } catch (InterruptedException ie) {
+            interrupted = true;
+            region.getCache().getCancelCriterion().checkCancelInProgress(ie);
+            throw new TimeoutException(ie);
+          } finally {
+            if (interrupted)
+              Thread.currentThread().interrupt();
+          }
+          addPublishedIDs();
         }
+      } finally {
+        this.waitingForData.decrementAndGet();
       }
       return true;
     }
@@ -3009,6 +3236,13 @@ public class HARegionQueue implements RegionQueue {
       }
       // Remove the old conflated position
       if (oldPosition != null) {
+        // The event is marked before the old one is removed so that it is never dispatched as
+        // a delta once the old one is gone
+        Set<EventID> conflatingEvents = owningQueue.conflatingEvents;
+        if (conflatingEvents != null) {
+          conflatingEvents.add(event.getEventId());
+        }
+        boolean removed = false;
         // Obtain the DispatchedAndCurrentEvents object
         Conflatable old = (Conflatable) owningQueue.region.get(oldPosition);
         if (old != null) {
@@ -3016,9 +3250,12 @@ public class HARegionQueue implements RegionQueue {
           DispatchedAndCurrentEvents oldDace =
               (DispatchedAndCurrentEvents) owningQueue.eventsMap.get(oldTi);
           if (oldDace != null) {
-            oldDace.removeOldConflatedEntry(oldPosition);
+            removed = oldDace.removeOldConflatedEntry(oldPosition);
           }
         }
+        if (conflatingEvents != null && !removed) {
+          conflatingEvents.remove(event.getEventId());
+        }
       }
       return true;
     }
@@ -3030,8 +3267,10 @@ public class HARegionQueue implements RegionQueue {
      * position etc in the available IDs set. Also the new entry thread & old entry thread are
      * belonging to different ThreadIdentifier objects & hence hold different
      * DispatchedAndCurrentEvents object.
+     *
+     * @return true if the old entry was removed, false if it had already been peeked or removed
      */
-    private void removeOldConflatedEntry(Long oldPosition)
+    private boolean removeOldConflatedEntry(Long oldPosition)
         throws CacheException, InterruptedException {
       synchronized (this) {
         Conflatable conflatable = (Conflatable) owningQueue.region.get(oldPosition);
@@ -3056,7 +3295,9 @@ public class HARegionQueue implements RegionQueue {
           } else {
             owningQueue.stats.incMarkerEventsConflated();
           }
+          return true;
         }
+        return false;
       }
     }
 
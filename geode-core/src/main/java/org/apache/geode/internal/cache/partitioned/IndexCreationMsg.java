@@ -33,6 +33,7 @@ import org.apache.geode.cache.CacheException;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.query.Index;
 import org.apache.geode.cache.query.IndexCreationException;
+import org.apache.geode.cache.query.IndexType;
 import org.apache.geode.cache.query.MultiIndexCreationException;
 import org.apache.geode.cache.query.RegionNotFoundException;
 import org.apache.geode.cache.query.internal.index.IndexCreationData;
@@ -361,6 +362,15 @@ public class IndexCreationMsg extends PartitionMessage {
         throw new UnsupportedOperationException(
             "Indexes should not be created during rolling upgrade");
       }
+      if (rec.getVersionObject().compareTo(Version.GEODE_1_12_0) < 0) {
+        // older members would read a bitmap index definition as a functional one
+        for (IndexCreationData indexDefinition : indexDefinitions) {
+          if (indexDefinition.getIndexType() == IndexType.BITMAP) {
+            throw new UnsupportedOperationException(
+                "Bitmap indexes should not be created during rolling upgrade");
+          }
+        }
+      }
     }
 
     IndexCreationResponse processor = null;
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Per-block checksums of a sealed oplog file (crf, drf or krf). The checksums are kept in a small
+ * versioned companion file next to the oplog file so that the record format of the oplog itself
+ * is unchanged and disk stores written without checksums can still be recovered.
+ *
+ * <p>
+ * Companion file layout (version 1):
+ *
+ * <pre>
+ * magic(int) version(byte) algorithm(byte) blockSize(int) fileLength(long)
+ * blockCount(int) blockChecksum(int) * blockCount headerChecksum(int)
+ * </pre>
+ *
+ * The oplog file is divided into fixed size blocks; the last block may be short. Blocks are
+ * independent so they can be validated in parallel and a corrupt block can be reported by offset
+ * without parsing any records.
+ */
+public class OplogBlockChecksums {
+
+  public static final String CHECKSUM_FILE_EXT = ".crc";
+
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  static final int MAGIC = 0x4743524B;
+
+  static final byte VERSION_1 = 1;
+
+  /**
+   * CRC32 is used since it is the only hardware assisted checksum available on every JDK we
+   * support. The algorithm is recorded in the file so a later version can switch to CRC32C.
+   */
+  static final byte ALGORITHM_CRC32 = 1;
+
+  /**
+   * Files with fewer blocks than this are validated on the calling thread.
+   */
+  private static final int PARALLEL_VALIDATION_THRESHOLD = 16;
+
+  private final int blockSize;
+  private final long fileLength;
+  private final int[] blockChecksums;
+
+  OplogBlockChecksums(int blockSize, long fileLength, int[] blockChecksums) {
+    this.blockSize = blockSize;
+    this.fileLength = fileLength;
+    this.blockChecksums = blockChecksums;
+  }
+
+  public int getBlockSize() {
+    return this.blockSize;
+  }
+
+  public long getFileLength() {
+    return this.fileLength;
+  }
+
+  public int getBlockCount() {
+    return this.blockChecksums.length;
+  }
+
+  /**
+   * Returns the companion checksum file for the given oplog file.
+   */
+  public static File getChecksumFile(File oplogFile) {
+    return new File(oplogFile.getPath() + CHECKSUM_FILE_EXT);
+  }
+
+  /**
+   * Computes the block checksums of the current contents of the given file.
+   */
+  public static OplogBlockChecksums compute(File oplogFile, int blockSize) throws IOException {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+    }
+    try (FileChannel channel = FileChannel.open(oplogFile.toPath(), StandardOpenOption.READ)) {
+      long length = channel.size();
+      int blockCount = blockCount(length, blockSize);
+      int[] checksums = new int[blockCount];
+      ByteBuffer buffer = ByteBuffer.allocate(blockSize);
+      CRC32 crc = new CRC32();
+      for (int i = 0; i < blockCount; i++) {
+        checksums[i] = checksumBlock(channel, buffer, crc, (long) i * blockSize,
+            blockLength(length, blockSize, i));
+      }
+      return new OplogBlockChecksums(blockSize, length, checksums);
+    }
+  }
+
+  /**
+   * Computes and writes the checksums of the given oplog file to its companion file. The
+   * companion file is written to a temporary file first and then renamed so that a crash never
+   * leaves a partially written companion file behind.
+   */
+  public static OplogBlockChecksums writeFor(File oplogFile) throws IOException {
+    OplogBlockChecksums checksums = compute(oplogFile, DEFAULT_BLOCK_SIZE);
+    File checksumFile = getChecksumFile(oplogFile);
+    File tmpFile = new File(checksumFile.getPath() + ".tmp");
+    checksums.write(tmpFile);
+    if (!tmpFile.renameTo(checksumFile)) {
+      tmpFile.delete();
+      throw new IOException("Could not rename " + tmpFile + " to " + checksumFile);
+    }
+    return checksums;
+  }
+
+  /**
+   * Deletes the companion checksum file of the given oplog file, if any.
+   */
+  public static boolean deleteFor(File oplogFile) {
+    File checksumFile = getChecksumFile(oplogFile);
+    return checksumFile.delete() || !checksumFile.exists();
+  }
+
+  /**
+   * Validates the given oplog file against its companion checksum file.
+   *
+   * @return the result of the validation or null if the oplog file has no companion file
+   * @throws IOException if the companion file exists but can not be read or is itself corrupt
+   */
+  public static ValidationResult validateIfPresent(File oplogFile) throws IOException {
+    File checksumFile = getChecksumFile(oplogFile);
+    if (!checksumFile.exists()) {
+      return null;
+    }
+    return read(checksumFile).validate(oplogFile);
+  }
+
+  void write(File checksumFile) throws IOException {
+    CRC32 headerCrc = new CRC32();
+    try (FileOutputStream fos = new FileOutputStream(checksumFile);
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos))) {
+      ByteBuffer header = encodeHeader();
+      headerCrc.update(header.array(), 0, header.limit());
+      dos.write(header.array(), 0, header.limit());
+      dos.writeInt((int) headerCrc.getValue());
+      dos.flush();
+      fos.getChannel().force(true);
+    }
+  }
+
+  /**
+   * Reads a companion checksum file.
+   *
+   * @throws IOException if the file can not be read, is of an unknown version or is corrupt
+   */
+  public static OplogBlockChecksums read(File checksumFile) throws IOException {
+    try (DataInputStream dis =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(checksumFile)))) {
+      int magic = dis.readInt();
+      if (magic != MAGIC) {
+        throw new IOException("Not an oplog checksum file: " + checksumFile);
+      }
+      byte version = dis.readByte();
+      if (version != VERSION_1) {
+        throw new IOException(
+            "Unsupported oplog checksum file version " + version + " in " + checksumFile);
+      }
+      byte algorithm = dis.readByte();
+      if (algorithm != ALGORITHM_CRC32) {
+        throw new IOException(
+            "Unsupported oplog checksum algorithm " + algorithm + " in " + checksumFile);
+      }
+      int blockSize = dis.readInt();
+      long fileLength = dis.readLong();
+      int blockCount = dis.readInt();
+      if (blockSize <= 0 || fileLength < 0 || blockCount != blockCount(fileLength, blockSize)) {
+        throw new IOException("Corrupt oplog checksum file header in " + checksumFile);
+      }
+      int[] checksums = new int[blockCount];
+      for (int i = 0; i < blockCount; i++) {
+        checksums[i] = dis.readInt();
+      }
+      OplogBlockChecksums result = new OplogBlockChecksums(blockSize, fileLength, checksums);
+      CRC32 headerCrc = new CRC32();
+      ByteBuffer header = result.encodeHeader();
+      headerCrc.update(header.array(), 0, header.limit());
+      if (dis.readInt() != (int) headerCrc.getValue()) {
+        throw new IOException("Corrupt oplog checksum file " + checksumFile);
+      }
+      return result;
+    } catch (EOFException e) {
+      throw new IOException("Truncated oplog checksum file " + checksumFile, e);
+    }
+  }
+
+  /**
+   * Validates every block of the given file. Blocks are read with positional reads so large files
+   * are validated in parallel.
+   */
+  public ValidationResult validate(File oplogFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(oplogFile.toPath(), StandardOpenOption.READ)) {
+      final long actualLength = channel.size();
+      IntStream blocks = IntStream.range(0, getBlockCount());
+      if (getBlockCount() >= PARALLEL_VALIDATION_THRESHOLD) {
+        blocks = blocks.parallel();
+      }
+      List<Integer> corruptBlocks;
+      try {
+        corruptBlocks = blocks.filter(i -> !isBlockValid(channel, actualLength, i)).boxed()
+            .sorted().collect(Collectors.toList());
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      return new ValidationResult(oplogFile, this.blockSize, this.fileLength, actualLength,
+          getBlockCount(), corruptBlocks);
+    }
+  }
+
+  private boolean isBlockValid(FileChannel channel, long actualLength, int block) {
+    long start = (long) block * this.blockSize;
+    int length = blockLength(this.fileLength, this.blockSize, block);
+    if (start + length > actualLength) {
+      // the file was truncated
+      return false;
+    }
+    try {
+      return checksumBlock(channel, ByteBuffer.allocate(length), new CRC32(), start,
+          length) == this.blockChecksums[block];
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ByteBuffer encodeHeader() {
+    ByteBuffer header = ByteBuffer.allocate(4 + 1 + 1 + 4 + 8 + 4 + 4 * getBlockCount());
+    header.putInt(MAGIC);
+    header.put(VERSION_1);
+    header.put(ALGORITHM_CRC32);
+    header.putInt(this.blockSize);
+    header.putLong(this.fileLength);
+    header.putInt(getBlockCount());
+    for (int checksum : this.blockChecksums) {
+      header.putInt(checksum);
+    }
+    header.flip();
+    return header;
+  }
+
+  private static int checksumBlock(FileChannel channel, ByteBuffer buffer, CRC32 crc, long start,
+      int length) throws IOException {
+    buffer.clear();
+    buffer.limit(length);
+    long position = start;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of file at offset " + position);
+      }
+      position += read;
+    }
+    crc.reset();
+    crc.update(buffer.array(), 0, length);
+    return (int) crc.getValue();
+  }
+
+  private static int blockCount(long fileLength, int blockSize) {
+    long count = (fileLength + blockSize - 1) / blockSize;
+    if (count > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("file too large for block size " + blockSize);
+    }
+    return (int) count;
+  }
+
+  private static int blockLength(long fileLength, int blockSize, int block) {
+    return (int) Math.min(blockSize, fileLength - (long) block * blockSize);
+  }
+
+  /**
+   * The outcome of validating an oplog file against its block checksums.
+   */
+  public static class ValidationResult {
+    private final File file;
+    private final int blockSize;
+    private final long expectedLength;
+    private final long actualLength;
+    private final int blockCount;
+    private final List<Integer> corruptBlocks;
+
+    ValidationResult(File file, int blockSize, long expectedLength, long actualLength,
+        int blockCount, List<Integer> corruptBlocks) {
+      this.file = file;
+      this.blockSize = blockSize;
+      this.expectedLength = expectedLength;
+      this.actualLength = actualLength;
+      this.blockCount = blockCount;
+      this.corruptBlocks = Collections.unmodifiableList(new ArrayList<>(corruptBlocks));
+    }
+
+    public File getFile() {
+      return this.file;
+    }
+
+    public boolean isValid() {
+      return this.corruptBlocks.isEmpty();
+    }
+
+    public int getBlockCount() {
+      return this.blockCount;
+    }
+
+    /**
+     * Returns the indexes of the corrupt blocks in ascending order.
+     */
+    public List<Integer> getCorruptBlocks() {
+      return this.corruptBlocks;
+    }
+
+    /**
+     * Returns the number of leading bytes of the file that are known to be intact. Everything
+     * before this offset can be salvaged.
+     */
+    public long getValidPrefixLength() {
+      if (isValid()) {
+        return this.expectedLength;
+      }
+      return (long) this.corruptBlocks.get(0) * this.blockSize;
+    }
+
+    /**
+     * Returns true if any byte in the given range of the file lies in a corrupt block.
+     */
+    public boolean isCorrupt(long offset, long length) {
+      if (isValid() || length <= 0) {
+        return false;
+      }
+      long firstBlock = offset / this.blockSize;
+      long lastBlock = (offset + length - 1) / this.blockSize;
+      for (int block : this.corruptBlocks) {
+        if (block >= firstBlock && block <= lastBlock) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(this.file.getName());
+      if (isValid()) {
+        sb.append(": all ").append(this.blockCount).append(" blocks are valid");
+      } else {
+        sb.append(": ").append(this.corruptBlocks.size()).append(" of ").append(this.blockCount)
+            .append(" blocks are corrupt");
+        if (this.actualLength < this.expectedLength) {
+          sb.append(" (file is ").append(this.actualLength).append(" bytes but ")
+              .append(this.expectedLength).append(" bytes were checksummed)");
+        }
+        sb.append("; first corrupt block starts at offset ").append(getValidPrefixLength())
+            .append("; corrupt blocks=").append(this.corruptBlocks);
+      }
+      return sb.toString();
+    }
+  }
+}
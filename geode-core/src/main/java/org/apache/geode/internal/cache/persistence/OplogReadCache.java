@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.persistence;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of value bytes read from crf files. It is used when oplog
+ * pages are kept out of the OS page cache so that hot values faulted in from disk do not need a
+ * disk read each time.
+ *
+ * <p>
+ * Values in an oplog are never overwritten in place and oplog ids are never reused, so a cached
+ * value can never be stale; entries of deleted oplogs simply age out.
+ */
+public class OplogReadCache {
+
+  private static final int SEGMENT_COUNT = 16;
+
+  private final Segment[] segments;
+
+  private final int maxValueSize;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  public OplogReadCache(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+    }
+    long segmentBytes = Math.max(1, maxBytes / SEGMENT_COUNT);
+    this.segments = new Segment[SEGMENT_COUNT];
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      this.segments[i] = new Segment(segmentBytes);
+    }
+    // a single value may not take more than a quarter of its segment
+    this.maxValueSize = (int) Math.min(Integer.MAX_VALUE, segmentBytes / 4);
+  }
+
+  /**
+   * Returns a copy of the cached value stored at the given offset of the given oplog or null if
+   * it is not cached.
+   */
+  public byte[] get(long oplogId, long offset, int length) {
+    if (length > this.maxValueSize) {
+      return null;
+    }
+    Key key = new Key(oplogId, offset);
+    byte[] value = segmentFor(key).get(key);
+    if (value == null || value.length != length) {
+      this.misses.increment();
+      return null;
+    }
+    this.hits.increment();
+    return value.clone();
+  }
+
+  /**
+   * Caches a copy of the value stored at the given offset of the given oplog.
+   */
+  public void put(long oplogId, long offset, byte[] value) {
+    if (value.length > this.maxValueSize) {
+      return;
+    }
+    Key key = new Key(oplogId, offset);
+    segmentFor(key).put(key, value.clone());
+  }
+
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the number of value bytes currently cached.
+   */
+  public long getSize() {
+    long size = 0;
+    for (Segment segment : this.segments) {
+      size += segment.getSize();
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (Segment segment : this.segments) {
+      segment.clear();
+    }
+  }
+
+  private Segment segmentFor(Key key) {
+    return this.segments[(key.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+  }
+
+  private static class Segment {
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    Segment(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    synchronized byte[] get(Key key) {
+      return this.map.get(key);
+    }
+
+    synchronized void put(Key key, byte[] value) {
+      byte[] old = this.map.put(key, value);
+      if (old != null) {
+        this.size -= old.length;
+      }
+      this.size += value.length;
+      Iterator<Map.Entry<Key, byte[]>> it = this.map.entrySet().iterator();
+      while (this.size > this.maxBytes && it.hasNext()) {
+        Map.Entry<Key, byte[]> eldest = it.next();
+        this.size -= eldest.getValue().length;
+        it.remove();
+      }
+    }
+
+    synchronized long getSize() {
+      return this.size;
+    }
+
+    synchronized void clear() {
+      this.map.clear();
+      this.size = 0;
+    }
+  }
+
+  private static class Key {
+    private final long oplogId;
+    private final long offset;
+
+    Key(long oplogId, long offset) {
+      this.oplogId = oplogId;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return this.oplogId == other.oplogId && this.offset == other.offset;
+    }
+
+    @Override
+    public int hashCode() {
+      long h = this.oplogId * 31 + this.offset;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+}
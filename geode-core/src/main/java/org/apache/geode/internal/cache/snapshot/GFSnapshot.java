@@ -22,11 +22,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.geode.DataSerializer;
 import org.apache.geode.annotations.Immutable;
@@ -67,6 +71,18 @@ public class GFSnapshot {
   /** the snapshot format version 2 */
   public static final int SNAP_VER_2 = 2;
 
+  /**
+   * the snapshot format version 3, which adds a flags byte after the region name. Files without
+   * any flags set are still written as version 2 so that older members can read them.
+   */
+  public static final int SNAP_VER_3 = 3;
+
+  /** flag indicating that the snapshot entries are deflate compressed */
+  static final byte FLAG_COMPRESSED = 0x01;
+
+  /** the size of the buffers used around the compressed entry stream */
+  private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
   /** the snapshot file format */
   @Immutable
   private static final byte[] SNAP_FMT = {0x47, 0x46, 0x53};
@@ -117,7 +133,21 @@ public class GFSnapshot {
    */
   public static SnapshotWriter create(File snapshot, String region, InternalCache cache)
       throws IOException {
-    final GFSnapshotExporter out = new GFSnapshotExporter(snapshot, region, cache);
+    return create(snapshot, region, cache, false);
+  }
+
+  /**
+   * Creates a snapshot file and provides a serializer to write entries to the snapshot.
+   *
+   * @param snapshot the snapshot file
+   * @param region the region name
+   * @param compress true if the snapshot entries should be compressed
+   * @return the callback to allow the invoker to provide the snapshot entries
+   * @throws IOException error writing the snapshot file
+   */
+  public static SnapshotWriter create(File snapshot, String region, InternalCache cache,
+      boolean compress) throws IOException {
+    final GFSnapshotExporter out = new GFSnapshotExporter(snapshot, region, cache, compress);
     return new SnapshotWriter() {
       @Override
       public void snapshotEntry(SnapshotRecord entry) throws IOException {
@@ -218,9 +248,24 @@ public class GFSnapshot {
 
     /** the output stream */
     private final DataOutputStream dos;
+
+    /** the compressor, or null if the entries are not compressed */
+    private final Deflater deflater;
+
+    /** the compressing stream, or null if the entries are not compressed */
+    private final DeflaterOutputStream deflaterStream;
+
+    /** the output stream for entries, which is the same as dos unless compressed */
+    private final DataOutputStream entries;
+
     private final InternalCache cache;
 
     public GFSnapshotExporter(File out, String region, InternalCache cache) throws IOException {
+      this(out, region, cache, false);
+    }
+
+    public GFSnapshotExporter(File out, String region, InternalCache cache, boolean compress)
+        throws IOException {
       this.cache = cache;
       FileOutputStream fos = new FileOutputStream(out);
       fc = fos.getChannel();
@@ -228,7 +273,7 @@ public class GFSnapshot {
       dos = new DataOutputStream(new BufferedOutputStream(fos));
 
       // write snapshot version
-      dos.writeByte(SNAP_VER_2);
+      dos.writeByte(compress ? SNAP_VER_3 : SNAP_VER_2);
 
       // write format type
       dos.write(SNAP_FMT);
@@ -238,6 +283,19 @@ public class GFSnapshot {
 
       // write region name
       dos.writeUTF(region);
+
+      if (compress) {
+        dos.writeByte(FLAG_COMPRESSED);
+        // favor throughput since snapshots are large and written while the cache is in use
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        deflaterStream = new DeflaterOutputStream(dos, deflater, COMPRESSION_BUFFER_SIZE);
+        entries = new DataOutputStream(
+            new BufferedOutputStream(deflaterStream, COMPRESSION_BUFFER_SIZE));
+      } else {
+        deflater = null;
+        deflaterStream = null;
+        entries = dos;
+      }
     }
 
     /**
@@ -247,12 +305,18 @@ public class GFSnapshot {
      * @throws IOException unable to write entry
      */
     public void writeSnapshotEntry(SnapshotRecord entry) throws IOException {
-      InternalDataSerializer.invokeToData(entry, dos);
+      InternalDataSerializer.invokeToData(entry, entries);
     }
 
     public void close() throws IOException {
       // write entry terminator entry
-      DataSerializer.writeByteArray(null, dos);
+      DataSerializer.writeByteArray(null, entries);
+
+      if (deflaterStream != null) {
+        entries.flush();
+        deflaterStream.finish();
+        deflater.end();
+      }
 
       // grab the pdx start location
       dos.flush();
@@ -285,6 +349,9 @@ public class GFSnapshot {
     /** the region name */
     private final String region;
 
+    /** the snapshot flags */
+    private final byte flags;
+
     /** the internal pdx registry (not the system-wide pdx registry) */
     private final ExportedRegistry pdx;
 
@@ -309,7 +376,7 @@ public class GFSnapshot {
               String.format("Unsupported snapshot version: %s", SNAP_VER_1)
                   + ": " + in);
 
-        } else if (version == SNAP_VER_2) {
+        } else if (version == SNAP_VER_2 || version == SNAP_VER_3) {
           // read format
           byte[] format = new byte[3];
           tmp.readFully(format);
@@ -323,6 +390,7 @@ public class GFSnapshot {
 
           // read region
           region = tmp.readUTF();
+          flags = version == SNAP_VER_3 ? tmp.readByte() : 0;
           entryPosition = fc.position();
 
           // read pdx
@@ -346,8 +414,16 @@ public class GFSnapshot {
       checkPdxEnumCompatibility(typeRegistry);
 
       // open new stream with buffering for reading entries
-      dis = new DataInputStream(new BufferedInputStream(new FileInputStream(in)));
-      dis.skip(entryPosition);
+      if ((flags & FLAG_COMPRESSED) != 0) {
+        FileInputStream entryStream = new FileInputStream(in);
+        entryStream.getChannel().position(entryPosition);
+        InputStream inflated = new InflaterInputStream(
+            new BufferedInputStream(entryStream, COMPRESSION_BUFFER_SIZE));
+        dis = new DataInputStream(new BufferedInputStream(inflated, COMPRESSION_BUFFER_SIZE));
+      } else {
+        dis = new DataInputStream(new BufferedInputStream(new FileInputStream(in)));
+        dis.skip(entryPosition);
+      }
     }
 
     /**
@@ -368,6 +444,15 @@ public class GFSnapshot {
       return region;
     }
 
+    /**
+     * Returns true if the snapshot entries are compressed.
+     *
+     * @return true if compressed
+     */
+    public boolean isCompressed() {
+      return (flags & FLAG_COMPRESSED) != 0;
+    }
+
     /**
      * Returns the pdx types defined in the snapshot file.
      *
@@ -20,18 +20,25 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
 
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.cache.DataPolicy;
+import org.apache.geode.cache.EntryDestroyedException;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.client.PoolManager;
 import org.apache.geode.cache.client.internal.ProxyRegion;
@@ -54,6 +61,7 @@ import org.apache.geode.internal.cache.CachedDeserializableFactory;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalDataSet;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
 import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.execute.InternalFunction;
 import org.apache.geode.internal.cache.snapshot.GFSnapshot.GFSnapshotImporter;
@@ -73,6 +81,15 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
   private static final int IMPORT_CONCURRENCY = Integer.getInteger(
       DistributionConfig.GEMFIRE_PREFIX + "RegionSnapshotServiceImpl.IMPORT_CONCURRENCY", 10);
 
+  // controls number of bucket files of a per-bucket export imported concurrently
+  private static final int FILE_IMPORT_CONCURRENCY = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "RegionSnapshotServiceImpl.FILE_IMPORT_CONCURRENCY", 4);
+
+  // controls number of buckets exported concurrently during a per-bucket export
+  private static final int BUCKET_EXPORT_CONCURRENCY = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "RegionSnapshotServiceImpl.BUCKET_EXPORT_CONCURRENCY",
+      Runtime.getRuntime().availableProcessors());
+
   // controls the size (in bytes) of the r/w buffer during imoprt and export
   static final int BUFFER_SIZE = Integer.getInteger(
       DistributionConfig.GEMFIRE_PREFIX + "RegionSnapshotServiceImpl.BUFFER_SIZE", 1024 * 1024);
@@ -218,9 +235,7 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
         throw new IllegalArgumentException("Failure to import snapshot: "
             + snapshot.getAbsolutePath() + " contains no valid .gfd snapshot files");
       }
-      for (File snapshotFile : snapshots) {
-        importSnapshotFile(snapshotFile, options, local);
-      }
+      importSnapshotDirectory(snapshot, snapshots, options, local);
     } else if (snapshot.getName().endsWith(SNAPSHOT_FILE_EXTENSION)) {
       importSnapshotFile(snapshot, options, local);
     } else {
@@ -229,8 +244,100 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
     }
   }
 
-  private void importSnapshotFile(File snapshot, SnapshotOptions<K, V> options, LocalRegion local)
+  /**
+   * Imports the snapshot files of a directory. The bucket files listed by the manifest of a
+   * per-bucket export hold disjoint keys, so they are imported concurrently, after being verified
+   * to be present, and verified to be complete once imported. The other files may hold the same
+   * keys, so they are imported one at a time, in the order they are listed, and the last of them
+   * determines the values of the keys they share.
+   */
+  private void importSnapshotDirectory(File directory, File[] snapshots,
+      SnapshotOptions<K, V> options, LocalRegion local)
+      throws IOException, ClassNotFoundException {
+    List<SnapshotManifest> manifests = new ArrayList<>();
+    File[] manifestFiles = directory
+        .listFiles((File f) -> f.getName().endsWith(SnapshotManifest.MANIFEST_FILE_EXTENSION));
+    if (manifestFiles != null) {
+      for (File manifestFile : manifestFiles) {
+        SnapshotManifest manifest = SnapshotManifest.read(manifestFile);
+        manifest.verifyFilesExist(directory);
+        manifests.add(manifest);
+      }
+    }
+
+    Map<String, Long> recordCounts = new HashMap<>();
+    Set<String> bucketFiles = new HashSet<>();
+    for (SnapshotManifest manifest : manifests) {
+      List<File> files = new ArrayList<>();
+      for (SnapshotManifest.Chunk chunk : manifest.getChunks()) {
+        if (bucketFiles.add(chunk.getFileName())) {
+          files.add(new File(directory, chunk.getFileName()));
+        }
+      }
+      importSnapshotFilesConcurrently(files, options, local, recordCounts);
+    }
+    for (File snapshotFile : snapshots) {
+      if (!bucketFiles.contains(snapshotFile.getName())) {
+        recordCounts.put(snapshotFile.getName(), importSnapshotFile(snapshotFile, options, local));
+      }
+    }
+
+    for (SnapshotManifest manifest : manifests) {
+      manifest.verifyRecordCounts(recordCounts);
+    }
+  }
+
+  /**
+   * Imports snapshot files that hold disjoint keys concurrently, adding the number of records read
+   * from each file to the record counts.
+   */
+  private void importSnapshotFilesConcurrently(List<File> snapshots,
+      SnapshotOptions<K, V> options, LocalRegion local, Map<String, Long> recordCounts)
+      throws IOException, ClassNotFoundException {
+    ExecutorService executor =
+        local.getCache().getDistributionManager().getExecutors().getWaitingThreadPool();
+    LinkedList<Future<Long>> imports = new LinkedList<>();
+    LinkedList<File> importedFiles = new LinkedList<>();
+    try {
+      for (File snapshotFile : snapshots) {
+        if (imports.size() == FILE_IMPORT_CONCURRENCY) {
+          recordCounts.put(importedFiles.removeFirst().getName(), imports.removeFirst().get());
+        }
+        imports.addLast(executor.submit(() -> importSnapshotFile(snapshotFile, options, local)));
+        importedFiles.addLast(snapshotFile);
+      }
+      while (!imports.isEmpty()) {
+        recordCounts.put(importedFiles.removeFirst().getName(), imports.removeFirst().get());
+      }
+    } catch (InterruptedException e) {
+      while (!imports.isEmpty()) {
+        imports.removeFirst().cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw (IOException) new InterruptedIOException().initCause(e);
+
+    } catch (ExecutionException e) {
+      while (!imports.isEmpty()) {
+        imports.removeFirst().cancel(true);
+      }
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof ClassNotFoundException) {
+        throw (ClassNotFoundException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Imports a snapshot file.
+   *
+   * @return the number of records read from the file, including filtered records
+   */
+  private long importSnapshotFile(File snapshot, SnapshotOptions<K, V> options, LocalRegion local)
       throws IOException, ClassNotFoundException {
+    long records = 0;
     long count = 0;
     long bytes = 0;
     long start = local.getCachePerfStats().getTime();
@@ -246,6 +353,7 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
 
       SnapshotRecord record;
       while ((record = in.readSnapshotRecord()) != null) {
+        records++;
         bytes += record.getSize();
         K key = record.getKeyObject();
 
@@ -310,6 +418,7 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
             "Snapshot import of %s entries (%s bytes) in region %s from file %s is complete",
             new Object[] {count, bytes, region.getName(), snapshot.getAbsolutePath()}));
       }
+      return records;
 
     } catch (InterruptedException e) {
       while (!puts.isEmpty()) {
@@ -342,6 +451,10 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
           + snapshot.getCanonicalPath() + " is not a valid location");
     }
     directory.mkdirs();
+    if (region instanceof LocalDataSet && isExportPerBucket(options)) {
+      exportBucketsOnMember(snapshot, directory, options, (LocalDataSet) region);
+      return;
+    }
     LocalRegion local = getLocalRegion(region);
     Exporter<K, V> exp = createExporter(local.getCache(), region, options);
 
@@ -351,8 +464,8 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
 
     long count = 0;
     long start = local.getCachePerfStats().getTime();
-    SnapshotWriter writer =
-        GFSnapshot.create(snapshot, region.getFullPath(), (InternalCache) region.getCache());
+    SnapshotWriter writer = GFSnapshot.create(snapshot, region.getFullPath(),
+        (InternalCache) region.getCache(), isCompressed(options));
     try {
       if (getLogger().infoEnabled())
         getLogger().info(String.format("Exporting region %s", region.getName()));
@@ -373,6 +486,102 @@ public class RegionSnapshotServiceImpl<K, V> implements RegionSnapshotService<K,
     }
   }
 
+  /**
+   * Exports each local bucket of a partitioned region to its own snapshot file. Buckets are
+   * streamed concurrently straight from the bucket regions and a manifest describing the bucket
+   * files is written once all of them are complete.
+   */
+  private void exportBucketsOnMember(File snapshot, File directory, SnapshotOptions<K, V> options,
+      LocalDataSet dataSet) throws IOException {
+    final PartitionedRegion pr = dataSet.getProxy();
+    final boolean compress = isCompressed(options);
+    String fileName = snapshot.getName();
+    String baseName = fileName.substring(0, fileName.length() - SNAPSHOT_FILE_EXTENSION.length());
+    SnapshotManifest manifest = new SnapshotManifest(pr.getFullPath());
+
+    if (getLogger().infoEnabled())
+      getLogger().info(String.format("Exporting %s buckets of region %s",
+          dataSet.getBucketSet().size(), region.getName()));
+
+    long start = pr.getCachePerfStats().getTime();
+    ExecutorService executor =
+        pr.getCache().getDistributionManager().getExecutors().getWaitingThreadPool();
+    LinkedList<Future<SnapshotManifest.Chunk>> exports = new LinkedList<>();
+    try {
+      for (Integer bucketId : new TreeSet<>(dataSet.getBucketSet())) {
+        if (exports.size() == BUCKET_EXPORT_CONCURRENCY) {
+          manifest.addChunk(exports.removeFirst().get());
+        }
+        File bucketFile =
+            new File(directory, baseName + "-" + bucketId + SNAPSHOT_FILE_EXTENSION);
+        exports.addLast(
+            executor.submit(() -> exportBucket(pr, bucketId, bucketFile, options, compress)));
+      }
+      while (!exports.isEmpty()) {
+        manifest.addChunk(exports.removeFirst().get());
+      }
+    } catch (InterruptedException e) {
+      while (!exports.isEmpty()) {
+        exports.removeFirst().cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw (IOException) new InterruptedIOException().initCause(e);
+
+    } catch (ExecutionException e) {
+      while (!exports.isEmpty()) {
+        exports.removeFirst().cancel(true);
+      }
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+
+    } finally {
+      pr.getCachePerfStats().endExport(manifest.getEntryCount(), start);
+    }
+
+    manifest.write(new File(directory, baseName + SnapshotManifest.MANIFEST_FILE_EXTENSION));
+
+    if (getLogger().infoEnabled()) {
+      getLogger().info(String.format(
+          "Snapshot export of %s entries in %s buckets of region %s to directory %s is complete",
+          new Object[] {manifest.getEntryCount(), manifest.getChunks().size(), region.getName(),
+              directory.getAbsolutePath()}));
+    }
+  }
+
+  private SnapshotManifest.Chunk exportBucket(PartitionedRegion pr, int bucketId, File file,
+      SnapshotOptions<K, V> options, boolean compress) throws IOException {
+    long count = 0;
+    SnapshotWriter writer = GFSnapshot.create(file, pr.getFullPath(), pr.getCache(), compress);
+    try {
+      for (Object obj : pr.entrySet(Collections.singleton(bucketId))) {
+        Entry<K, V> entry = (Entry<K, V>) obj;
+        try {
+          if (options.getFilter() == null || options.getFilter().accept(entry)) {
+            writer.snapshotEntry(new SnapshotRecord(pr, entry));
+            count++;
+          }
+        } catch (EntryDestroyedException e) {
+          // continue to next entry
+        }
+      }
+    } finally {
+      writer.snapshotComplete();
+    }
+    return new SnapshotManifest.Chunk(bucketId, file.getName(), count);
+  }
+
+  private static boolean isCompressed(SnapshotOptions<?, ?> options) {
+    return options instanceof SnapshotOptionsImpl
+        && ((SnapshotOptionsImpl<?, ?>) options).isCompressed();
+  }
+
+  private static boolean isExportPerBucket(SnapshotOptions<?, ?> options) {
+    return options instanceof SnapshotOptionsImpl
+        && ((SnapshotOptionsImpl<?, ?>) options).isExportPerBucket();
+  }
+
   private boolean includeEntry(SnapshotOptions<K, V> options, final K key, final V val) {
     if (options.getFilter() != null) {
       Entry<K, V> entry = new Entry<K, V>() {
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.snapshot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Describes the snapshot files written by a per-bucket parallel export on one member. An import
+ * uses the manifest to detect missing or truncated bucket files.
+ */
+public class SnapshotManifest {
+  /** the file extension of snapshot manifests */
+  public static final String MANIFEST_FILE_EXTENSION = ".gfm";
+
+  private static final String REGION = "region";
+  private static final String CHUNK_COUNT = "chunk.count";
+  private static final String CHUNK_PREFIX = "chunk.";
+
+  /**
+   * A snapshot file holding the entries of one bucket.
+   */
+  public static class Chunk {
+    private final int bucketId;
+    private final String fileName;
+    private final long entryCount;
+
+    public Chunk(int bucketId, String fileName, long entryCount) {
+      this.bucketId = bucketId;
+      this.fileName = fileName;
+      this.entryCount = entryCount;
+    }
+
+    public int getBucketId() {
+      return bucketId;
+    }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    public long getEntryCount() {
+      return entryCount;
+    }
+  }
+
+  /** the full path of the exported region */
+  private final String regionPath;
+
+  /** the bucket files */
+  private final List<Chunk> chunks = new ArrayList<>();
+
+  public SnapshotManifest(String regionPath) {
+    this.regionPath = regionPath;
+  }
+
+  public String getRegionPath() {
+    return regionPath;
+  }
+
+  public void addChunk(Chunk chunk) {
+    chunks.add(chunk);
+  }
+
+  public List<Chunk> getChunks() {
+    return Collections.unmodifiableList(chunks);
+  }
+
+  /**
+   * Returns the total number of entries in all bucket files.
+   *
+   * @return the entry count
+   */
+  public long getEntryCount() {
+    long count = 0;
+    for (Chunk chunk : chunks) {
+      count += chunk.getEntryCount();
+    }
+    return count;
+  }
+
+  /**
+   * Writes the manifest.
+   *
+   * @param file the manifest file
+   * @throws IOException error writing the manifest
+   */
+  public void write(File file) throws IOException {
+    Properties props = new Properties();
+    props.setProperty(REGION, regionPath);
+    props.setProperty(CHUNK_COUNT, String.valueOf(chunks.size()));
+    for (int i = 0; i < chunks.size(); i++) {
+      Chunk chunk = chunks.get(i);
+      props.setProperty(CHUNK_PREFIX + i + ".bucket", String.valueOf(chunk.getBucketId()));
+      props.setProperty(CHUNK_PREFIX + i + ".file", chunk.getFileName());
+      props.setProperty(CHUNK_PREFIX + i + ".entries", String.valueOf(chunk.getEntryCount()));
+    }
+    try (OutputStream out = new FileOutputStream(file)) {
+      props.store(out, "Geode snapshot manifest");
+    }
+  }
+
+  /**
+   * Reads a manifest.
+   *
+   * @param file the manifest file
+   * @return the manifest
+   * @throws IOException error reading the manifest or the manifest is malformed
+   */
+  public static SnapshotManifest read(File file) throws IOException {
+    Properties props = new Properties();
+    try (InputStream in = new FileInputStream(file)) {
+      props.load(in);
+    }
+    String region = props.getProperty(REGION);
+    String count = props.getProperty(CHUNK_COUNT);
+    if (region == null || count == null) {
+      throw new IOException("Malformed snapshot manifest: " + file);
+    }
+    SnapshotManifest manifest = new SnapshotManifest(region);
+    try {
+      int chunkCount = Integer.parseInt(count);
+      for (int i = 0; i < chunkCount; i++) {
+        String fileName = props.getProperty(CHUNK_PREFIX + i + ".file");
+        if (fileName == null) {
+          throw new IOException("Malformed snapshot manifest: " + file);
+        }
+        manifest.addChunk(
+            new Chunk(Integer.parseInt(props.getProperty(CHUNK_PREFIX + i + ".bucket")), fileName,
+                Long.parseLong(props.getProperty(CHUNK_PREFIX + i + ".entries"))));
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("Malformed snapshot manifest: " + file, e);
+    }
+    return manifest;
+  }
+
+  /**
+   * Verifies that every bucket file of this manifest exists in the given directory.
+   *
+   * @param directory the directory containing the snapshot files
+   * @throws IOException if a bucket file is missing
+   */
+  public void verifyFilesExist(File directory) throws IOException {
+    for (Chunk chunk : chunks) {
+      if (!new File(directory, chunk.getFileName()).isFile()) {
+        throw new IOException("Snapshot file " + chunk.getFileName() + " of bucket "
+            + chunk.getBucketId() + " of region " + regionPath + " is missing from " + directory);
+      }
+    }
+  }
+
+  /**
+   * Verifies that the number of records read from each bucket file matches the number of entries
+   * that were exported to it.
+   *
+   * @param recordCounts the number of records read, keyed by file name
+   * @throws IOException if a bucket file has a different number of records
+   */
+  public void verifyRecordCounts(Map<String, Long> recordCounts) throws IOException {
+    for (Chunk chunk : chunks) {
+      Long read = recordCounts.get(chunk.getFileName());
+      if (read == null || read != chunk.getEntryCount()) {
+        throw new IOException("Snapshot file " + chunk.getFileName() + " of bucket "
+            + chunk.getBucketId() + " of region " + regionPath + " contains " + read
+            + " records but " + chunk.getEntryCount() + " were exported");
+      }
+    }
+  }
+}
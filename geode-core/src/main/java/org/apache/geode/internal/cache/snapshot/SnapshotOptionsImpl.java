@@ -39,6 +39,12 @@ public class SnapshotOptionsImpl<K, V> implements SnapshotOptions<K, V> {
   /** the file mapper, or null if parallel mode is not enabled */
   private volatile SnapshotFileMapper mapper;
 
+  /** true if snapshot entries should be compressed on export */
+  private volatile boolean compressed;
+
+  /** true if each local bucket should be exported to its own file in parallel mode */
+  private volatile boolean exportPerBucket;
+
   public SnapshotOptionsImpl() {
     filter = null;
     invokeCallbacks = false;
@@ -104,12 +110,59 @@ public class SnapshotOptionsImpl<K, V> implements SnapshotOptions<K, V> {
     return mapper;
   }
 
+  /**
+   * Enables compression of the snapshot entries on export. Compressed snapshots can only be read
+   * by members that support snapshot format version 3.
+   *
+   * @param compressed true if the snapshot entries should be compressed
+   * @return the snapshot options
+   */
+  public SnapshotOptions<K, V> setCompressed(boolean compressed) {
+    this.compressed = compressed;
+    return this;
+  }
+
+  /**
+   * Returns true if the snapshot entries should be compressed on export.
+   *
+   * @return true if compressed
+   */
+  public boolean isCompressed() {
+    return compressed;
+  }
+
+  /**
+   * Enables exporting each local bucket of a partitioned region to a separate snapshot file
+   * during a parallel export. The bucket files are written concurrently and described by a
+   * manifest so that they can be verified and imported concurrently.
+   *
+   * @param exportPerBucket true if each bucket should be exported to its own file
+   * @return the snapshot options
+   * @see #setParallelMode(boolean)
+   */
+  public SnapshotOptions<K, V> setExportPerBucket(boolean exportPerBucket) {
+    this.exportPerBucket = exportPerBucket;
+    return this;
+  }
+
+  /**
+   * Returns true if each local bucket should be exported to its own file in parallel mode.
+   *
+   * @return true if exporting per bucket
+   * @see #setParallelMode(boolean)
+   */
+  public boolean isExportPerBucket() {
+    return exportPerBucket;
+  }
+
   @Override
   public String toString() {
     StringBuffer buf = new StringBuffer();
     buf.append("SnapshotOptionsImpl@").append(System.identityHashCode(this)).append(": ")
         .append("parallel=").append(parallel).append("; invokeCallbacks=").append(invokeCallbacks)
-        .append("; filter=").append(filter).append("; mapper=").append(mapper);
+        .append("; filter=").append(filter).append("; mapper=").append(mapper)
+        .append("; compressed=").append(compressed).append("; exportPerBucket=")
+        .append(exportPerBucket);
     return buf.toString();
   }
 }
@@ -26,8 +26,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import edu.umd.cs.findbugs.annotations.SuppressWarnings;
@@ -39,6 +51,7 @@ import org.apache.geode.SerializationException;
 import org.apache.geode.SystemFailure;
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.annotations.internal.MakeNotStatic;
+import org.apache.geode.annotations.internal.MutableForTesting;
 import org.apache.geode.cache.CacheLoaderException;
 import org.apache.geode.cache.CacheWriterException;
 import org.apache.geode.cache.InterestResultPolicy;
@@ -80,6 +93,7 @@ import org.apache.geode.internal.offheap.OffHeapHelper;
 import org.apache.geode.internal.security.SecurityService;
 import org.apache.geode.internal.sequencelog.EntryLogger;
 import org.apache.geode.internal.serialization.Version;
+import org.apache.geode.logging.internal.executors.LoggingExecutors;
 import org.apache.geode.logging.internal.log4j.api.LogService;
 import org.apache.geode.security.GemFireSecurityException;
 
@@ -92,6 +106,26 @@ public abstract class BaseCommand implements Command {
   public static final int MAXIMUM_CHUNK_SIZE =
       Integer.getInteger("BridgeServer.MAXIMUM_CHUNK_SIZE", 100);
 
+  /**
+   * The number of threads gathering in parallel the entries of the local buckets of a partitioned
+   * region returned by a register interest. The entries are gathered by the thread serving the
+   * request when not above 1.
+   */
+  @MutableForTesting
+  public static int REGISTER_INTEREST_THREADS =
+      Integer.getInteger("BridgeServer.REGISTER_INTEREST_THREADS", 1);
+
+  /**
+   * The maximum number of chunks gathered for a register interest and waiting to be sent, above
+   * which the gathering threads wait.
+   */
+  private static final int MAXIMUM_PENDING_CHUNKS =
+      Integer.getInteger("BridgeServer.REGISTER_INTEREST_PENDING_CHUNKS", 16);
+
+  /** The pool of threads gathering the entries returned by register interests */
+  @MakeNotStatic
+  private static ExecutorService registerInterestExecutor;
+
   /** Whether to suppress logging of IOExceptions */
   private static final boolean SUPPRESS_IO_EXCEPTION_LOGGING =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "bridge.suppressIOExceptionLogging");
@@ -1256,6 +1290,151 @@ public abstract class BaseCommand implements Command {
     } // for
   }
 
+  /**
+   * Gathers the entries of the given local buckets with up to {@link #REGISTER_INTEREST_THREADS}
+   * threads and sends them in chunks as they are gathered. The gathering threads wait while
+   * {@link #MAXIMUM_PENDING_CHUNKS} chunks are waiting to be sent, so that the entries held in
+   * memory do not depend on the size of the region. The chunks are all sent by the calling thread,
+   * the last chunk is left for the caller to send. Only the threads of the pool that are free are
+   * used, and the calling thread gathers the entries itself when none is, so that a slow client
+   * does not hold up the register interests of the others.
+   *
+   * @param failures the set the buckets which could not be read locally are added to
+   */
+  public static void appendNewRegisterInterestResponseChunksFromLocalBuckets(
+      PartitionedRegion region, Set<Integer> buckets, Set<Integer> failures, String regex,
+      VersionedObjectList values, ServerConnection servConn) throws IOException {
+    Object riKeys = regex != null ? regex : "ALL_KEYS";
+    ClientProxyMembershipID requestingClient = servConn == null ? null : servConn.getProxyID();
+    Queue<Integer> remainingBuckets = new ConcurrentLinkedQueue<>(buckets);
+    Set<Integer> failedBuckets = ConcurrentHashMap.newKeySet();
+    BlockingQueue<VersionedObjectList> chunks = new ArrayBlockingQueue<>(MAXIMUM_PENDING_CHUNKS);
+    AtomicBoolean aborted = new AtomicBoolean();
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    int gatherers = Math.min(REGISTER_INTEREST_THREADS, buckets.size());
+    AtomicInteger runningGatherers = new AtomicInteger(gatherers);
+
+    Runnable gatherer = () -> {
+      try {
+        Integer id;
+        while (!aborted.get() && (id = remainingBuckets.poll()) != null) {
+          VersionedObjectList chunk = values.newEmptyList(MAXIMUM_CHUNK_SIZE);
+          for (Object key : region.fetchAllLocalKeys(id, failedBuckets, regex)) {
+            if (aborted.get()) {
+              return;
+            }
+            VersionTagHolder versionHolder = createVersionTagHolder();
+            Object value =
+                region.get(key, null, true, true, true, requestingClient, versionHolder, true);
+            updateValues(chunk, key, value, versionHolder.getVersionTag());
+            if (chunk.size() == MAXIMUM_CHUNK_SIZE) {
+              if (!offerChunk(chunks, chunk, aborted)) {
+                return;
+              }
+              chunk = values.newEmptyList(MAXIMUM_CHUNK_SIZE);
+            }
+          }
+          if (chunk.size() > 0 && !offerChunk(chunks, chunk, aborted)) {
+            return;
+          }
+        }
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+        aborted.set(true);
+      } finally {
+        runningGatherers.decrementAndGet();
+      }
+    };
+
+    int startedGatherers = 0;
+    ExecutorService executor = getRegisterInterestExecutor();
+    try {
+      for (; startedGatherers < gatherers; startedGatherers++) {
+        executor.execute(gatherer);
+      }
+    } catch (RejectedExecutionException e) {
+      runningGatherers.addAndGet(startedGatherers - gatherers);
+    }
+    if (startedGatherers == 0) {
+      for (Integer id : buckets) {
+        Set keys = region.fetchAllLocalKeys(id, failures, regex);
+        if (!keys.isEmpty()) {
+          appendNewRegisterInterestResponseChunkFromLocal(region, values, riKeys, keys, servConn);
+        }
+      }
+      return;
+    }
+
+    boolean sent = false;
+    try {
+      while (!aborted.get()) {
+        // read before polling so that no chunk offered before the last gatherer ended is missed
+        boolean gathered = runningGatherers.get() == 0;
+        VersionedObjectList chunk = chunks.poll(100, TimeUnit.MILLISECONDS);
+        if (chunk != null) {
+          sendNewRegisterInterestResponseChunk(region, riKeys, chunk, false, servConn);
+        } else if (gathered) {
+          break;
+        } else {
+          region.getCancelCriterion().checkCancelInProgress(null);
+        }
+      }
+      sent = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      region.getCancelCriterion().checkCancelInProgress(e);
+      throw new InterruptedIOException();
+    } finally {
+      if (!sent) {
+        aborted.set(true);
+        chunks.clear();
+      }
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    failures.addAll(failedBuckets);
+  }
+
+  private static boolean offerChunk(BlockingQueue<VersionedObjectList> chunks,
+      VersionedObjectList chunk, AtomicBoolean aborted) {
+    try {
+      while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+        if (aborted.get()) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      aborted.set(true);
+      return false;
+    }
+  }
+
+  /**
+   * Returns the pool of threads gathering the entries returned by register interests. It has no
+   * queue, so a gatherer is rejected when all the threads are busy.
+   */
+  private static synchronized ExecutorService getRegisterInterestExecutor() {
+    if (registerInterestExecutor == null) {
+      registerInterestExecutor = LoggingExecutors.newFixedThreadPool("RegisterInterestGatherer",
+          true, REGISTER_INTEREST_THREADS, 0L, new SynchronousQueue<>());
+    }
+    return registerInterestExecutor;
+  }
+
+  /**
+   * Stops the threads gathering the entries returned by register interests. Called when the cache
+   * is closed.
+   */
+  public static synchronized void stopRegisterInterestExecutor() {
+    if (registerInterestExecutor != null) {
+      registerInterestExecutor.shutdownNow();
+      registerInterestExecutor = null;
+    }
+  }
+
   public static void appendNewRegisterInterestResponseChunk(LocalRegion region,
       VersionedObjectList values, Object riKeys, Set<Map.Entry> set, ServerConnection servConn)
       throws IOException {
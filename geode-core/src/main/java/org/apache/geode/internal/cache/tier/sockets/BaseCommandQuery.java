@@ -119,7 +119,13 @@ public abstract class BaseCommandQuery extends BaseCommand {
       if (params != null) {
         result = query.execute(params);
       } else {
-        result = query.execute();
+        if (cqQuery != null) {
+          // an identical CQ may already maintain the results
+          result = cqQuery.getResultsOfMatchingCq();
+        }
+        if (result == null) {
+          result = query.execute();
+        }
       }
 
       // Asif : Before conditioning the results check if any
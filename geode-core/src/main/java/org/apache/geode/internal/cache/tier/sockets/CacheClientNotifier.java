@@ -649,9 +649,13 @@ public class CacheClientNotifier {
       }
     }
 
-    if (filterInfo == null
+    Set<ClientProxyMembershipID> nearCacheClients =
+        cmsg == null ? getNearCacheClientIDs(event) : Collections.emptySet();
+
+    if ((filterInfo == null
         || filterInfo.getCQs() == null && filterInfo.getInterestedClients() == null
-            && filterInfo.getInterestedClientsInv() == null) {
+            && filterInfo.getInterestedClientsInv() == null)
+        && nearCacheClients.isEmpty()) {
       return;
     }
 
@@ -669,8 +673,9 @@ public class CacheClientNotifier {
 
     FilterProfile regionProfile = ((InternalRegion) event.getRegion()).getFilterProfile();
 
-    Set<ClientProxyMembershipID> filterClients =
-        getFilterClientIDs(event, regionProfile, filterInfo, clientMessage);
+    Set<ClientProxyMembershipID> filterClients = filterInfo == null ? new HashSet<>()
+        : getFilterClientIDs(event, regionProfile, filterInfo, clientMessage);
+    addNearCacheClientIDs(nearCacheClients, filterClients, clientMessage);
 
     Conflatable conflatable;
 
@@ -704,11 +709,65 @@ public class CacheClientNotifier {
     // keys are marked as destroyed instead of removing them, this is
     // to take care, arrival of duplicate events. The key marked as
     // destroyed are removed after the event is placed in clients HAQueue.
-    if (filterInfo.filterProcessedLocally) {
+    if (filterInfo != null && filterInfo.filterProcessedLocally) {
       removeDestroyTokensFromCqResultKeys(event, filterInfo);
     }
   }
 
+  /**
+   * Returns the ids of the clients that may hold the key of the given entry event in their near
+   * cache. The client that originated the event is not left out, as it may have read the key before
+   * committing a transaction that changed it.
+   */
+  private Set<ClientProxyMembershipID> getNearCacheClientIDs(InternalCacheEvent event) {
+    if (nearCacheProxies.isEmpty() || !(event instanceof EntryEvent)) {
+      return Collections.emptySet();
+    }
+    Object key = ((EntryEvent) event).getKey();
+    Set<ClientProxyMembershipID> ids = null;
+    for (CacheClientProxy proxy : nearCacheProxies) {
+      if (proxy.mayHaveNearCached(key)) {
+        if (ids == null) {
+          ids = new HashSet<>();
+        }
+        ids.add(proxy.getProxyID());
+      }
+    }
+    return ids == null ? Collections.emptySet() : ids;
+  }
+
+  /**
+   * Routes the message to the given near cache clients that it is not already routed to, as an
+   * invalidation.
+   */
+  private void addNearCacheClientIDs(Set<ClientProxyMembershipID> nearCacheClients,
+      Set<ClientProxyMembershipID> filterClients, ClientUpdateMessageImpl clientMessage) {
+    if (nearCacheClients.isEmpty()) {
+      return;
+    }
+    Set<ClientProxyMembershipID> ids = new HashSet<>(nearCacheClients);
+    ids.removeAll(filterClients);
+    if (!ids.isEmpty()) {
+      if (logger.isTraceEnabled()) {
+        logger.trace("adding near cache invalidation routing to message for {}", ids);
+      }
+      clientMessage.addClientInterestList(ids, false);
+      filterClients.addAll(ids);
+    }
+  }
+
+  /**
+   * Records that the given client read the given key through its near cache, so that it is sent an
+   * invalidation when the key changes.
+   */
+  public void recordNearCacheRead(ClientProxyMembershipID client, Object key) {
+    CacheClientProxy proxy = getClientProxy(client);
+    if (proxy != null) {
+      proxy.recordNearCacheRead(key);
+      nearCacheProxies.add(proxy);
+    }
+  }
+
   Set<ClientProxyMembershipID> getFilterClientIDs(final InternalCacheEvent event,
       final FilterProfile regionProfile,
       final FilterInfo filterInfo,
@@ -1482,6 +1541,7 @@ public class CacheClientNotifier {
   void removeClientProxy(CacheClientProxy proxy) {
     ClientProxyMembershipID client = proxy.getProxyID();
     _clientProxies.remove(client);
+    nearCacheProxies.remove(proxy);
     _connectionListener.queueRemoved();
     getCache().cleanupForClient(this, client);
     if (!(proxy.clientConflation == Handshake.CONFLATION_ON)) {
@@ -1907,6 +1967,11 @@ public class CacheClientNotifier {
   private final Set<ClientProxyMembershipID> timedOutDurableClientProxies =
       new HashSet<>();
 
+  /**
+   * The proxies of the clients that read keys through their near cache from this server
+   */
+  private final Set<CacheClientProxy> nearCacheProxies = ConcurrentHashMap.newKeySet();
+
   /**
    * The GemFire {@code InternalCache}. Note that since this is a singleton class you should
    * not use a direct reference to cache in CacheClientNotifier code. Instead, you should always use
@@ -53,6 +53,7 @@ import org.apache.geode.cache.InterestResultPolicy;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.RegionExistsException;
+import org.apache.geode.cache.client.internal.NearCache;
 import org.apache.geode.cache.client.internal.RegisterInterestTracker;
 import org.apache.geode.cache.operations.DestroyOperationContext;
 import org.apache.geode.cache.operations.InvalidateOperationContext;
@@ -191,6 +192,26 @@ public class CacheClientProxy implements ClientSession {
   protected static final int MAXIMUM_SHUTDOWN_PEEKS = Integer
       .getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAXIMUM_SHUTDOWN_PEEKS", 50).intValue();
 
+  /**
+   * The maximum number of queued messages the dispatcher of a non durable client writes to its
+   * socket at once. The messages available in the queue are written to the socket buffer one after
+   * the other and flushed together, rather than flushing each message on its own.
+   */
+  @MutableForTesting
+  public static int DISPATCH_BATCH_SIZE = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "CacheClientProxy.DISPATCH_BATCH_SIZE", 1);
+
+  /**
+   * The number of bits of each of the two generations of the filter of the keys a client read
+   * through its near cache.
+   */
+  @MutableForTesting
+  public static int NEAR_CACHE_FILTER_BITS = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "CacheClientProxy.NEAR_CACHE_FILTER_BITS", 1 << 18);
+
+  /** The keys the client may hold in its near cache, created by its first read through it */
+  private final AtomicReference<NearCacheKeyFilter> nearCacheKeyFilter = new AtomicReference<>();
+
   /**
    * The number of milliseconds to wait for an offering to the message queue
    */
@@ -1804,6 +1825,28 @@ public class CacheClientProxy implements ClientSession {
     this.isPrimary = isPrimary;
   }
 
+  /**
+   * Records that the client read the given key through its near cache, so that it is sent an
+   * invalidation when the key changes.
+   */
+  void recordNearCacheRead(Object key) {
+    NearCacheKeyFilter filter = this.nearCacheKeyFilter.get();
+    if (filter == null) {
+      this.nearCacheKeyFilter.compareAndSet(null,
+          new NearCacheKeyFilter(NEAR_CACHE_FILTER_BITS, NearCache.TIME_TO_LIVE));
+      filter = this.nearCacheKeyFilter.get();
+    }
+    filter.add(key);
+  }
+
+  /**
+   * Returns whether the client may hold the given key in its near cache
+   */
+  boolean mayHaveNearCached(Object key) {
+    NearCacheKeyFilter filter = this.nearCacheKeyFilter.get();
+    return filter != null && filter.mightContain(key);
+  }
+
   /*
    * Return this client's HA region queue
    *
@@ -2467,6 +2510,25 @@ public class CacheClientProxy implements ClientSession {
             }
             waitForResumption();
           }
+          if (DISPATCH_BATCH_SIZE > 1 && !getProxy().isDurable()
+              && this._messageQueue.size() > 1) {
+            List batch;
+            try {
+              batch = this._messageQueue.peek(DISPATCH_BATCH_SIZE, -1);
+            } catch (RegionDestroyedException skipped) {
+              break;
+            }
+            getStatistics().setQueueSize(this._messageQueue.size());
+            if (isStopped()) {
+              break;
+            }
+            if (!batch.isEmpty()) {
+              if (dispatchBatch(batch)) {
+                this._messageQueue.remove();
+              }
+              continue;
+            }
+          }
           try {
             clientMessage = (ClientMessage) this._messageQueue.peek();
           } catch (RegionDestroyedException skipped) {
@@ -2682,6 +2744,46 @@ public class CacheClientProxy implements ClientSession {
      *
      */
     protected boolean dispatchMessage(ClientMessage clientMessage) throws IOException {
+      return dispatchMessage(clientMessage, false);
+    }
+
+    /**
+     * Sends a batch of messages peeked from the queue to the client, writing them to the socket
+     * at once.
+     *
+     * @return true if all the messages of the batch were dispatched
+     */
+    private boolean dispatchBatch(List batch) throws IOException {
+      this.socketWriteLock.lock();
+      try {
+        getCommBuffer().clear();
+        boolean isDispatched = true;
+        try {
+          for (Object event : batch) {
+            ClientMessage clientMessage = (ClientMessage) event;
+            long start = getStatistics().startTime();
+            if (!dispatchMessage(clientMessage, true)) {
+              isDispatched = false;
+              break;
+            }
+            getStatistics().endMessage(start);
+            if (clientMessage instanceof ClientMarkerMessageImpl) {
+              getProxy().markerEnqueued = false;
+            }
+          }
+        } finally {
+          Message flush = new Message(0, Version.CURRENT);
+          flush.setComms(getSocket(), getCommBuffer(), getStatistics());
+          flush.flushBatch();
+        }
+        return isDispatched;
+      } finally {
+        this.socketWriteLock.unlock();
+      }
+    }
+
+    private boolean dispatchMessage(ClientMessage clientMessage, boolean inBatch)
+        throws IOException {
       boolean isDispatched = false;
       if (logger.isTraceEnabled(LogMarker.BRIDGE_SERVER_VERBOSE)) {
         logger.trace(LogMarker.BRIDGE_SERVER_VERBOSE, "Dispatching {}", clientMessage);
@@ -2705,7 +2807,8 @@ public class CacheClientProxy implements ClientSession {
           logger.trace(msg.toString());
         }
 
-        message = ((ClientUpdateMessageImpl) clientMessage).getMessage(getProxy(), latestValue);
+        message = ((ClientUpdateMessageImpl) clientMessage).getMessage(getProxy(), latestValue,
+            this._messageQueue.canSendConflatedDelta(clientMessage.getEventId()));
 
         if (AFTER_MESSAGE_CREATION_FLAG) {
           ClientServerObserver bo = ClientServerObserverHolder.getInstance();
@@ -2716,7 +2819,7 @@ public class CacheClientProxy implements ClientSession {
       }
 
       if (!this._proxy.isPaused()) {
-        sendMessage(message);
+        sendMessage(message, inBatch);
 
         if (logger.isTraceEnabled()) {
           logger.trace("{}: Dispatched {}", this, clientMessage);
@@ -2734,13 +2837,21 @@ public class CacheClientProxy implements ClientSession {
     }
 
     private void sendMessage(Message message) throws IOException {
+      sendMessage(message, false);
+    }
+
+    private void sendMessage(Message message, boolean inBatch) throws IOException {
       if (message == null) {
         return;
       }
       this.socketWriteLock.lock();
       try {
         message.setComms(getSocket(), getCommBuffer(), getStatistics());
-        message.send();
+        if (inBatch) {
+          message.sendInBatch();
+        } else {
+          message.send();
+        }
         getProxy().resetPingCounter();
       } finally {
         this.socketWriteLock.unlock();
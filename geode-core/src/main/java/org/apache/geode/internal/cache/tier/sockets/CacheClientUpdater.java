@@ -33,7 +33,9 @@ import javax.net.ssl.SSLException;
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.CancelException;
+import org.apache.geode.CopyHelper;
 import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
 import org.apache.geode.InvalidDeltaException;
 import org.apache.geode.StatisticDescriptor;
 import org.apache.geode.Statistics;
@@ -50,8 +52,10 @@ import org.apache.geode.cache.client.internal.ClientUpdater;
 import org.apache.geode.cache.client.internal.Endpoint;
 import org.apache.geode.cache.client.internal.EndpointManager;
 import org.apache.geode.cache.client.internal.GetEventValueOp;
+import org.apache.geode.cache.client.internal.NearCache;
 import org.apache.geode.cache.client.internal.PoolImpl;
 import org.apache.geode.cache.client.internal.QueueManager;
+import org.apache.geode.cache.client.internal.ServerRegionProxy;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.distributed.DistributedSystem;
 import org.apache.geode.distributed.internal.DistributionConfig;
@@ -63,6 +67,7 @@ import org.apache.geode.distributed.internal.membership.InternalDistributedMembe
 import org.apache.geode.internal.Assert;
 import org.apache.geode.internal.InternalDataSerializer;
 import org.apache.geode.internal.InternalInstantiator;
+import org.apache.geode.internal.cache.CachedDeserializable;
 import org.apache.geode.internal.cache.ClientServerObserver;
 import org.apache.geode.internal.cache.ClientServerObserverHolder;
 import org.apache.geode.internal.cache.EntryEventImpl;
@@ -70,11 +75,14 @@ import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.tier.CachedRegionHelper;
 import org.apache.geode.internal.cache.tier.ClientSideHandshake;
 import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.cache.versions.ConcurrentCacheModificationException;
 import org.apache.geode.internal.cache.versions.VersionSource;
+import org.apache.geode.internal.cache.versions.VersionStamp;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.logging.InternalLogWriter;
 import org.apache.geode.internal.logging.log4j.LogMarker;
@@ -653,6 +661,7 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
       }
 
       LocalRegion region = (LocalRegion) this.cacheHelper.getRegion(regionName);
+      invalidateNearCache(region, key);
 
       Object newValue = null;
       byte[] deltaBytes = null;
@@ -738,6 +747,12 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
         }
       }
 
+      // A delta not applied to the region above may still be applied to the local value it was
+      // computed from, sparing the CQ listeners a request for the full value
+      if (withCQs && isDeltaSent && fullValue == null && region != null) {
+        fullValue = applyDeltaToLocalValue(region, key, deltaBytes, versionTag);
+      }
+
       // Update CQs. CQs can exist without client region.
       if (withCQs) {
         Part numCqsPart = clientMessage.getPart(partCnt++);
@@ -758,6 +773,55 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
     }
   }
 
+  /**
+   * Returns a copy of the local value of the given key with the given delta applied, or null if the
+   * local entry is not the version the delta was computed from. The region itself is not updated.
+   */
+  static Object applyDeltaToLocalValue(LocalRegion region, Object key, byte[] deltaBytes,
+      VersionTag versionTag) {
+    if (versionTag == null) {
+      return null;
+    }
+    RegionEntry entry = region.getRegionEntry(key);
+    if (entry == null) {
+      return null;
+    }
+    VersionStamp stamp = entry.getVersionStamp();
+    if (stamp == null) {
+      return null;
+    }
+    int baseVersion = stamp.getEntryVersion();
+    if (baseVersion != versionTag.getEntryVersion() - 1) {
+      return null;
+    }
+    Object baseMember = stamp.getMemberID();
+    Object previousMember = versionTag.getPreviousMemberID();
+    if (baseMember != null && previousMember != null && !baseMember.equals(previousMember)) {
+      return null;
+    }
+    Object value = entry.getValue(region);
+    if (value == null || Token.isInvalidOrRemoved(value)) {
+      return null;
+    }
+    try {
+      if (value instanceof CachedDeserializable) {
+        value = ((CachedDeserializable) value).getDeserializedWritableCopy(region, entry);
+      } else {
+        value = CopyHelper.copy(value);
+      }
+      if (!(value instanceof Delta) || stamp.getEntryVersion() != baseVersion) {
+        return null;
+      }
+      ((Delta) value).fromDelta(new ByteArrayDataInput(deltaBytes));
+    } catch (RuntimeException | IOException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not apply delta to the local value of key {}: {}", key, e);
+      }
+      return null;
+    }
+    return value;
+  }
+
   private Part requestFullValue(EventID eventId, String reason) throws Exception {
     if (isUsedByTest) {
       fullValueRequested = true;
@@ -826,6 +890,7 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
       }
 
       LocalRegion region = (LocalRegion) this.cacheHelper.getRegion(regionName);
+      invalidateNearCache(region, key);
       if (region == null) {
         if (isDebugEnabled && !quitting()) {
           logger.debug("Region named {} does not exist", regionName);
@@ -931,6 +996,7 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
       }
 
       LocalRegion region = (LocalRegion) this.cacheHelper.getRegion(regionName);
+      invalidateNearCache(region, key);
       if (region == null) {
         if (isDebugEnabled && !quitting()) {
           logger.debug("Region named {} does not exist", regionName);
@@ -1031,6 +1097,7 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
         }
         return;
       }
+      invalidateNearCache(region, null);
 
       // Verify that the region in question should respond to this message
       if (region.hasServerProxy()) {
@@ -1099,6 +1166,7 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
         }
         return;
       }
+      invalidateNearCache(region, null);
 
       // Verify that the region in question should respond to this
       // message
@@ -1161,6 +1229,8 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
         if (isDebugEnabled && !quitting()) {
           logger.debug("Region named {} does not exist", regionName);
         }
+      } else {
+        invalidateNearCache(region, null);
       }
 
     } catch (Exception e) {
@@ -1171,6 +1241,22 @@ public class CacheClientUpdater extends LoggingThread implements ClientUpdater,
     }
   }
 
+  /**
+   * Removes the given key from the near cache of the given region, or clears the near cache if the
+   * key is null.
+   */
+  private static void invalidateNearCache(LocalRegion region, Object key) {
+    ServerRegionProxy proxy = region == null ? null : region.getServerProxy();
+    NearCache nearCache = proxy == null ? null : proxy.getNearCache();
+    if (nearCache != null) {
+      if (key == null) {
+        nearCache.clear();
+      } else {
+        nearCache.invalidate(key);
+      }
+    }
+  }
+
   /**
    * Register instantiators locally
    *
@@ -51,6 +51,7 @@ import org.apache.geode.internal.serialization.DeserializationContext;
 import org.apache.geode.internal.serialization.SerializationContext;
 import org.apache.geode.internal.serialization.Version;
 import org.apache.geode.internal.size.Sizeable;
+import org.apache.geode.internal.util.BlobHelper;
 import org.apache.geode.logging.internal.log4j.api.LogService;
 
 
@@ -148,6 +149,12 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
 
   private VersionTag versionTag;
 
+  /**
+   * The serialized parts of the messages to the clients of the last version this message was
+   * dispatched to that are the same for all of them.
+   */
+  private transient volatile SharedParts sharedParts;
+
   /* added up all constants and form single value */
   private static final int CONSTANT_MEMORY_OVERHEAD;
 
@@ -359,12 +366,33 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
    */
 
   protected Message getMessage(CacheClientProxy proxy, byte[] latestValue) throws IOException {
+    return createMessage(proxy, latestValue, false);
+  }
+
+  /**
+   * Returns a <code>Message</code> generated from the fields of this
+   * <code>ClientUpdateMessage</code>.
+   *
+   * @param latestValue Object containing the latest value to use
+   * @param conflatedDelta true if the delta of this update can be sent even though conflation is
+   *        enabled, because no older queued update of its key was conflated away
+   */
+  Message getMessage(CacheClientProxy proxy, byte[] latestValue, boolean conflatedDelta)
+      throws IOException {
+    if (conflatedDelta && this.deltaBytes != null) {
+      return createMessage(proxy, latestValue, true);
+    }
+    return getMessage(proxy, latestValue);
+  }
+
+  private Message createMessage(CacheClientProxy proxy, byte[] latestValue,
+      boolean conflatedDelta) throws IOException {
     Version clientVersion = proxy.getVersion();
     byte[] serializedValue = null;
     Message message = null;
     boolean conflation = false;
-    conflation = (proxy.clientConflation == Handshake.CONFLATION_ON)
-        || (proxy.clientConflation == Handshake.CONFLATION_DEFAULT && this.shouldBeConflated());
+    conflation = !conflatedDelta && ((proxy.clientConflation == Handshake.CONFLATION_ON)
+        || (proxy.clientConflation == Handshake.CONFLATION_DEFAULT && this.shouldBeConflated()));
 
     if (latestValue != null) {
       serializedValue = latestValue;
@@ -841,6 +869,10 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     if (clientHasCq) {
       cqMsgParts = (this.getCqs(proxyId).length * 2) + 1;
     }
+    if ((isCreate() || isUpdate()) && this.versionTag != null) {
+      this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
+    }
+    SharedParts sharedParts = getSharedParts(clientVersion);
 
     if (isCreate() || isUpdate()) {
       // Create or update event
@@ -853,21 +885,21 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message = getMessage(7 + cqMsgParts, clientVersion);
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
         message.addStringPart(this._regionName, true);
-        message.addStringOrObjPart(this._keyOfInterest);
+        sharedParts.addKeyPart(message, this._keyOfInterest);
       } else {
         // Notify by subscription - send the value
         message = getMessage(9 + cqMsgParts, clientVersion);
         if (isCreate()) {
           message.setMessageType(MessageType.LOCAL_CREATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          sharedParts.addKeyPart(message, this._keyOfInterest);
           message.addObjPart(Boolean.FALSE); // NO delta
           // Add the value (which has already been serialized)
           message.addRawPart(latestValue, (this._valueIsObject == 0x01));
         } else {
           message.setMessageType(MessageType.LOCAL_UPDATE);
           message.addStringPart(this._regionName, true);
-          message.addStringOrObjPart(this._keyOfInterest);
+          sharedParts.addKeyPart(message, this._keyOfInterest);
 
           if (this.deltaBytes != null && !conflation && !proxy.isMarkerEnqueued()
               && !proxy.getRegionsWithEmptyDataPolicy().containsKey(_regionName)) {
@@ -888,11 +920,8 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         }
       }
 
-      message.addObjPart(this._callbackArgument);
-      if (this.versionTag != null) {
-        this.versionTag.setCanonicalIDs(proxy.getCache().getDistributionManager());
-      }
-      message.addObjPart(this.versionTag);
+      sharedParts.addCallbackArgumentPart(message, this._callbackArgument);
+      sharedParts.addVersionTagPart(message, this.versionTag);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -915,9 +944,9 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
         message.setMessageType(MessageType.LOCAL_INVALIDATE);
       }
       message.addStringPart(this._regionName, true);
-      message.addStringOrObjPart(this._keyOfInterest);
-      message.addObjPart(this._callbackArgument);
-      message.addObjPart(this.versionTag);
+      sharedParts.addKeyPart(message, this._keyOfInterest);
+      sharedParts.addCallbackArgumentPart(message, this._callbackArgument);
+      sharedParts.addVersionTagPart(message, this.versionTag);
       message.addObjPart(Boolean.valueOf(isClientInterested(proxyId)));
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
@@ -933,7 +962,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.LOCAL_DESTROY_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message, this._callbackArgument);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -943,7 +972,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.CLEAR_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message, this._callbackArgument);
       message.addObjPart(Boolean.valueOf(clientHasCq));
 
       if (clientHasCq) {
@@ -953,7 +982,7 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
       message = getMessage(4 + cqMsgParts, clientVersion);
       message.setMessageType(MessageType.INVALIDATE_REGION);
       message.addStringPart(this._regionName, true);
-      message.addObjPart(this._callbackArgument);
+      sharedParts.addCallbackArgumentPart(message, this._callbackArgument);
 
       // Add CQ status.
       message.addObjPart(Boolean.valueOf(clientHasCq));
@@ -968,10 +997,89 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     message.setTransactionId(0);
     // Add the EventId since 5.1 (used to prevent duplicate events
     // received on the client side after a failover)
-    message.addObjPart(this._eventIdentifier);
+    sharedParts.addEventIdentifierPart(message, this._eventIdentifier);
     return message;
   }
 
+  /**
+   * Returns the parts of the messages to the clients of the given version that are the same for
+   * all of them, so that they are serialized once per event rather than once per client.
+   */
+  private SharedParts getSharedParts(Version clientVersion) throws IOException {
+    SharedParts parts = this.sharedParts;
+    if (parts == null || !parts.version.equals(clientVersion)) {
+      parts = new SharedParts(clientVersion, this._keyOfInterest, this._callbackArgument,
+          this.versionTag, this._eventIdentifier);
+      this.sharedParts = parts;
+    }
+    return parts;
+  }
+
+  /**
+   * The key, callback argument, version tag and event id of this message serialized for the
+   * clients of a version. A part is null if the message adds its object without serializing it.
+   */
+  private static class SharedParts {
+
+    private final Version version;
+
+    private final byte[] key;
+
+    private final byte[] callbackArgument;
+
+    private final byte[] versionTag;
+
+    private final byte[] eventIdentifier;
+
+    SharedParts(Version version, Object key, Object callbackArgument, VersionTag versionTag,
+        EventID eventIdentifier) throws IOException {
+      this.version = version;
+      this.key = key instanceof String ? null : serialize(key, version);
+      this.callbackArgument = serialize(callbackArgument, version);
+      this.versionTag = serialize(versionTag, version);
+      this.eventIdentifier = serialize(eventIdentifier, version);
+    }
+
+    /**
+     * Serializes the object as {@link Message#addObjPart(Object)} does, or returns null if it adds
+     * the object as it is.
+     */
+    private static byte[] serialize(Object object, Version version) throws IOException {
+      if (object == null || object instanceof byte[] || object instanceof Boolean) {
+        return null;
+      }
+      return BlobHelper.serializeToBlob(object, version.equals(Version.CURRENT) ? null : version);
+    }
+
+    void addKeyPart(Message message, Object key) {
+      if (this.key != null) {
+        message.addRawPart(this.key, true);
+      } else {
+        message.addStringOrObjPart(key);
+      }
+    }
+
+    void addCallbackArgumentPart(Message message, Object callbackArgument) {
+      addObjPart(message, callbackArgument, this.callbackArgument);
+    }
+
+    void addVersionTagPart(Message message, VersionTag versionTag) {
+      addObjPart(message, versionTag, this.versionTag);
+    }
+
+    void addEventIdentifierPart(Message message, EventID eventIdentifier) {
+      addObjPart(message, eventIdentifier, this.eventIdentifier);
+    }
+
+    private static void addObjPart(Message message, Object object, byte[] serialized) {
+      if (serialized != null) {
+        message.addRawPart(serialized, true);
+      } else {
+        message.addObjPart(object);
+      }
+    }
+  }
+
   private static final ThreadLocal<Map<Integer, Message>> CACHED_MESSAGES =
       new ThreadLocal<Map<Integer, Message>>() {
         @Override
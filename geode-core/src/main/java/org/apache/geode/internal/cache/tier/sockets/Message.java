@@ -561,6 +561,15 @@ public class Message {
    * Sends this message out on its socket.
    */
   void sendBytes(boolean clearMessage) throws IOException {
+    sendBytes(clearMessage, true);
+  }
+
+  /**
+   * Writes this message to its socket. If {@code flush} is false the message is written to the comm
+   * buffer after the bytes already in it, and the buffer is only written to the socket once full,
+   * see {@link #sendInBatch()}.
+   */
+  private void sendBytes(boolean clearMessage, boolean flush) throws IOException {
     if (this.serverConnection != null) {
       // Keep track of the fact that we are making progress.
       this.serverConnection.updateProcessingMessage();
@@ -606,7 +615,11 @@ public class Message {
               + ") exceeds gemfire.client.max-message-size setting (" + this.maxMessageSize + ")");
         }
 
-        commBuffer.clear();
+        if (flush) {
+          commBuffer.clear();
+        } else if (commBuffer.remaining() < FIXED_LENGTH) {
+          flushBuffer();
+        }
         packHeaderInfoForSending(msgLen, securityPart != null);
         for (int i = 0; i < partsToTransmit; i++) {
           Part part = i == this.numberOfParts ? securityPart : this.partsList[i];
@@ -632,13 +645,15 @@ public class Message {
             }
           }
         }
-        if (commBuffer.position() != 0) {
-          flushBuffer();
+        if (flush) {
+          if (commBuffer.position() != 0) {
+            flushBuffer();
+          }
+          if (this.socketChannel == null) {
+            this.outputStream.flush();
+          }
         }
         this.messageModified = false;
-        if (this.socketChannel == null) {
-          this.outputStream.flush();
-        }
       }
     } finally {
       if (clearMessage) {
@@ -1128,6 +1143,33 @@ public class Message {
     sendBytes(clearMessage);
   }
 
+  /**
+   * Sends this message as one of a batch of messages written to the socket at once. The message is
+   * written to the comm buffer after the messages of the batch sent before it, the buffer being
+   * written to the socket only when full, until {@link #flushBatch()} is called. The comm buffer
+   * must not be used for anything else until then.
+   */
+  public void sendInBatch() throws IOException {
+    sendBytes(true, false);
+  }
+
+  /**
+   * Writes the messages sent with {@link #sendInBatch()} still in the comm buffer to the socket.
+   */
+  public void flushBatch() throws IOException {
+    if (this.socket == null) {
+      throw new IOException("Dead Connection");
+    }
+    synchronized (getCommBuffer()) {
+      if (getCommBuffer().position() != 0) {
+        flushBuffer();
+      }
+      if (this.socketChannel == null) {
+        this.outputStream.flush();
+      }
+    }
+  }
+
   /**
    * Read a message, populating the state of this {@code Message} with information received via its
    * socket
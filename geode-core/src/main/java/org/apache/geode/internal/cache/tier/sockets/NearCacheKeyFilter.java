@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * The keys a client may hold in its near cache, kept as a Bloom filter of the keys it read through
+ * its near cache from this server. A key is remembered for at least the given period after it was
+ * read, which is as long as the client keeps the value. The filter is made of two generations, and
+ * the older one is dropped once per period. A false positive only sends the client an invalidation
+ * it did not need.
+ */
+class NearCacheKeyFilter {
+
+  private static final int HASHES = 3;
+
+  private final int mask;
+
+  private final long period;
+
+  private final LongSupplier clock;
+
+  private volatile AtomicLongArray current;
+
+  private volatile AtomicLongArray previous;
+
+  private volatile long nextRotation;
+
+  NearCacheKeyFilter(int bits, long period) {
+    this(bits, period, System::currentTimeMillis);
+  }
+
+  NearCacheKeyFilter(int bits, long period, LongSupplier clock) {
+    int size = Integer.highestOneBit(Math.max(64, Math.min(bits, 1 << 30)) - 1) << 1;
+    this.mask = size - 1;
+    this.period = period;
+    this.clock = clock;
+    this.current = new AtomicLongArray(size >>> 6);
+    this.previous = new AtomicLongArray(size >>> 6);
+    this.nextRotation = clock.getAsLong() + period;
+  }
+
+  void add(Object key) {
+    rotateIfNeeded();
+    AtomicLongArray words = current;
+    int hash = spread(key.hashCode());
+    for (int i = 0; i < HASHES; i++) {
+      int bit = indexOf(hash, i);
+      int word = bit >>> 6;
+      long bitMask = 1L << bit;
+      long value;
+      do {
+        value = words.get(word);
+      } while ((value & bitMask) == 0 && !words.compareAndSet(word, value, value | bitMask));
+    }
+  }
+
+  boolean mightContain(Object key) {
+    rotateIfNeeded();
+    int hash = spread(key.hashCode());
+    return contains(current, hash) || contains(previous, hash);
+  }
+
+  private boolean contains(AtomicLongArray words, int hash) {
+    for (int i = 0; i < HASHES; i++) {
+      int bit = indexOf(hash, i);
+      if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rotateIfNeeded() {
+    long now = clock.getAsLong();
+    if (now >= nextRotation) {
+      synchronized (this) {
+        if (now >= nextRotation) {
+          previous = current;
+          current = new AtomicLongArray(previous.length());
+          nextRotation = now + period;
+        }
+      }
+    }
+  }
+
+  private int indexOf(int hash, int i) {
+    int h = (hash + i * 0x9e3779b9) * 0x85ebca6b;
+    return (h ^ (h >>> 15)) & mask;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x45d9f3b;
+    return h ^ (h >>> 16);
+  }
+}
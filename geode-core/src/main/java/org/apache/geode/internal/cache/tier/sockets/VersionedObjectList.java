@@ -151,6 +151,14 @@ public class VersionedObjectList extends ObjectPartList implements Externalizabl
     this.serializeValues = serializeValues;
   }
 
+  /**
+   * Returns an empty list of the given maximum size holding the same kind of entries as this one.
+   */
+  public VersionedObjectList newEmptyList(int maxSize) {
+    return new VersionedObjectList(maxSize, this.hasKeys, this.regionIsVersioned,
+        this.serializeValues);
+  }
+
   /**
    * replace null membership IDs in version tags with the given member ID. VersionTags received from
    * a server may have null IDs because they were operations performed by that server. We transmit
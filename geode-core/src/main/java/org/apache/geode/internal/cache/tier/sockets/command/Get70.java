@@ -18,6 +18,7 @@ import java.io.IOException;
 
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionAttributes;
 import org.apache.geode.cache.client.internal.GetOp;
 import org.apache.geode.cache.operations.GetOperationContext;
 import org.apache.geode.cache.operations.internal.GetOperationContextImpl;
@@ -81,10 +82,12 @@ public class Get70 extends BaseCommand {
     regionNamePart = clientMessage.getPart(0);
     keyPart = clientMessage.getPart(1);
     // valuePart = null; (redundant assignment)
+    boolean nearCacheRead = false;
     if (parts > 2) {
       valuePart = clientMessage.getPart(2);
       try {
         callbackArg = valuePart.getObject();
+        nearCacheRead = parts > 3 && Boolean.TRUE.equals(clientMessage.getPart(3).getObject());
       } catch (Exception e) {
         writeException(clientMessage, e, false, serverConnection);
         // responded = true;
@@ -147,6 +150,16 @@ public class Get70 extends BaseCommand {
       return;
     }
 
+    // Record a read through the client's near cache before reading the value, so that any
+    // change to the value that is not seen by the read sends the client an invalidation.
+    // Regions that do not see every change made to them cannot send those invalidations, and
+    // the client is told that the read was not recorded.
+    nearCacheRead = nearCacheRead && seesAllChanges(region);
+    if (nearCacheRead) {
+      serverConnection.getAcceptor().getCacheClientNotifier()
+          .recordNearCacheRead(serverConnection.getProxyID(), key);
+    }
+
     // Get the value and update the statistics. Do not deserialize
     // the value if it is a byte[].
     Entry entry;
@@ -205,11 +218,11 @@ public class Get70 extends BaseCommand {
           pr.clearNetworkHopData();
         } else {
           writeResponse(data, callbackArg, clientMessage, isObject, versionTag, keyNotPresent,
-              serverConnection);
+              false, serverConnection);
         }
       } else {
         writeResponse(data, callbackArg, clientMessage, isObject, versionTag, keyNotPresent,
-            serverConnection);
+            nearCacheRead, serverConnection);
       }
     } finally {
       OffHeapHelper.release(originalData);
@@ -396,9 +409,19 @@ public class Get70 extends BaseCommand {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns whether every change made to the region is applied in this member, and so seen by its
+   * cache servers. Partitioned regions and regions that do not replicate their data only see the
+   * changes to the entries they host.
+   */
+  private static boolean seesAllChanges(Region region) {
+    RegionAttributes attributes = region.getAttributes();
+    return attributes.getDataPolicy().withReplication() || attributes.getScope().isLocal();
+  }
+
   private void writeResponse(@Unretained Object data, Object callbackArg, Message origMsg,
-      boolean isObject, VersionTag versionTag, boolean keyNotPresent, ServerConnection servConn)
-      throws IOException {
+      boolean isObject, VersionTag versionTag, boolean keyNotPresent,
+      boolean nearCacheReadRecorded, ServerConnection servConn) throws IOException {
     Message responseMsg = servConn.getResponseMessage();
     responseMsg.setMessageType(MessageType.RESPONSE);
     responseMsg.setTransactionId(origMsg.getTransactionId());
@@ -419,6 +442,9 @@ public class Get70 extends BaseCommand {
     } else if (data == null && isObject) {
       flags |= GetOp.VALUE_IS_INVALID;
     }
+    if (nearCacheReadRecorded) {
+      flags |= GetOp.NEAR_CACHE_READ_RECORDED;
+    }
     // logger.debug("returning flags " + Integer.toBinaryString(flags));
 
     responseMsg.setNumberOfParts(numParts);
@@ -66,6 +66,31 @@ public class SystemPropertyHelper {
 
   public static final String THREAD_ID_EXPIRY_TIME_PROPERTY = "threadIdExpiryTime";
 
+  /**
+   * When set, the events put in a client subscription queue while its lock is held by another
+   * thread are handed to that thread instead of waiting for the lock.
+   */
+  public static final String HA_REGION_QUEUE_DEFER_PUBLISH_PROPERTY = "HARegionQueue.deferPublish";
+
+  /**
+   * The number of overflowed events following the one being dispatched from a client subscription
+   * queue that are read back from disk ahead of time.
+   */
+  public static final String HA_REGION_QUEUE_PREFETCH_SIZE_PROPERTY = "HARegionQueue.prefetchSize";
+
+  /**
+   * The maximum number of threads that prefetch overflowed events for client subscription queues.
+   */
+  public static final String HA_REGION_QUEUE_PREFETCH_THREADS_PROPERTY =
+      "HARegionQueue.prefetchThreads";
+
+  /**
+   * When set, the updates dispatched to clients with conflation enabled keep their delta unless
+   * they replaced an older queued update of their key.
+   */
+  public static final String HA_REGION_QUEUE_DELTA_CONFLATION_PROPERTY =
+      "HARegionQueue.deltaConflation";
+
   public static final String PERSISTENT_VIEW_RETRY_TIMEOUT_SECONDS =
       "PERSISTENT_VIEW_RETRY_TIMEOUT_SECONDS";
 
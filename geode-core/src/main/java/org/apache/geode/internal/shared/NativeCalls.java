@@ -287,6 +287,16 @@ public abstract class NativeCalls {
     }
   }
 
+  /**
+   * Advises the OS that the given range of the file will not be accessed again soon so that its
+   * pages can be written back and dropped from the page cache.
+   *
+   * @return true if the advice was given, false if it is not supported on this platform
+   */
+  public boolean dropFileCache(String path, long offset, long len) {
+    return false;
+  }
+
   /**
    * This will return whether the path passed in as arg is part of a local file system or a remote
    * file system. This method is mainly used by the DiskCapacityMonitor thread and we don't want to
@@ -380,6 +380,15 @@ public class NativeCallsJNAImpl {
 
     public static native int creat64(String path, int flags) throws LastErrorException;
 
+    public static native int open64(String path, int flags) throws LastErrorException;
+
+    /** posix_fadvise returns error number rather than setting errno */
+    public static native int posix_fadvise64(int fd, long offset, long len, int advice);
+
+    static final int O_RDONLY = 0;
+
+    static final int POSIX_FADV_DONTNEED = 4;
+
     /**
      * {@inheritDoc}
      */
@@ -709,6 +718,29 @@ public class NativeCallsJNAImpl {
         throw new LastErrorException(errno);
       }
     }
+
+    @Override
+    public boolean dropFileCache(String path, long offset, long len) {
+      int fd = -1;
+      try {
+        fd = open64(path, O_RDONLY);
+        return posix_fadvise64(fd, offset, len, POSIX_FADV_DONTNEED) == 0;
+      } catch (LastErrorException le) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("posix_fadvise failed for path = " + path + " with error "
+              + le.getErrorCode());
+        }
+        return false;
+      } finally {
+        if (fd >= 0) {
+          try {
+            close(fd);
+          } catch (Exception e) {
+            // ignore
+          }
+        }
+      }
+    }
   }
 
   /**
@@ -619,6 +619,11 @@ public class PdxInstanceImpl extends PdxReaderImpl implements InternalPdxInstanc
     return super.readField(fieldName);
   }
 
+  @Override
+  public synchronized Object readField(PdxField ft) {
+    return super.readField(ft);
+  }
+
   @Override
   protected synchronized Object basicGetObject() {
     DMStats stats = InternalDataSerializer.getDMStats(null);
@@ -661,6 +666,14 @@ public class PdxInstanceImpl extends PdxReaderImpl implements InternalPdxInstanc
     return getUnmodifiableReader(fieldName).readRawField(fieldName);
   }
 
+  /**
+   * Same as {@link #getRawField(String)} for a field of this instance's {@link PdxType} that the
+   * caller has already looked up, so the field is not resolved by name again.
+   */
+  public Object getRawField(PdxField field) {
+    return getUnmodifiableReader(field.getFieldName()).readRawField(field);
+  }
+
   @Override
   public boolean isDeserializable() {
     if (this.getClassName().equals(JSONFormatter.JSON_CLASSNAME)) {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.apache.geode.internal.cache.PoolStats;
+import org.apache.geode.internal.util.BlobHelper;
+
+public class NearCacheTest {
+  private final PoolStats stats = mock(PoolStats.class);
+  private final Object primary = new Object();
+  private long now;
+  private final NearCache nearCache = new NearCache(2, 100, stats, () -> now);
+
+  @Test
+  public void returnsCachedValueUntilItExpires() {
+    read("key", "value");
+
+    assertThat(nearCache.get("key", primary)).isEqualTo("value");
+    now = 100;
+    assertThat(nearCache.get("key", primary)).isNull();
+    verify(stats).incNearCacheHits();
+    verify(stats, times(2)).incNearCacheMisses();
+  }
+
+  @Test
+  public void returnsCopyOfCachedValueToEachGet() {
+    List<String> value = new ArrayList<>();
+    value.add("element");
+    read("key", value);
+
+    Object first = nearCache.get("key", primary);
+    ((List<?>) first).clear();
+
+    assertThat(nearCache.get("key", primary)).isNotSameAs(first).isEqualTo(value);
+  }
+
+  @Test
+  public void doesNotCacheValueInvalidatedWhileItWasRead() {
+    assertThat(nearCache.get("key", primary)).isNull();
+    NearCache.Read read = beginRead("key", "value", true);
+    nearCache.invalidate("key");
+
+    assertThat(nearCache.put("key", "value", read)).isFalse();
+    assertThat(nearCache.get("key", primary)).isNull();
+  }
+
+  @Test
+  public void cachesValueWhenAnotherKeyIsInvalidatedWhileItIsRead() {
+    assertThat(nearCache.get("key", primary)).isNull();
+    NearCache.Read read = beginRead("key", "value", true);
+    nearCache.invalidate("otherKey");
+
+    assertThat(nearCache.put("key", "value", read)).isTrue();
+  }
+
+  @Test
+  public void disablesItselfWhenServerDoesNotRecordRead() {
+    assertThat(nearCache.get("key", primary)).isNull();
+
+    assertThat(nearCache.put("key", "value", beginRead("key", "value", false))).isFalse();
+    assertThat(nearCache.isEnabled()).isFalse();
+  }
+
+  @Test
+  public void clearsWhenPrimaryChanges() {
+    read("key", "value");
+
+    assertThat(nearCache.get("key", new Object())).isNull();
+    assertThat(nearCache.size()).isZero();
+  }
+
+  @Test
+  public void admitsKeyOnlyIfReadMoreOftenThanLeastRecentlyUsedKey() {
+    read("key1", "value1");
+    read("key2", "value2");
+    nearCache.get("key1", primary);
+
+    assertThat(read("key3", "value3")).isFalse();
+
+    for (int i = 0; i < 3; i++) {
+      nearCache.get("key4", primary);
+    }
+    assertThat(read("key4", "value4")).isTrue();
+    assertThat(nearCache.get("key2", primary)).isNull();
+    assertThat(nearCache.get("key1", primary)).isEqualTo("value1");
+  }
+
+  private boolean read(Object key, Object value) {
+    nearCache.get(key, primary);
+    return nearCache.put(key, value, beginRead(key, value, true));
+  }
+
+  private NearCache.Read beginRead(Object key, Object value, boolean recorded) {
+    NearCache.Read read = nearCache.beginRead(key, primary);
+    try {
+      read.setResponse(recorded, BlobHelper.serializeToBlob(value), true);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return read;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+
+import org.junit.Test;
+
+public class MemberAccessorTest {
+
+  @Test
+  public void readsPublicGetterOfPublicClass() throws Exception {
+    assertThat(accessor(PublicBean.class.getMethod("getId")).invoke(new PublicBean(), null))
+        .isEqualTo(7);
+  }
+
+  @Test
+  public void readsPublicField() throws Exception {
+    assertThat(accessor(PublicBean.class.getField("id")).invoke(new PublicBean(), null))
+        .isEqualTo(7);
+  }
+
+  @Test
+  public void readsStaticField() throws Exception {
+    assertThat(accessor(PublicBean.class.getField("NAME")).invoke(new PublicBean(), null))
+        .isEqualTo("bean");
+  }
+
+  @Test
+  public void invokesPublicMethodOfNonPublicClass() throws Exception {
+    assertThat(accessor(PrivateBean.class.getMethod("getId")).invoke(new PrivateBean(), null))
+        .isEqualTo(8);
+  }
+
+  @Test
+  public void invokesMethodWithArguments() throws Exception {
+    MemberAccessor accessor =
+        accessor(PrivateBean.class.getMethod("concat", String.class, Integer.class));
+
+    assertThat(accessor.invoke(new PrivateBean(), new Object[] {"a", 1})).isEqualTo("a1");
+  }
+
+  @Test
+  public void invokesVoidMethod() throws Exception {
+    assertThat(accessor(PublicBean.class.getMethod("reset")).invoke(new PublicBean(), null))
+        .isNull();
+  }
+
+  @Test
+  public void invokesStaticMethod() throws Exception {
+    assertThat(accessor(PublicBean.class.getMethod("count")).invoke(new PublicBean(), null))
+        .isEqualTo(3L);
+  }
+
+  @Test
+  public void wrapsExceptionThrownByMethod() throws Exception {
+    MemberAccessor accessor = accessor(PublicBean.class.getMethod("fail"));
+
+    assertThatThrownBy(() -> accessor.invoke(new PublicBean(), null))
+        .isInstanceOf(InvocationTargetException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  private static MemberAccessor accessor(Member member) {
+    ((AccessibleObject) member).setAccessible(true);
+    return MemberAccessor.create(member);
+  }
+
+  @SuppressWarnings("unused")
+  public static class PublicBean {
+    public static final String NAME = "bean";
+    public final int id = 7;
+
+    public int getId() {
+      return id;
+    }
+
+    public void reset() {}
+
+    public static long count() {
+      return 3;
+    }
+
+    public String fail() {
+      throw new IllegalStateException();
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static class PrivateBean {
+    public int getId() {
+      return 8;
+    }
+
+    public String concat(String prefix, Integer suffix) {
+      return prefix + suffix;
+    }
+  }
+}
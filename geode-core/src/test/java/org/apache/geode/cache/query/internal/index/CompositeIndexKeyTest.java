@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.index.CompositeIndexKey.Bound;
+
+public class CompositeIndexKeyTest {
+
+  @Test
+  public void comparesElementByElement() throws Exception {
+    CompositeIndexKey key = CompositeIndexKey.of(new Object[] {"a", 2});
+
+    assertThat(key).isLessThan(CompositeIndexKey.of(new Object[] {"a", 3}));
+    assertThat(key).isGreaterThan(CompositeIndexKey.of(new Object[] {"a", 1L}));
+    assertThat(key).isLessThan(CompositeIndexKey.of(new Object[] {"b", 0}));
+    assertThat(key).isEqualByComparingTo(CompositeIndexKey.of(new Object[] {"a", 2.0d}));
+    assertThat(key).isEqualTo(CompositeIndexKey.of(new Object[] {"a", (short) 2}));
+    assertThat(key.hashCode())
+        .isEqualTo(CompositeIndexKey.of(new Object[] {"a", 2L}).hashCode());
+  }
+
+  @Test
+  public void sortsNullAndUndefinedBeforeValues() throws Exception {
+    CompositeIndexKey withNull = CompositeIndexKey.of(new Object[] {"a", null});
+    CompositeIndexKey withUndefined =
+        CompositeIndexKey.of(new Object[] {"a", QueryService.UNDEFINED});
+    CompositeIndexKey withValue = CompositeIndexKey.of(new Object[] {"a", 0});
+
+    assertThat(withNull).isLessThan(withUndefined);
+    assertThat(withUndefined).isLessThan(withValue);
+    assertThat(CompositeIndexKey.bound(new Object[] {"a"}, Bound.ABOVE_MISSING))
+        .isGreaterThan(withUndefined).isLessThan(withValue);
+  }
+
+  @Test
+  public void boundsEnclosePrefix() throws Exception {
+    CompositeIndexKey lowest = CompositeIndexKey.bound(new Object[] {"a"}, Bound.LOWEST);
+    CompositeIndexKey highest = CompositeIndexKey.bound(new Object[] {"a"}, Bound.HIGHEST);
+
+    for (Object value : new Object[] {null, QueryService.UNDEFINED, Integer.MIN_VALUE, "z"}) {
+      CompositeIndexKey key = CompositeIndexKey.of(new Object[] {"a", value});
+      assertThat(key).isGreaterThan(lowest).isLessThan(highest);
+    }
+    assertThat(CompositeIndexKey.of(new Object[] {"A", 1})).isLessThan(lowest);
+    assertThat(CompositeIndexKey.of(new Object[] {"b", null})).isGreaterThan(highest);
+    assertThat(CompositeIndexKey.bound(new Object[] {"a", 5}, Bound.HIGHEST))
+        .isLessThan(highest).isGreaterThan(CompositeIndexKey.of(new Object[] {"a", 5}));
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.RegionMap;
+import org.apache.geode.internal.cache.persistence.DiskStoreID;
+import org.apache.geode.internal.cache.versions.VersionStamp;
+
+public class IndexCheckpointTest {
+
+  private static final String DEFINITION = "/portfolios p|p.status|*";
+
+  private static final String STORAGE = "diskStore/1";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File file;
+  private LocalRegion region;
+  private IndexStore store;
+  private Map<Object, RegionEntry> regionEntries;
+
+  @Before
+  public void setUp() throws Exception {
+    file = new File(temporaryFolder.getRoot(), "IDXCP_portfolios_statusIndex.idxcp");
+    regionEntries = new HashMap<>();
+    RegionMap regionMap = mock(RegionMap.class);
+    when(regionMap.getEntry(any())).thenAnswer(invocation -> regionEntries.get(
+        invocation.getArgument(0)));
+    region = mock(LocalRegion.class);
+    when(region.getRegionMap()).thenReturn(regionMap);
+    store = mock(IndexStore.class);
+  }
+
+  @Test
+  public void restoresMappingsOfUnchangedEntries() throws Exception {
+    RegionEntry active1 = createEntry("key1", 1, 10);
+    RegionEntry active2 = createEntry("key2", 1, 11);
+    RegionEntry inactive = createEntry("key3", 2, 12);
+    Map<Object, Object> mappings = new TreeMap<>();
+    IndexElemArray activeEntries = new IndexElemArray();
+    activeEntries.add(active1);
+    activeEntries.add(active2);
+    mappings.put("active", activeEntries);
+    mappings.put("inactive", inactive);
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+
+    Set<RegionEntry> restored = IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store);
+
+    assertThat(restored).containsExactlyInAnyOrder(active1, active2, inactive);
+    verify(store).addMapping("active", active1);
+    verify(store).addMapping("active", active2);
+    verify(store).addMapping("inactive", inactive);
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  public void skipsEntriesWhoseVersionChanged() throws Exception {
+    RegionEntry entry = createEntry("key1", 1, 10);
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", entry);
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+    createEntry("key1", 2, 20);
+
+    Set<RegionEntry> restored = IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store);
+
+    assertThat(restored).isEmpty();
+    verify(store, never()).addMapping(any(), any());
+  }
+
+  @Test
+  public void skipsEntriesThatNoLongerExist() throws Exception {
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", createEntry("key1", 1, 10));
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+    regionEntries.clear();
+
+    assertThat(IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store)).isEmpty();
+  }
+
+  @Test
+  public void restoresNullKeyAndSkipsUndefinedKey() throws Exception {
+    RegionEntry nullEntry = createEntry("key1", 1, 10);
+    RegionEntry undefinedEntry = createEntry("key2", 1, 11);
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put(IndexManager.NULL, nullEntry);
+    mappings.put(QueryService.UNDEFINED, undefinedEntry);
+
+    long written = IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+    Set<RegionEntry> restored = IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store);
+
+    assertThat(written).isEqualTo(1);
+    assertThat(restored).containsExactly(nullEntry);
+    verify(store).addMapping(IndexManager.NULL, nullEntry);
+  }
+
+  @Test
+  public void ignoresCheckpointOfOtherDefinition() throws Exception {
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", createEntry("key1", 1, 10));
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+
+    assertThat(IndexCheckpoint.restore(file, "/portfolios p|p.id|*", STORAGE, region, store))
+        .isNull();
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  public void ignoresCheckpointOfOtherStorage() throws Exception {
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", createEntry("key1", 1, 10));
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+
+    assertThat(IndexCheckpoint.restore(file, DEFINITION, "diskStore/2", region, store)).isNull();
+    verify(store, never()).addMapping(any(), any());
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  public void skipsEntriesVersionedByOtherMember() throws Exception {
+    DiskStoreID member = new DiskStoreID(1, 2);
+    RegionEntry entry = createEntry("key1", 1, 10);
+    RegionEntry otherEntry = createEntry("key2", 1, 11);
+    when(entry.getVersionStamp().getMemberID()).thenReturn(member);
+    when(otherEntry.getVersionStamp().getMemberID()).thenReturn(member);
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", entry);
+    mappings.put("inactive", otherEntry);
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+    when(otherEntry.getVersionStamp().getMemberID()).thenReturn(new DiskStoreID(1, 3));
+
+    Set<RegionEntry> restored = IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store);
+
+    assertThat(restored).containsExactly(entry);
+  }
+
+  @Test
+  public void rejectsTruncatedCheckpoint() throws Exception {
+    Map<Object, Object> mappings = new HashMap<>();
+    mappings.put("active", createEntry("key1", 1, 10));
+    IndexCheckpoint.write(file, DEFINITION, STORAGE, mappings);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 4);
+    }
+
+    assertThatThrownBy(() -> IndexCheckpoint.restore(file, DEFINITION, STORAGE, region, store))
+        .isInstanceOf(IOException.class);
+    assertThat(file).doesNotExist();
+  }
+
+  private RegionEntry createEntry(String key, int entryVersion, long regionVersion) {
+    VersionStamp stamp = mock(VersionStamp.class);
+    when(stamp.getEntryVersion()).thenReturn(entryVersion);
+    when(stamp.getRegionVersion()).thenReturn(regionVersion);
+    RegionEntry entry = mock(RegionEntry.class);
+    when(entry.getKey()).thenReturn(key);
+    when(entry.getVersionStamp()).thenReturn(stamp);
+    regionEntries.put(key, entry);
+    return entry;
+  }
+}
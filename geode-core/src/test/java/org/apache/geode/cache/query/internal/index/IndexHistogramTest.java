@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.internal.cache.RegionEntry;
+
+public class IndexHistogramTest {
+
+  @Test
+  public void estimatesNothingBeforeEnoughKeysAreSampled() {
+    IndexHistogram histogram = new IndexHistogram();
+    for (int i = 0; i < IndexHistogram.MIN_SAMPLES - 1; i++) {
+      histogram.add(mock(RegionEntry.class), i);
+    }
+
+    assertThat(histogram.selectivity(10, OQLLexerTokenTypes.TOK_LT)).isEqualTo(-1f);
+    histogram.add(mock(RegionEntry.class), IndexHistogram.MIN_SAMPLES);
+    assertThat(histogram.selectivity(10, OQLLexerTokenTypes.TOK_LT)).isGreaterThan(0f);
+    histogram.clear();
+    assertThat(histogram.selectivity(10, OQLLexerTokenTypes.TOK_LT)).isEqualTo(-1f);
+  }
+
+  @Test
+  public void followsSkewedDistribution() {
+    IndexHistogram histogram = new IndexHistogram();
+    for (int i = 0; i < 10000; i++) {
+      histogram.add(mock(RegionEntry.class), i % 10 == 0 ? i : 5);
+    }
+
+    assertThat(histogram.selectivity(5, OQLLexerTokenTypes.TOK_LE))
+        .isCloseTo(0.9f, within(0.15f));
+    assertThat(histogram.selectivity(5, OQLLexerTokenTypes.TOK_GT))
+        .isCloseTo(0.1f, within(0.15f));
+  }
+
+  @Test
+  public void missingAndIncomparableKeysDoNotMatch() {
+    IndexHistogram histogram = new IndexHistogram();
+    for (int i = 0; i < IndexHistogram.SAMPLE_SIZE; i++) {
+      histogram.add(mock(RegionEntry.class), i % 4 == 0 ? IndexManager.NULL
+          : i % 4 == 1 ? QueryService.UNDEFINED : i % 4 == 2 ? "a" : 1);
+    }
+
+    assertThat(histogram.selectivity(0, OQLLexerTokenTypes.TOK_GE)).isEqualTo(0.25f);
+  }
+
+  @Test
+  public void followsUpdatedAndRemovedMappings() {
+    IndexHistogram histogram = new IndexHistogram();
+    RegionEntry[] entries = new RegionEntry[IndexHistogram.SAMPLE_SIZE];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = mock(RegionEntry.class);
+      histogram.add(entries[i], 1);
+    }
+    for (int i = 0; i < entries.length / 2; i++) {
+      histogram.update(entries[i], 2);
+    }
+    assertThat(histogram.selectivity(2, OQLLexerTokenTypes.TOK_EQ)).isEqualTo(0.5f);
+
+    for (int i = 0; i < entries.length / 2; i++) {
+      histogram.remove(entries[i]);
+    }
+    assertThat(histogram.selectivity(2, OQLLexerTokenTypes.TOK_EQ)).isEqualTo(0f);
+
+    for (int i = 0; i < entries.length / 2; i++) {
+      histogram.add(mock(RegionEntry.class), 3);
+    }
+    assertThat(histogram.selectivity(3, OQLLexerTokenTypes.TOK_EQ)).isEqualTo(0.5f);
+  }
+}
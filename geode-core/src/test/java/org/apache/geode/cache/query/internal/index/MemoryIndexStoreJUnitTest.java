@@ -52,6 +52,11 @@ public class MemoryIndexStoreJUnitTest {
     return mock(LocalRegion.class);
   }
 
+  protected MemoryIndexStore createStore(Region region, InternalIndexStatistics stats,
+      GemFireCacheImpl cache) {
+    return new MemoryIndexStore(region, stats, cache);
+  }
+
   @Before
   public void setup() {
     subclassPreSetup();
@@ -59,7 +64,7 @@ public class MemoryIndexStoreJUnitTest {
     cache = mock(GemFireCacheImpl.class);
     mockStats = mock(AbstractIndex.InternalIndexStatistics.class);
 
-    store = new MemoryIndexStore(region, mockStats, cache);
+    store = createStore(region, mockStats, cache);
     store.setIndexOnValues(true);
     mockEntries = new RegionEntry[numMockEntries];
     IntStream.range(0, numMockEntries).forEach(i -> {
@@ -360,7 +365,7 @@ public class MemoryIndexStoreJUnitTest {
   }
 
   private boolean objectContainedIn(MemoryIndexStore store, Object o) {
-    Iterator iterator = store.valueToEntriesMap.values().iterator();
+    Iterator iterator = store.getMappings().values().iterator();
     return objectContainedIn(iterator, o);
   }
 
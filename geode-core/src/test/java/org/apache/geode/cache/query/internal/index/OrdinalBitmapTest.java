@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class OrdinalBitmapTest {
+
+  @Test
+  public void addsAndRemovesOrdinals() {
+    OrdinalBitmap bitmap = new OrdinalBitmap();
+    bitmap.add(3);
+    bitmap.add(70000);
+    bitmap.add(3);
+
+    assertThat(bitmap.cardinality()).isEqualTo(2);
+    assertThat(bitmap.contains(3)).isTrue();
+    assertThat(bitmap.contains(4)).isFalse();
+    assertThat(bitmap.remove(70000)).isTrue();
+    assertThat(bitmap.remove(70000)).isFalse();
+    assertThat(toList(bitmap)).containsExactly(3);
+    assertThat(bitmap.remove(3)).isTrue();
+    assertThat(bitmap.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void keepsOrdinalsWhenContainerBecomesDense() {
+    OrdinalBitmap bitmap = new OrdinalBitmap();
+    for (int i = 0; i < 10000; i += 2) {
+      bitmap.add(i);
+    }
+    assertThat(bitmap.cardinality()).isEqualTo(5000);
+    assertThat(bitmap.contains(9998)).isTrue();
+    assertThat(bitmap.contains(9999)).isFalse();
+
+    for (int i = 0; i < 10000; i += 4) {
+      bitmap.remove(i);
+    }
+    assertThat(bitmap.cardinality()).isEqualTo(2500);
+    assertThat(toList(bitmap)).startsWith(2, 6, 10).endsWith(9998);
+  }
+
+  @Test
+  public void combinesBitmapsLikeSets() {
+    Random random = new Random(47);
+    for (int round = 0; round < 20; round++) {
+      TreeSet<Integer> left = new TreeSet<>();
+      TreeSet<Integer> right = new TreeSet<>();
+      OrdinalBitmap leftBitmap = new OrdinalBitmap();
+      OrdinalBitmap rightBitmap = new OrdinalBitmap();
+      int range = round % 2 == 0 ? 200000 : 20000;
+      for (int i = 0; i < 15000; i++) {
+        int ordinal = random.nextInt(range);
+        left.add(ordinal);
+        leftBitmap.add(ordinal);
+        if (random.nextBoolean()) {
+          ordinal = random.nextInt(range);
+          right.add(ordinal);
+          rightBitmap.add(ordinal);
+        }
+      }
+
+      TreeSet<Integer> intersection = new TreeSet<>(left);
+      intersection.retainAll(right);
+      TreeSet<Integer> union = new TreeSet<>(left);
+      union.addAll(right);
+      TreeSet<Integer> difference = new TreeSet<>(left);
+      difference.removeAll(right);
+
+      assertThat(toList(leftBitmap.and(rightBitmap))).containsExactlyElementsOf(intersection);
+      assertThat(toList(leftBitmap.or(rightBitmap))).containsExactlyElementsOf(union);
+      assertThat(toList(leftBitmap.andNot(rightBitmap))).containsExactlyElementsOf(difference);
+      assertThat(leftBitmap.or(rightBitmap).cardinality()).isEqualTo(union.size());
+    }
+  }
+
+  @Test
+  public void copyIsIndependentOfOriginal() {
+    OrdinalBitmap bitmap = new OrdinalBitmap();
+    bitmap.add(1);
+    OrdinalBitmap copy = bitmap.copy();
+    bitmap.add(2);
+    copy.add(3);
+
+    assertThat(toList(bitmap)).containsExactly(1, 2);
+    assertThat(toList(copy)).containsExactly(1, 3);
+  }
+
+  private static List<Integer> toList(OrdinalBitmap bitmap) {
+    List<Integer> ordinals = new ArrayList<>();
+    bitmap.forEach(ordinals::add);
+    return ordinals;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+public class PrimitiveKeyIndexStoreJUnitTest extends MemoryIndexStoreJUnitTest {
+  private static final int NUM_KEYS = PrimitiveKeyIndexStore.PAGE_CAPACITY * 4;
+
+  @Override
+  protected MemoryIndexStore createStore(Region region, InternalIndexStatistics stats,
+      GemFireCacheImpl cache) {
+    return new PrimitiveKeyIndexStore(region, stats, cache);
+  }
+
+  @Test
+  public void iteratesIntegralKeysOfSeveralPagesInOrder() throws Exception {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < NUM_KEYS; i++) {
+      keys.add(i * 2);
+    }
+    Collections.shuffle(keys, new Random(7));
+    for (int key : keys) {
+      store.addMapping(key, mock(RegionEntry.class));
+    }
+
+    assertThat(iteratedKeys(store.iterator(null))).hasSize(NUM_KEYS).isSorted();
+    assertThat(iteratedKeys(store.iterator(100, false, 110, true, null)))
+        .containsExactly(102, 104, 106, 108, 110);
+    assertThat(iteratedKeys(store.descendingIterator(100, true, 108, false, null)))
+        .containsExactly(106, 104, 102, 100);
+    assertThat(iteratedKeys(store.iterator(99.5d, true, 102.0d, false, null)))
+        .containsExactly(100);
+    assertThat(store.size()).isEqualTo(NUM_KEYS);
+  }
+
+  @Test
+  public void removingKeysMergesPages() throws Exception {
+    RegionEntry[] entries = new RegionEntry[NUM_KEYS];
+    for (int i = 0; i < NUM_KEYS; i++) {
+      entries[i] = mock(RegionEntry.class);
+      store.addMapping(i, entries[i]);
+    }
+    for (int i = 0; i < NUM_KEYS; i++) {
+      if (i % 10 != 0) {
+        store.removeMapping(i, entries[i]);
+      }
+    }
+
+    int lastKey = (NUM_KEYS - 1) / 10 * 10;
+    List<Object> keys = iteratedKeys(store.descendingIterator(null));
+    assertThat(keys).hasSize(lastKey / 10 + 1).startsWith(lastKey).endsWith(0);
+    assertThat(keys).isSortedAccordingTo(Collections.reverseOrder());
+    assertThat(store.size(10)).isEqualTo(1);
+    assertThat(store.size(11)).isEqualTo(0);
+  }
+
+  @Test
+  public void mergesIntegralKeysWithOtherKeys() throws Exception {
+    store.addMapping(3L, mockEntries[0]);
+    store.addMapping(2.5d, mockEntries[1]);
+    store.addMapping(1, mockEntries[2]);
+    store.addMapping(IndexManager.NULL, mockEntries[3]);
+
+    assertThat(iteratedKeys(store.iterator(null))).containsExactly(1L, 2.5d, 3L);
+    assertThat(iteratedKeys(store.descendingIterator(null))).containsExactly(3L, 2.5d, 1L);
+    assertThat(iteratedKeys(store.get(IndexManager.NULL))).containsExactly(IndexManager.NULL);
+  }
+
+  @Test
+  public void findsKeyOfValueModifiedInPlace() throws Exception {
+    store.addMapping(1, mockEntries[0]);
+    store.addMapping(2, mockEntries[1]);
+
+    // the values now evaluate to other keys than the ones they were mapped by
+    store.updateMapping(7, 5, mockEntries[0], null);
+    store.removeMapping(6, mockEntries[1]);
+
+    assertThat(iteratedKeys(store.iterator(null))).containsExactly(7);
+    assertThat(store.size(1)).isEqualTo(0);
+    assertThat(store.size(2)).isEqualTo(0);
+  }
+
+  @Test
+  public void reportsMemoryOfPages() throws Exception {
+    for (int i = 0; i < NUM_KEYS; i++) {
+      store.addMapping(i, mock(RegionEntry.class));
+    }
+    long memory = reportedMemory();
+    assertThat(memory).isPositive()
+        .isLessThan((long) NUM_KEYS * MemoryIndexStore.KEY_MAPPING_BYTES / 2);
+
+    store.clear();
+    assertThat(reportedMemory()).isZero();
+  }
+
+  private long reportedMemory() {
+    ArgumentCaptor<Long> deltas = ArgumentCaptor.forClass(Long.class);
+    verify(mockStats, atLeastOnce()).incIndexMemory(deltas.capture());
+    return deltas.getAllValues().stream().mapToLong(Long::longValue).sum();
+  }
+
+  private List<Object> iteratedKeys(CloseableIterator<IndexStoreEntry> iterator) {
+    List<Object> keys = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getDeserializedKey());
+    }
+    return keys;
+  }
+}
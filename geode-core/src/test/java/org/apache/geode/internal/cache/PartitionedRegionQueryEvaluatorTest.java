@@ -225,6 +225,42 @@ public class PartitionedRegionQueryEvaluatorTest {
     assertThat(results.isEmpty()).isTrue();
   }
 
+  @Test
+  public void testFailingRemoteNodeIsNotRetriedWhenLimitIsSatisfied() throws Exception {
+    when(query.getLimit(any())).thenReturn(2);
+    List resultsForMember1 = createResultObjects("1", "2", "3");
+    List resultsForMember2 = createResultObjects("A", "B", "C");
+
+    Set<InternalDistributedMember> failingMembers = new HashSet<>();
+    failingMembers.add(remoteNodeB);
+
+    PartitionedQueryScenario scenario = new PartitionedQueryScenario(localNode, allNodes,
+        failingMembers, createFakeBucketMap(), new ProcessDataFaker() {
+          @Override
+          public void processData(PartitionedRegionQueryEvaluator prqe) {
+            assertThat(prqe.processData(resultsForMember2, remoteNodeA, 0, true)).isFalse();
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public void executeQueryLocally(Collection resultsCollector) {
+            resultsCollector.add(resultsForMember1);
+          }
+        });
+
+    // Only one scenario, a retry would find no bucket map
+    Set<Integer> allBucketsToQuery = scenario.getAllBucketsToQuery();
+    Queue<PartitionedQueryScenario> scenarios = createScenariosQueue(scenario);
+    dataStore.setScenarios(scenarios);
+
+    PartitionedRegionQueryEvaluator prqe = new ExtendedPartitionedRegionQueryEvaluator(system, pr,
+        query, mock(ExecutionContext.class), null, new LinkedResultSet(), allBucketsToQuery,
+        scenarios);
+    Collection results = prqe.queryBuckets(null).asList();
+
+    assertThat(results).hasSize(2);
+  }
+
   @Test
   public void testGetAllNodesShouldBeRandomized() {
     List<Integer> bucketList = createBucketList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BackupFileAssemblerTest {
+
+  private static final int BLOCK_SIZE = 1024;
+
+  private static final String FILE_NAME = "BACKUPds.if";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path baselineMemberDir;
+  private Path incrementalMemberDir;
+  private Path secondIncrementalMemberDir;
+  private byte[] contents;
+
+  @Before
+  public void setUp() throws Exception {
+    Path root = temporaryFolder.getRoot().toPath();
+    baselineMemberDir = root.resolve("baseline").resolve("member");
+    incrementalMemberDir = root.resolve("incremental").resolve("member");
+    secondIncrementalMemberDir = root.resolve("incremental2").resolve("member");
+    contents = new byte[BLOCK_SIZE * 10 + 17];
+    new Random(7).nextBytes(contents);
+  }
+
+  @Test
+  public void unchangedBlocksAreNotStoredInDelta() throws Exception {
+    Path baselineFile = backUp(baselineMemberDir, contents, null);
+    contents[BLOCK_SIZE * 3 + 5]++;
+
+    List<Integer> changed = changedBlocks(baselineFile, contents);
+
+    assertThat(changed).containsExactly(3);
+  }
+
+  @Test
+  public void appendedBlocksAreChanged() throws Exception {
+    Path baselineFile = backUp(baselineMemberDir, contents, null);
+    byte[] appended = Arrays.copyOf(contents, contents.length + BLOCK_SIZE * 2);
+
+    List<Integer> changed = changedBlocks(baselineFile, appended);
+
+    // the short last block of the baseline is now a full block
+    assertThat(changed).containsExactly(10, 11, 12);
+  }
+
+  @Test
+  public void assembleRebuildsFileFromBaselineAndDelta() throws Exception {
+    Path baselineFile = backUp(baselineMemberDir, contents, null);
+    contents[BLOCK_SIZE * 3 + 5]++;
+    contents[contents.length - 1]++;
+    Path file = backUp(incrementalMemberDir, contents, baselineFile);
+    Files.createFile(incrementalMemberDir.resolve(BackupWriter.BLOCK_ASSEMBLY_REQUIRED_FILE));
+    assertThat(file).doesNotExist();
+
+    int count = BackupFileAssembler.assemble(incrementalMemberDir);
+
+    assertThat(count).isEqualTo(1);
+    assertThat(Files.readAllBytes(file)).isEqualTo(contents);
+    assertThat(BlockManifest.getDeltaFile(file)).doesNotExist();
+    assertThat(incrementalMemberDir.resolve(BackupWriter.BLOCK_ASSEMBLY_REQUIRED_FILE))
+        .doesNotExist();
+  }
+
+  @Test
+  public void assembleRebuildsBaselineDeltaFirst() throws Exception {
+    Path baselineFile = backUp(baselineMemberDir, contents, null);
+    contents[10]++;
+    Path incrementalFile = backUp(incrementalMemberDir, contents, baselineFile);
+    byte[] incrementalContents = contents.clone();
+    contents[BLOCK_SIZE * 9]++;
+    Path file = backUp(secondIncrementalMemberDir, contents, incrementalFile);
+
+    BackupFileAssembler.assemble(secondIncrementalMemberDir);
+
+    assertThat(Files.readAllBytes(file)).isEqualTo(contents);
+    assertThat(Files.readAllBytes(incrementalFile)).isEqualTo(incrementalContents);
+  }
+
+  @Test
+  public void assembleFailsIfBaselineBlockChanged() throws Exception {
+    Path baselineFile = backUp(baselineMemberDir, contents, null);
+    contents[BLOCK_SIZE * 3]++;
+    backUp(incrementalMemberDir, contents, baselineFile);
+    byte[] corrupted = Files.readAllBytes(baselineFile);
+    corrupted[0]++;
+    Files.write(baselineFile, corrupted);
+
+    assertThatThrownBy(() -> BackupFileAssembler.assemble(incrementalMemberDir))
+        .isInstanceOf(IOException.class).hasMessageContaining("Block 0");
+  }
+
+  @Test
+  public void manifestRoundTrips() throws Exception {
+    Path file = backUp(baselineMemberDir, contents, null);
+    BlockManifest written = BlockManifest.compute(file, BLOCK_SIZE);
+
+    BlockManifest read = BlockManifest.read(BlockManifest.getManifestFile(file));
+
+    assertThat(read.getFileLength()).isEqualTo(written.getFileLength());
+    assertThat(read.getBlockCount()).isEqualTo(11);
+    assertThat(read.getChangedBlocks(written)).isEmpty();
+  }
+
+  private List<Integer> changedBlocks(Path baselineFile, byte[] newContents) throws IOException {
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, newContents);
+    BlockManifest baseline = BlockManifest.read(BlockManifest.getManifestFile(baselineFile));
+    return BlockManifest.compute(file, BLOCK_SIZE).getChangedBlocks(baseline);
+  }
+
+  /**
+   * Backs up a file the way FileSystemBackupWriter does, storing a delta if a baseline is given.
+   */
+  private Path backUp(Path memberDir, byte[] fileContents, Path baselineFile)
+      throws IOException {
+    Path dir = memberDir.resolve(BackupWriter.DATA_STORES_DIRECTORY).resolve("ds_1")
+        .resolve(BackupWriter.BACKUP_DIR_PREFIX + 0);
+    Files.createDirectories(dir);
+    Path file = dir.resolve(FILE_NAME);
+    Files.write(file, fileContents);
+    BlockManifest manifest = BlockManifest.compute(file, BLOCK_SIZE);
+    Path manifestFile = BlockManifest.getManifestFile(file);
+    Files.createDirectories(manifestFile.getParent());
+    if (baselineFile != null) {
+      BlockManifest baseline = BlockManifest.read(BlockManifest.getManifestFile(baselineFile));
+      BlockDelta.write(file, manifest, baselineFile, manifest.getChangedBlocks(baseline),
+          BlockManifest.getDeltaFile(file));
+      Files.delete(file);
+    }
+    manifest.write(manifestFile);
+    return file;
+  }
+}
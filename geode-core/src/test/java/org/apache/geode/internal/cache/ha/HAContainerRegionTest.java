@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.ha;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.sockets.ClientUpdateMessageImpl;
+import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
+
+@Category({ClientSubscriptionTest.class})
+public class HAContainerRegionTest {
+
+  private final LocalRegion region = mock(LocalRegion.class);
+
+  private final HAContainerRegion container = new HAContainerRegion(region);
+
+  @Test
+  public void prefetchReadsOverflowedValue() {
+    Object key = new Object();
+    when(region.getValueInVM(key)).thenReturn(null);
+
+    container.prefetch(key);
+
+    verify(region).get(key);
+  }
+
+  @Test
+  public void prefetchDoesNotReadValueInMemory() {
+    Object key = new Object();
+    when(region.getValueInVM(key)).thenReturn(mock(ClientUpdateMessageImpl.class));
+
+    container.prefetch(key);
+
+    verify(region, never()).get(key);
+  }
+}
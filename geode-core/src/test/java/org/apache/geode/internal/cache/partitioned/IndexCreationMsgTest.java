@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.IndexType;
+import org.apache.geode.cache.query.internal.index.IndexCreationData;
+import org.apache.geode.distributed.internal.membership.InternalDistributedMember;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.serialization.Version;
+
+public class IndexCreationMsgTest {
+
+  @Test
+  public void bitmapIndexIsNotCreatedOnOlderMembers() {
+    InternalDistributedMember member = mock(InternalDistributedMember.class);
+    when(member.getVersionObject()).thenReturn(Version.GEODE_1_11_0);
+    RegionAdvisor advisor = mock(RegionAdvisor.class);
+    when(advisor.adviseDataStore()).thenReturn(Collections.singleton(member));
+    PartitionedRegion region = mock(PartitionedRegion.class);
+    when(region.getDistributionAdvisor()).thenReturn(advisor);
+    IndexCreationData indexDefinition = new IndexCreationData("index");
+    indexDefinition.setIndexData(IndexType.BITMAP, "/region", "status", null);
+    HashSet<IndexCreationData> indexDefinitions = new HashSet<>();
+    indexDefinitions.add(indexDefinition);
+
+    assertThatThrownBy(() -> IndexCreationMsg.send(null, region, indexDefinitions))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+}
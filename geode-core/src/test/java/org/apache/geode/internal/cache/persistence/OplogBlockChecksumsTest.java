@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OplogBlockChecksumsTest {
+
+  private static final int BLOCK_SIZE = OplogBlockChecksums.DEFAULT_BLOCK_SIZE;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File oplogFile;
+
+  @Before
+  public void setUp() throws Exception {
+    oplogFile = temporaryFolder.newFile("BACKUPds_1.crf");
+    byte[] contents = new byte[BLOCK_SIZE * 40 + 123];
+    new Random(17).nextBytes(contents);
+    Files.write(oplogFile.toPath(), contents);
+  }
+
+  @Test
+  public void unmodifiedFileIsValid() throws Exception {
+    OplogBlockChecksums.writeFor(oplogFile);
+
+    OplogBlockChecksums.ValidationResult result =
+        OplogBlockChecksums.validateIfPresent(oplogFile);
+
+    assertThat(result.isValid()).isTrue();
+    assertThat(result.getBlockCount()).isEqualTo(41);
+    assertThat(result.getValidPrefixLength()).isEqualTo(oplogFile.length());
+  }
+
+  @Test
+  public void validateIfPresentReturnsNullWithoutChecksumFile() throws Exception {
+    assertThat(OplogBlockChecksums.validateIfPresent(oplogFile)).isNull();
+  }
+
+  @Test
+  public void checksumFileRoundTrips() throws Exception {
+    OplogBlockChecksums written = OplogBlockChecksums.writeFor(oplogFile);
+
+    OplogBlockChecksums read =
+        OplogBlockChecksums.read(OplogBlockChecksums.getChecksumFile(oplogFile));
+
+    assertThat(read.getBlockSize()).isEqualTo(written.getBlockSize());
+    assertThat(read.getFileLength()).isEqualTo(written.getFileLength());
+    assertThat(read.getBlockCount()).isEqualTo(written.getBlockCount());
+  }
+
+  @Test
+  public void flippedBitIsReportedInItsBlock() throws Exception {
+    OplogBlockChecksums.writeFor(oplogFile);
+    long offset = BLOCK_SIZE * 7L + 100;
+    flipBit(oplogFile, offset);
+
+    OplogBlockChecksums.ValidationResult result =
+        OplogBlockChecksums.validateIfPresent(oplogFile);
+
+    assertThat(result.isValid()).isFalse();
+    assertThat(result.getCorruptBlocks()).containsExactly(7);
+    assertThat(result.getValidPrefixLength()).isEqualTo(BLOCK_SIZE * 7L);
+    assertThat(result.isCorrupt(offset, 1)).isTrue();
+    assertThat(result.isCorrupt(BLOCK_SIZE * 7L - 10, 20)).isTrue();
+    assertThat(result.isCorrupt(0, BLOCK_SIZE * 7L)).isFalse();
+    assertThat(result.isCorrupt(BLOCK_SIZE * 8L, 10)).isFalse();
+  }
+
+  @Test
+  public void truncatedFileReportsMissingBlocks() throws Exception {
+    OplogBlockChecksums.writeFor(oplogFile);
+    try (RandomAccessFile raf = new RandomAccessFile(oplogFile, "rw")) {
+      raf.setLength(BLOCK_SIZE * 39L + 5);
+    }
+
+    OplogBlockChecksums.ValidationResult result =
+        OplogBlockChecksums.validateIfPresent(oplogFile);
+
+    assertThat(result.getCorruptBlocks()).containsExactly(39, 40);
+    assertThat(result.getValidPrefixLength()).isEqualTo(BLOCK_SIZE * 39L);
+  }
+
+  @Test
+  public void corruptChecksumFileIsRejected() throws Exception {
+    OplogBlockChecksums.writeFor(oplogFile);
+    File checksumFile = OplogBlockChecksums.getChecksumFile(oplogFile);
+    flipBit(checksumFile, 30);
+
+    assertThatThrownBy(() -> OplogBlockChecksums.read(checksumFile))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void deleteForRemovesChecksumFile() throws Exception {
+    OplogBlockChecksums.writeFor(oplogFile);
+
+    assertThat(OplogBlockChecksums.deleteFor(oplogFile)).isTrue();
+
+    assertThat(OplogBlockChecksums.getChecksumFile(oplogFile)).doesNotExist();
+  }
+
+  private static void flipBit(File file, long offset) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(offset);
+      int b = raf.read();
+      raf.seek(offset);
+      raf.write(b ^ 0x01);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class OplogReadCacheTest {
+
+  @Test
+  public void getReturnsCopyOfCachedValue() {
+    OplogReadCache cache = new OplogReadCache(1024 * 1024);
+    byte[] value = new byte[] {1, 2, 3};
+    cache.put(1, 100, value);
+    value[0] = 9;
+
+    byte[] cached = cache.get(1, 100, 3);
+    assertThat(cached).containsExactly(1, 2, 3);
+
+    cached[1] = 9;
+    assertThat(cache.get(1, 100, 3)).containsExactly(1, 2, 3);
+    assertThat(cache.getHits()).isEqualTo(2);
+  }
+
+  @Test
+  public void getMissesOtherOplogOffsetAndLength() {
+    OplogReadCache cache = new OplogReadCache(1024 * 1024);
+    cache.put(1, 100, new byte[] {1, 2, 3});
+
+    assertThat(cache.get(2, 100, 3)).isNull();
+    assertThat(cache.get(1, 101, 3)).isNull();
+    assertThat(cache.get(1, 100, 4)).isNull();
+    assertThat(cache.getMisses()).isEqualTo(3);
+  }
+
+  @Test
+  public void sizeStaysWithinBound() {
+    long maxBytes = 16 * 1024;
+    OplogReadCache cache = new OplogReadCache(maxBytes);
+
+    for (int i = 0; i < 10000; i++) {
+      cache.put(1, i * 100L, new byte[100]);
+    }
+
+    assertThat(cache.getSize()).isLessThanOrEqualTo(maxBytes).isGreaterThan(0);
+  }
+
+  @Test
+  public void largeValuesAreNotCached() {
+    OplogReadCache cache = new OplogReadCache(16 * 1024);
+    cache.put(1, 0, new byte[8 * 1024]);
+
+    assertThat(cache.get(1, 0, 8 * 1024)).isNull();
+    assertThat(cache.getSize()).isZero();
+  }
+
+  @Test
+  public void clearRemovesEverything() {
+    OplogReadCache cache = new OplogReadCache(1024 * 1024);
+    cache.put(1, 0, new byte[10]);
+
+    cache.clear();
+
+    assertThat(cache.getSize()).isZero();
+    assertThat(cache.get(1, 0, 10)).isNull();
+  }
+}
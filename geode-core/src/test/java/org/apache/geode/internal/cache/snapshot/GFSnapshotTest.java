@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.cache.CacheClosedException;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.snapshot.GFSnapshot.GFSnapshotImporter;
+import org.apache.geode.internal.cache.snapshot.GFSnapshot.SnapshotWriter;
+import org.apache.geode.internal.cache.snapshot.SnapshotPacket.SnapshotRecord;
+
+public class GFSnapshotTest {
+  private static final int RECORDS = 1000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private InternalCache cache;
+
+  @Before
+  public void setUp() {
+    cache = mock(InternalCache.class);
+    when(cache.getPdxRegistry()).thenThrow(new CacheClosedException());
+  }
+
+  @Test
+  public void uncompressedSnapshotUsesVersion2() throws Exception {
+    File file = writeSnapshot(false);
+
+    GFSnapshotImporter importer = new GFSnapshotImporter(file, null);
+    try {
+      assertThat(importer.getVersion()).isEqualTo((byte) GFSnapshot.SNAP_VER_2);
+      assertThat(importer.isCompressed()).isFalse();
+      assertRecords(importer);
+    } finally {
+      importer.close();
+    }
+  }
+
+  @Test
+  public void compressedSnapshotRoundTrips() throws Exception {
+    File file = writeSnapshot(true);
+
+    GFSnapshotImporter importer = new GFSnapshotImporter(file, null);
+    try {
+      assertThat(importer.getVersion()).isEqualTo((byte) GFSnapshot.SNAP_VER_3);
+      assertThat(importer.isCompressed()).isTrue();
+      assertThat(importer.getRegionName()).isEqualTo("/region");
+      assertRecords(importer);
+    } finally {
+      importer.close();
+    }
+  }
+
+  @Test
+  public void compressedSnapshotIsSmallerForRepetitiveData() throws Exception {
+    File uncompressed = writeSnapshot(false);
+    File compressed = writeSnapshot(true);
+
+    assertThat(compressed.length()).isLessThan(uncompressed.length());
+  }
+
+  private File writeSnapshot(boolean compress) throws Exception {
+    File file = temporaryFolder.newFile();
+    SnapshotWriter writer = GFSnapshot.create(file, "/region", cache, compress);
+    for (int i = 0; i < RECORDS; i++) {
+      writer.snapshotEntry(new SnapshotRecord(key(i), value(i)));
+    }
+    writer.snapshotComplete();
+    return file;
+  }
+
+  private void assertRecords(GFSnapshotImporter importer) throws Exception {
+    for (int i = 0; i < RECORDS; i++) {
+      SnapshotRecord record = importer.readSnapshotRecord();
+      assertThat(record.getKey()).isEqualTo(key(i));
+      assertThat(record.getValue()).isEqualTo(value(i));
+    }
+    assertThat(importer.readSnapshotRecord()).isNull();
+  }
+
+  private static byte[] key(int i) {
+    return ("key-" + i).getBytes();
+  }
+
+  private static byte[] value(int i) {
+    return ("value-value-value-value-" + i).getBytes();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotManifestTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private SnapshotManifest manifest;
+
+  @Before
+  public void setUp() {
+    manifest = new SnapshotManifest("/region");
+    manifest.addChunk(new SnapshotManifest.Chunk(0, "snap-0.gfd", 10));
+    manifest.addChunk(new SnapshotManifest.Chunk(3, "snap-3.gfd", 7));
+  }
+
+  @Test
+  public void manifestRoundTrips() throws Exception {
+    File file = new File(temporaryFolder.getRoot(), "snap.gfm");
+    manifest.write(file);
+
+    SnapshotManifest read = SnapshotManifest.read(file);
+
+    assertThat(read.getRegionPath()).isEqualTo("/region");
+    assertThat(read.getEntryCount()).isEqualTo(17);
+    assertThat(read.getChunks()).extracting(SnapshotManifest.Chunk::getBucketId)
+        .containsExactly(0, 3);
+    assertThat(read.getChunks()).extracting(SnapshotManifest.Chunk::getFileName)
+        .containsExactly("snap-0.gfd", "snap-3.gfd");
+  }
+
+  @Test
+  public void verifyFilesExistFailsForMissingChunk() throws Exception {
+    temporaryFolder.newFile("snap-0.gfd");
+
+    assertThatThrownBy(() -> manifest.verifyFilesExist(temporaryFolder.getRoot()))
+        .isInstanceOf(IOException.class).hasMessageContaining("snap-3.gfd");
+
+    temporaryFolder.newFile("snap-3.gfd");
+    manifest.verifyFilesExist(temporaryFolder.getRoot());
+  }
+
+  @Test
+  public void verifyRecordCountsFailsForTruncatedChunk() throws Exception {
+    Map<String, Long> counts = new HashMap<>();
+    counts.put("snap-0.gfd", 10L);
+    counts.put("snap-3.gfd", 5L);
+
+    assertThatThrownBy(() -> manifest.verifyRecordCounts(counts))
+        .isInstanceOf(IOException.class).hasMessageContaining("snap-3.gfd");
+
+    counts.put("snap-3.gfd", 7L);
+    manifest.verifyRecordCounts(counts);
+  }
+
+  @Test
+  public void readFailsForMalformedManifest() throws Exception {
+    File file = temporaryFolder.newFile("bad.gfm");
+
+    assertThatThrownBy(() -> SnapshotManifest.read(file)).isInstanceOf(IOException.class);
+  }
+}
@@ -14,18 +14,35 @@
  */
 package org.apache.geode.internal.cache.tier.sockets;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.apache.geode.CancelCriterion;
+import org.apache.geode.internal.cache.PartitionedRegion;
 import org.apache.geode.internal.cache.execute.ServerToClientFunctionResultSender;
 import org.apache.geode.internal.cache.tier.sockets.command.ExecuteRegionFunction61;
 import org.apache.geode.internal.cache.tier.sockets.command.ExecuteRegionFunction65;
@@ -90,4 +107,120 @@ public class BaseCommandJUnitTest {
     verify(resultSender, times(0)).setLastResultReceived(true);
 
   }
+
+  @Test
+  public void entriesOfLocalBucketsAreGatheredInParallelAndSentInChunks() throws Exception {
+    int threads = BaseCommand.REGISTER_INTEREST_THREADS;
+    BaseCommand.stopRegisterInterestExecutor();
+    BaseCommand.REGISTER_INTEREST_THREADS = 4;
+    try {
+      Set<Integer> buckets = new HashSet<>();
+      for (int id = 0; id < 10; id++) {
+        buckets.add(id);
+      }
+      PartitionedRegion region = mockRegionWithLocalBuckets(buckets, 250);
+
+      ChunkedMessage message = mock(ChunkedMessage.class);
+      List<VersionedObjectList> chunks = new ArrayList<>();
+      doAnswer(invocation -> chunks.add(invocation.getArgument(0))).when(message)
+          .addObjPart(any(), eq(false));
+      ServerConnection servConn = mock(ServerConnection.class);
+      when(servConn.getRegisterInterestResponseMessage()).thenReturn(message);
+
+      Set<Integer> failures = new HashSet<>();
+      BaseCommand.appendNewRegisterInterestResponseChunksFromLocalBuckets(region, buckets,
+          failures, null, new VersionedObjectList(BaseCommand.MAXIMUM_CHUNK_SIZE, true, false),
+          servConn);
+
+      int entries = 0;
+      for (VersionedObjectList chunk : chunks) {
+        assertTrue(chunk.size() <= BaseCommand.MAXIMUM_CHUNK_SIZE);
+        entries += chunk.size();
+      }
+      assertEquals(2500, entries);
+      assertTrue(failures.isEmpty());
+      verify(message, never()).setLastChunk(true);
+    } finally {
+      BaseCommand.stopRegisterInterestExecutor();
+      BaseCommand.REGISTER_INTEREST_THREADS = threads;
+    }
+  }
+
+  @Test
+  public void entriesAreGatheredByCallingThreadWhenNoGathererThreadIsFree() throws Exception {
+    int threads = BaseCommand.REGISTER_INTEREST_THREADS;
+    BaseCommand.stopRegisterInterestExecutor();
+    BaseCommand.REGISTER_INTEREST_THREADS = 1;
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Set<Integer> buckets = new HashSet<>(Arrays.asList(0, 1));
+    Thread slowClient = null;
+    try {
+      // a client that does not read its chunks keeps the only gatherer thread busy
+      PartitionedRegion slowRegion = mockRegionWithLocalBuckets(buckets, 1000);
+      ChunkedMessage slowMessage = mock(ChunkedMessage.class);
+      doAnswer(invocation -> {
+        sending.countDown();
+        release.await();
+        return null;
+      }).when(slowMessage).addObjPart(any(), eq(false));
+      ServerConnection slowServConn = mock(ServerConnection.class);
+      when(slowServConn.getRegisterInterestResponseMessage()).thenReturn(slowMessage);
+      slowClient = new Thread(() -> {
+        try {
+          BaseCommand.appendNewRegisterInterestResponseChunksFromLocalBuckets(slowRegion,
+              buckets, new HashSet<>(), null,
+              new VersionedObjectList(BaseCommand.MAXIMUM_CHUNK_SIZE, true, false),
+              slowServConn);
+        } catch (IOException ignored) {
+        }
+      });
+      slowClient.start();
+      assertTrue(sending.await(30, TimeUnit.SECONDS));
+
+      PartitionedRegion region = mockRegionWithLocalBuckets(buckets, 250);
+      ChunkedMessage message = mock(ChunkedMessage.class);
+      List<VersionedObjectList> chunks = new ArrayList<>();
+      doAnswer(invocation -> chunks.add(invocation.getArgument(0))).when(message)
+          .addObjPart(any(), eq(false));
+      ServerConnection servConn = mock(ServerConnection.class);
+      when(servConn.getRegisterInterestResponseMessage()).thenReturn(message);
+
+      Set<Integer> failures = new HashSet<>();
+      VersionedObjectList values =
+          new VersionedObjectList(BaseCommand.MAXIMUM_CHUNK_SIZE, true, false);
+      BaseCommand.appendNewRegisterInterestResponseChunksFromLocalBuckets(region, buckets,
+          failures, null, values, servConn);
+
+      int entries = values.size();
+      for (VersionedObjectList chunk : chunks) {
+        entries += chunk.size();
+      }
+      assertEquals(500, entries);
+      assertTrue(failures.isEmpty());
+    } finally {
+      release.countDown();
+      if (slowClient != null) {
+        slowClient.join(30000);
+      }
+      BaseCommand.stopRegisterInterestExecutor();
+      BaseCommand.REGISTER_INTEREST_THREADS = threads;
+    }
+  }
+
+  private static PartitionedRegion mockRegionWithLocalBuckets(Set<Integer> buckets,
+      int keysPerBucket) {
+    PartitionedRegion region = mock(PartitionedRegion.class);
+    when(region.getCancelCriterion()).thenReturn(mock(CancelCriterion.class));
+    for (int id : buckets) {
+      Set<Object> keys = new HashSet<>();
+      for (int i = 0; i < keysPerBucket; i++) {
+        keys.add(id + "-" + i);
+      }
+      when(region.fetchAllLocalKeys(eq(id), any(), isNull())).thenReturn(keys);
+    }
+    when(region.get(any(), isNull(), eq(true), eq(true), eq(true), any(), any(), eq(true)))
+        .thenReturn("value");
+    return region;
+  }
 }
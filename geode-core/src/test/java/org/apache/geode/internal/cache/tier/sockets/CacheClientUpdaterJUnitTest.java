@@ -20,18 +20,27 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.net.SocketException;
 
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import org.apache.geode.CancelCriterion;
+import org.apache.geode.Delta;
 import org.apache.geode.cache.client.internal.Endpoint;
 import org.apache.geode.cache.client.internal.EndpointManager;
 import org.apache.geode.cache.client.internal.QueueManager;
 import org.apache.geode.distributed.DistributedSystem;
 import org.apache.geode.distributed.internal.ServerLocation;
+import org.apache.geode.internal.cache.CachedDeserializable;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.tier.ClientSideHandshake;
+import org.apache.geode.internal.cache.versions.VersionStamp;
+import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.net.SocketCreator;
 import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
 
@@ -81,4 +90,61 @@ public class CacheClientUpdaterJUnitTest {
     // The endpoint should be reported as having crashed
     verify(endpointManager).serverCrashed(endpoint);
   }
+
+  @Test
+  public void deltaIsAppliedToLocalValueOfThePrecedingVersion() {
+    LocalRegion region = mockRegionWithValue(new Counter(), 4);
+    VersionTag versionTag = mock(VersionTag.class);
+    when(versionTag.getEntryVersion()).thenReturn(5);
+
+    Object value = CacheClientUpdater.applyDeltaToLocalValue(region, "key", new byte[] {3},
+        versionTag);
+
+    assertThat(value).isInstanceOf(Counter.class);
+    assertThat(((Counter) value).count).isEqualTo(3);
+  }
+
+  @Test
+  public void deltaIsNotAppliedToLocalValueOfAnotherVersion() {
+    LocalRegion region = mockRegionWithValue(new Counter(), 3);
+    VersionTag versionTag = mock(VersionTag.class);
+    when(versionTag.getEntryVersion()).thenReturn(5);
+
+    Object value = CacheClientUpdater.applyDeltaToLocalValue(region, "key", new byte[] {3},
+        versionTag);
+
+    assertThat(value).isNull();
+  }
+
+  private LocalRegion mockRegionWithValue(Counter counter, int entryVersion) {
+    LocalRegion region = mock(LocalRegion.class);
+    RegionEntry entry = mock(RegionEntry.class);
+    VersionStamp stamp = mock(VersionStamp.class);
+    CachedDeserializable cachedValue = mock(CachedDeserializable.class);
+    when(region.getRegionEntry("key")).thenReturn(entry);
+    when(entry.getVersionStamp()).thenReturn(stamp);
+    when(stamp.getEntryVersion()).thenReturn(entryVersion);
+    when(entry.getValue(region)).thenReturn(cachedValue);
+    when(cachedValue.getDeserializedWritableCopy(region, entry)).thenReturn(counter);
+    return region;
+  }
+
+  private static class Counter implements Delta {
+    int count;
+
+    @Override
+    public boolean hasDelta() {
+      return true;
+    }
+
+    @Override
+    public void toDelta(DataOutput out) throws IOException {
+      out.writeByte(count);
+    }
+
+    @Override
+    public void fromDelta(DataInput in) throws IOException {
+      count += in.readByte();
+    }
+  }
 }
@@ -29,7 +29,9 @@ import org.apache.geode.CopyHelper;
 import org.apache.geode.distributed.DistributedMember;
 import org.apache.geode.distributed.DurableClientAttributes;
 import org.apache.geode.internal.cache.EnumListenerEvent;
+import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.serialization.Version;
 import org.apache.geode.internal.statistics.StatisticsClock;
 import org.apache.geode.test.fake.Fakes;
 
@@ -103,6 +105,33 @@ public class ClientUpdateMessageImplTest implements Serializable {
         .isTrue();
   }
 
+  @Test
+  public void messagesToClientsOfAVersionShareTheSerializedParts() throws Exception {
+    LocalRegion localRegion = mock(LocalRegion.class);
+    when(localRegion.getFullPath()).thenReturn("/regionName");
+    EventID eventID = new EventID(new byte[] {1}, 1, 1);
+    ClientUpdateMessageImpl clientUpdateMessageImpl =
+        new ClientUpdateMessageImpl(EnumListenerEvent.AFTER_CREATE, localRegion, 7,
+            new byte[] {0}, (byte) 0x00, null, null, eventID);
+
+    Message message = clientUpdateMessageImpl.getMessage(proxy(Version.CURRENT), new byte[] {0});
+    byte[] key = message.getPart(1).getSerializedForm();
+    byte[] eventIdentifier = message.getPart(8).getSerializedForm();
+    assertThat(message.getPart(1).getObject()).isEqualTo(7);
+    assertThat(message.getPart(8).getObject()).isEqualTo(eventID);
+
+    message = clientUpdateMessageImpl.getMessage(proxy(Version.CURRENT), new byte[] {0});
+    assertThat(message.getPart(1).getSerializedForm()).isSameAs(key);
+    assertThat(message.getPart(8).getSerializedForm()).isSameAs(eventIdentifier);
+  }
+
+  private CacheClientProxy proxy(Version version) {
+    CacheClientProxy proxy = mock(CacheClientProxy.class);
+    when(proxy.getVersion()).thenReturn(version);
+    when(proxy.getProxyID()).thenReturn(mock(ClientProxyMembershipID.class));
+    return proxy;
+  }
+
   private ClientUpdateMessageImpl getTestClientUpdateMessage() {
     LocalRegion localRegion = mock(LocalRegion.class);
     String regionName = "regionName";
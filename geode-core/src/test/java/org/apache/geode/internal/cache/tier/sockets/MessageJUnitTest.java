@@ -23,6 +23,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -35,6 +36,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.serialization.Version;
 import org.apache.geode.test.junit.categories.ClientServerTest;
 
@@ -218,4 +220,30 @@ public class MessageJUnitTest {
     }
   }
 
+  @Test
+  public void messagesSentInBatchAreWrittenOnFlush() throws Exception {
+    Socket socket = mock(Socket.class);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    when(socket.getOutputStream()).thenReturn(out);
+    ByteBuffer commBuffer = ByteBuffer.allocate(1000);
+    MessageStats messageStats = mock(MessageStats.class);
+
+    for (int i = 0; i < 2; i++) {
+      Message batched = new Message(1, Version.CURRENT);
+      batched.setMessageType(MessageType.CLIENT_MARKER);
+      batched.addBytesPart(new byte[] {(byte) i});
+      batched.setComms(socket, commBuffer, messageStats);
+      batched.sendInBatch();
+    }
+    assertEquals(0, out.size());
+
+    Message flush = new Message(0, Version.CURRENT);
+    flush.setComms(socket, commBuffer, messageStats);
+    flush.flushBatch();
+
+    // the message header, the part header and the part of each message
+    assertEquals(2 * (17 + 5 + 1), out.size());
+    assertEquals(0, commBuffer.position());
+  }
+
 }
@@ -35,11 +35,17 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import org.apache.geode.CancelCriterion;
+import org.apache.geode.cache.DataPolicy;
+import org.apache.geode.cache.RegionAttributes;
+import org.apache.geode.cache.Scope;
+import org.apache.geode.cache.client.internal.GetOp;
 import org.apache.geode.cache.operations.GetOperationContext;
 import org.apache.geode.internal.cache.CachePerfStats;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.Acceptor;
 import org.apache.geode.internal.cache.tier.CachedRegionHelper;
+import org.apache.geode.internal.cache.tier.sockets.CacheClientNotifier;
 import org.apache.geode.internal.cache.tier.sockets.CacheServerStats;
 import org.apache.geode.internal.cache.tier.sockets.Message;
 import org.apache.geode.internal.cache.tier.sockets.Part;
@@ -217,6 +223,47 @@ public class Get70Test {
         .doesNotThrowAnyException();
   }
 
+  @Test
+  public void recordsNearCacheReadOfReplicatedRegion() throws Exception {
+    CacheClientNotifier notifier = givenNearCacheRead(DataPolicy.REPLICATE);
+
+    get70.cmdExecute(message, serverConnection, securityService, 0);
+
+    verify(notifier).recordNearCacheRead(any(), eq(KEY));
+    verify(responseMessage)
+        .addIntPart(GetOp.HAS_CALLBACK_ARG | GetOp.NEAR_CACHE_READ_RECORDED);
+  }
+
+  @Test
+  public void doesNotRecordNearCacheReadOfPartitionedRegion() throws Exception {
+    CacheClientNotifier notifier = givenNearCacheRead(DataPolicy.PARTITION);
+
+    get70.cmdExecute(message, serverConnection, securityService, 0);
+
+    verify(notifier, never()).recordNearCacheRead(any(), any());
+    verify(responseMessage).addIntPart(GetOp.HAS_CALLBACK_ARG);
+  }
+
+  private CacheClientNotifier givenNearCacheRead(DataPolicy dataPolicy) throws Exception {
+    Part nearCacheReadPart = mock(Part.class);
+    when(nearCacheReadPart.getObject()).thenReturn(Boolean.TRUE);
+    when(message.getNumberOfParts()).thenReturn(4);
+    when(message.getPart(eq(3))).thenReturn(nearCacheReadPart);
+
+    RegionAttributes attributes = mock(RegionAttributes.class);
+    when(attributes.getDataPolicy()).thenReturn(dataPolicy);
+    when(attributes.getScope()).thenReturn(Scope.DISTRIBUTED_ACK);
+    when(region.getAttributes()).thenReturn(attributes);
+    when(region.getRetained(any(), any(), anyBoolean(), anyBoolean(), any(), any(), anyBoolean()))
+        .thenReturn("data");
+
+    CacheClientNotifier notifier = mock(CacheClientNotifier.class);
+    Acceptor acceptor = mock(Acceptor.class);
+    when(acceptor.getCacheClientNotifier()).thenReturn(notifier);
+    when(serverConnection.getAcceptor()).thenReturn(acceptor);
+    return notifier;
+  }
+
   private void givenIntegratedSecurity() {
     when(securityService.isClientSecurityRequired()).thenReturn(true);
     when(securityService.isIntegratedSecurity()).thenReturn(true);
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.cq;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.cache.query.CqAttributesFactory;
+import org.apache.geode.cache.query.CqQuery;
+import org.apache.geode.cache.query.CqResults;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.Struct;
+import org.apache.geode.cache.query.cq.internal.CqServiceImpl;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.cache.query.internal.QueryObserverAdapter;
+import org.apache.geode.cache.query.internal.QueryObserverHolder;
+import org.apache.geode.test.dunit.rules.ClusterStartupRule;
+import org.apache.geode.test.dunit.rules.MemberVM;
+import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
+
+@Category({ClientSubscriptionTest.class})
+public class SharedInitialResultsDistributedTest {
+
+  private static final String QUERY = "SELECT * FROM /region r WHERE r.ID > 5";
+
+  private static final AtomicInteger executions = new AtomicInteger();
+
+  private int locatorPort;
+  private MemberVM server;
+  private ClientCache clientCache;
+
+  @Rule
+  public ClusterStartupRule cluster = new ClusterStartupRule();
+
+  @Before
+  public void before() {
+    MemberVM locator = cluster.startLocatorVM(0);
+    locatorPort = locator.getPort();
+    server = cluster.startServerVM(1, locatorPort);
+    server.invoke(() -> {
+      CqServiceImpl.SHARE_INITIAL_RESULTS = true;
+      executions.set(0);
+      QueryObserverHolder.setInstance(new CountingQueryObserver());
+    });
+  }
+
+  @After
+  public void after() {
+    if (clientCache != null) {
+      clientCache.close();
+    }
+    server.invoke(() -> {
+      CqServiceImpl.SHARE_INITIAL_RESULTS = false;
+      QueryObserverHolder.reset();
+    });
+  }
+
+  @Test
+  public void identicalCqReadsInitialResultsOfRunningCq() throws Exception {
+    createRegions(RegionShortcut.REPLICATE);
+
+    Map<Object, Integer> results = executeWithInitialResults("cq1");
+    int executed = getExecutions();
+
+    assertThat(results).hasSize(14);
+    assertThat(executeWithInitialResults("cq2")).isEqualTo(results);
+    assertThat(getExecutions()).isEqualTo(executed);
+  }
+
+  @Test
+  public void initialResultsOfStoppedCqAreNotShared() throws Exception {
+    createRegions(RegionShortcut.REPLICATE);
+
+    Map<Object, Integer> results = executeWithInitialResults("cq1");
+    clientCache.getQueryService().getCq("cq1").stop();
+    int executed = getExecutions();
+
+    assertThat(executeWithInitialResults("cq2")).isEqualTo(results);
+    assertThat(getExecutions()).isGreaterThan(executed);
+  }
+
+  @Test
+  public void initialResultsOfClosedCqAreNotShared() throws Exception {
+    createRegions(RegionShortcut.REPLICATE);
+
+    Map<Object, Integer> results = executeWithInitialResults("cq1");
+    clientCache.getQueryService().getCq("cq1").close();
+    int executed = getExecutions();
+
+    assertThat(executeWithInitialResults("cq2")).isEqualTo(results);
+    assertThat(getExecutions()).isGreaterThan(executed);
+  }
+
+  @Test
+  public void cqOnPartitionedRegionExecutesQuery() throws Exception {
+    createRegions(RegionShortcut.PARTITION);
+
+    Map<Object, Integer> results = executeWithInitialResults("cq1");
+    int executed = getExecutions();
+
+    assertThat(results).hasSize(14);
+    assertThat(executeWithInitialResults("cq2")).isEqualTo(results);
+    assertThat(getExecutions()).isGreaterThan(executed);
+  }
+
+  private void createRegions(RegionShortcut shortcut) {
+    server.invoke(() -> {
+      Region<Object, Object> region =
+          ClusterStartupRule.getCache().createRegionFactory(shortcut).create("region");
+      for (int i = 0; i < 20; i++) {
+        region.put(i, new Portfolio(i));
+      }
+    });
+    clientCache = new ClientCacheFactory().addPoolLocator("localhost", locatorPort)
+        .setPoolSubscriptionEnabled(true).create();
+    clientCache.createClientRegionFactory(ClientRegionShortcut.PROXY).create("region");
+  }
+
+  private Map<Object, Integer> executeWithInitialResults(String cqName) throws Exception {
+    CqQuery cq = clientCache.getQueryService().newCq(cqName, QUERY,
+        new CqAttributesFactory().create());
+    CqResults<Struct> results = cq.executeWithInitialResults();
+    Map<Object, Integer> ids = new HashMap<>();
+    for (Struct result : results) {
+      ids.put(result.get("key"), ((Portfolio) result.get("value")).getID());
+    }
+    return ids;
+  }
+
+  private int getExecutions() {
+    return server.invoke(() -> executions.get());
+  }
+
+  private static class CountingQueryObserver extends QueryObserverAdapter {
+    @Override
+    public void startQuery(Query query) {
+      executions.incrementAndGet();
+    }
+  }
+}
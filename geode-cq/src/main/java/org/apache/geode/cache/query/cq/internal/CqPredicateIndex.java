@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.cq.internal;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.CompiledID;
+import org.apache.geode.cache.query.internal.CompiledIteratorDef;
+import org.apache.geode.cache.query.internal.CompiledJunction;
+import org.apache.geode.cache.query.internal.CompiledLike;
+import org.apache.geode.cache.query.internal.CompiledLiteral;
+import org.apache.geode.cache.query.internal.CompiledPath;
+import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.PathUtils;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * An inverted index of the predicates of the running CQs, used to find the CQs a value of an event
+ * may satisfy without evaluating every CQ query on it. One comparison of an attribute path of the
+ * region values with a literal is extracted from the WHERE clause of each CQ query: the clause
+ * itself or the first operand of a top level AND, which is evaluated first and ends the evaluation
+ * of the clause when false. The queries are indexed by the literal of their comparison, for each
+ * base region and path, so that each indexed path is evaluated once per value.
+ *
+ * The index is conservative: queries without an indexable comparison, and queries whose comparison
+ * can not be decided from the value of its path without the query engine (a null, UNDEFINED or
+ * not indexable value, or a failure evaluating the path), are always candidates.
+ */
+class CqPredicateIndex {
+
+  /** The indexed predicates by path, by base region path */
+  private final Map<String, Map<String, PathPredicates>> regions = new ConcurrentHashMap<>();
+
+  /** The indexed predicates by query string */
+  private final Map<String, Predicate> predicates = new ConcurrentHashMap<>();
+
+  private final AtomicLong version = new AtomicLong();
+
+  /**
+   * Indexes the predicate of the query of the given CQ, if it has an indexable one.
+   *
+   * @return true if the query of the CQ was not indexed yet and was indexed
+   */
+  synchronized boolean add(CqQueryImpl cq) {
+    String queryString = cq.getQueryString();
+    if (predicates.containsKey(queryString)) {
+      return false;
+    }
+    LocalRegion baseRegion = cq.getCqBaseRegion();
+    if (baseRegion == null || !(cq.getQuery() instanceof DefaultQuery)) {
+      return false;
+    }
+    Predicate predicate =
+        extract(baseRegion.getFullPath(), ((DefaultQuery) cq.getQuery()).getSimpleSelect());
+    if (predicate == null) {
+      return false;
+    }
+    regions.computeIfAbsent(predicate.regionPath, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(predicate.pathName, k -> new PathPredicates(predicate.path))
+        .add(queryString, predicate);
+    // the version is taken once the predicate can be looked up, see Candidates
+    predicate.version = version.incrementAndGet();
+    predicates.put(queryString, predicate);
+    return true;
+  }
+
+  /**
+   * Removes the predicate of the given query from the index.
+   *
+   * @return true if the query was indexed
+   */
+  synchronized boolean remove(String queryString) {
+    Predicate predicate = predicates.remove(queryString);
+    if (predicate == null) {
+      return false;
+    }
+    Map<String, PathPredicates> paths = regions.get(predicate.regionPath);
+    PathPredicates pathPredicates = paths.get(predicate.pathName);
+    pathPredicates.remove(queryString, predicate);
+    if (pathPredicates.isEmpty()) {
+      paths.remove(predicate.pathName);
+      if (paths.isEmpty()) {
+        regions.remove(predicate.regionPath);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the candidate queries for a value of the given base region, found by evaluating each
+   * indexed path of the region on the value.
+   */
+  Candidates candidates(String regionPath, Object value, InternalCache cache) {
+    long currentVersion = version.get();
+    Set<String> queries = new HashSet<>();
+    Map<String, PathPredicates> paths = regions.get(regionPath);
+    if (paths != null) {
+      ExecutionContext context = new ExecutionContext(null, cache);
+      for (PathPredicates pathPredicates : paths.values()) {
+        pathPredicates.collect(value, context, queries);
+      }
+    }
+    return new Candidates(currentVersion, queries);
+  }
+
+  /**
+   * The queries a value may satisfy.
+   */
+  class Candidates {
+
+    private final long version;
+
+    private final Set<String> queries;
+
+    private Candidates(long version, Set<String> queries) {
+      this.version = version;
+      this.queries = queries;
+    }
+
+    /**
+     * Returns false if the value can not satisfy the given query. Queries indexed after the
+     * candidates were collected are candidates.
+     */
+    boolean mayMatch(String queryString) {
+      Predicate predicate = predicates.get(queryString);
+      return predicate == null || predicate.version > version || queries.contains(queryString);
+    }
+  }
+
+  /**
+   * Returns the indexable predicate of the given CQ query, or null if it has none.
+   */
+  static Predicate extract(String regionPath, CompiledSelect select) {
+    if (select == null || select.getIterators().size() != 1) {
+      return null;
+    }
+    CompiledValue condition = select.getWhereClause();
+    if (condition instanceof CompiledJunction
+        && ((CompiledJunction) condition).getOperator() == OQLLexerTokenTypes.LITERAL_and) {
+      condition = (CompiledValue) condition.getChildren().get(0);
+    }
+    if (!(condition instanceof CompiledComparison) || condition instanceof CompiledLike) {
+      return null;
+    }
+    CompiledComparison comparison = (CompiledComparison) condition;
+    CompiledValue pathExpr = comparison._left;
+    CompiledValue literalExpr = comparison._right;
+    int operator = comparison.getOperator();
+    if (reflect(operator) == -1) {
+      return null;
+    }
+    if (pathExpr.getType() == CompiledValue.LITERAL) {
+      pathExpr = comparison._right;
+      literalExpr = comparison._left;
+      operator = reflect(operator);
+    }
+    if (literalExpr.getType() != CompiledValue.LITERAL) {
+      return null;
+    }
+    String iteratorName = ((CompiledIteratorDef) select.getIterators().get(0)).getName();
+    String[] path = pathOf(pathExpr, iteratorName);
+    if (path == null) {
+      return null;
+    }
+    Object key;
+    try {
+      key = keyOf(((CompiledLiteral) literalExpr).evaluate(null));
+    } catch (QueryException e) {
+      return null;
+    }
+    if (key == null || (operator != OQLLexerTokenTypes.TOK_EQ && !(key instanceof Double))) {
+      return null;
+    }
+    return new Predicate(regionPath, path, operator, key);
+  }
+
+  /**
+   * Returns the operator comparing the operands in reverse order, or -1 if not an indexable one.
+   */
+  private static int reflect(int operator) {
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_EQ:
+        return OQLLexerTokenTypes.TOK_EQ;
+      case OQLLexerTokenTypes.TOK_LT:
+        return OQLLexerTokenTypes.TOK_GT;
+      case OQLLexerTokenTypes.TOK_LE:
+        return OQLLexerTokenTypes.TOK_GE;
+      case OQLLexerTokenTypes.TOK_GT:
+        return OQLLexerTokenTypes.TOK_LT;
+      case OQLLexerTokenTypes.TOK_GE:
+        return OQLLexerTokenTypes.TOK_LE;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Returns the attributes read by the given expression from the iterated value, or null if it is
+   * not a path on the iterated value.
+   */
+  private static String[] pathOf(CompiledValue expr, String iteratorName) {
+    LinkedList<String> path = new LinkedList<>();
+    while (expr instanceof CompiledPath) {
+      path.addFirst(((CompiledPath) expr).getTailID());
+      expr = ((CompiledPath) expr).getReceiver();
+    }
+    if (!(expr instanceof CompiledID)) {
+      return null;
+    }
+    String id = ((CompiledID) expr).getId();
+    if (!id.equals(iteratorName)) {
+      // implicit attribute of the iterated value
+      path.addFirst(id);
+    }
+    return path.toArray(new String[0]);
+  }
+
+  /**
+   * Returns the key under which a value compares equal to the literals indexed under the same
+   * key, or null if the value is not of an indexable type. The numbers compared by value in
+   * queries are keyed by their double value, that equal numbers share.
+   */
+  static Object keyOf(Object value) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte || value instanceof Float || value instanceof Double) {
+      return ((Number) value).doubleValue();
+    } else if (value instanceof String || value instanceof Boolean) {
+      return value;
+    } else if (value instanceof PdxString) {
+      return value.toString();
+    }
+    return null;
+  }
+
+  /**
+   * A comparison of an attribute path with a literal, as the path on the left.
+   */
+  static class Predicate {
+
+    final String regionPath;
+
+    final String[] path;
+
+    final String pathName;
+
+    final int operator;
+
+    final Object key;
+
+    volatile long version;
+
+    Predicate(String regionPath, String[] path, int operator, Object key) {
+      this.regionPath = regionPath;
+      this.path = path;
+      this.pathName = String.join(".", path);
+      this.operator = operator;
+      this.key = key;
+    }
+  }
+
+  /**
+   * The predicates on one attribute path.
+   */
+  private static class PathPredicates {
+
+    private final String[] path;
+
+    private final Map<Object, Set<String>> equalTo = new ConcurrentHashMap<>();
+
+    /** The queries satisfied by values at least their literal, path > or >= literal, by Double */
+    private final NavigableMap<Object, Set<String>> lowerBounds = new ConcurrentSkipListMap<>();
+
+    /** The queries satisfied by values at most their literal, path < or <= literal, by Double */
+    private final NavigableMap<Object, Set<String>> upperBounds = new ConcurrentSkipListMap<>();
+
+    private final Set<String> rangeQueries = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> queries = ConcurrentHashMap.newKeySet();
+
+    PathPredicates(String[] path) {
+      this.path = path;
+    }
+
+    void add(String queryString, Predicate predicate) {
+      keysFor(predicate.operator)
+          .computeIfAbsent(predicate.key, k -> ConcurrentHashMap.newKeySet()).add(queryString);
+      if (predicate.operator != OQLLexerTokenTypes.TOK_EQ) {
+        rangeQueries.add(queryString);
+      }
+      queries.add(queryString);
+    }
+
+    void remove(String queryString, Predicate predicate) {
+      queries.remove(queryString);
+      rangeQueries.remove(queryString);
+      keysFor(predicate.operator).computeIfPresent(predicate.key, (k, keyQueries) -> {
+        keyQueries.remove(queryString);
+        return keyQueries.isEmpty() ? null : keyQueries;
+      });
+    }
+
+    private Map<Object, Set<String>> keysFor(int operator) {
+      switch (operator) {
+        case OQLLexerTokenTypes.TOK_EQ:
+          return equalTo;
+        case OQLLexerTokenTypes.TOK_GT:
+        case OQLLexerTokenTypes.TOK_GE:
+          return lowerBounds;
+        default:
+          return upperBounds;
+      }
+    }
+
+    boolean isEmpty() {
+      return queries.isEmpty();
+    }
+
+    /**
+     * Adds the queries the given value may satisfy to the candidates.
+     */
+    void collect(Object value, ExecutionContext context, Set<String> candidates) {
+      Object key;
+      try {
+        for (String attribute : path) {
+          if (value == null || value == QueryService.UNDEFINED) {
+            break;
+          }
+          value = PathUtils.evaluateAttribute(context, value, attribute);
+        }
+        key = value == null || value == QueryService.UNDEFINED ? null : keyOf(value);
+      } catch (QueryException | RuntimeException e) {
+        // the queries fail on the value as well
+        key = null;
+      }
+      if (key == null) {
+        candidates.addAll(queries);
+        return;
+      }
+      Set<String> equalQueries = equalTo.get(key);
+      if (equalQueries != null) {
+        candidates.addAll(equalQueries);
+      }
+      if (key instanceof Double) {
+        // bounds equal to the value are included since the doubles may be rounded
+        addAll(lowerBounds.headMap(key, true).values(), candidates);
+        addAll(upperBounds.tailMap(key, true).values(), candidates);
+      } else {
+        // the query engine fails comparing other types with numbers
+        candidates.addAll(rangeQueries);
+      }
+    }
+
+    private static void addAll(Iterable<Set<String>> queries, Set<String> candidates) {
+      for (Set<String> keyQueries : queries) {
+        candidates.addAll(keyQueries);
+      }
+    }
+  }
+}
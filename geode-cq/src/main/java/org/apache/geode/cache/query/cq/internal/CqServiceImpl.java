@@ -102,6 +102,20 @@ public class CqServiceImpl implements CqService {
   public static boolean EXECUTE_QUERY_DURING_INIT = Boolean.valueOf(System
       .getProperty(DistributionConfig.GEMFIRE_PREFIX + "cq.EXECUTE_QUERY_DURING_INIT", "true"));
 
+  /**
+   * System property to index the predicates of the CQ queries, so that an event is only evaluated
+   * by the CQs its values may satisfy.
+   */
+  public static boolean USE_PREDICATE_INDEX =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "cq.USE_PREDICATE_INDEX");
+
+  /**
+   * System property to read the initial results of a CQ from the results key cache of a running CQ
+   * with the same query, instead of executing the query.
+   */
+  public static boolean SHARE_INITIAL_RESULTS =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "cq.SHARE_INITIAL_RESULTS");
+
   private static final String CQ_NAME_PREFIX = "GfCq";
 
   private final InternalCache cache;
@@ -131,6 +145,9 @@ public class CqServiceImpl implements CqService {
   // With query as key and Set of CQs as values.
   private final ConcurrentHashMap matchingCqMap;
 
+  // Index of the predicates of the queries in the matchingCqMap, null if not used.
+  private final CqPredicateIndex predicateIndex;
+
   // CQ Service statistics
   private final CqServiceStatisticsImpl cqServiceStats;
   private final CqServiceVsdStats stats;
@@ -165,6 +182,7 @@ public class CqServiceImpl implements CqService {
 
     // Initialize the Map which maintains the matching cqs.
     this.matchingCqMap = new ConcurrentHashMap<String, HashSet<String>>();
+    this.predicateIndex = USE_PREDICATE_INDEX ? new CqPredicateIndex() : null;
 
     // Initialize the VSD statistics
     StatisticsFactory factory = this.cache.getDistributedSystem();
@@ -1276,6 +1294,9 @@ public class CqServiceImpl implements CqService {
 
     HashMap<String, Integer> matchedCqs = new HashMap<>();
     long executionStartTime;
+    // The CQs the values may satisfy, collected on first use.
+    CqPredicateIndex.Candidates newValueCandidates = null;
+    CqPredicateIndex.Candidates oldValueCandidates = null;
     for (int i = -1; i < profiles.length; i++) {
       CacheProfile cf;
       if (i < 0) {
@@ -1352,11 +1373,21 @@ public class CqServiceImpl implements CqService {
               synchronized (cQuery) {
                 // Apply query on new value.
                 if (!cqUnfilteredEventsSet_newValue.isEmpty()) {
-                  executionStartTime = this.stats.startCqQueryExecution();
-
-                  b_cqResults_newValue =
-                      evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_newValue});
-                  this.stats.endCqQueryExecution(executionStartTime);
+                  if (predicateIndex != null && newValueCandidates == null) {
+                    newValueCandidates = predicateIndex.candidates(
+                        cQuery.getCqBaseRegion().getFullPath(),
+                        cqUnfilteredEventsSet_newValue.iterator().next(), cache);
+                  }
+                  if (newValueCandidates != null
+                      && !newValueCandidates.mayMatch(cQuery.getQueryString())) {
+                    this.stats.incCqQueryExecutionsSkipped();
+                  } else {
+                    executionStartTime = this.stats.startCqQueryExecution();
+
+                    b_cqResults_newValue =
+                        evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_newValue});
+                    this.stats.endCqQueryExecution(executionStartTime);
+                  }
                 }
               }
 
@@ -1395,10 +1426,20 @@ public class CqServiceImpl implements CqService {
                   synchronized (cQuery) {
                     // Apply query on old value.
                     if (!cqUnfilteredEventsSet_oldValue.isEmpty()) {
-                      executionStartTime = this.stats.startCqQueryExecution();
-                      b_cqResults_oldValue =
-                          evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_oldValue});
-                      this.stats.endCqQueryExecution(executionStartTime);
+                      if (predicateIndex != null && oldValueCandidates == null) {
+                        oldValueCandidates =
+                            predicateIndex.candidates(cQuery.getCqBaseRegion().getFullPath(),
+                                cqUnfilteredEventsSet_oldValue.iterator().next(), cache);
+                      }
+                      if (oldValueCandidates != null
+                          && !oldValueCandidates.mayMatch(cQuery.getQueryString())) {
+                        this.stats.incCqQueryExecutionsSkipped();
+                      } else {
+                        executionStartTime = this.stats.startCqQueryExecution();
+                        b_cqResults_oldValue =
+                            evaluateQuery(cQuery, new Object[] {cqUnfilteredEventsSet_oldValue});
+                        this.stats.endCqQueryExecution(executionStartTime);
+                      }
                     } else {
                       if (isDebugEnabled) {
                         logger.debug(
@@ -1554,6 +1595,9 @@ public class CqServiceImpl implements CqService {
         matchingCQs = Collections.newSetFromMap(new ConcurrentHashMap());
         matchingCqMap.put(cqQuery, matchingCQs);
         this.stats.incUniqueCqQuery();
+        if (predicateIndex != null && predicateIndex.add(cq)) {
+          this.stats.incIndexedCqQuery();
+        }
       } else {
         matchingCQs = (Set) matchingCqMap.get(cqQuery);
       }
@@ -1582,11 +1626,33 @@ public class CqServiceImpl implements CqService {
         if (matchingCQs.isEmpty()) {
           matchingCqMap.remove(cqQuery);
           this.stats.decUniqueCqQuery();
+          if (predicateIndex != null && predicateIndex.remove(cqQuery)) {
+            this.stats.decIndexedCqQuery();
+          }
         }
       }
     }
   }
 
+  /**
+   * Returns a running CQ with the same query as the given one whose results key cache holds the
+   * results of the query, or null if there is none.
+   */
+  ServerCQImpl getMatchingCqWithCachedResults(ServerCQImpl cq) {
+    Set<String> matchingCqs = (Set<String>) matchingCqMap.get(cq.getQueryString());
+    if (matchingCqs == null) {
+      return null;
+    }
+    for (String matchingCqName : matchingCqs) {
+      InternalCqQuery matchingCq = getCq(matchingCqName);
+      if (matchingCq != cq && matchingCq instanceof ServerCQImpl
+          && ((ServerCQImpl) matchingCq).hasCachedResults()) {
+        return (ServerCQImpl) matchingCq;
+      }
+    }
+    return null;
+  }
+
   /**
    * Returns the matching CQ map.
    *
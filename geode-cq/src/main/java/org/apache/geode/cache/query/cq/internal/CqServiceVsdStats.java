@@ -74,6 +74,12 @@ public class CqServiceVsdStats {
   /** Unique CQs, number of different CQ queries */
   private static final String UNIQUE_CQ_QUERY = "numUniqueCqQuery";
 
+  /** Unique CQ queries in the CQ predicate index */
+  private static final String INDEXED_CQ_QUERY = "numIndexedCqQuery";
+
+  /** CQ query executions skipped using the CQ predicate index */
+  private static final String CQ_QUERY_EXECUTIONS_SKIPPED = "cqQueryExecutionsSkipped";
+
   /** Id of the CQs created statistic */
   private static final int _numCqsCreatedId;
 
@@ -104,6 +110,12 @@ public class CqServiceVsdStats {
   /** Id for unique CQs, difference in CQ queries */
   private static final int _numUniqueCqQuery;
 
+  /** Id for unique CQ queries in the CQ predicate index */
+  private static final int _numIndexedCqQueryId;
+
+  /** Id for CQ query executions skipped using the CQ predicate index */
+  private static final int _cqQueryExecutionsSkippedId;
+
   /*
    * Static initializer to create and initialize the <code>StatisticsType</code>
    */
@@ -126,6 +138,11 @@ public class CqServiceVsdStats {
             f.createIntGauge(CQ_QUERY_EXECUTION_IN_PROGRESS, "CQ Query Execution In Progress.",
                 "operations"),
             f.createIntGauge(UNIQUE_CQ_QUERY, "Number of Unique CQ Querys.", "Queries"),
+            f.createIntGauge(INDEXED_CQ_QUERY,
+                "Number of Unique CQ Querys in the CQ predicate index.", "Queries"),
+            f.createLongCounter(CQ_QUERY_EXECUTIONS_SKIPPED,
+                "Number of CQ Query Executions skipped using the CQ predicate index.",
+                "operations"),
 
         });
 
@@ -140,6 +157,8 @@ public class CqServiceVsdStats {
     _cqQueryExecutionsCompletedId = _type.nameToId(CQ_QUERY_EXECUTIONS_COMPLETED);
     _cqQueryExecutionInProgressId = _type.nameToId(CQ_QUERY_EXECUTION_IN_PROGRESS);
     _numUniqueCqQuery = _type.nameToId(UNIQUE_CQ_QUERY);
+    _numIndexedCqQueryId = _type.nameToId(INDEXED_CQ_QUERY);
+    _cqQueryExecutionsSkippedId = _type.nameToId(CQ_QUERY_EXECUTIONS_SKIPPED);
   }
 
   /** The <code>Statistics</code> instance to which most behavior is delegated */
@@ -329,6 +348,34 @@ public class CqServiceVsdStats {
     this._stats.incInt(_numUniqueCqQuery, -1);
   }
 
+  /**
+   * Increments number of unique queries in the CQ predicate index.
+   */
+  void incIndexedCqQuery() {
+    this._stats.incInt(_numIndexedCqQueryId, 1);
+  }
+
+  /**
+   * Decrements number of unique queries in the CQ predicate index.
+   */
+  void decIndexedCqQuery() {
+    this._stats.incInt(_numIndexedCqQueryId, -1);
+  }
+
+  /**
+   * Increments the number of CQ query executions skipped using the CQ predicate index.
+   */
+  void incCqQueryExecutionsSkipped() {
+    this._stats.incLong(_cqQueryExecutionsSkippedId, 1);
+  }
+
+  /**
+   * Returns the number of CQ query executions skipped using the CQ predicate index.
+   */
+  public long getCqQueryExecutionsSkipped() {
+    return this._stats.getLong(_cqQueryExecutionsSkippedId);
+  }
+
 
   /**
    * This is a test method. It silently ignores exceptions and should not be used outside of unit
@@ -17,9 +17,12 @@ package org.apache.geode.cache.query.cq.internal;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
@@ -27,7 +30,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.geode.DataSerializable;
 import org.apache.geode.DataSerializer;
 import org.apache.geode.cache.DataPolicy;
+import org.apache.geode.cache.EntryDestroyedException;
 import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.query.CqAttributes;
 import org.apache.geode.cache.query.CqAttributesMutator;
 import org.apache.geode.cache.query.CqClosedException;
@@ -37,14 +42,18 @@ import org.apache.geode.cache.query.CqResults;
 import org.apache.geode.cache.query.Query;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.RegionNotFoundException;
+import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.internal.CompiledBindArgument;
 import org.apache.geode.cache.query.internal.CompiledIteratorDef;
 import org.apache.geode.cache.query.internal.CompiledRegion;
 import org.apache.geode.cache.query.internal.CompiledSelect;
+import org.apache.geode.cache.query.internal.CqEntry;
 import org.apache.geode.cache.query.internal.CqStateImpl;
 import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.ResultsCollectionWrapper;
 import org.apache.geode.cache.query.internal.cq.CqServiceProvider;
 import org.apache.geode.cache.query.internal.cq.ServerCQ;
+import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.Token;
@@ -76,6 +85,12 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
    */
   public volatile boolean cqResultKeysInitialized = false;
 
+  /**
+   * To indicate if the CQ results key cache holds the results of the query, as opposed to only the
+   * keys of the events seen since the CQ was registered.
+   */
+  private volatile boolean cqResultKeysComplete = false;
+
   /** Boolean flag to see if the CQ is on Partitioned Region */
   volatile boolean isPR = false;
 
@@ -230,21 +245,7 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
       cqService.addToMatchingCqMap(this);
     }
 
-    // Initialize CQ results (key) cache.
-    if (CqServiceProvider.MAINTAIN_KEYS) {
-      this.cqResultKeys = new HashMap<Object, Object>();
-      // Currently the CQ Result keys are not cached for the Partitioned
-      // Regions. Supporting this with PR needs more work like forcing
-      // query execution on primary buckets only; and handling the bucket
-      // re-balancing. Once this is added remove the check with PR region.
-      // Only the events which are seen during event processing is
-      // added to the results cache (not from the CQ Results).
-      if (this.isPR) {
-        this.setCqResultsCacheInitialized();
-      } else {
-        this.destroysWhileCqResultsInProgress = new HashSet<Object>();
-      }
-    }
+    initCqResultKeys();
 
     if (p_ccn != null) {
       try {
@@ -273,6 +274,26 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
     }
   }
 
+  /**
+   * Initializes the CQ results (key) cache.
+   */
+  void initCqResultKeys() {
+    if (CqServiceProvider.MAINTAIN_KEYS) {
+      this.cqResultKeys = new HashMap<Object, Object>();
+      // Currently the CQ Result keys are not cached for the Partitioned
+      // Regions. Supporting this with PR needs more work like forcing
+      // query execution on primary buckets only; and handling the bucket
+      // re-balancing. Once this is added remove the check with PR region.
+      // Only the events which are seen during event processing is
+      // added to the results cache (not from the CQ Results).
+      if (this.isPR) {
+        this.setCqResultsCacheInitialized();
+      } else {
+        this.destroysWhileCqResultsInProgress = new HashSet<Object>();
+      }
+    }
+  }
+
   /**
    * Returns parameterized query used by the server. This method replaces Region name with $1 and if
    * type is not specified in the query, looks for type from cqattributes and appends into the
@@ -389,7 +410,86 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
   public void setCqResultsCacheInitialized() {
     if (CqServiceProvider.MAINTAIN_KEYS) {
       this.cqResultKeysInitialized = true;
+      this.cqResultKeysComplete = !this.isPR;
+    }
+  }
+
+  /**
+   * Returns true if the CQ is running and its results key cache holds the results of the query.
+   */
+  boolean hasCachedResults() {
+    return this.cqResultKeysComplete && this.cqResultKeys != null && isRunning();
+  }
+
+  /**
+   * Returns the keys in the CQ results key cache that are part of the CQ results, or null if the
+   * cache no longer holds the results of the query.
+   */
+  List<Object> getCachedResultKeys() {
+    synchronized (this.cqResultKeys) {
+      if (!this.cqResultKeysComplete) {
+        return null;
+      }
+      List<Object> keys = new ArrayList<>(this.cqResultKeys.size());
+      for (Map.Entry<Object, Object> entry : this.cqResultKeys.entrySet()) {
+        if (entry.getValue() != Token.DESTROYED && (this.destroysWhileCqResultsInProgress == null
+            || !this.destroysWhileCqResultsInProgress.contains(entry.getKey()))) {
+          keys.add(entry.getKey());
+        }
+      }
+      return keys;
+    }
+  }
+
+  /**
+   * {@inheritDoc} The values are read as an executed query reads them, PDX values being left
+   * serialized. CQs without a where clause execute the query, whose results are sent to the clients
+   * of recent versions without being deserialized.
+   */
+  @Override
+  public SelectResults getResultsOfMatchingCq() {
+    if (!CqServiceImpl.SHARE_INITIAL_RESULTS || this.isPR || this.cqResultKeys == null
+        || ((DefaultQuery) this.query).getSimpleSelect().getWhereClause() == null) {
+      return null;
+    }
+    ServerCQImpl matchingCq = cqService.getMatchingCqWithCachedResults(this);
+    if (matchingCq == null) {
+      return null;
+    }
+    List<Object> keys = matchingCq.getCachedResultKeys();
+    if (keys == null) {
+      return null;
+    }
+    List<CqEntry> results = new ArrayList<>(keys.size());
+    InternalCache cache = cqService.getInternalCache();
+    Boolean initialPdxReadSerialized = cache.getPdxReadSerializedOverride();
+    try {
+      cache.setPdxReadSerializedOverride(true);
+      for (Object key : keys) {
+        Region.Entry entry = this.cqBaseRegion.getEntry(key);
+        if (entry == null || entry.isDestroyed()) {
+          continue;
+        }
+        try {
+          results.add(new CqEntry(key, entry.getValue()));
+        } catch (EntryDestroyedException ignore) {
+          // destroyed since the key was cached
+        }
+      }
+    } finally {
+      cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
+    }
+    synchronized (this.cqResultKeys) {
+      if (this.destroysWhileCqResultsInProgress != null) {
+        // the events of these destroys have already been seen by this CQ
+        results.removeIf(result -> this.destroysWhileCqResultsInProgress.contains(result.getKey()));
+      }
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug("Read {} results of CQ {} from the results key cache of CQ {}", results.size(),
+          this.serverCqName, matchingCq.getServerCqName());
     }
+    return new ResultsCollectionWrapper(new ObjectTypeImpl(Object.class), results);
   }
 
   /**
@@ -458,6 +558,7 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
       // Clean-up the CQ Results Cache.
       if (this.cqResultKeys != null) {
         synchronized (this.cqResultKeys) {
+          this.cqResultKeysComplete = false;
           this.cqResultKeys.clear();
         }
       }
@@ -531,6 +632,8 @@ public class ServerCQImpl extends CqQueryImpl implements DataSerializable, Serve
 
       // Change state and stats on the client side
       this.cqState.setState(CqStateImpl.STOPPED);
+      // the results key cache may not be maintained while stopped
+      this.cqResultKeysComplete = false;
       this.cqService.stats().incCqsStopped();
       this.cqService.stats().decCqsActive();
       if (logger.isDebugEnabled()) {
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.cq.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+
+public class CqPredicateIndexTest {
+
+  private static final String REGION_PATH = "/quotes";
+
+  private InternalCache cache;
+
+  private LocalRegion region;
+
+  private CqPredicateIndex index;
+
+  @Before
+  public void setUp() {
+    cache = mock(InternalCache.class);
+    when(cache.isClient()).thenReturn(true);
+    region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn(REGION_PATH);
+    index = new CqPredicateIndex();
+  }
+
+  @Test
+  public void equalityCandidatesAreTheQueriesOfTheValue() {
+    String symbolA = "SELECT * FROM /quotes q WHERE q.symbol = 'A'";
+    String symbolB = "SELECT * FROM /quotes WHERE symbol = 'B' AND price > 0";
+    String like = "SELECT * FROM /quotes q WHERE q.symbol LIKE 'A%'";
+    assertThat(index.add(cq(symbolA))).isTrue();
+    assertThat(index.add(cq(symbolB))).isTrue();
+    assertThat(index.add(cq(like))).isFalse();
+
+    CqPredicateIndex.Candidates candidates =
+        index.candidates(REGION_PATH, new Quote("A", 5), cache);
+
+    assertThat(candidates.mayMatch(symbolA)).isTrue();
+    assertThat(candidates.mayMatch(symbolB)).isFalse();
+    assertThat(candidates.mayMatch(like)).isTrue();
+  }
+
+  @Test
+  public void rangeCandidatesIncludeTheirBounds() {
+    String above = "SELECT * FROM /quotes q WHERE 10 < q.price";
+    String atMost = "SELECT * FROM /quotes q WHERE q.price <= 3";
+    index.add(cq(above));
+    index.add(cq(atMost));
+
+    assertThat(index.candidates(REGION_PATH, new Quote("A", 10.0d), cache).mayMatch(above))
+        .isTrue();
+    assertThat(index.candidates(REGION_PATH, new Quote("A", 9L), cache).mayMatch(above))
+        .isFalse();
+    assertThat(index.candidates(REGION_PATH, new Quote("A", 9L), cache).mayMatch(atMost))
+        .isFalse();
+    assertThat(index.candidates(REGION_PATH, new Quote("A", 3), cache).mayMatch(atMost))
+        .isTrue();
+  }
+
+  @Test
+  public void queriesAreCandidatesWhenTheValueCanNotBeIndexed() {
+    String symbolA = "SELECT * FROM /quotes q WHERE q.symbol = 'A'";
+    String above = "SELECT * FROM /quotes q WHERE q.price > 10";
+    index.add(cq(symbolA));
+    index.add(cq(above));
+
+    CqPredicateIndex.Candidates candidates =
+        index.candidates(REGION_PATH, new Quote(null, "high"), cache);
+
+    assertThat(candidates.mayMatch(symbolA)).isTrue();
+    assertThat(candidates.mayMatch(above)).isTrue();
+  }
+
+  @Test
+  public void removedAndLaterIndexedQueriesAreCandidates() {
+    String symbolA = "SELECT * FROM /quotes q WHERE q.symbol = 'A'";
+    String symbolB = "SELECT * FROM /quotes q WHERE q.symbol = 'B'";
+    index.add(cq(symbolA));
+    CqPredicateIndex.Candidates candidates =
+        index.candidates(REGION_PATH, new Quote("C", 5), cache);
+    index.add(cq(symbolB));
+
+    assertThat(candidates.mayMatch(symbolA)).isFalse();
+    assertThat(candidates.mayMatch(symbolB)).isTrue();
+    assertThat(index.remove(symbolA)).isTrue();
+    assertThat(candidates.mayMatch(symbolA)).isTrue();
+  }
+
+  private CqQueryImpl cq(String queryString) {
+    CqQueryImpl cq = mock(CqQueryImpl.class);
+    when(cq.getQueryString()).thenReturn(queryString);
+    when(cq.getQuery()).thenReturn(new DefaultQuery(queryString, cache, false));
+    when(cq.getCqBaseRegion()).thenReturn(region);
+    return cq;
+  }
+
+  public static class Quote {
+
+    private final String symbol;
+
+    private final Object price;
+
+    Quote(String symbol, Object price) {
+      this.symbol = symbol;
+      this.price = price;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    public Object getPrice() {
+      return price;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.cq.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+
+public class ServerCQImplTest {
+
+  private static final String QUERY = "SELECT * FROM /region r WHERE r.ID > 0";
+
+  private boolean shareInitialResults;
+
+  private InternalCache cache;
+
+  private CqServiceImpl cqService;
+
+  private LocalRegion region;
+
+  private ServerCQImpl matchingCq;
+
+  @Before
+  public void setUp() {
+    shareInitialResults = CqServiceImpl.SHARE_INITIAL_RESULTS;
+    CqServiceImpl.SHARE_INITIAL_RESULTS = true;
+    cache = mock(InternalCache.class);
+    when(cache.getPdxReadSerializedOverride()).thenReturn(false);
+    cqService = mock(CqServiceImpl.class);
+    when(cqService.getCache()).thenReturn(cache);
+    when(cqService.getInternalCache()).thenReturn(cache);
+    region = mock(LocalRegion.class);
+    matchingCq = mock(ServerCQImpl.class);
+    when(cqService.getMatchingCqWithCachedResults(any())).thenReturn(matchingCq);
+  }
+
+  @After
+  public void tearDown() {
+    CqServiceImpl.SHARE_INITIAL_RESULTS = shareInitialResults;
+  }
+
+  @Test
+  public void readsResultsFromCachedResultKeysWithPdxValuesLeftSerialized() {
+    ServerCQImpl cq = cq(QUERY, false);
+    when(matchingCq.getCachedResultKeys()).thenReturn(Arrays.asList("1", "2"));
+    givenEntry("1", "one");
+    givenEntry("2", "two");
+
+    SelectResults results = cq.getResultsOfMatchingCq();
+
+    assertThat(results.asList()).extracting("key", "value")
+        .containsExactlyInAnyOrder(tuple("1", "one"), tuple("2", "two"));
+    InOrder inOrder = inOrder(cache, region);
+    inOrder.verify(cache).setPdxReadSerializedOverride(true);
+    inOrder.verify(region).getEntry("2");
+    inOrder.verify(cache).setPdxReadSerializedOverride(false);
+  }
+
+  @Test
+  public void excludesKeysDestroyedWhileResultsAreRead() {
+    ServerCQImpl cq = cq(QUERY, false);
+    when(matchingCq.getCachedResultKeys()).thenReturn(Arrays.asList("1", "2"));
+    givenEntry("1", "one");
+    Region.Entry entry = givenEntry("2", "two");
+    doAnswer(invocation -> {
+      // the event of a destroy of the first key is processed
+      cq.markAsDestroyedInCqResultKeys("1");
+      return "two";
+    }).when(entry).getValue();
+
+    SelectResults results = cq.getResultsOfMatchingCq();
+
+    assertThat(results.asList()).containsExactly(new CqEntry("2", "two"));
+  }
+
+  @Test
+  public void skipsKeysWhoseEntriesAreGone() {
+    ServerCQImpl cq = cq(QUERY, false);
+    when(matchingCq.getCachedResultKeys()).thenReturn(Arrays.asList("1", "2"));
+    givenEntry("2", "two");
+
+    SelectResults results = cq.getResultsOfMatchingCq();
+
+    assertThat(results.asList()).containsExactly(new CqEntry("2", "two"));
+  }
+
+  @Test
+  public void executesQueryWithoutMatchingCq() {
+    when(cqService.getMatchingCqWithCachedResults(any())).thenReturn(null);
+
+    assertThat(cq(QUERY, false).getResultsOfMatchingCq()).isNull();
+  }
+
+  @Test
+  public void executesQueryOnPartitionedRegion() {
+    assertThat(cq(QUERY, true).getResultsOfMatchingCq()).isNull();
+    verify(cqService, never()).getMatchingCqWithCachedResults(any());
+  }
+
+  @Test
+  public void executesQueryWhoseResultsAreKeptSerialized() {
+    assertThat(cq("SELECT * FROM /region", false).getResultsOfMatchingCq()).isNull();
+    verify(cqService, never()).getMatchingCqWithCachedResults(any());
+  }
+
+  private ServerCQImpl cq(String queryString, boolean isPR) {
+    ServerCQImpl cq = new ServerCQImpl(cqService, "cq", queryString, false, "cq");
+    cq.query = new DefaultQuery(queryString, cache, false);
+    cq.cqBaseRegion = region;
+    cq.isPR = isPR;
+    cq.initCqResultKeys();
+    return cq;
+  }
+
+  private Region.Entry givenEntry(Object key, Object value) {
+    Region.Entry entry = mock(Region.Entry.class);
+    when(entry.getValue()).thenReturn(value);
+    when(region.getEntry(key)).thenReturn(entry);
+    return entry;
+  }
+}